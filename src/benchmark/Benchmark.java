@@ -0,0 +1,48 @@
+package benchmark;
+
+/**
+ * One operation timed by the BenchmarkRunner, such as one Level update.
+ * <p>
+ * The runner calls setUp, untimed, before every sample, then calls run
+ * repeatedly while timing. Benchmarks whose scene changes as it runs (objects
+ * leaving a level, particles dying) should limit how many operations a sample
+ * may run, so every sample measures the same kind of scene.
+ *
+ */
+public abstract class Benchmark {
+
+    private final String myName;
+
+    /**
+     * @param name name results are reported and stored under; must not
+     *        contain spaces
+     */
+    protected Benchmark (String name) {
+        myName = name;
+    }
+
+    public String getName () {
+        return myName;
+    }
+
+    /**
+     * Builds or resets the scene. Not timed.
+     */
+    public void setUp () throws Exception {
+    }
+
+    /**
+     * Runs the operation once.
+     *
+     * @return a value that depends on the work done, so the work cannot be
+     *         optimized away
+     */
+    public abstract long run () throws Exception;
+
+    /**
+     * @return the most operations one sample may run after setUp
+     */
+    public int getMaxOperationsPerSample () {
+        return Integer.MAX_VALUE;
+    }
+}
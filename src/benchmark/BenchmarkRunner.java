@@ -0,0 +1,161 @@
+package benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+
+/**
+ * Times Benchmarks and compares the results against a baseline file.
+ * <p>
+ * Each benchmark is warmed up for WARMUP_NANOS, which also decides how many
+ * operations fit in one sample of about SAMPLE_NANOS. It is then timed for
+ * SAMPLES samples, each after a fresh setUp, and the median time per
+ * operation is reported. The median is compared against the baseline, which
+ * stores nanoseconds per operation under each benchmark's name, and results
+ * more than REGRESSION_THRESHOLD times slower are flagged.
+ *
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Results slower than the baseline by more than this factor are flagged.
+     */
+    public static final double REGRESSION_THRESHOLD = 1.25;
+
+    private static final long WARMUP_NANOS = 1000000000L;
+    private static final long SAMPLE_NANOS = 100000000L;
+    private static final int SAMPLES = 10;
+
+    private final List<Benchmark> myBenchmarks = new ArrayList<Benchmark>();
+    private final Properties myResults = new Properties();
+    private long mySink;
+
+    public void add (Benchmark benchmark) {
+        myBenchmarks.add(benchmark);
+    }
+
+    /**
+     * Runs every benchmark whose name contains the filter and prints one line
+     * per benchmark.
+     *
+     * @param filter part of a name, or null to run every benchmark
+     * @param baseline results to compare against; may be empty
+     * @return the number of results slower than the baseline by more than
+     *         REGRESSION_THRESHOLD
+     */
+    public int runAll (String filter, Properties baseline) throws Exception {
+        int regressions = 0;
+        for (Benchmark b : myBenchmarks) {
+            if (filter != null && !b.getName().contains(filter)) {
+                continue;
+            }
+            double nanos = measure(b);
+            myResults.setProperty(b.getName(), String.format(Locale.US, "%.1f", nanos));
+            String comparison = "";
+            String stored = baseline.getProperty(b.getName());
+            if (stored != null) {
+                double ratio = nanos / Double.parseDouble(stored);
+                comparison = String.format(Locale.US, "%6.2fx baseline", ratio);
+                if (ratio > REGRESSION_THRESHOLD) {
+                    comparison += "  REGRESSION";
+                    regressions++;
+                }
+            }
+            System.out.println(String.format(Locale.US, "%-36s %14.1f ns/op  %s", b.getName(),
+                                             nanos, comparison));
+        }
+        if (mySink == 42) {
+            System.out.println();
+        }
+        return regressions;
+    }
+
+    /**
+     * @return the median nanoseconds per operation
+     */
+    private double measure (Benchmark b) throws Exception {
+        b.setUp();
+        int sinceSetUp = 0;
+        long operations = 0;
+        long timed = 0;
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            if (sinceSetUp == b.getMaxOperationsPerSample()) {
+                b.setUp();
+                sinceSetUp = 0;
+            }
+            long start = System.nanoTime();
+            mySink += b.run();
+            timed += System.nanoTime() - start;
+            sinceSetUp++;
+            operations++;
+        }
+        int perSample = (int) Math.max(1, Math.min(b.getMaxOperationsPerSample(),
+                                                   SAMPLE_NANOS * operations / Math.max(1, timed)));
+
+        double[] samples = new double[SAMPLES];
+        for (int s = 0; s < SAMPLES; s++) {
+            b.setUp();
+            long start = System.nanoTime();
+            for (int i = 0; i < perSample; i++) {
+                mySink += b.run();
+            }
+            samples[s] = (double) (System.nanoTime() - start) / perSample;
+        }
+        Arrays.sort(samples);
+        return (samples[(SAMPLES - 1) / 2] + samples[SAMPLES / 2]) / 2;
+    }
+
+    /**
+     * @return the results of the last run, in nanoseconds per operation
+     */
+    public Properties getResults () {
+        return myResults;
+    }
+
+    /**
+     * @return the results stored in the file, or no results if it does not
+     *         exist
+     */
+    public static Properties loadResults (File file) throws IOException {
+        Properties results = new Properties();
+        if (file.isFile()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                results.load(in);
+            }
+            finally {
+                in.close();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Writes the results in the format loadResults reads, sorted by name so
+     * stored baselines diff cleanly.
+     */
+    public static void saveResults (Properties results, File file, String comment)
+                                                                              throws IOException {
+        PrintWriter out = new PrintWriter(new FileWriter(file));
+        try {
+            out.println("# " + comment);
+            for (String name : new TreeSet<String>(results.stringPropertyNames())) {
+                out.println(name + "=" + results.getProperty(name));
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,670 @@
+package benchmark;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Properties;
+import java.util.Random;
+import javax.swing.JPanel;
+import org.w3c.dom.Document;
+import util.datatable.DataTable;
+import util.input.core.KeyboardController;
+import util.mathvector.MathVector2D;
+import util.mathvector.MutableVector2D;
+import util.mathvector.VectorCalculator;
+import util.particleEngine.ParticleSystem;
+import util.xml.XmlUtilities;
+import vooga.platformer.collision.BasicCollisionChecker;
+import vooga.platformer.collision.CollisionChecker;
+import vooga.platformer.collision.SpatialHashCollisionChecker;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.Level;
+import vooga.platformer.levelfileio.BinaryLevelReader;
+import vooga.platformer.levelfileio.LevelFileConverter;
+import vooga.platformer.levelfileio.LevelFileReader;
+import vooga.platformer.levelfileio.LevelReader;
+import vooga.turnbased.gamecore.gamemodes.MapMode;
+import vooga.turnbased.gamecore.graphutility.FlowField;
+import vooga.turnbased.gamecore.graphutility.MapModePathFinder;
+import vooga.turnbased.gamecore.graphutility.ObstacleGrid;
+import vooga.turnbased.gamecore.graphutility.PathPlanningService;
+import vooga.turnbased.gamecore.graphutility.PathRequest;
+import vooga.turnbased.gameobject.mapobject.MapMovingObject;
+
+
+/**
+ * Benchmarks of the engine's hot paths, on scenes from SyntheticScenes. Run
+ * as an application from the project directory:
+ * <ul>
+ * <li>with no arguments, every benchmark runs and is compared against
+ * <code>src/benchmark/baseline.properties</code>;</li>
+ * <li>with a name, or part of one, only the matching benchmarks run;</li>
+ * <li>with <code>--write-baseline</code> as the first argument, the results
+ * replace the stored baseline.</li>
+ * </ul>
+ * The exit code is the number of results slower than the baseline by more
+ * than BenchmarkRunner.REGRESSION_THRESHOLD.
+ *
+ */
+public final class EngineBenchmarks {
+
+    private static final File BASELINE = new File("src/benchmark/baseline.properties");
+    private static final String WRITE_BASELINE = "--write-baseline";
+    private static final long SEED = 308;
+    private static final File LEVEL_XML = new File("src/vooga/platformer/data/level1.xml");
+    private static final int LEVEL_SIZE = 4000;
+    private static final int COLLISION_LOOKUPS = 10000;
+    private static final Dimension SCREEN = new Dimension(800, 600);
+    private static final Dimension MAP_SIZE = new Dimension(64, 64);
+    private static final Dimension LARGE_MAP_SIZE = new Dimension(512, 512);
+    private static final int[] DRAWN_PARTICLES = { 10000, 50000, 100000 };
+    private static final int VECTORS = 10000;
+    private static final double TURN_DEGREES = 1.5;
+
+    private EngineBenchmarks () {
+        /*
+         * Empty constructor.
+         */
+    }
+
+    public static void main (String[] args) throws Exception {
+        boolean writeBaseline = args.length > 0 && WRITE_BASELINE.equals(args[0]);
+        String filter = null;
+        if (args.length > (writeBaseline ? 1 : 0)) {
+            filter = args[args.length - 1];
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner();
+        addPlatformerBenchmarks(runner);
+        addLevelFileBenchmarks(runner);
+        addParticleBenchmarks(runner);
+        addTurnBasedBenchmarks(runner);
+        addUtilityBenchmarks(runner);
+        addVectorBenchmarks(runner);
+
+        Properties baseline = BenchmarkRunner.loadResults(BASELINE);
+        int regressions = runner.runAll(filter, writeBaseline ? new Properties() : baseline);
+        if (writeBaseline) {
+            baseline.putAll(runner.getResults());
+            BenchmarkRunner.saveResults(baseline, BASELINE,
+                                        "nanoseconds per operation, from EngineBenchmarks");
+        }
+        System.exit(regressions);
+    }
+
+    private static void addPlatformerBenchmarks (BenchmarkRunner runner) {
+        runner.add(new Benchmark("BasicCollisionChecker.checkCollisions") {
+            private Level myLevel;
+            private BasicCollisionChecker myChecker;
+
+            @Override
+            public void setUp () throws Exception {
+                myChecker = new BasicCollisionChecker(SyntheticScenes.COLLISION_EVENTS);
+                myLevel = SyntheticScenes.makePlatformerLevel(1000, 500, myChecker, SEED);
+            }
+
+            @Override
+            public long run () {
+                myChecker.checkCollisions(myLevel);
+                return myLevel.getObjectList().size();
+            }
+
+            @Override
+            public int getMaxOperationsPerSample () {
+                return 200;
+            }
+        });
+        runner.add(new Benchmark("CollisionChecker.getCollisionEvent") {
+            private CollisionChecker myChecker;
+            private GameObject[][] myPairs;
+
+            @Override
+            public void setUp () throws Exception {
+                if (myChecker == null) {
+                    myChecker = new BasicCollisionChecker(SyntheticScenes.COLLISION_EVENTS);
+                    myPairs = SyntheticScenes.makeCollisionPairs(
+                            SyntheticScenes.makeCollisionObjects(), COLLISION_LOOKUPS, SEED);
+                }
+            }
+
+            @Override
+            public long run () {
+                long hits = 0;
+                for (int i = 0; i < COLLISION_LOOKUPS; i++) {
+                    if (myChecker.getCollisionEvent(myPairs[0][i], myPairs[1][i]) != null) {
+                        hits++;
+                    }
+                }
+                return hits;
+            }
+        });
+        // the lookup the dispatch table replaced, to compare getCollisionEvent with
+        runner.add(new Benchmark("CollisionChecker.getCollisionEvent.stringMaps") {
+            private SyntheticScenes.StringMapCollisionLookup myLookup;
+            private GameObject[][] myPairs;
+
+            @Override
+            public void setUp () throws Exception {
+                if (myLookup == null) {
+                    GameObject[] objects = SyntheticScenes.makeCollisionObjects();
+                    myLookup = new SyntheticScenes.StringMapCollisionLookup(
+                            new BasicCollisionChecker(SyntheticScenes.COLLISION_EVENTS), objects);
+                    myPairs = SyntheticScenes.makeCollisionPairs(objects, COLLISION_LOOKUPS, SEED);
+                }
+            }
+
+            @Override
+            public long run () {
+                long hits = 0;
+                for (int i = 0; i < COLLISION_LOOKUPS; i++) {
+                    if (myLookup.getCollisionEvent(myPairs[0][i], myPairs[1][i]) != null) {
+                        hits++;
+                    }
+                }
+                return hits;
+            }
+        });
+        runner.add(new Benchmark("Level.update") {
+            private Level myLevel;
+
+            @Override
+            public void setUp () throws Exception {
+                myLevel = makeLevel();
+            }
+
+            @Override
+            public long run () {
+                myLevel.update(16);
+                return myLevel.getObjectList().size();
+            }
+
+            @Override
+            public int getMaxOperationsPerSample () {
+                return 100;
+            }
+        });
+        runner.add(new Benchmark("Level.paint") {
+            private Level myLevel;
+            private Graphics2D myPen;
+
+            @Override
+            public void setUp () throws Exception {
+                myLevel = makeLevel();
+                myLevel.update(16);
+                BufferedImage screen = new BufferedImage(SCREEN.width, SCREEN.height,
+                                                         BufferedImage.TYPE_INT_ARGB);
+                myPen = screen.createGraphics();
+            }
+
+            @Override
+            public long run () {
+                myLevel.paint(myPen);
+                return 1;
+            }
+        });
+    }
+
+    /**
+     * Loading a level with LevelFileReader, from its XML and serialized data
+     * files, and with BinaryLevelReader, from the same level converted to a
+     * binary level file.
+     */
+    private static void addLevelFileBenchmarks (BenchmarkRunner runner) {
+        runner.add(new Benchmark("LevelFileReader.load") {
+            @Override
+            public long run () {
+                return countContents(new LevelFileReader(LEVEL_XML));
+            }
+        });
+        runner.add(new Benchmark("BinaryLevelReader.load") {
+            private File myFile;
+
+            @Override
+            public void setUp () throws Exception {
+                if (myFile == null) {
+                    myFile = File.createTempFile("level", ".lvl");
+                    myFile.deleteOnExit();
+                    LevelFileConverter.convert(LEVEL_XML, myFile);
+                }
+            }
+
+            @Override
+            public long run () {
+                return countContents(new BinaryLevelReader(myFile));
+            }
+        });
+    }
+
+    private static long countContents (LevelReader reader) {
+        return reader.getGameObjects().size() + reader.getConditions().size()
+               + reader.getLevelPlugins().size();
+    }
+
+    private static Level makeLevel () throws Exception {
+        return SyntheticScenes.makePlatformerLevel(
+                LEVEL_SIZE, 3000,
+                new SpatialHashCollisionChecker(SyntheticScenes.COLLISION_EVENTS), SEED);
+    }
+
+    private static void addParticleBenchmarks (BenchmarkRunner runner) {
+        runner.add(new Benchmark("ParticleEngine.update") {
+            private ParticleSystem mySystem;
+
+            @Override
+            public void setUp () {
+                mySystem = SyntheticScenes.makeParticleSystem(20000, SCREEN);
+            }
+
+            @Override
+            public long run () {
+                mySystem.update();
+                return mySystem.spriteCount();
+            }
+        });
+        for (int particles : DRAWN_PARTICLES) {
+            addDrawBenchmarks(runner, particles);
+        }
+    }
+
+    /**
+     * Drawing a particle system with ParticleEngine, and drawing as many
+     * particles the way it did before TintAtlas, with a RescaleOp each, so
+     * the two can be compared at each size.
+     */
+    private static void addDrawBenchmarks (BenchmarkRunner runner, final int particles) {
+        String size = "." + particles / 1000 + "k";
+        runner.add(new Benchmark("ParticleEngine.draw" + size) {
+            private ParticleSystem mySystem;
+            private Graphics2D myPen;
+
+            @Override
+            public void setUp () {
+                mySystem = SyntheticScenes.makeParticleSystem(particles, SCREEN);
+                for (int i = 0; i < 20; i++) {
+                    mySystem.update();
+                }
+                myPen = makeScreen();
+            }
+
+            @Override
+            public long run () {
+                mySystem.draw(myPen);
+                return mySystem.spriteCount();
+            }
+        });
+        runner.add(new Benchmark("ParticleEngine.draw.rescaleOp" + size) {
+            private SyntheticScenes.FilteredParticles myParticles;
+            private Graphics2D myPen;
+
+            @Override
+            public void setUp () {
+                if (myParticles == null) {
+                    myParticles = SyntheticScenes.makeFilteredParticles(particles, SCREEN, SEED);
+                }
+                myPen = makeScreen();
+            }
+
+            @Override
+            public long run () {
+                myParticles.draw(myPen);
+                return myParticles.size();
+            }
+        });
+    }
+
+    private static Graphics2D makeScreen () {
+        BufferedImage screen = new BufferedImage(SCREEN.width, SCREEN.height,
+                                                 BufferedImage.TYPE_INT_ARGB);
+        return screen.createGraphics();
+    }
+
+    private static void addTurnBasedBenchmarks (BenchmarkRunner runner) {
+        runner.add(new Benchmark("MapMode.updateMapObjects") {
+            private SyntheticScenes.DetachedMapMode myMap;
+
+            @Override
+            public void setUp () {
+                myMap = SyntheticScenes.makeMapMode(MAP_SIZE, 400, 0.2, SEED);
+            }
+
+            @Override
+            public long run () {
+                myMap.updateMapObjects();
+                return myMap.getCamera().x;
+            }
+        });
+        runner.add(new Benchmark("MapMode.updateMapObjects.large") {
+            private SyntheticScenes.DetachedMapMode myMap;
+
+            @Override
+            public void setUp () {
+                myMap = SyntheticScenes.makeMapMode(LARGE_MAP_SIZE, 20000, 0.2, SEED);
+            }
+
+            @Override
+            public long run () {
+                myMap.updateMapObjects();
+                return myMap.getCamera().x;
+            }
+        });
+        runner.add(new Benchmark("PathFinder.executeSearch") {
+            private UnmarkedPathFinder myPathFinder;
+            private MapMode myMap;
+            private Point myTarget;
+
+            @Override
+            public void setUp () {
+                myMap = SyntheticScenes.makeMapMode(MAP_SIZE, 400, 0.2, SEED);
+                myPathFinder = new UnmarkedPathFinder(myMap, myMap.getPlayer());
+                myTarget = new Point(MAP_SIZE.width - 1, MAP_SIZE.height - 1);
+            }
+
+            @Override
+            public long run () {
+                myPathFinder.addTask(myMap.getPlayer(), myTarget, MAP_SIZE);
+                myPathFinder.executeSearch();
+                return myPathFinder.getPathLength();
+            }
+        });
+        runner.add(new Benchmark("PathFinder.executeSearch.large") {
+            private UnmarkedPathFinder myPathFinder;
+            private MapMode myMap;
+            private Point myTarget;
+
+            @Override
+            public void setUp () {
+                myMap = SyntheticScenes.makeMapMode(LARGE_MAP_SIZE, 0, 0.2, SEED);
+                myPathFinder = new UnmarkedPathFinder(myMap, myMap.getPlayer());
+                myTarget = new Point(LARGE_MAP_SIZE.width - 1, LARGE_MAP_SIZE.height / 2 + 8);
+            }
+
+            @Override
+            public long run () {
+                myPathFinder.addTask(myMap.getPlayer(), myTarget, LARGE_MAP_SIZE);
+                myPathFinder.executeSearch();
+                return myPathFinder.getPathLength();
+            }
+        });
+        runner.add(new Benchmark("PathPlanningService.plan.large") {
+            private static final int AGENTS = 50;
+            private PathPlanningService myPlanner;
+            private ObstacleGrid myObstacles;
+            private Point[] myStarts;
+            private PathRequest[] myRequests;
+            private Point myTarget;
+
+            @Override
+            public void setUp () {
+                MapMode map = SyntheticScenes.makeMapMode(LARGE_MAP_SIZE, 0, 0.2, SEED);
+                myObstacles = map.getObstacleGrid();
+                myPlanner = map.getPathPlanner();
+                myTarget = map.getPlayer().getLocation();
+                Random random = new Random(SEED);
+                myStarts = new Point[AGENTS];
+                myRequests = new PathRequest[AGENTS];
+                for (int i = 0; i < AGENTS; i++) {
+                    Point p;
+                    do {
+                        p = new Point(random.nextInt(LARGE_MAP_SIZE.width),
+                                      random.nextInt(LARGE_MAP_SIZE.height));
+                    } while (myObstacles.isBlocked(p.x, p.y));
+                    myStarts[i] = p;
+                }
+            }
+
+            @Override
+            public long run () {
+                for (int i = 0; i < AGENTS; i++) {
+                    myRequests[i] = myPlanner.request(myStarts[i], myTarget, null);
+                }
+                myPlanner.submit(myObstacles);
+                myPlanner.deliver();
+                long steps = 0;
+                for (PathRequest request : myRequests) {
+                    steps += request.getPath().size();
+                }
+                return steps;
+            }
+        });
+        runner.add(new Benchmark("FlowField.chase.large") {
+            private static final int CHASERS = 200;
+            private FlowField myField;
+            private Point[] myChasers;
+            private Point[] myTargets;
+            private int myNextTarget;
+
+            @Override
+            public void setUp () {
+                MapMode map = SyntheticScenes.makeMapMode(LARGE_MAP_SIZE, 0, 0.2, SEED);
+                ObstacleGrid obstacles = map.getObstacleGrid();
+                myField = map.getFlowField();
+                Point player = map.getPlayer().getLocation();
+                // the player steps back and forth between two free tiles
+                myTargets = new Point[] { player, player };
+                for (Point step : new Point[] { MapMode.UP, MapMode.RIGHT, MapMode.DOWN,
+                                                MapMode.LEFT }) {
+                    Point p = new Point(player.x + step.x, player.y + step.y);
+                    if (obstacles.contains(p.x, p.y) && !obstacles.isBlocked(p.x, p.y)) {
+                        myTargets[1] = p;
+                    }
+                }
+                Random random = new Random(SEED);
+                int radius = MapMode.FLOW_FIELD_RADIUS;
+                myChasers = new Point[CHASERS];
+                for (int i = 0; i < CHASERS; i++) {
+                    myChasers[i] = new Point(player.x + random.nextInt(2 * radius) - radius,
+                                             player.y + random.nextInt(2 * radius) - radius);
+                }
+            }
+
+            @Override
+            public long run () {
+                myNextTarget = 1 - myNextTarget;
+                myField.setTarget(myTargets[myNextTarget]);
+                long steps = 0;
+                for (Point chaser : myChasers) {
+                    Point next = myField.getNextStep(chaser);
+                    if (next != null) {
+                        steps += next.x;
+                    }
+                }
+                return steps;
+            }
+        });
+    }
+
+    private static void addUtilityBenchmarks (BenchmarkRunner runner) {
+        runner.add(new Benchmark("DataTable.find") {
+            private static final int ROWS = 200;
+            private DataTable myTable;
+            private int myNextKey;
+
+            @Override
+            public void setUp () throws Exception {
+                myTable = SyntheticScenes.makeDataTable(ROWS);
+            }
+
+            @Override
+            public long run () {
+                myNextKey = (myNextKey + 37) % ROWS;
+                return myTable.find("KeyCode", myNextKey) == null ? 0 : 1;
+            }
+        });
+        runner.add(new Benchmark("XmlUtilities.makeDocument") {
+            private File myFile;
+
+            @Override
+            public void setUp () throws Exception {
+                if (myFile == null) {
+                    myFile = SyntheticScenes.makeXmlFile(500, SEED);
+                }
+            }
+
+            @Override
+            public long run () {
+                Document doc = XmlUtilities.makeDocument(myFile);
+                return doc.getDocumentElement().getChildNodes().getLength();
+            }
+        });
+        runner.add(new Benchmark("Controller.performReflections") {
+            private static final int BINDINGS = 100;
+            private KeyboardController myController;
+            private KeyEvent[] myEvents;
+            private ActionCounter myCounter;
+            private int myNextEvent;
+
+            @Override
+            public void setUp () throws Exception {
+                JPanel panel = new JPanel();
+                myController = new KeyboardController(panel);
+                myCounter = new ActionCounter();
+                myController.subscribe(new KeyAdapter() {
+                });
+                myEvents = new KeyEvent[BINDINGS];
+                for (int i = 0; i < BINDINGS; i++) {
+                    myController.setControl(i, KeyboardController.PRESSED, myCounter, "act");
+                    myEvents[i] = new KeyEvent(panel, KeyEvent.KEY_PRESSED, 0, 0, i,
+                                               KeyEvent.CHAR_UNDEFINED);
+                }
+            }
+
+            @Override
+            public long run () {
+                myNextEvent = (myNextEvent + 37) % BINDINGS;
+                myController.keyPressed(myEvents[myNextEvent]);
+                return myCounter.getCount();
+            }
+        });
+    }
+
+    /**
+     * Three ways of moving VECTORS points by velocities that turn a little
+     * every step: MathVector2D's copying methods, MutableVector2D in place,
+     * and VectorCalculator's batch methods over arrays. One operation turns
+     * every velocity by TURN_DEGREES, then adds it to its position.
+     */
+    private static void addVectorBenchmarks (BenchmarkRunner runner) {
+        runner.add(new Benchmark("MathVector2D.step") {
+            private MathVector2D[] myPositions;
+            private MathVector2D[] myVelocities;
+
+            @Override
+            public void setUp () {
+                Random random = new Random(SEED);
+                myPositions = new MathVector2D[VECTORS];
+                myVelocities = new MathVector2D[VECTORS];
+                for (int i = 0; i < VECTORS; i++) {
+                    myPositions[i] = new MathVector2D(random.nextDouble(), random.nextDouble());
+                    myVelocities[i] = new MathVector2D(random.nextDouble(), random.nextDouble());
+                }
+            }
+
+            @Override
+            public long run () {
+                for (int i = 0; i < VECTORS; i++) {
+                    myVelocities[i] = myVelocities[i].getRotatedCopy(TURN_DEGREES);
+                    myPositions[i] =
+                            myPositions[i].getVectorSumCopy(myVelocities[i]).getMathVector2D();
+                }
+                return Double.doubleToLongBits(myPositions[0].getX());
+            }
+        });
+        runner.add(new Benchmark("MutableVector2D.step") {
+            private final double myCos = Math.cos(Math.toRadians(TURN_DEGREES));
+            private final double mySin = Math.sin(Math.toRadians(TURN_DEGREES));
+            private MutableVector2D[] myPositions;
+            private MutableVector2D[] myVelocities;
+
+            @Override
+            public void setUp () {
+                Random random = new Random(SEED);
+                myPositions = new MutableVector2D[VECTORS];
+                myVelocities = new MutableVector2D[VECTORS];
+                for (int i = 0; i < VECTORS; i++) {
+                    myPositions[i] = new MutableVector2D(random.nextDouble(), random.nextDouble());
+                    myVelocities[i] =
+                            new MutableVector2D(random.nextDouble(), random.nextDouble());
+                }
+            }
+
+            @Override
+            public long run () {
+                for (int i = 0; i < VECTORS; i++) {
+                    myPositions[i].add(myVelocities[i].rotate(myCos, mySin));
+                }
+                return Double.doubleToLongBits(myPositions[0].getX());
+            }
+        });
+        runner.add(new Benchmark("VectorCalculator.step") {
+            private final double myAngle = Math.toRadians(TURN_DEGREES);
+            private double[] myXs;
+            private double[] myYs;
+            private double[] myDxs;
+            private double[] myDys;
+
+            @Override
+            public void setUp () {
+                Random random = new Random(SEED);
+                myXs = new double[VECTORS];
+                myYs = new double[VECTORS];
+                myDxs = new double[VECTORS];
+                myDys = new double[VECTORS];
+                for (int i = 0; i < VECTORS; i++) {
+                    myXs[i] = random.nextDouble();
+                    myYs[i] = random.nextDouble();
+                    myDxs[i] = random.nextDouble();
+                    myDys[i] = random.nextDouble();
+                }
+            }
+
+            @Override
+            public long run () {
+                VectorCalculator.rotateVectors(myDxs, myDys, myAngle, VECTORS);
+                VectorCalculator.addScaledVectors(myXs, myYs, myDxs, myDys, 1, VECTORS);
+                return Double.doubleToLongBits(myXs[0]);
+            }
+        });
+    }
+
+    /**
+     * A MapModePathFinder that does not mark its path on the map, which needs
+     * the game window's images.
+     */
+    private static class UnmarkedPathFinder extends MapModePathFinder {
+
+        public UnmarkedPathFinder (MapMode map, MapMovingObject object) {
+            super(map, object);
+        }
+
+        public int getPathLength () {
+            return getImmutablePath().size();
+        }
+
+        @Override
+        protected void highlightPath (Point position) {
+        }
+
+        @Override
+        protected void dehighlightPath () {
+        }
+    }
+
+    /**
+     * Target of the key bindings in the Controller benchmark.
+     */
+    public static class ActionCounter {
+        private long myCount;
+
+        public void act () {
+            myCount++;
+        }
+
+        public long getCount () {
+            return myCount;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package benchmark;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import javax.swing.ImageIcon;
+import util.datatable.DataTable;
+import util.mathvector.MathVector2D;
+import util.particleEngine.ParticleSystem;
+import util.particleEngine.Trail;
+import vooga.platformer.collision.CollisionChecker;
+import vooga.platformer.collision.CollisionEvent;
+import vooga.platformer.gameobject.Bullet;
+import vooga.platformer.gameobject.Enemy;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.Gold;
+import vooga.platformer.gameobject.LevelGoalZone;
+import vooga.platformer.gameobject.MovingObject;
+import vooga.platformer.gameobject.Player;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.gameobject.strategy.update.GravityStrategy;
+import vooga.platformer.gameobject.strategy.update.MovementUpdateStrategy;
+import vooga.platformer.level.Level;
+import vooga.platformer.util.camera.StaticCamera;
+import vooga.turnbased.gamecore.gamemodes.MapMode;
+import vooga.turnbased.gameobject.mapobject.MapMovingObject;
+import vooga.turnbased.gameobject.mapobject.MapObject;
+import vooga.turnbased.gameobject.mapobject.MapObstacleObject;
+import vooga.turnbased.gameobject.mapobject.MapPlayerObject;
+
+
+/**
+ * Builds the scenes the engine benchmarks run on. Every scene is generated
+ * from a seed, so the same arguments always give the same scene.
+ *
+ */
+public final class SyntheticScenes {
+
+    /**
+     * Collision rules used by the platformer scenes.
+     */
+    public static final String COLLISION_EVENTS =
+            "src/vooga/platformer/collision/collisionEvents.xml";
+    /**
+     * Name of the mode the map scenes run in.
+     */
+    public static final String MAP_MODE_NAME = "map";
+
+    private static final String PLATFORMER_IMAGE = "src/vooga/platformer/test/testImage.png";
+    private static final int FLOOR_HEIGHT = 100;
+    private static final int OBJECT_SIZE = 10;
+    private static final int ENEMY_EVERY = 10;
+    private static final float[] PARTICLE_SCALES = { 0f, 1.8f, 2.4f, 0.4f };
+    private static final float[] PARTICLE_TOLERANCES = { 0f, 2.2f, 2.2f, 0.3f };
+    private static final Dimension MAP_CAMERA = new Dimension(11, 11);
+    private static final Dimension MAP_PANE = new Dimension(660, 660);
+
+    private SyntheticScenes () {
+        /*
+         * Empty constructor.
+         */
+    }
+
+    /**
+     * A square level with a floor and objects scattered over its top half,
+     * drifting and falling. One object in ENEMY_EVERY is an Enemy.
+     *
+     * @param size width and height of the level
+     * @param objects number of objects besides the floor
+     * @param checker collision checker of the level
+     */
+    public static Level makePlatformerLevel (int size, int objects, CollisionChecker checker,
+                                             long seed) throws IOException {
+        Dimension dimension = new Dimension(size, size);
+        File image = new File(PLATFORMER_IMAGE);
+        Random rand = new Random(seed);
+        Level level = new Level(dimension, new StaticCamera(new Dimension(800, 600),
+                                                            new Rectangle(dimension)), checker);
+        level.addGameObject(new StaticObject(0, size - FLOOR_HEIGHT, size, FLOOR_HEIGHT, 0,
+                                             image));
+        for (int i = 1; i <= objects; i++) {
+            double x = rand.nextInt(size - OBJECT_SIZE);
+            double y = rand.nextInt(size / 2);
+            MovingObject mo = (i % ENEMY_EVERY == 0)
+                    ? new Enemy(x, y, OBJECT_SIZE, OBJECT_SIZE, i, image)
+                    : new MovingObject(x, y, OBJECT_SIZE, OBJECT_SIZE, i, image);
+            mo.setVelocity(rand.nextInt(7) - 3, rand.nextInt(7) - 3);
+            mo.addStrategy("GravityStrategy", new GravityStrategy(mo));
+            mo.addStrategy("MovementUpdateStrategy", new MovementUpdateStrategy(mo));
+            level.addGameObject(mo);
+        }
+        return level;
+    }
+
+    /**
+     * One object of each kind collisionEvents.xml has rules for.
+     */
+    public static GameObject[] makeCollisionObjects () throws IOException {
+        File image = new File(PLATFORMER_IMAGE);
+        return new GameObject[] {
+            new StaticObject(0, 0, 1, 1, 0, image), new Enemy(0, 0, 1, 1, 1, image),
+            new Player(0, 0, 1, 1, 2, image), new Bullet(0, 0, 1, 1, 3, image, 1, 0),
+            new MovingObject(0, 0, 1, 1, 4, image), new Gold(0, 0, 1, 1, 5, image),
+            new LevelGoalZone(0, 0, 1, 1, 6, image, "next")
+        };
+    }
+
+    /**
+     * Random pairs of the given objects, as two arrays of the first and
+     * second object of each pair.
+     */
+    public static GameObject[][] makeCollisionPairs (GameObject[] objects, int pairs, long seed) {
+        Random rand = new Random(seed);
+        GameObject[][] result = new GameObject[2][pairs];
+        for (int i = 0; i < pairs; i++) {
+            result[0][i] = objects[rand.nextInt(objects.length)];
+            result[1][i] = objects[rand.nextInt(objects.length)];
+        }
+        return result;
+    }
+
+    /**
+     * A particle system with one looping engine of the given number of
+     * particles, spraying in every direction from the center of the area.
+     */
+    public static ParticleSystem makeParticleSystem (int particles, Dimension area) {
+        final int count = particles;
+        return new ParticleSystem(new MathVector2D(area.width / 2, area.height / 2)) {
+            @Override
+            protected void setUpParticleEngines () {
+                Image image = new ImageIcon(Trail.class.getResource("particle.png")).getImage();
+                addParticleEngine(count, image, new MathVector2D(position),
+                                  new MathVector2D(2, 2), 50, 200, 2 * Math.PI, 10,
+                                  PARTICLE_SCALES, PARTICLE_TOLERANCES, true);
+            }
+        };
+    }
+
+    /**
+     * Particles with the colours of makeParticleSystem's, scattered over an
+     * area at random angles and stages of fading, to be drawn the way
+     * ParticleEngine drew them before TintAtlas.
+     */
+    public static FilteredParticles makeFilteredParticles (int particles, Dimension area,
+                                                           long seed) {
+        Image image = new ImageIcon(Trail.class.getResource("particle.png")).getImage();
+        return new FilteredParticles(particles, image, area, new Random(seed));
+    }
+
+    /**
+     * A MapMode that runs without a game window, with a player in the
+     * center, obstacles on a fraction of the tiles and moving objects
+     * scattered over the rest. The player's row and the last column are kept
+     * clear, so a path from the player to the bottom right corner exists.
+     *
+     * @param size size of the map in tiles
+     * @param movingObjects number of moving objects
+     * @param obstacleRate fraction of tiles holding an obstacle
+     */
+    public static DetachedMapMode makeMapMode (Dimension size, int movingObjects,
+                                               double obstacleRate, long seed) {
+        Random rand = new Random(seed);
+        Set<String> modes = new HashSet<String>();
+        modes.add(MAP_MODE_NAME);
+        Point center = new Point(size.width / 2, size.height / 2);
+        MapPlayerObject player = new MapPlayerObject(modes, "NO_ACTION", center,
+                                                     new HashMap<String, Image>());
+        List<MapObject> objects = new ArrayList<MapObject>();
+        objects.add(player);
+        int id = 1;
+        for (int x = 0; x < size.width; x++) {
+            for (int y = 0; y < size.height; y++) {
+                if (y != center.y && x != size.width - 1 && rand.nextDouble() < obstacleRate) {
+                    MapObject obstacle =
+                            new MapObstacleObject(modes, "NO_ACTION", new Point(x, y), null);
+                    obstacle.setID(id++);
+                    objects.add(obstacle);
+                }
+            }
+        }
+        for (int i = 0; i < movingObjects; i++) {
+            Point location = new Point(rand.nextInt(size.width), rand.nextInt(size.height));
+            MapObject mover = new MapMovingObject(modes, "NO_ACTION", location, null);
+            mover.setID(id++);
+            objects.add(mover);
+        }
+        return new DetachedMapMode(size, objects, player);
+    }
+
+    /**
+     * A table with the columns Controller uses and one row per key code from
+     * 0 to rows - 1.
+     */
+    public static DataTable makeDataTable (int rows) throws Exception {
+        DataTable table = new DataTable();
+        table.addNewColumns(new String[] { "ButtonDescription", "ActionDescription", "KeyCode",
+                                           "Tuple" });
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> row = new HashMap<String, Object>();
+            row.put("ButtonDescription", "button " + i);
+            row.put("ActionDescription", "action " + i);
+            row.put("KeyCode", i);
+            row.put("Tuple", null);
+            table.addNewRow(row);
+        }
+        return table;
+    }
+
+    /**
+     * Writes a level-like XML file with the given number of object elements,
+     * each with a few attributes and children, to a temporary file.
+     */
+    public static File makeXmlFile (int elements, long seed) throws IOException {
+        Random rand = new Random(seed);
+        File file = File.createTempFile("benchmark", ".xml");
+        file.deleteOnExit();
+        Writer out = new FileWriter(file);
+        try {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<level name=\"synthetic\">\n");
+            for (int i = 0; i < elements; i++) {
+                out.write("  <object id=\"" + i + "\" type=\"MovingObject\">\n");
+                out.write("    <x>" + rand.nextInt(4000) + "</x>\n");
+                out.write("    <y>" + rand.nextInt(4000) + "</y>\n");
+                out.write("    <image>images/object" + rand.nextInt(20) + ".png</image>\n");
+                out.write("  </object>\n");
+            }
+            out.write("</level>\n");
+        }
+        finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * The lookup CollisionChecker used before its dispatch table, through
+     * nested maps keyed by canonical class names, filled with the events a
+     * checker has for the given objects.
+     */
+    public static class StringMapCollisionLookup {
+        private HashMap<String, HashMap<String, CollisionEvent>> myMap =
+                new HashMap<String, HashMap<String, CollisionEvent>>();
+
+        public StringMapCollisionLookup (CollisionChecker checker, GameObject[] objects) {
+            for (GameObject a : objects) {
+                for (GameObject b : objects) {
+                    CollisionEvent ce = checker.getCollisionEvent(a, b);
+                    String nameA = a.getClass().getCanonicalName();
+                    if (ce != null) {
+                        if (!myMap.containsKey(nameA)) {
+                            myMap.put(nameA, new HashMap<String, CollisionEvent>());
+                        }
+                        myMap.get(nameA).put(b.getClass().getCanonicalName(), ce);
+                    }
+                }
+            }
+        }
+
+        public CollisionEvent getCollisionEvent (GameObject objectA, GameObject objectB) {
+            if (myMap.containsKey(objectA.getClass().getCanonicalName())
+                && myMap.get(objectA.getClass().getCanonicalName())
+                        .containsKey(objectB.getClass().getCanonicalName())) {
+                return myMap.get(objectA.getClass().getCanonicalName())
+                        .get(objectB.getClass().getCanonicalName());
+            }
+            else if (myMap.containsKey(objectB.getClass().getCanonicalName())
+                     && myMap.get(objectB.getClass().getCanonicalName())
+                             .containsKey(objectA.getClass().getCanonicalName())) {
+                return myMap.get(objectB.getClass().getCanonicalName())
+                        .get(objectA.getClass().getCanonicalName());
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Particles drawn one by one through a new RescaleOp each, which filters
+     * the particle image in software, as ParticleEngine did before it drew
+     * from a TintAtlas.
+     */
+    public static class FilteredParticles {
+        private final BufferedImage myImage;
+        private final int[] myX;
+        private final int[] myY;
+        private final float[] myRotation;
+        private final float[][] myScales;
+        private final float[] myOffsets = new float[4];
+
+        private FilteredParticles (int count, Image image, Dimension area, Random rand) {
+            int width = image.getWidth(null);
+            int height = image.getHeight(null);
+            myImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2d = myImage.createGraphics();
+            g2d.drawImage(image, 0, 0, width, height, null);
+            g2d.dispose();
+            myX = new int[count];
+            myY = new int[count];
+            myRotation = new float[count];
+            myScales = new float[count][4];
+            for (int i = 0; i < count; i++) {
+                myX[i] = rand.nextInt(area.width);
+                myY[i] = rand.nextInt(area.height);
+                myRotation[i] = (float) (rand.nextFloat() * 2 * Math.PI);
+                for (int c = 0; c < 3; c++) {
+                    myScales[i][c] = PARTICLE_SCALES[c]
+                                     + (rand.nextFloat() * 2 - 1) * PARTICLE_TOLERANCES[c];
+                }
+                myScales[i][3] = rand.nextFloat();
+            }
+        }
+
+        public void draw (Graphics2D g2d) {
+            int halfWidth = myImage.getWidth() / 2;
+            int halfHeight = myImage.getHeight() / 2;
+            for (int i = 0; i < myX.length; i++) {
+                RescaleOp rop = new RescaleOp(myScales[i], myOffsets, null);
+                g2d.rotate(myRotation[i], myX[i] + halfWidth, myY[i] + halfHeight);
+                g2d.drawImage(myImage, rop, myX[i], myY[i]);
+                g2d.rotate(-myRotation[i], myX[i] + halfWidth, myY[i] + halfHeight);
+            }
+        }
+
+        public int size () {
+            return myX.length;
+        }
+    }
+
+    /**
+     * A MapMode built from given objects instead of a GameManager's level.
+     * Conditions flagged by its objects are ignored.
+     */
+    public static class DetachedMapMode extends MapMode {
+
+        private DetachedMapMode (Dimension size, List<MapObject> objects, MapPlayerObject player) {
+            super(null, MAP_MODE_NAME, new ArrayList<Integer>());
+            setUpMap(size, MAP_CAMERA, MAP_PANE, objects, player);
+        }
+
+        @Override
+        protected void acquireGameObjects () {
+            // there is no GameManager to acquire objects from
+        }
+
+        @Override
+        public void initialize () {
+            // set up by the constructor instead
+        }
+
+        @Override
+        public void flagCondition (String conditionName, List<Integer> involvedSpriteIDs) {
+            // there is no GameManager to report to
+        }
+
+        @Override
+        public void updateMapObjects () {
+            super.updateMapObjects();
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package games.geo4games.movingbricks;
 
 import vooga.platformer.gameobject.GameObject;
-import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.gameobject.IndependentUpdateStrategy;
 
 /**
  * Simple update strategy that moves an object back and forth.
  * @author Grant Oakley
  *
  */
-public class SideToSideScrollStrategy implements UpdateStrategy {
+public class SideToSideScrollStrategy implements IndependentUpdateStrategy {
 
     private static final long serialVersionUID = 1L;
     private GameObject myGameObject;
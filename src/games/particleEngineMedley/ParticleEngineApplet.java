@@ -234,28 +234,33 @@ public class ParticleEngineApplet extends JApplet implements MouseInputListener{
      * the input utilities do not support configuring 
      * methods with parameters.
      */
+    private void addSystem (ParticleSystem system) {
+        system.setParallel(true);
+        mySystems.add(system);
+    }
+
     public void addBubbles(){
-    	mySystems.add(new Bubbles(myLastMouseClickPosition));
+    	addSystem(new Bubbles(myLastMouseClickPosition));
     }
     
     public void addFire(){
-    	mySystems.add(new Fire(myLastMouseClickPosition));
+    	addSystem(new Fire(myLastMouseClickPosition));
     }
 
     public void addLight(){
-    	mySystems.add(new StreamingSunlight(myLastMouseClickPosition));
+    	addSystem(new StreamingSunlight(myLastMouseClickPosition));
     }
     
     public void addWaterfall(){
-    	mySystems.add(new Waterfall(myLastMouseClickPosition));
+    	addSystem(new Waterfall(myLastMouseClickPosition));
     }
     
     public void addSnow() {
-		mySystems.add(new Snow(myLastMouseClickPosition));
+		addSystem(new Snow(myLastMouseClickPosition));
 	}
 
     public void addFireworks() {
-    	mySystems.add(new Fireworks(myLastMouseClickPosition));
+    	addSystem(new Fireworks(myLastMouseClickPosition));
     }
     
     @Override
@@ -1,9 +1,10 @@
 package games.robssnake.strategy;
 
+import vooga.platformer.gameobject.IndependentUpdateStrategy;
 import vooga.platformer.gameobject.MovingObject;
-import vooga.platformer.gameobject.UpdateStrategy;
 
-public class DoNothingUpdateStrategy implements UpdateStrategy {
+public class DoNothingUpdateStrategy implements IndependentUpdateStrategy {
+    private static final long serialVersionUID = -4930239560912298096L;
     private MovingObject myMoveObj;
 
     public DoNothingUpdateStrategy(MovingObject moveObj){
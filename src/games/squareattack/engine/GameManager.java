@@ -30,6 +30,9 @@ import java.util.List;
 import java.util.Map;
 import javax.swing.JPanel;
 import util.input.android.events.AndroidVibration;
+import util.instrumentation.MetricsOverlay;
+import util.instrumentation.MetricsRegistry;
+import util.instrumentation.PhaseTimer;
 import util.mathvector.MathVector2D;
 
 
@@ -52,6 +55,17 @@ public class GameManager extends JPanel implements Runnable {
     }
 
     public static final int GAME_FPS = 35;
+    /**
+     * Name under which the game loop records metrics.
+     */
+    public static final String METRICS_NAME = "squareattack";
+    private static final int RULES_PHASE = 0;
+    private static final int UPDATE_PHASE = 1;
+    private static final int PAINT_PHASE = 2;
+    private final PhaseTimer myTimer = MetricsRegistry.getDefault()
+            .phaseTimer(METRICS_NAME, "rules", "update", "paint");
+    private final MetricsOverlay myOverlay =
+            new MetricsOverlay(MetricsRegistry.getDefault(), METRICS_NAME);
     private final int myDelay = 1000 / GAME_FPS;
     private Thread gameThread;
     private Square attackerOne;
@@ -79,6 +93,7 @@ public class GameManager extends JPanel implements Runnable {
     public GameManager (GameFrame parent, String[] controllers) {
         this.setFocusable(true);
         this.requestFocus();
+        myOverlay.attach(this);
         this.controllers = controllers;
         myState = State.Starting;
         myParent = parent;
@@ -253,6 +268,7 @@ public class GameManager extends JPanel implements Runnable {
                 myPauseText.drawText(pen);
                 break;
         }
+        myOverlay.paint(pen);
     }
 
     private void paintOver (Graphics2D pen) {
@@ -261,13 +277,18 @@ public class GameManager extends JPanel implements Runnable {
     }
 
     private void paintRunning (Graphics2D pen) {
+        long time = System.nanoTime();
         checkGameRules();
+        time = myTimer.record(RULES_PHASE, time);
         for (Square s : myAttackers) {
             s.update();
-            s.paint(pen);
         }
-
         defenderOne.update();
+        time = myTimer.record(UPDATE_PHASE, time);
+
+        for (Square s : myAttackers) {
+            s.paint(pen);
+        }
         defenderOne.paint(pen);
         myWallBuilder.paint(pen);
         paintMenuBar(pen);
@@ -275,7 +296,7 @@ public class GameManager extends JPanel implements Runnable {
             WallBall curWallBall = myWallBalls.get(i);
             curWallBall.paint(pen);
         }
-
+        myTimer.record(PAINT_PHASE, time);
     }
 
     private void paintCountDown (Graphics2D pen) {
@@ -299,6 +320,7 @@ public class GameManager extends JPanel implements Runnable {
         long sleep;
         beforeTime = System.currentTimeMillis();
         while (true) {
+            myTimer.frame();
             repaint();
             timeDiff = System.currentTimeMillis() - beforeTime;
             sleep = myDelay - timeDiff;
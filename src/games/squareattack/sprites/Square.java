@@ -13,6 +13,7 @@ import java.util.Arrays;
 import java.util.List;
 import util.mathvector.MathVector;
 import util.mathvector.MathVector2D;
+import util.mathvector.MutableVector2D;
 import util.particleEngine.ParticleSystem;
 import util.particleEngine.Trail;
 
@@ -39,6 +40,7 @@ public class Square extends Sprite {
     private MathVector2D bounceVector = new MathVector2D();
     private double mySpeed = 8;
     private MathVector2D myLastMovementVector = new MathVector2D();
+    private MutableVector2D myMovement = new MutableVector2D();
     private List<ExternalMathVector2D> externalForces = new ArrayList<ExternalMathVector2D>();
     private int myMaxSquares;
     private double maxSpeed = 15;
@@ -115,21 +117,23 @@ public class Square extends Sprite {
     @Override
     public void update () {
         adjustMaxSpeed();
-        myLastMovementVector = new MathVector2D();
+        myMovement.setZero();
         if (moveLeft) {
-            myLastMovementVector.addVector(new MathVector2D(-mySpeed, 0));
+            myMovement.add(-mySpeed, 0);
         }
         if (moveRight) {
-            myLastMovementVector.addVector(new MathVector2D(mySpeed, 0));
+            myMovement.add(mySpeed, 0);
         }
         if (moveUp) {
-            myLastMovementVector.addVector(new MathVector2D(0, -mySpeed));
+            myMovement.add(0, -mySpeed);
         }
         if (moveDown) {
-            myLastMovementVector.addVector(new MathVector2D(0, mySpeed));
+            myMovement.add(0, mySpeed);
         }
-        myLastMovementVector.addVector(myJSVector);
+        myMovement.add(myJSVector.getX(), myJSVector.getY());
         addExternalForces();
+        // rules scale the last movement vector they are handed, so it is a new one every update
+        myLastMovementVector = myMovement.getMathVector2D();
         setVelocity(myLastMovementVector);
         super.update();
     }
@@ -146,7 +150,7 @@ public class Square extends Sprite {
             ExternalMathVector2D force = externalForces.get(i);
             force.detoriate();
             if (force.calculateMagnitude() > .05) {
-                myLastMovementVector.addVector(force);
+                myMovement.add(force.getX(), force.getY());
             }
             else {
                 externalForces.remove(force);
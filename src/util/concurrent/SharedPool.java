@@ -0,0 +1,32 @@
+package util.concurrent;
+
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * The ForkJoinPool shared by all parallel work in the engine, such as
+ * stepping particles, updating level objects and planning paths. It has
+ * one thread per processor, so work from several sources at once does not
+ * start more threads than the machine can run.
+ *
+ */
+public final class SharedPool {
+
+    private static ForkJoinPool ourPool;
+
+    private SharedPool () {
+        /*
+         * Empty constructor.
+         */
+    }
+
+    /**
+     * @return the shared pool, created on first use
+     */
+    public static synchronized ForkJoinPool get () {
+        if (ourPool == null) {
+            ourPool = new ForkJoinPool();
+        }
+        return ourPool;
+    }
+}
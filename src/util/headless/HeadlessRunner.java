@@ -0,0 +1,198 @@
+package util.headless;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import util.input.journal.InputReplay;
+
+
+/**
+ * Steps a HeadlessSimulation as fast as it will go, with no window and no
+ * frame timer, feeding it scripted or recorded input and timing every
+ * tick. Every Nth tick can also be rendered into an offscreen image, so
+ * drawing code is exercised too. Used to soak and load test levels on machines without a
+ * display; run them with <code>-Djava.awt.headless=true</code>.
+ * <p>
+ * Allocation is read from the JVM's per-thread counters, so only objects
+ * allocated on the thread calling run are counted.
+ *
+ */
+public class HeadlessRunner {
+
+    /**
+     * Description of the options read by parseOptions.
+     */
+    public static final String OPTIONS_USAGE = "[--ticks N] [--warmup N] [--render-every N] "
+                                               + "[--script FILE | --replay FILE] "
+                                               + "[--frame FILE.png]";
+
+    private static final int DEFAULT_TICKS = 10000;
+    private static final int DEFAULT_WARMUP_TICKS = 500;
+    private static final String PNG = "png";
+
+    private int myTicks = DEFAULT_TICKS;
+    private int myWarmupTicks = DEFAULT_WARMUP_TICKS;
+    private int myRenderEvery;
+    private TickInput myInput = new InputScript();
+    private File myFrameFile;
+    private BufferedImage myFrame;
+
+    /**
+     * @param ticks number of timed ticks
+     */
+    public void setTicks (int ticks) {
+        myTicks = ticks;
+    }
+
+    /**
+     * @param ticks number of untimed ticks run first, so the timed ticks run
+     *        compiled code
+     */
+    public void setWarmupTicks (int ticks) {
+        myWarmupTicks = ticks;
+    }
+
+    /**
+     * @param ticks render after every this many ticks, or 0 never to render
+     */
+    public void setRenderEvery (int ticks) {
+        myRenderEvery = ticks;
+    }
+
+    /**
+     * @param input input to send before each tick, such as an InputScript
+     */
+    public void setInput (TickInput input) {
+        myInput = input;
+    }
+
+    /**
+     * @param file PNG file the last rendered frame is written to after a run,
+     *        or null
+     */
+    public void setFrameFile (File file) {
+        myFrameFile = file;
+    }
+
+    /**
+     * Applies the options in OPTIONS_USAGE.
+     *
+     * @return the arguments that are not options
+     */
+    public List<String> parseOptions (String[] args) throws IOException {
+        List<String> rest = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (!option.startsWith("--")) {
+                rest.add(option);
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException(option + " needs a value");
+            }
+            String value = args[++i];
+            if ("--ticks".equals(option)) {
+                setTicks(Integer.parseInt(value));
+            }
+            else if ("--warmup".equals(option)) {
+                setWarmupTicks(Integer.parseInt(value));
+            }
+            else if ("--render-every".equals(option)) {
+                setRenderEvery(Integer.parseInt(value));
+            }
+            else if ("--script".equals(option)) {
+                setInput(InputScript.load(new File(value)));
+            }
+            else if ("--replay".equals(option)) {
+                setInput(InputReplay.load(new File(value)));
+            }
+            else if ("--frame".equals(option)) {
+                setFrameFile(new File(value));
+            }
+            else {
+                throw new IllegalArgumentException("unknown option " + option);
+            }
+        }
+        return rest;
+    }
+
+    /**
+     * Runs the warmup ticks, then the timed ticks.
+     */
+    public SimulationReport run (HeadlessSimulation simulation) throws IOException {
+        long tick = 0;
+        for (; tick < myWarmupTicks; tick++) {
+            myInput.dispatch(tick, simulation.getInputTarget());
+            simulation.tick();
+        }
+
+        long[] tickNanos = new long[myTicks];
+        int renders = 0;
+        long renderNanos = 0;
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < myTicks; i++, tick++) {
+            long tickStart = System.nanoTime();
+            myInput.dispatch(tick, simulation.getInputTarget());
+            simulation.tick();
+            long tickEnd = System.nanoTime();
+            tickNanos[i] = tickEnd - tickStart;
+            if (myRenderEvery > 0 && (i + 1) % myRenderEvery == 0) {
+                render(simulation);
+                renders++;
+                renderNanos += System.nanoTime() - tickEnd;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+
+        if (myFrameFile != null && myFrame != null) {
+            ImageIO.write(myFrame, PNG, myFrameFile);
+        }
+        long allocated = (allocatedBefore < 0 || allocatedAfter < 0)
+                ? -1 : allocatedAfter - allocatedBefore;
+        return new SimulationReport(tickNanos, elapsed, renders, renderNanos, allocated);
+    }
+
+    private void render (HeadlessSimulation simulation) {
+        Dimension size = simulation.getScreenSize();
+        if (myFrame == null || myFrame.getWidth() != size.width
+            || myFrame.getHeight() != size.height) {
+            myFrame = new BufferedImage(Math.max(1, size.width), Math.max(1, size.height),
+                                        BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D pen = myFrame.createGraphics();
+        pen.setColor(Color.BLACK);
+        pen.fillRect(0, 0, myFrame.getWidth(), myFrame.getHeight());
+        simulation.render(pen);
+        pen.dispose();
+    }
+
+    /**
+     * @return the last frame rendered, or null if none was
+     */
+    public BufferedImage getLastFrame () {
+        return myFrame;
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, or -1 if the JVM
+     *         does not count them
+     */
+    private static long allocatedBytes () {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) { return -1; }
+        com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+        if (!counting.isThreadAllocatedMemorySupported()
+            || !counting.isThreadAllocatedMemoryEnabled()) { return -1; }
+        return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
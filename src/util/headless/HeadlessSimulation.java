@@ -0,0 +1,37 @@
+package util.headless;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+
+
+/**
+ * A game that a HeadlessRunner can step without a window: it advances one
+ * tick at a time when asked, can draw itself into any Graphics2D, and reads
+ * keys from a component the runner can send events to.
+ *
+ */
+public interface HeadlessSimulation {
+
+    /**
+     * Advances the game by one tick.
+     */
+    public void tick ();
+
+    /**
+     * Draws the current state of the game.
+     *
+     * @param pen pen of an image of getScreenSize
+     */
+    public void render (Graphics2D pen);
+
+    /**
+     * @return size of the images render draws into
+     */
+    public Dimension getScreenSize ();
+
+    /**
+     * @return the component whose key listeners control the game
+     */
+    public Component getInputTarget ();
+}
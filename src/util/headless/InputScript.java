@@ -0,0 +1,152 @@
+package util.headless;
+
+import java.awt.Component;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * Key presses and releases to send to a game on given ticks, so a headless
+ * run plays the same way every time. Events go straight to the key
+ * listeners of the game's input component, as if typed at the keyboard.
+ * <p>
+ * Scripts can be built in code or read from a text file with one event per
+ * line, such as <code>40 press LEFT</code> or <code>55 release 32</code>.
+ * Keys are named as in KeyEvent without the <code>VK_</code> prefix, or
+ * given as key codes. A line <code>loop 200</code> makes the script start
+ * over every 200 ticks; blank lines and lines starting with <code>#</code>
+ * are ignored.
+ *
+ */
+public class InputScript implements TickInput {
+
+    private static final String COMMENT = "#";
+    private static final String LOOP = "loop";
+    private static final String PRESS = "press";
+    private static final String RELEASE = "release";
+    private static final String KEY_PREFIX = "VK_";
+
+    private final Map<Long, List<int[]>> myEvents = new TreeMap<Long, List<int[]>>();
+    private long myLoopLength;
+
+    /**
+     * Presses a key at the start of a tick.
+     */
+    public InputScript press (long tick, int keyCode) {
+        return add(tick, KeyEvent.KEY_PRESSED, keyCode);
+    }
+
+    /**
+     * Releases a key at the start of a tick.
+     */
+    public InputScript release (long tick, int keyCode) {
+        return add(tick, KeyEvent.KEY_RELEASED, keyCode);
+    }
+
+    /**
+     * @param ticks number of ticks after which the script starts over, or 0
+     *        to play it once
+     */
+    public InputScript setLoopLength (long ticks) {
+        if (ticks < 0) { throw new IllegalArgumentException("loop length cannot be negative"); }
+        myLoopLength = ticks;
+        return this;
+    }
+
+    private InputScript add (long tick, int id, int keyCode) {
+        if (tick < 0) { throw new IllegalArgumentException("tick cannot be negative"); }
+        List<int[]> events = myEvents.get(tick);
+        if (events == null) {
+            events = new ArrayList<int[]>();
+            myEvents.put(tick, events);
+        }
+        events.add(new int[] { id, keyCode });
+        return this;
+    }
+
+    @Override
+    public void dispatch (long tick, Component target) {
+        long scriptTick = (myLoopLength > 0) ? tick % myLoopLength : tick;
+        List<int[]> events = myEvents.get(scriptTick);
+        if (events == null) { return; }
+        for (int[] event : events) {
+            KeyEvent e = new KeyEvent(target, event[0], System.currentTimeMillis(), 0, event[1],
+                                      KeyEvent.CHAR_UNDEFINED);
+            for (KeyListener listener : target.getKeyListeners()) {
+                if (event[0] == KeyEvent.KEY_PRESSED) {
+                    listener.keyPressed(e);
+                }
+                else {
+                    listener.keyReleased(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a script in the format described above.
+     */
+    public static InputScript load (File file) throws IOException {
+        InputScript script = new InputScript();
+        BufferedReader in = new BufferedReader(new FileReader(file));
+        try {
+            int lineNumber = 0;
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.length() == 0 || line.startsWith(COMMENT)) {
+                    continue;
+                }
+                try {
+                    script.parseLine(line.split("\\s+"));
+                }
+                catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(file + ":" + lineNumber + ": "
+                                                       + e.getMessage(), e);
+                }
+            }
+        }
+        finally {
+            in.close();
+        }
+        return script;
+    }
+
+    private void parseLine (String[] words) {
+        if (words.length == 2 && LOOP.equals(words[0])) {
+            setLoopLength(Long.parseLong(words[1]));
+        }
+        else if (words.length == 3 && PRESS.equals(words[1])) {
+            press(Long.parseLong(words[0]), parseKey(words[2]));
+        }
+        else if (words.length == 3 && RELEASE.equals(words[1])) {
+            release(Long.parseLong(words[0]), parseKey(words[2]));
+        }
+        else {
+            throw new IllegalArgumentException("expected <tick> press|release <key> or loop "
+                                               + "<ticks>");
+        }
+    }
+
+    private static int parseKey (String key) {
+        if (Character.isDigit(key.charAt(0))) { return Integer.parseInt(key); }
+        try {
+            return KeyEvent.class.getField(KEY_PREFIX + key.toUpperCase()).getInt(null);
+        }
+        catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("unknown key " + key);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("unknown key " + key);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package util.headless;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+
+/**
+ * Timings and allocation of one HeadlessRunner run. Tick times include
+ * sending the scripted input for the tick but not rendering, which is
+ * reported separately.
+ *
+ */
+public class SimulationReport {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final long[] mySortedTickNanos;
+    private final long myElapsedNanos;
+    private final int myRenders;
+    private final long myRenderNanos;
+    private final long myAllocatedBytes;
+
+    /**
+     * @param tickNanos time taken by each tick; sorted in place
+     * @param elapsedNanos wall time of the whole run, rendering included
+     * @param renders number of frames rendered
+     * @param renderNanos total time spent rendering
+     * @param allocatedBytes bytes allocated by the running thread, or a
+     *        negative number if the JVM cannot tell
+     */
+    public SimulationReport (long[] tickNanos, long elapsedNanos, int renders, long renderNanos,
+                             long allocatedBytes) {
+        Arrays.sort(tickNanos);
+        mySortedTickNanos = tickNanos;
+        myElapsedNanos = elapsedNanos;
+        myRenders = renders;
+        myRenderNanos = renderNanos;
+        myAllocatedBytes = allocatedBytes;
+    }
+
+    public int getTicks () {
+        return mySortedTickNanos.length;
+    }
+
+    public double getTicksPerSecond () {
+        return getTicks() * NANOS_PER_SECOND / Math.max(1, myElapsedNanos);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the time within which that percentage of ticks finished, in
+     *         nanoseconds
+     */
+    public long getTickNanos (double percentile) {
+        if (mySortedTickNanos.length == 0) { return 0; }
+        int index = (int) Math.ceil(percentile / 100 * mySortedTickNanos.length) - 1;
+        return mySortedTickNanos[Math.max(0, Math.min(mySortedTickNanos.length - 1, index))];
+    }
+
+    public int getRenders () {
+        return myRenders;
+    }
+
+    /**
+     * @return mean time to render a frame, in nanoseconds
+     */
+    public long getMeanRenderNanos () {
+        return (myRenders == 0) ? 0 : myRenderNanos / myRenders;
+    }
+
+    /**
+     * @return bytes allocated during the run, or a negative number if
+     *         unknown
+     */
+    public long getAllocatedBytes () {
+        return myAllocatedBytes;
+    }
+
+    /**
+     * @return bytes allocated per second of the run, or a negative number if
+     *         unknown
+     */
+    public double getAllocationRate () {
+        if (myAllocatedBytes < 0) { return -1; }
+        return myAllocatedBytes * NANOS_PER_SECOND / Math.max(1, myElapsedNanos);
+    }
+
+    @Override
+    public String toString () {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.US, "%d ticks in %.2f s: %.1f ticks/s%n", getTicks(),
+                                    myElapsedNanos / NANOS_PER_SECOND, getTicksPerSecond()));
+        report.append(String.format(Locale.US, "tick time: p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                                    getTickNanos(50) / NANOS_PER_MILLI,
+                                    getTickNanos(99) / NANOS_PER_MILLI,
+                                    getTickNanos(100) / NANOS_PER_MILLI));
+        if (myRenders > 0) {
+            report.append(String.format(Locale.US, "%d frames rendered, %.3f ms each%n", myRenders,
+                                        getMeanRenderNanos() / NANOS_PER_MILLI));
+        }
+        if (myAllocatedBytes < 0) {
+            report.append(String.format("allocation: not measurable on this JVM%n"));
+        }
+        else {
+            report.append(String.format(Locale.US,
+                                        "allocation: %.1f MB, %.1f MB/s, %d bytes/tick%n",
+                                        myAllocatedBytes / BYTES_PER_MEGABYTE,
+                                        getAllocationRate() / BYTES_PER_MEGABYTE,
+                                        myAllocatedBytes / Math.max(1, getTicks())));
+        }
+        return report.toString();
+    }
+}
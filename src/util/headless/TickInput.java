@@ -0,0 +1,20 @@
+package util.headless;
+
+import java.awt.Component;
+
+
+/**
+ * Input fed to a game at the start of each fixed tick, such as an
+ * InputScript or a recorded input journal.
+ *
+ */
+public interface TickInput {
+
+    /**
+     * Sends the input for a tick to the listeners of the target.
+     *
+     * @param tick number of the tick about to run, counting from 0
+     * @param target the component the game listens to input on
+     */
+    public void dispatch (long tick, Component target);
+}
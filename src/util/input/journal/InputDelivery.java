@@ -0,0 +1,88 @@
+package util.input.journal;
+
+import java.awt.Component;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+
+
+/**
+ * Hands key and mouse events straight to a component's listeners, on the
+ * calling thread, as the component would when processing them.
+ *
+ */
+final class InputDelivery {
+
+    private InputDelivery () {
+        /*
+         * Empty constructor.
+         */
+    }
+
+    static void deliver (InputEvent e, Component target) {
+        switch (e.getID()) {
+            case KeyEvent.KEY_PRESSED:
+                for (KeyListener l : target.getKeyListeners()) {
+                    l.keyPressed((KeyEvent) e);
+                }
+                break;
+            case KeyEvent.KEY_RELEASED:
+                for (KeyListener l : target.getKeyListeners()) {
+                    l.keyReleased((KeyEvent) e);
+                }
+                break;
+            case KeyEvent.KEY_TYPED:
+                for (KeyListener l : target.getKeyListeners()) {
+                    l.keyTyped((KeyEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_PRESSED:
+                for (MouseListener l : target.getMouseListeners()) {
+                    l.mousePressed((MouseEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_RELEASED:
+                for (MouseListener l : target.getMouseListeners()) {
+                    l.mouseReleased((MouseEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_CLICKED:
+                for (MouseListener l : target.getMouseListeners()) {
+                    l.mouseClicked((MouseEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_ENTERED:
+                for (MouseListener l : target.getMouseListeners()) {
+                    l.mouseEntered((MouseEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_EXITED:
+                for (MouseListener l : target.getMouseListeners()) {
+                    l.mouseExited((MouseEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_MOVED:
+                for (MouseMotionListener l : target.getMouseMotionListeners()) {
+                    l.mouseMoved((MouseEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_DRAGGED:
+                for (MouseMotionListener l : target.getMouseMotionListeners()) {
+                    l.mouseDragged((MouseEvent) e);
+                }
+                break;
+            case MouseEvent.MOUSE_WHEEL:
+                for (MouseWheelListener l : target.getMouseWheelListeners()) {
+                    l.mouseWheelMoved((MouseWheelEvent) e);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package util.input.journal;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.event.InputEvent;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Makes a game loop's keyboard and mouse input repeatable. Key and mouse
+ * events normally reach controllers whenever the event thread gets to
+ * them, part way through an update as often as not. While recording, a
+ * journal holds them back instead and hands them to the component's
+ * listeners at the start of the next fixed tick, on the game thread, so the
+ * same input on the same ticks always plays the same way.
+ * <p>
+ * A loop uses a journal by passing the events its component processes to
+ * intercept and calling beginTick before each update. When recording, each
+ * tick's events are also appended to a binary journal file: the tick (as a
+ * variable-length difference from the previous event's), then the event
+ * as RecordedEvent writes it. When replaying such a file, live input is
+ * ignored and the recorded events are sent on their ticks instead.
+ * HeadlessRunner can also replay journals, as fast as the game steps.
+ * <p>
+ * The system properties <code>input.record</code> and
+ * <code>input.replay</code> name a file to record to or replay from. With
+ * neither, intercept takes nothing and live input is processed as soon as
+ * it arrives, as before; it is not held for the next tick, since a
+ * component whose loop is stopped would otherwise never get it.
+ *
+ */
+public class InputJournal {
+
+    /**
+     * System property naming a file to record input to.
+     */
+    public static final String RECORD_PROPERTY = "input.record";
+    /**
+     * System property naming a journal to replay.
+     */
+    public static final String REPLAY_PROPERTY = "input.replay";
+
+    static final int MAGIC = 0x564a524e;
+    static final int VERSION = 1;
+
+    private final List<InputEvent> myPending = new ArrayList<InputEvent>();
+    private List<InputEvent> myTickEvents = new ArrayList<InputEvent>();
+    private DataOutputStream myOut;
+    private final InputReplay myReplay;
+    private long myTick;
+    private long myLastWrittenTick;
+
+    private InputJournal (DataOutputStream out, InputReplay replay) {
+        myOut = out;
+        myReplay = replay;
+    }
+
+    /**
+     * @return a journal that lets input through untouched
+     */
+    public static InputJournal passThrough () {
+        return new InputJournal(null, null);
+    }
+
+    /**
+     * @return a journal that records input to the file, replacing it
+     */
+    public static InputJournal recording (File file) throws IOException {
+        DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.flush();
+        return new InputJournal(out, null);
+    }
+
+    /**
+     * @return a journal that replays the file, ignoring live input
+     */
+    public static InputJournal replaying (File file) throws IOException {
+        return new InputJournal(null, InputReplay.load(file));
+    }
+
+    /**
+     * @return a journal set up by RECORD_PROPERTY or REPLAY_PROPERTY, or one
+     *         that lets input through if neither is set or the file cannot
+     *         be used
+     */
+    public static InputJournal fromSystemProperties () {
+        String record = System.getProperty(RECORD_PROPERTY);
+        String replay = System.getProperty(REPLAY_PROPERTY);
+        try {
+            if (replay != null) { return replaying(new File(replay)); }
+            if (record != null) { return recording(new File(record)); }
+        }
+        catch (IOException e) {
+            System.err.println("Input journal disabled: " + e.getMessage());
+        }
+        return passThrough();
+    }
+
+    /**
+     * Called by the component for each event it processes, on the event
+     * thread.
+     *
+     * @return true if the journal took the event, in which case the
+     *         component must not process it further
+     */
+    public boolean intercept (AWTEvent e) {
+        if (!RecordedEvent.isRecorded(e.getID()) || (myOut == null && myReplay == null)) {
+            return false;
+        }
+        if (myReplay == null) {
+            synchronized (myPending) {
+                myPending.add((InputEvent) e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Called by the game loop before each tick: sends the input for the
+     * tick to the target's listeners, and records it if recording.
+     */
+    public void beginTick (Component target) {
+        long tick = myTick++;
+        if (myReplay != null) {
+            myReplay.dispatch(tick, target);
+            return;
+        }
+        synchronized (myPending) {
+            if (myPending.isEmpty()) { return; }
+            List<InputEvent> events = myTickEvents;
+            myTickEvents = new ArrayList<InputEvent>(myPending);
+            myPending.clear();
+            events.clear();
+        }
+        for (InputEvent e : myTickEvents) {
+            write(tick, e);
+            InputDelivery.deliver(e, target);
+        }
+        flush();
+    }
+
+    /**
+     * @return true if live input is being replaced by a recording
+     */
+    public boolean isReplaying () {
+        return myReplay != null;
+    }
+
+    /**
+     * @return true if input is being recorded
+     */
+    public boolean isRecording () {
+        return myOut != null;
+    }
+
+    /**
+     * Stops recording and closes the file.
+     */
+    public void close () {
+        if (myOut != null) {
+            try {
+                myOut.close();
+            }
+            catch (IOException e) {
+                System.err.println("Could not close input journal: " + e.getMessage());
+            }
+            myOut = null;
+        }
+    }
+
+    private void write (long tick, InputEvent e) {
+        if (myOut == null) { return; }
+        try {
+            RecordedEvent.writeVarLong(myOut, tick - myLastWrittenTick);
+            RecordedEvent.write(myOut, e);
+            myLastWrittenTick = tick;
+        }
+        catch (IOException ex) {
+            System.err.println("Input journal stopped: " + ex.getMessage());
+            myOut = null;
+        }
+    }
+
+    private void flush () {
+        if (myOut == null) { return; }
+        try {
+            myOut.flush();
+        }
+        catch (IOException e) {
+            System.err.println("Input journal stopped: " + e.getMessage());
+            myOut = null;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package util.input.journal;
+
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JPanel;
+import junit.framework.Assert;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Writes input to journals and reads it back.
+ *
+ */
+public class InputJournalTest {
+
+    private static final long[] UNSIGNED_VALUES = { 0, 1, 127, 128, 16383, 16384,
+                                                    Integer.MAX_VALUE, Long.MAX_VALUE };
+    private static final long[] SIGNED_VALUES = { 0, -1, 1, -64, 63, -65, 64, -8192, 8191,
+                                                  Integer.MIN_VALUE, Integer.MAX_VALUE,
+                                                  Long.MIN_VALUE, Long.MAX_VALUE };
+    // needs three bytes as a tick difference
+    private static final int LONG_GAP = 300000;
+
+    private File myFile;
+    private JPanel mySource;
+
+    @Before
+    public void setUp () throws IOException {
+        myFile = File.createTempFile("input", ".journal");
+        mySource = new JPanel();
+    }
+
+    @After
+    public void tearDown () {
+        myFile.delete();
+    }
+
+    @Test
+    public void testVarLongRoundTrip () throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (long v : UNSIGNED_VALUES) {
+            RecordedEvent.writeVarLong(out, v);
+        }
+        for (long v : SIGNED_VALUES) {
+            RecordedEvent.writeSignedVarLong(out, v);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (long v : UNSIGNED_VALUES) {
+            Assert.assertEquals(v, RecordedEvent.readVarLong(in));
+        }
+        for (long v : SIGNED_VALUES) {
+            Assert.assertEquals(v, RecordedEvent.readSignedVarLong(in));
+        }
+        Assert.assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testSmallSignedValuesTakeOneByte () throws IOException {
+        for (long v = -64; v <= 63; v++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            RecordedEvent.writeSignedVarLong(new DataOutputStream(bytes), v);
+            Assert.assertEquals(1, bytes.size());
+        }
+    }
+
+    @Test
+    public void testRecordingReplaysOnSameTicks () throws IOException {
+        List<InputEvent> events = new ArrayList<InputEvent>();
+        List<Long> ticks = new ArrayList<Long>();
+        InputJournal journal = InputJournal.recording(myFile);
+        EventLog live = new EventLog();
+        live.listenTo(mySource);
+
+        record(journal, events, ticks, 0,
+               new KeyEvent(mySource, KeyEvent.KEY_PRESSED, 0, InputEvent.SHIFT_DOWN_MASK,
+                            KeyEvent.VK_A, 'A'));
+        tick(journal, 3);
+        record(journal, events, ticks, 3,
+               new KeyEvent(mySource, KeyEvent.KEY_TYPED, 0, 0, KeyEvent.VK_UNDEFINED, 'a'));
+        record(journal, events, ticks, 3,
+               new MouseEvent(mySource, MouseEvent.MOUSE_DRAGGED, 0,
+                              InputEvent.BUTTON1_DOWN_MASK, -40, -70000, 0, false,
+                              MouseEvent.NOBUTTON));
+        tick(journal, LONG_GAP);
+        record(journal, events, ticks, 3 + LONG_GAP,
+               new MouseWheelEvent(mySource, MouseEvent.MOUSE_WHEEL, 0, 0, 12, -3, 0, false,
+                                   MouseWheelEvent.WHEEL_UNIT_SCROLL, 3, -2));
+        record(journal, events, ticks, 3 + LONG_GAP,
+               new MouseEvent(mySource, MouseEvent.MOUSE_RELEASED, 0, 0, Integer.MIN_VALUE,
+                              Integer.MAX_VALUE, 2, false, MouseEvent.BUTTON3));
+        tick(journal, 1);
+        journal.close();
+
+        // recording hands each tick's events to the component as they are written
+        assertSameEvents(events, ticks, live);
+
+        InputReplay replay = InputReplay.load(myFile);
+        Assert.assertEquals(events.size(), replay.getEventCount());
+        Assert.assertEquals(4 + LONG_GAP, replay.getLength());
+        JPanel target = new JPanel();
+        EventLog replayed = new EventLog();
+        replayed.listenTo(target);
+        for (long tick = 0; tick < replay.getLength(); tick++) {
+            replayed.myTick = tick;
+            replay.dispatch(tick, target);
+        }
+        assertSameEvents(events, ticks, replayed);
+    }
+
+    @Test
+    public void testReplayIgnoresLiveInput () throws IOException {
+        InputJournal.recording(myFile).close();
+        InputJournal journal = InputJournal.replaying(myFile);
+        Assert.assertTrue(journal.intercept(new KeyEvent(mySource, KeyEvent.KEY_PRESSED, 0, 0,
+                                                         KeyEvent.VK_A, 'a')));
+        EventLog log = new EventLog();
+        log.listenTo(mySource);
+        journal.beginTick(mySource);
+        Assert.assertTrue(log.myEvents.isEmpty());
+    }
+
+    @Test
+    public void testPassThroughTakesNothing () {
+        InputJournal journal = InputJournal.passThrough();
+        Assert.assertFalse(journal.intercept(new KeyEvent(mySource, KeyEvent.KEY_PRESSED, 0, 0,
+                                                          KeyEvent.VK_A, 'a')));
+    }
+
+    /**
+     * Has the journal take an event, to be written on the next tick.
+     */
+    private void record (InputJournal journal, List<InputEvent> events, List<Long> ticks,
+            long tick, InputEvent e) {
+        Assert.assertTrue(journal.intercept(e));
+        events.add(e);
+        ticks.add(tick);
+    }
+
+    /**
+     * Starts ticks, writing the events taken since the last tick.
+     */
+    private void tick (InputJournal journal, int count) {
+        for (int i = 0; i < count; i++) {
+            journal.beginTick(mySource);
+        }
+    }
+
+    private static void assertSameEvents (List<InputEvent> expected, List<Long> ticks,
+            EventLog actual) {
+        Assert.assertEquals(expected.size(), actual.myEvents.size());
+        for (int i = 0; i < expected.size(); i++) {
+            InputEvent e = expected.get(i);
+            InputEvent a = actual.myEvents.get(i);
+            Assert.assertEquals(e.getID(), a.getID());
+            Assert.assertEquals(e.getModifiersEx(), a.getModifiersEx());
+            if (actual.myTicks.get(i) != null) {
+                Assert.assertEquals(ticks.get(i), actual.myTicks.get(i));
+            }
+            if (e instanceof KeyEvent) {
+                Assert.assertEquals(((KeyEvent) e).getKeyCode(), ((KeyEvent) a).getKeyCode());
+                Assert.assertEquals(((KeyEvent) e).getKeyChar(), ((KeyEvent) a).getKeyChar());
+                continue;
+            }
+            MouseEvent m = (MouseEvent) e;
+            MouseEvent b = (MouseEvent) a;
+            Assert.assertEquals(m.getX(), b.getX());
+            Assert.assertEquals(m.getY(), b.getY());
+            Assert.assertEquals(m.getClickCount(), b.getClickCount());
+            if (m instanceof MouseWheelEvent) {
+                MouseWheelEvent w = (MouseWheelEvent) m;
+                MouseWheelEvent v = (MouseWheelEvent) b;
+                Assert.assertEquals(w.getScrollType(), v.getScrollType());
+                Assert.assertEquals(w.getScrollAmount(), v.getScrollAmount());
+                Assert.assertEquals(w.getWheelRotation(), v.getWheelRotation());
+            }
+            else {
+                Assert.assertEquals(m.getButton(), b.getButton());
+            }
+        }
+    }
+
+    /**
+     * Collects the events a component's listeners are given, with the tick
+     * each arrived on when it is known.
+     */
+    private static class EventLog implements KeyListener, MouseListener, MouseMotionListener,
+            MouseWheelListener {
+        private final List<InputEvent> myEvents = new ArrayList<InputEvent>();
+        private final List<Long> myTicks = new ArrayList<Long>();
+        private Long myTick;
+
+        public void listenTo (JPanel source) {
+            source.addKeyListener(this);
+            source.addMouseListener(this);
+            source.addMouseMotionListener(this);
+            source.addMouseWheelListener(this);
+        }
+
+        private void add (InputEvent e) {
+            myEvents.add(e);
+            myTicks.add(myTick);
+        }
+
+        @Override
+        public void keyTyped (KeyEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void keyPressed (KeyEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void keyReleased (KeyEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mouseClicked (MouseEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mousePressed (MouseEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mouseReleased (MouseEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mouseEntered (MouseEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mouseExited (MouseEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mouseDragged (MouseEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mouseMoved (MouseEvent e) {
+            add(e);
+        }
+
+        @Override
+        public void mouseWheelMoved (MouseWheelEvent e) {
+            add(e);
+        }
+    }
+}
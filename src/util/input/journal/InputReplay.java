@@ -0,0 +1,110 @@
+package util.input.journal;
+
+import java.awt.Component;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import util.headless.TickInput;
+
+
+/**
+ * The events of a journal written by an InputJournal, sent back to a game
+ * on the ticks they were recorded on. Since nothing waits on a clock, a
+ * replay runs as fast as the game can step, for instance in a
+ * HeadlessRunner, which makes recorded sessions usable as performance test
+ * cases.
+ *
+ */
+public class InputReplay implements TickInput {
+
+    private final long[] myTicks;
+    private final RecordedEvent[] myEvents;
+    private int myNext;
+    private long myLastTick = -1;
+
+    private InputReplay (long[] ticks, RecordedEvent[] events) {
+        myTicks = ticks;
+        myEvents = events;
+    }
+
+    public static InputReplay load (File file) throws IOException {
+        DataInputStream in =
+                new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != InputJournal.MAGIC) {
+                throw new IOException(file + " is not an input journal");
+            }
+            int version = in.readUnsignedByte();
+            if (version != InputJournal.VERSION) {
+                throw new IOException(file + " has unsupported journal version " + version);
+            }
+            List<Long> ticks = new ArrayList<Long>();
+            List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+            long tick = 0;
+            while (true) {
+                long delta;
+                try {
+                    delta = RecordedEvent.readVarLong(in);
+                }
+                catch (EOFException e) {
+                    break;
+                }
+                tick += delta;
+                ticks.add(tick);
+                events.add(RecordedEvent.read(in));
+            }
+            long[] tickArray = new long[ticks.size()];
+            for (int i = 0; i < tickArray.length; i++) {
+                tickArray[i] = ticks.get(i);
+            }
+            return new InputReplay(tickArray, events.toArray(new RecordedEvent[events.size()]));
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Sends the events recorded on a tick to the target's listeners. Ticks
+     * are normally dispatched in order; going back to an earlier tick starts
+     * the replay over from there.
+     */
+    @Override
+    public void dispatch (long tick, Component target) {
+        if (tick <= myLastTick) {
+            int found = Arrays.binarySearch(myTicks, tick);
+            myNext = (found < 0) ? -found - 1 : found;
+            while (myNext > 0 && myTicks[myNext - 1] == tick) {
+                myNext--;
+            }
+        }
+        myLastTick = tick;
+        while (myNext < myTicks.length && myTicks[myNext] < tick) {
+            myNext++;
+        }
+        while (myNext < myTicks.length && myTicks[myNext] == tick) {
+            InputDelivery.deliver(myEvents[myNext].toEvent(target), target);
+            myNext++;
+        }
+    }
+
+    /**
+     * @return the number of recorded events
+     */
+    public int getEventCount () {
+        return myEvents.length;
+    }
+
+    /**
+     * @return the number of ticks up to and including the last event
+     */
+    public long getLength () {
+        return (myTicks.length == 0) ? 0 : myTicks[myTicks.length - 1] + 1;
+    }
+}
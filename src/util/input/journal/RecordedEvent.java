@@ -0,0 +1,160 @@
+package util.input.journal;
+
+import java.awt.Component;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+/**
+ * One key or mouse event of a journal, without the component it happened
+ * on, and its compact binary form. An event is written as its type, an
+ * index into EVENT_IDS, followed by variable-length integers: key code,
+ * character and modifiers for keys; position, modifiers, click count and
+ * button for the mouse, plus scroll type, amount and rotation for the
+ * wheel.
+ *
+ */
+class RecordedEvent {
+
+    /**
+     * The AWT event ids a journal records, in the order of their type
+     * numbers in a file.
+     */
+    private static final int[] EVENT_IDS = { KeyEvent.KEY_PRESSED, KeyEvent.KEY_RELEASED,
+                                             KeyEvent.KEY_TYPED, MouseEvent.MOUSE_PRESSED,
+                                             MouseEvent.MOUSE_RELEASED, MouseEvent.MOUSE_CLICKED,
+                                             MouseEvent.MOUSE_ENTERED, MouseEvent.MOUSE_EXITED,
+                                             MouseEvent.MOUSE_MOVED, MouseEvent.MOUSE_DRAGGED,
+                                             MouseEvent.MOUSE_WHEEL };
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MORE = 0x80;
+    private static final int VARINT_MASK = 0x7f;
+
+    private final int myId;
+    private final int[] myFields;
+
+    private RecordedEvent (int id, int[] fields) {
+        myId = id;
+        myFields = fields;
+    }
+
+    /**
+     * @return true if events with this AWT id are recorded
+     */
+    static boolean isRecorded (int id) {
+        return typeOf(id) >= 0;
+    }
+
+    private static int typeOf (int id) {
+        for (int i = 0; i < EVENT_IDS.length; i++) {
+            if (EVENT_IDS[i] == id) { return i; }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes an event whose id isRecorded.
+     */
+    static void write (DataOutput out, InputEvent e) throws IOException {
+        out.writeByte(typeOf(e.getID()));
+        int modifiers = e.getModifiersEx();
+        if (e instanceof KeyEvent) {
+            KeyEvent key = (KeyEvent) e;
+            writeInts(out, key.getKeyCode(), key.getKeyChar(), modifiers);
+        }
+        else if (e instanceof MouseWheelEvent) {
+            MouseWheelEvent wheel = (MouseWheelEvent) e;
+            writeInts(out, wheel.getX(), wheel.getY(), modifiers, wheel.getClickCount(),
+                      wheel.getScrollType(), wheel.getScrollAmount(), wheel.getWheelRotation());
+        }
+        else {
+            MouseEvent mouse = (MouseEvent) e;
+            writeInts(out, mouse.getX(), mouse.getY(), modifiers, mouse.getClickCount(),
+                      mouse.getButton());
+        }
+    }
+
+    static RecordedEvent read (DataInput in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type >= EVENT_IDS.length) { throw new IOException("unknown event type " + type); }
+        int id = EVENT_IDS[type];
+        int count;
+        if (id == KeyEvent.KEY_PRESSED || id == KeyEvent.KEY_RELEASED
+            || id == KeyEvent.KEY_TYPED) {
+            count = 3;
+        }
+        else if (id == MouseEvent.MOUSE_WHEEL) {
+            count = 7;
+        }
+        else {
+            count = 5;
+        }
+        int[] fields = new int[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = (int) readSignedVarLong(in);
+        }
+        return new RecordedEvent(id, fields);
+    }
+
+    /**
+     * @return the event as if it happened on the source now
+     */
+    InputEvent toEvent (Component source) {
+        long when = System.currentTimeMillis();
+        int[] f = myFields;
+        if (myFields.length == 3) {
+            return new KeyEvent(source, myId, when, f[2], f[0], (char) f[1]);
+        }
+        if (myId == MouseEvent.MOUSE_WHEEL) {
+            return new MouseWheelEvent(source, myId, when, f[2], f[0], f[1], f[3], false, f[4],
+                                       f[5], f[6]);
+        }
+        return new MouseEvent(source, myId, when, f[2], f[0], f[1], f[3], false, f[4]);
+    }
+
+    private static void writeInts (DataOutput out, int ... values) throws IOException {
+        for (int v : values) {
+            writeSignedVarLong(out, v);
+        }
+    }
+
+    /**
+     * Writes a value in 1 byte if it is between -64 and 63, 2 bytes up to
+     * 8191 in size, and so on.
+     */
+    static void writeSignedVarLong (DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> (Long.SIZE - 1)));
+    }
+
+    static long readSignedVarLong (DataInput in) throws IOException {
+        long zigzag = readVarLong(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Writes a non-negative value 7 bits per byte, low bits first.
+     */
+    static void writeVarLong (DataOutput out, long value) throws IOException {
+        long rest = value;
+        while ((rest & ~VARINT_MASK) != 0) {
+            out.writeByte((int) (rest & VARINT_MASK) | VARINT_MORE);
+            rest >>>= VARINT_BITS;
+        }
+        out.writeByte((int) rest);
+    }
+
+    static long readVarLong (DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VARINT_BITS) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & VARINT_MASK) << shift;
+            if ((b & VARINT_MORE) == 0) { return value; }
+        }
+        throw new IOException("malformed number");
+    }
+}
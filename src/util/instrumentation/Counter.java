@@ -0,0 +1,23 @@
+package util.instrumentation;
+
+/**
+ * A running count of events, such as level loads. Meant to be incremented
+ * by one thread; other threads read a recent value.
+ *
+ */
+public class Counter {
+
+    private volatile long myCount;
+
+    public void increment () {
+        myCount++;
+    }
+
+    public void add (long amount) {
+        myCount += amount;
+    }
+
+    public long getCount () {
+        return myCount;
+    }
+}
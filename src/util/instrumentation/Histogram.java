@@ -0,0 +1,86 @@
+package util.instrumentation;
+
+/**
+ * Records the distribution of a value, such as the time taken by a phase of
+ * a frame, cheaply enough to run in every frame. Values fall into buckets
+ * with no more than 1/SUB_BUCKETS relative error, so percentiles are
+ * estimates; counts and sums are exact.
+ * <p>
+ * Like Counter, a histogram is meant to be recorded from one thread; other
+ * threads take snapshots that may be a value or two behind.
+ *
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Number of buckets, enough for every non-negative long.
+     */
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final boolean myIsDuration;
+    private final long[] myBuckets = new long[BUCKETS];
+    private volatile long myCount;
+    private long mySum;
+
+    /**
+     * @param isDuration whether values are durations in nanoseconds
+     */
+    public Histogram (boolean isDuration) {
+        myIsDuration = isDuration;
+    }
+
+    /**
+     * @return true if values are durations in nanoseconds
+     */
+    public boolean isDuration () {
+        return myIsDuration;
+    }
+
+    /**
+     * @param value a value; negative values are recorded as 0
+     */
+    public void record (long value) {
+        long v = Math.max(0, value);
+        myBuckets[bucketOf(v)]++;
+        mySum += v;
+        myCount++;
+    }
+
+    public long getCount () {
+        return myCount;
+    }
+
+    public HistogramSnapshot snapshot () {
+        long count = myCount;
+        return new HistogramSnapshot(myIsDuration, count, mySum, myBuckets.clone());
+    }
+
+    /**
+     * Values below SUB_BUCKETS get a bucket each; above that, every power of
+     * two is split into SUB_BUCKETS buckets.
+     */
+    static int bucketOf (long value) {
+        if (value < SUB_BUCKETS) { return (int) value; }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return the smallest value that falls in the bucket
+     */
+    static long lowerBound (int bucket) {
+        if (bucket < SUB_BUCKETS) { return bucket; }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * @return the largest value that falls in the bucket
+     */
+    static long upperBound (int bucket) {
+        return (bucket == BUCKETS - 1) ? Long.MAX_VALUE : lowerBound(bucket + 1) - 1;
+    }
+}
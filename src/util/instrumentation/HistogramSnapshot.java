@@ -0,0 +1,84 @@
+package util.instrumentation;
+
+/**
+ * The contents of a Histogram at one moment, or the difference between two
+ * such moments.
+ *
+ */
+public class HistogramSnapshot {
+
+    private final boolean myIsDuration;
+    private final long myCount;
+    private final long mySum;
+    private final long[] myBuckets;
+
+    HistogramSnapshot (boolean isDuration, long count, long sum, long[] buckets) {
+        myIsDuration = isDuration;
+        myCount = count;
+        mySum = sum;
+        myBuckets = buckets;
+    }
+
+    /**
+     * @return the values recorded since the earlier snapshot of the same
+     *         histogram
+     */
+    public HistogramSnapshot since (HistogramSnapshot earlier) {
+        long[] buckets = new long[myBuckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = myBuckets[i] - earlier.myBuckets[i];
+        }
+        return new HistogramSnapshot(myIsDuration, myCount - earlier.myCount,
+                                     mySum - earlier.mySum, buckets);
+    }
+
+    /**
+     * @return true if values are durations in nanoseconds
+     */
+    public boolean isDuration () {
+        return myIsDuration;
+    }
+
+    public long getCount () {
+        return myCount;
+    }
+
+    public double getMean () {
+        return (myCount == 0) ? 0 : (double) mySum / myCount;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return an estimate of the value that percentage of values are at or
+     *         below, or 0 if there are none
+     */
+    public long getPercentile (double percentile) {
+        long total = 0;
+        for (long b : myBuckets) {
+            total += b;
+        }
+        if (total <= 0) { return 0; }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < myBuckets.length; i++) {
+            seen += myBuckets[i];
+            if (seen >= rank) { return middle(i); }
+        }
+        return getMax();
+    }
+
+    /**
+     * @return an estimate of the largest value, or 0 if there are none
+     */
+    public long getMax () {
+        for (int i = myBuckets.length - 1; i >= 0; i--) {
+            if (myBuckets[i] > 0) { return middle(i); }
+        }
+        return 0;
+    }
+
+    private static long middle (int bucket) {
+        long low = Histogram.lowerBound(bucket);
+        return low + (Histogram.upperBound(bucket) - low) / 2;
+    }
+}
@@ -0,0 +1,150 @@
+package util.instrumentation;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+
+/**
+ * Appends the metrics of a registry to a file at a fixed period, on a
+ * background thread. Each dump covers only the period since the previous
+ * one. Files ending in <code>.json</code> get one JSON object per dump per
+ * line; any other file gets CSV rows with the columns of CSV_HEADER.
+ * Durations are written in nanoseconds, rates per second.
+ *
+ */
+public class MetricsDumper {
+
+    /**
+     * Columns of CSV dumps. Counters leave the histogram columns empty.
+     */
+    public static final String CSV_HEADER = "time,name,kind,count,rate,mean,p50,p99,max";
+
+    private static final String JSON_EXTENSION = ".json";
+    private static final String COUNTER = "counter";
+    private static final String TIMER = "timer";
+    private static final String HISTOGRAM = "histogram";
+
+    private final MetricsRegistry myRegistry;
+    private final File myFile;
+    private final long myPeriodMillis;
+    private final boolean myIsJson;
+    private Timer myTimer;
+    private MetricsSnapshot myPrevious;
+
+    public MetricsDumper (MetricsRegistry registry, File file, long periodMillis) {
+        myRegistry = registry;
+        myFile = file;
+        myPeriodMillis = periodMillis;
+        myIsJson = file.getName().endsWith(JSON_EXTENSION);
+    }
+
+    public synchronized void start () {
+        if (myTimer != null) { return; }
+        myPrevious = myRegistry.snapshot();
+        myTimer = new Timer("metrics dump", true);
+        myTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run () {
+                dump();
+            }
+        }, myPeriodMillis, myPeriodMillis);
+    }
+
+    public synchronized void stop () {
+        if (myTimer != null) {
+            myTimer.cancel();
+            myTimer = null;
+        }
+    }
+
+    /**
+     * Writes the metrics since the previous dump now.
+     */
+    public synchronized void dump () {
+        MetricsSnapshot current = myRegistry.snapshot();
+        MetricsSnapshot interval = current.since(myPrevious);
+        myPrevious = current;
+        boolean isNew = !myFile.exists() || myFile.length() == 0;
+        try {
+            PrintWriter out = new PrintWriter(new FileWriter(myFile, true));
+            try {
+                if (myIsJson) {
+                    writeJson(out, interval);
+                }
+                else {
+                    writeCsv(out, interval, isNew);
+                }
+            }
+            finally {
+                out.close();
+            }
+        }
+        catch (IOException e) {
+            System.err.println("Could not dump metrics to " + myFile + ": " + e.getMessage());
+        }
+    }
+
+    private static void writeCsv (PrintWriter out, MetricsSnapshot interval, boolean header) {
+        if (header) {
+            out.println(CSV_HEADER);
+        }
+        long time = interval.getTime();
+        for (Map.Entry<String, Long> e : interval.getCounts().entrySet()) {
+            out.println(String.format(Locale.US, "%d,%s,%s,%d,%.2f,,,,", time, e.getKey(),
+                                      COUNTER, e.getValue(), rate(e.getValue(), interval)));
+        }
+        for (Map.Entry<String, HistogramSnapshot> e : interval.getHistograms().entrySet()) {
+            HistogramSnapshot h = e.getValue();
+            out.println(String.format(Locale.US, "%d,%s,%s,%d,%.2f,%.1f,%d,%d,%d", time,
+                                      e.getKey(), kind(h), h.getCount(),
+                                      rate(h.getCount(), interval), h.getMean(),
+                                      h.getPercentile(50), h.getPercentile(99), h.getMax()));
+        }
+    }
+
+    private static void writeJson (PrintWriter out, MetricsSnapshot interval) {
+        StringBuilder json = new StringBuilder();
+        json.append(String.format(Locale.US, "{\"time\":%d,\"seconds\":%.3f,\"metrics\":[",
+                                  interval.getTime(), interval.getSeconds()));
+        String separator = "";
+        for (Map.Entry<String, Long> e : interval.getCounts().entrySet()) {
+            json.append(separator);
+            json.append(String.format(Locale.US,
+                                      "{\"name\":%s,\"kind\":\"%s\",\"count\":%d,\"rate\":%.2f}",
+                                      quote(e.getKey()), COUNTER, e.getValue(),
+                                      rate(e.getValue(), interval)));
+            separator = ",";
+        }
+        for (Map.Entry<String, HistogramSnapshot> e : interval.getHistograms().entrySet()) {
+            HistogramSnapshot h = e.getValue();
+            json.append(separator);
+            json.append(String.format(Locale.US, "{\"name\":%s,\"kind\":\"%s\",\"count\":%d,"
+                                                 + "\"rate\":%.2f,\"mean\":%.1f,\"p50\":%d,"
+                                                 + "\"p99\":%d,\"max\":%d}",
+                                      quote(e.getKey()), kind(h), h.getCount(),
+                                      rate(h.getCount(), interval), h.getMean(),
+                                      h.getPercentile(50), h.getPercentile(99), h.getMax()));
+            separator = ",";
+        }
+        json.append("]}");
+        out.println(json);
+    }
+
+    private static String kind (HistogramSnapshot h) {
+        return h.isDuration() ? TIMER : HISTOGRAM;
+    }
+
+    private static double rate (long count, MetricsSnapshot interval) {
+        return (interval.getSeconds() <= 0) ? 0 : count / interval.getSeconds();
+    }
+
+    private static String quote (String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
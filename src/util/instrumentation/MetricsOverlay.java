@@ -0,0 +1,138 @@
+package util.instrumentation;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+
+/**
+ * Draws a game loop's metrics over the game: the mean and 99th percentile
+ * of each timer, frames per second and counter rates, refreshed every
+ * second from the last second's values. Hidden until toggled, by default
+ * with TOGGLE_KEY on the component it is attached to.
+ *
+ */
+public class MetricsOverlay extends KeyAdapter {
+
+    /**
+     * Key that shows and hides an attached overlay.
+     */
+    public static final int TOGGLE_KEY = KeyEvent.VK_F3;
+
+    private static final long REFRESH_NANOS = 1000000000L;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final Color BACKGROUND = new Color(0, 0, 0, 160);
+    private static final int MARGIN = 5;
+
+    private final MetricsRegistry myRegistry;
+    private final String myPrefix;
+    private volatile boolean myIsVisible;
+    private MetricsSnapshot myPrevious;
+    private long myLastRefresh;
+    private List<String> myLines = new ArrayList<String>();
+
+    /**
+     * @param loop name of the game loop whose metrics are shown
+     */
+    public MetricsOverlay (MetricsRegistry registry, String loop) {
+        myRegistry = registry;
+        myPrefix = loop + ".";
+    }
+
+    /**
+     * Makes TOGGLE_KEY on the component show and hide the overlay.
+     */
+    public void attach (Component component) {
+        component.addKeyListener(this);
+    }
+
+    @Override
+    public void keyPressed (KeyEvent e) {
+        if (e.getKeyCode() == TOGGLE_KEY) {
+            toggle();
+        }
+    }
+
+    public void toggle () {
+        setVisible(!myIsVisible);
+    }
+
+    public void setVisible (boolean visible) {
+        myIsVisible = visible;
+    }
+
+    public boolean isVisible () {
+        return myIsVisible;
+    }
+
+    /**
+     * Draws the overlay in the top left corner, if it is visible.
+     */
+    public void paint (Graphics pen) {
+        if (!myIsVisible) { return; }
+        long now = System.nanoTime();
+        if (myPrevious == null || now - myLastRefresh >= REFRESH_NANOS) {
+            refresh();
+            myLastRefresh = now;
+        }
+        FontMetrics metrics = pen.getFontMetrics();
+        int width = 0;
+        for (String line : myLines) {
+            width = Math.max(width, metrics.stringWidth(line));
+        }
+        int lineHeight = metrics.getHeight();
+        pen.setColor(BACKGROUND);
+        pen.fillRect(0, 0, width + 2 * MARGIN, lineHeight * myLines.size() + 2 * MARGIN);
+        pen.setColor(Color.WHITE);
+        for (int i = 0; i < myLines.size(); i++) {
+            pen.drawString(myLines.get(i), MARGIN, MARGIN + metrics.getAscent() + i * lineHeight);
+        }
+    }
+
+    private void refresh () {
+        MetricsSnapshot current = myRegistry.snapshot();
+        List<String> lines = new ArrayList<String>();
+        if (myPrevious == null) {
+            lines.add("measuring...");
+        }
+        else {
+            MetricsSnapshot interval = current.since(myPrevious);
+            for (Map.Entry<String, HistogramSnapshot> e : interval.getHistograms().entrySet()) {
+                if (e.getKey().startsWith(myPrefix) && e.getValue().getCount() > 0) {
+                    lines.add(describe(e.getKey().substring(myPrefix.length()), e.getValue()));
+                }
+            }
+            for (Map.Entry<String, Long> e : interval.getCounts().entrySet()) {
+                if (e.getKey().startsWith(myPrefix)) {
+                    lines.add(String.format(Locale.US, "%s %.1f/s",
+                                            e.getKey().substring(myPrefix.length()),
+                                            e.getValue() / interval.getSeconds()));
+                }
+            }
+        }
+        myPrevious = current;
+        myLines = lines;
+    }
+
+    private static String describe (String name, HistogramSnapshot h) {
+        if (!h.isDuration()) {
+            return String.format(Locale.US, "%s mean %.1f p99 %d", name, h.getMean(),
+                                 h.getPercentile(99));
+        }
+        String line = String.format(Locale.US, "%s %.2f ms p99 %.2f ms", name,
+                                    h.getMean() / NANOS_PER_MILLI,
+                                    h.getPercentile(99) / NANOS_PER_MILLI);
+        if (PhaseTimer.FRAME.equals(name) && h.getMean() > 0) {
+            line += String.format(Locale.US, " (%.0f fps)", NANOS_PER_SECOND / h.getMean());
+        }
+        return line;
+    }
+}
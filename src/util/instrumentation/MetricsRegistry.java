@@ -0,0 +1,115 @@
+package util.instrumentation;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+
+/**
+ * Holds named counters and histograms. Asking for a name that already
+ * exists returns the existing metric, so code that is created many times
+ * (a Level, say) keeps adding to the same metrics. Names are dotted, with
+ * the game loop first, such as <code>platformer.collision</code>.
+ * <p>
+ * The engine's loops record into the default registry. If the system
+ * property <code>metrics.dump</code> names a file when it is first used, a
+ * MetricsDumper starts writing it to that file every
+ * <code>metrics.dump.period</code> seconds (10 by default).
+ *
+ */
+public class MetricsRegistry {
+
+    /**
+     * System property naming the file the default registry is dumped to.
+     */
+    public static final String DUMP_PROPERTY = "metrics.dump";
+    /**
+     * System property giving the seconds between dumps.
+     */
+    public static final String DUMP_PERIOD_PROPERTY = "metrics.dump.period";
+
+    private static final long DEFAULT_DUMP_SECONDS = 10;
+    private static final long MILLIS_PER_SECOND = 1000;
+    private static MetricsRegistry ourDefault;
+
+    private final ConcurrentMap<String, Counter> myCounters =
+            new ConcurrentSkipListMap<String, Counter>();
+    private final ConcurrentMap<String, Histogram> myHistograms =
+            new ConcurrentSkipListMap<String, Histogram>();
+
+    /**
+     * @return the registry the engine's loops record into
+     */
+    public static synchronized MetricsRegistry getDefault () {
+        if (ourDefault == null) {
+            ourDefault = new MetricsRegistry();
+            String dumpFile = System.getProperty(DUMP_PROPERTY);
+            if (dumpFile != null) {
+                long seconds = Long.getLong(DUMP_PERIOD_PROPERTY, DEFAULT_DUMP_SECONDS);
+                new MetricsDumper(ourDefault, new File(dumpFile), seconds * MILLIS_PER_SECOND)
+                        .start();
+            }
+        }
+        return ourDefault;
+    }
+
+    public Counter counter (String name) {
+        Counter counter = myCounters.get(name);
+        if (counter == null) {
+            myCounters.putIfAbsent(name, new Counter());
+            counter = myCounters.get(name);
+        }
+        return counter;
+    }
+
+    /**
+     * @return a histogram of plain values
+     */
+    public Histogram histogram (String name) {
+        return histogram(name, false);
+    }
+
+    /**
+     * @return a histogram of durations in nanoseconds
+     */
+    public Histogram timer (String name) {
+        return histogram(name, true);
+    }
+
+    private Histogram histogram (String name, boolean isDuration) {
+        Histogram histogram = myHistograms.get(name);
+        if (histogram == null) {
+            myHistograms.putIfAbsent(name, new Histogram(isDuration));
+            histogram = myHistograms.get(name);
+        }
+        if (histogram.isDuration() != isDuration) {
+            throw new IllegalArgumentException(name + " is already a "
+                                               + (isDuration ? "histogram" : "timer"));
+        }
+        return histogram;
+    }
+
+    /**
+     * @param loop name of the game loop, used as the prefix of the timers
+     * @param phases names of the phases, in the order of their indices
+     */
+    public PhaseTimer phaseTimer (String loop, String ... phases) {
+        return new PhaseTimer(this, loop, phases);
+    }
+
+    /**
+     * @return the current value of every metric, sorted by name
+     */
+    public MetricsSnapshot snapshot () {
+        return new MetricsSnapshot(this);
+    }
+
+    Map<String, Counter> getCounters () {
+        return myCounters;
+    }
+
+    Map<String, Histogram> getHistograms () {
+        return myHistograms;
+    }
+}
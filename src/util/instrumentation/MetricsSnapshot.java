@@ -0,0 +1,87 @@
+package util.instrumentation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * The value of every metric in a registry at one moment, or the change in
+ * them between two moments. Taking differences lets the overlay and the
+ * dumps report recent frames rather than everything since start up,
+ * without either one resetting the metrics under the other.
+ *
+ */
+public class MetricsSnapshot {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final long myTime;
+    private final long myNanos;
+    private final SortedMap<String, Long> myCounts;
+    private final SortedMap<String, HistogramSnapshot> myHistograms;
+
+    MetricsSnapshot (MetricsRegistry registry) {
+        myTime = System.currentTimeMillis();
+        myNanos = System.nanoTime();
+        myCounts = new TreeMap<String, Long>();
+        for (Map.Entry<String, Counter> e : registry.getCounters().entrySet()) {
+            myCounts.put(e.getKey(), e.getValue().getCount());
+        }
+        myHistograms = new TreeMap<String, HistogramSnapshot>();
+        for (Map.Entry<String, Histogram> e : registry.getHistograms().entrySet()) {
+            myHistograms.put(e.getKey(), e.getValue().snapshot());
+        }
+    }
+
+    private MetricsSnapshot (long time, long nanos, SortedMap<String, Long> counts,
+                             SortedMap<String, HistogramSnapshot> histograms) {
+        myTime = time;
+        myNanos = nanos;
+        myCounts = counts;
+        myHistograms = histograms;
+    }
+
+    /**
+     * @param earlier an earlier snapshot of the same registry
+     * @return what happened between the two snapshots; getSeconds gives its
+     *         length
+     */
+    public MetricsSnapshot since (MetricsSnapshot earlier) {
+        SortedMap<String, Long> counts = new TreeMap<String, Long>();
+        for (Map.Entry<String, Long> e : myCounts.entrySet()) {
+            Long before = earlier.myCounts.get(e.getKey());
+            counts.put(e.getKey(), e.getValue() - ((before == null) ? 0 : before));
+        }
+        SortedMap<String, HistogramSnapshot> histograms = new TreeMap<String, HistogramSnapshot>();
+        for (Map.Entry<String, HistogramSnapshot> e : myHistograms.entrySet()) {
+            HistogramSnapshot before = earlier.myHistograms.get(e.getKey());
+            histograms.put(e.getKey(),
+                           (before == null) ? e.getValue() : e.getValue().since(before));
+        }
+        return new MetricsSnapshot(myTime, myNanos - earlier.myNanos, counts, histograms);
+    }
+
+    /**
+     * @return when the snapshot was taken, in milliseconds since the epoch
+     */
+    public long getTime () {
+        return myTime;
+    }
+
+    /**
+     * @return for a difference, the seconds between the two snapshots
+     */
+    public double getSeconds () {
+        return myNanos / NANOS_PER_SECOND;
+    }
+
+    public SortedMap<String, Long> getCounts () {
+        return Collections.unmodifiableSortedMap(myCounts);
+    }
+
+    public SortedMap<String, HistogramSnapshot> getHistograms () {
+        return Collections.unmodifiableSortedMap(myHistograms);
+    }
+}
@@ -0,0 +1,63 @@
+package util.instrumentation;
+
+/**
+ * Times the phases of a game loop's frames, such as update, collision and
+ * paint, into timers named <code>loop.phase</code>, and the time between
+ * frames into <code>loop.frame</code>. Phases are numbered in the order
+ * they were given, so timing one costs a clock read and a bucket increment:
+ *
+ * <pre>
+ * long time = System.nanoTime();
+ * update();
+ * time = timer.record(UPDATE, time);
+ * checkCollisions();
+ * timer.record(COLLISION, time);
+ * </pre>
+ *
+ * Phases may be recorded on different threads, such as the game thread and
+ * the event dispatch thread, as long as each phase is recorded on one.
+ *
+ */
+public class PhaseTimer {
+
+    /**
+     * Name of the timer holding the time between frames.
+     */
+    public static final String FRAME = "frame";
+
+    private final Histogram[] myPhases;
+    private final Histogram myFrames;
+    private long myLastFrame;
+
+    PhaseTimer (MetricsRegistry registry, String loop, String ... phases) {
+        myPhases = new Histogram[phases.length];
+        for (int i = 0; i < phases.length; i++) {
+            myPhases[i] = registry.timer(loop + "." + phases[i]);
+        }
+        myFrames = registry.timer(loop + "." + FRAME);
+    }
+
+    /**
+     * Records the time since start as one run of a phase.
+     *
+     * @param phase index of the phase
+     * @param start a System.nanoTime reading from when the phase began
+     * @return the current System.nanoTime, to start the next phase with
+     */
+    public long record (int phase, long start) {
+        long now = System.nanoTime();
+        myPhases[phase].record(now - start);
+        return now;
+    }
+
+    /**
+     * Marks the start of a frame, recording the time since the previous one.
+     */
+    public void frame () {
+        long now = System.nanoTime();
+        if (myLastFrame != 0) {
+            myFrames.record(now - myLastFrame);
+        }
+        myLastFrame = now;
+    }
+}
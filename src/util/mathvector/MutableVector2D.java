@@ -0,0 +1,254 @@
+package util.mathvector;
+
+/**
+ * A two-dimensional vector stored in two double fields, for code that does
+ * vector math every frame. Unlike MathVector2D, every operation changes
+ * this vector in place and returns it, so calls can be chained without
+ * creating new vectors. The static methods write their result into a
+ * destination vector instead, which may be one of the arguments.
+ *
+ * Angles are in radians. Rotating many vectors through the same angle is
+ * cheapest with rotate(cos, sin), which does not call any trig functions.
+ *
+ * set(MathVector2D) and copyTo(MathVector2D) convert to and from
+ * MathVector2D, so code can switch to this class one piece at a time.
+ */
+public class MutableVector2D {
+
+	private double myX;
+	private double myY;
+
+	/**
+	 * Instantiates this vector as the zero vector (0,0).
+	 */
+	public MutableVector2D(){
+	}
+
+	public MutableVector2D(double x, double y){
+		myX = x;
+		myY = y;
+	}
+
+	public MutableVector2D(MutableVector2D v){
+		this(v.myX, v.myY);
+	}
+
+	public MutableVector2D(MathVector2D v){
+		this(v.getX(), v.getY());
+	}
+
+	public double getX(){
+		return myX;
+	}
+
+	public double getY(){
+		return myY;
+	}
+
+	public MutableVector2D set(double x, double y){
+		myX = x;
+		myY = y;
+		return this;
+	}
+
+	public MutableVector2D set(MutableVector2D v){
+		return set(v.myX, v.myY);
+	}
+
+	public MutableVector2D set(MathVector2D v){
+		return set(v.getX(), v.getY());
+	}
+
+	/**
+	 * Sets this vector to the given length in the given direction.
+	 * @param angleInRadians direction, counterclockwise from the positive x-axis
+	 * @param magnitude length
+	 */
+	public MutableVector2D setPolar(double angleInRadians, double magnitude){
+		return set(Math.cos(angleInRadians)*magnitude, Math.sin(angleInRadians)*magnitude);
+	}
+
+	public MutableVector2D setZero(){
+		return set(0, 0);
+	}
+
+	public MutableVector2D add(double x, double y){
+		myX += x;
+		myY += y;
+		return this;
+	}
+
+	public MutableVector2D add(MutableVector2D v){
+		return add(v.myX, v.myY);
+	}
+
+	public MutableVector2D subtract(MutableVector2D v){
+		return add(-v.myX, -v.myY);
+	}
+
+	/**
+	 * Adds v scaled by c to this vector, e.g. a velocity times a time step.
+	 */
+	public MutableVector2D addScaled(MutableVector2D v, double c){
+		return add(v.myX*c, v.myY*c);
+	}
+
+	public MutableVector2D scale(double c){
+		myX *= c;
+		myY *= c;
+		return this;
+	}
+
+	public MutableVector2D negate(){
+		return scale(-1);
+	}
+
+	/**
+	 * Scales this vector to length 1. The zero vector is left unchanged.
+	 */
+	public MutableVector2D normalize(){
+		double magnitude = calculateMagnitude();
+		if (magnitude != 0){
+			scale(1 / magnitude);
+		}
+		return this;
+	}
+
+	/**
+	 * Rotates this vector counterclockwise through the angle whose cosine
+	 * and sine are given.
+	 */
+	public MutableVector2D rotate(double cos, double sin){
+		return set(cos*myX - sin*myY, sin*myX + cos*myY);
+	}
+
+	/**
+	 * Rotates this vector counterclockwise through an angle.
+	 */
+	public MutableVector2D rotateRadians(double angleInRadians){
+		return rotate(Math.cos(angleInRadians), Math.sin(angleInRadians));
+	}
+
+	public double calculateDotProduct(MutableVector2D v){
+		return myX*v.myX + myY*v.myY;
+	}
+
+	/**
+	 * Returns the z-component of the cross product of this vector and v,
+	 * which is positive if v is counterclockwise from this vector.
+	 */
+	public double calculateCrossProduct(MutableVector2D v){
+		return myX*v.myY - myY*v.myX;
+	}
+
+	public double calculateMagnitude(){
+		return Math.sqrt(calculateMagnitudeSquared());
+	}
+
+	/**
+	 * Returns the square of the magnitude, which is enough for comparing
+	 * lengths and avoids a square root.
+	 */
+	public double calculateMagnitudeSquared(){
+		return myX*myX + myY*myY;
+	}
+
+	public double calculateDistance(MutableVector2D v){
+		double dx = v.myX - myX;
+		double dy = v.myY - myY;
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+
+	/**
+	 * Calculates the angle between the positive x-axis and this vector in
+	 * radians, like MathVector2D.calculateAngleInRadians. Returns a value
+	 * between 0 (inclusive) and 2pi (exclusive), or pi/2 for the zero
+	 * vector.
+	 */
+	public double calculateAngleInRadians(){
+		if (myX == 0 && myY == 0){
+			return Math.PI / 2;
+		}
+		double angle = Math.atan2(myY, myX);
+		return (angle < 0) ? angle + 2*Math.PI : angle;
+	}
+
+	/**
+	 * Copies this vector's components into v without creating a new vector.
+	 */
+	public MathVector2D copyTo(MathVector2D v){
+		v.setComponent(MathVector2D.X, myX);
+		v.setComponent(MathVector2D.Y, myY);
+		return v;
+	}
+
+	public MathVector2D getMathVector2D(){
+		return new MathVector2D(myX, myY);
+	}
+
+	/**
+	 * Stores a + b in dest.
+	 */
+	public static MutableVector2D add(MutableVector2D a, MutableVector2D b, MutableVector2D dest){
+		return dest.set(a.myX + b.myX, a.myY + b.myY);
+	}
+
+	/**
+	 * Stores a - b in dest.
+	 */
+	public static MutableVector2D subtract(MutableVector2D a, MutableVector2D b,
+			MutableVector2D dest){
+		return dest.set(a.myX - b.myX, a.myY - b.myY);
+	}
+
+	/**
+	 * Stores v scaled by c in dest.
+	 */
+	public static MutableVector2D scale(MutableVector2D v, double c, MutableVector2D dest){
+		return dest.set(v.myX*c, v.myY*c);
+	}
+
+	/**
+	 * Stores v normalized in dest, or the zero vector if v is the zero vector.
+	 */
+	public static MutableVector2D normalize(MutableVector2D v, MutableVector2D dest){
+		return dest.set(v).normalize();
+	}
+
+	/**
+	 * Stores v rotated counterclockwise through the angle whose cosine and
+	 * sine are given in dest.
+	 */
+	public static MutableVector2D rotate(MutableVector2D v, double cos, double sin,
+			MutableVector2D dest){
+		return dest.set(v).rotate(cos, sin);
+	}
+
+	/**
+	 * Stores the point a fraction t of the way from a to b in dest.
+	 */
+	public static MutableVector2D interpolate(MutableVector2D a, MutableVector2D b, double t,
+			MutableVector2D dest){
+		return dest.set(a.myX + (b.myX - a.myX)*t, a.myY + (b.myY - a.myY)*t);
+	}
+
+	@Override
+	public boolean equals(Object o){
+		if (!(o instanceof MutableVector2D)){
+			return false;
+		}
+		MutableVector2D v = (MutableVector2D) o;
+		return Double.compare(myX, v.myX) == 0 && Double.compare(myY, v.myY) == 0;
+	}
+
+	@Override
+	public int hashCode(){
+		long bits = Double.doubleToLongBits(myX) * 31 + Double.doubleToLongBits(myY);
+		return (int) (bits ^ (bits >>> 32));
+	}
+
+	@Override
+	public String toString(){
+		return "(" + myX + ", " + myY + ")";
+	}
+}
@@ -0,0 +1,112 @@
+package util.mathvector;
+
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+
+
+/**
+ * Checks MutableVector2D's in-place operations against MathVector2D.
+ *
+ */
+public class MutableVector2DTest {
+
+    private static final double TOLERANCE = 1e-9;
+    private static final long SEED = 308;
+    private static final int TRIALS = 1000;
+
+    @Test
+    public void testOperationsChangeVectorInPlace () {
+        MutableVector2D v = new MutableVector2D(1, 2);
+        Assert.assertSame(v, v.add(3, 4));
+        assertVector(4, 6, v);
+        Assert.assertSame(v, v.scale(0.5));
+        assertVector(2, 3, v);
+        Assert.assertSame(v, v.addScaled(new MutableVector2D(1, -1), 2));
+        assertVector(4, 1, v);
+        Assert.assertSame(v, v.subtract(new MutableVector2D(1, 1)));
+        assertVector(3, 0, v);
+        Assert.assertSame(v, v.negate());
+        assertVector(-3, 0, v);
+    }
+
+    @Test
+    public void testNormalize () {
+        MutableVector2D v = new MutableVector2D(3, -4);
+        Assert.assertSame(v, v.normalize());
+        assertVector(0.6, -0.8, v);
+        Assert.assertEquals(1, v.calculateMagnitude(), TOLERANCE);
+    }
+
+    @Test
+    public void testNormalizingZeroLeavesZero () {
+        MutableVector2D v = new MutableVector2D();
+        v.normalize();
+        assertVector(0, 0, v);
+        MutableVector2D dest = new MutableVector2D(5, 5);
+        MutableVector2D.normalize(new MutableVector2D(0, 0), dest);
+        assertVector(0, 0, dest);
+    }
+
+    @Test
+    public void testStaticOperationsMayWriteIntoArgument () {
+        MutableVector2D a = new MutableVector2D(1, 2);
+        MutableVector2D.add(a, new MutableVector2D(3, 4), a);
+        assertVector(4, 6, a);
+        MutableVector2D.subtract(a, a, a);
+        assertVector(0, 0, a);
+        MutableVector2D b = new MutableVector2D(2, 0);
+        MutableVector2D.interpolate(b, new MutableVector2D(4, 2), 0.25, b);
+        assertVector(2.5, 0.5, b);
+    }
+
+    @Test
+    public void testMatchesMathVector2D () {
+        Random random = new Random(SEED);
+        for (int i = 0; i < TRIALS; i++) {
+            double x = random.nextDouble() * 20 - 10;
+            double y = random.nextDouble() * 20 - 10;
+            double c = random.nextDouble() * 4 - 2;
+            double degrees = random.nextDouble() * 720 - 360;
+            MathVector2D expected = new MathVector2D(x, y);
+            MutableVector2D actual = new MutableVector2D(x, y);
+            Assert.assertEquals(expected.calculateMagnitude(), actual.calculateMagnitude(),
+                                TOLERANCE);
+            Assert.assertEquals(expected.calculateAngleInRadians(),
+                                actual.calculateAngleInRadians(), TOLERANCE);
+
+            expected.rotate(degrees);
+            actual.rotateRadians(Math.toRadians(degrees));
+            assertVector(expected.getX(), expected.getY(), actual);
+
+            expected.scale(c);
+            actual.scale(c);
+            assertVector(expected.getX(), expected.getY(), actual);
+
+            expected.normalize();
+            actual.normalize();
+            assertVector(expected.getX(), expected.getY(), actual);
+
+            MathVector2D converted = actual.copyTo(new MathVector2D());
+            assertVector(converted.getX(), converted.getY(), actual);
+        }
+    }
+
+    @Test
+    public void testAngleOnAxes () {
+        Assert.assertEquals(0, new MutableVector2D(1, 0).calculateAngleInRadians(), TOLERANCE);
+        Assert.assertEquals(Math.PI / 2, new MutableVector2D(0, 1).calculateAngleInRadians(),
+                            TOLERANCE);
+        Assert.assertEquals(Math.PI, new MutableVector2D(-1, 0).calculateAngleInRadians(),
+                            TOLERANCE);
+        Assert.assertEquals(3 * Math.PI / 2,
+                            new MutableVector2D(0, -1).calculateAngleInRadians(), TOLERANCE);
+        Assert.assertEquals(Math.PI / 2, new MutableVector2D().calculateAngleInRadians(),
+                            TOLERANCE);
+    }
+
+    private static void assertVector (double x, double y, MutableVector2D actual) {
+        Assert.assertEquals(x, actual.getX(), TOLERANCE);
+        Assert.assertEquals(y, actual.getY(), TOLERANCE);
+    }
+}
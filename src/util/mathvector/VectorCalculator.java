@@ -169,4 +169,92 @@ public class VectorCalculator {
 	public static boolean vectorsDimensionsEqual(double[] v1, double[] v2){
 		return v1.length == v2.length;
 	}
+
+	/*
+	 * The methods below work on many 2-dimensional vectors at once, stored as
+	 * two arrays: xs[k] and ys[k] are the components of vector k. Only the
+	 * first count vectors are used, and the arrays are changed in place, so
+	 * nothing is allocated.
+	 */
+
+	/**
+	 * Adds (dx, dy) to each of the first count vectors.
+	 * @param xs x-components
+	 * @param ys y-components
+	 * @param count number of vectors
+	 */
+	public static void translateVectors(double[] xs, double[] ys, double dx, double dy, int count){
+		for (int k = 0; k < count; k++){
+			xs[k] += dx;
+			ys[k] += dy;
+		}
+	}
+
+	/**
+	 * Adds each vector (dxs[k], dys[k]) scaled by c to vector k, e.g. to move
+	 * positions by their velocities over a time step of c.
+	 * @param xs x-components, changed
+	 * @param ys y-components, changed
+	 * @param dxs x-components of the vectors to add
+	 * @param dys y-components of the vectors to add
+	 * @param c scale factor
+	 * @param count number of vectors
+	 */
+	public static void addScaledVectors(double[] xs, double[] ys, double[] dxs, double[] dys,
+			double c, int count){
+		for (int k = 0; k < count; k++){
+			xs[k] += dxs[k]*c;
+			ys[k] += dys[k]*c;
+		}
+	}
+
+	/**
+	 * Scales each of the first count vectors by the constant c.
+	 */
+	public static void scaleVectors(double[] xs, double[] ys, double c, int count){
+		for (int k = 0; k < count; k++){
+			xs[k] *= c;
+			ys[k] *= c;
+		}
+	}
+
+	/**
+	 * Rotates each of the first count vectors counterclockwise through the
+	 * same angle. The trig functions are only called once.
+	 * @param angleInRadians angle of rotation
+	 */
+	public static void rotateVectors(double[] xs, double[] ys, double angleInRadians, int count){
+		double cos = Math.cos(angleInRadians);
+		double sin = Math.sin(angleInRadians);
+		for (int k = 0; k < count; k++){
+			double x = xs[k];
+			xs[k] = cos*x - sin*ys[k];
+			ys[k] = sin*x + cos*ys[k];
+		}
+	}
+
+	/**
+	 * Normalizes each of the first count vectors. Zero vectors are left
+	 * unchanged.
+	 */
+	public static void normalizeVectors(double[] xs, double[] ys, int count){
+		for (int k = 0; k < count; k++){
+			double magnitude = Math.sqrt(xs[k]*xs[k] + ys[k]*ys[k]);
+			if (magnitude != 0){
+				xs[k] /= magnitude;
+				ys[k] /= magnitude;
+			}
+		}
+	}
+
+	/**
+	 * Stores the magnitude of each of the first count vectors in magnitudes.
+	 * @param magnitudes array of at least count elements
+	 */
+	public static void calculateMagnitudes(double[] xs, double[] ys, double[] magnitudes,
+			int count){
+		for (int k = 0; k < count; k++){
+			magnitudes[k] = Math.sqrt(xs[k]*xs[k] + ys[k]*ys[k]);
+		}
+	}
 }
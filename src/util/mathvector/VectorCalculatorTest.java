@@ -0,0 +1,115 @@
+package util.mathvector;
+
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+
+/**
+ * Checks VectorCalculator's batch methods against the same operations done
+ * one vector at a time with MathVector2D.
+ *
+ */
+public class VectorCalculatorTest {
+
+    private static final double TOLERANCE = 1e-9;
+    private static final long SEED = 308;
+    private static final int LENGTH = 100;
+    // the last vectors of the arrays must be left alone
+    private static final int COUNT = 90;
+    private static final int ZERO_VECTOR = 7;
+
+    private double[] myXs;
+    private double[] myYs;
+    private MathVector2D[] myExpected;
+
+    @Before
+    public void setUp () {
+        Random random = new Random(SEED);
+        myXs = new double[LENGTH];
+        myYs = new double[LENGTH];
+        myExpected = new MathVector2D[LENGTH];
+        for (int k = 0; k < LENGTH; k++) {
+            if (k != ZERO_VECTOR) {
+                myXs[k] = random.nextDouble() * 20 - 10;
+                myYs[k] = random.nextDouble() * 20 - 10;
+            }
+            myExpected[k] = new MathVector2D(myXs[k], myYs[k]);
+        }
+    }
+
+    @Test
+    public void testTranslateVectors () {
+        VectorCalculator.translateVectors(myXs, myYs, 1.5, -2, COUNT);
+        for (int k = 0; k < COUNT; k++) {
+            myExpected[k].addVector(new MathVector2D(1.5, -2));
+        }
+        assertMatchesExpected();
+    }
+
+    @Test
+    public void testAddScaledVectors () {
+        double[] dxs = new double[LENGTH];
+        double[] dys = new double[LENGTH];
+        for (int k = 0; k < LENGTH; k++) {
+            dxs[k] = k;
+            dys[k] = -k / 2.0;
+        }
+        VectorCalculator.addScaledVectors(myXs, myYs, dxs, dys, 0.25, COUNT);
+        for (int k = 0; k < COUNT; k++) {
+            myExpected[k].addVector(new MathVector2D(dxs[k], dys[k]).getScaledCopy(0.25));
+        }
+        assertMatchesExpected();
+    }
+
+    @Test
+    public void testScaleVectors () {
+        VectorCalculator.scaleVectors(myXs, myYs, -3, COUNT);
+        for (int k = 0; k < COUNT; k++) {
+            myExpected[k].scale(-3);
+        }
+        assertMatchesExpected();
+    }
+
+    @Test
+    public void testRotateVectors () {
+        VectorCalculator.rotateVectors(myXs, myYs, Math.toRadians(37), COUNT);
+        for (int k = 0; k < COUNT; k++) {
+            myExpected[k].rotate(37);
+        }
+        assertMatchesExpected();
+    }
+
+    @Test
+    public void testNormalizeVectorsLeavesZeroVectors () {
+        VectorCalculator.normalizeVectors(myXs, myYs, COUNT);
+        for (int k = 0; k < COUNT; k++) {
+            if (k != ZERO_VECTOR) {
+                myExpected[k].normalize();
+            }
+        }
+        assertMatchesExpected();
+        Assert.assertEquals(0.0, myXs[ZERO_VECTOR]);
+        Assert.assertEquals(0.0, myYs[ZERO_VECTOR]);
+    }
+
+    @Test
+    public void testCalculateMagnitudes () {
+        double[] magnitudes = new double[LENGTH];
+        VectorCalculator.calculateMagnitudes(myXs, myYs, magnitudes, COUNT);
+        for (int k = 0; k < COUNT; k++) {
+            Assert.assertEquals(myExpected[k].calculateMagnitude(), magnitudes[k], TOLERANCE);
+        }
+        for (int k = COUNT; k < LENGTH; k++) {
+            Assert.assertEquals(0.0, magnitudes[k]);
+        }
+    }
+
+    private void assertMatchesExpected () {
+        for (int k = 0; k < LENGTH; k++) {
+            Assert.assertEquals(myExpected[k].getX(), myXs[k], TOLERANCE);
+            Assert.assertEquals(myExpected[k].getY(), myYs[k], TOLERANCE);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package util.particleEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import util.concurrent.SharedPool;
+
+
+/**
+ * Steps the particles of a ParticleSystem's engines on a fork-join pool,
+ * in the background, while the game thread draws.
+ * <p>
+ * The slots of every engine's ParticleBuffer are split into fixed chunks of
+ * consecutive slots, and the chunks are stepped concurrently. Each chunk
+ * has its own random generator and collects the slots it frees, and the
+ * freed slots are handed back to the buffers in chunk order once every
+ * chunk has finished. Nothing but the running step may touch the buffers
+ * between start and finish.
+ *
+ */
+class ParallelParticleUpdater {
+
+    /**
+     * Default number of particle slots stepped by one task.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool myPool;
+    private final int myChunkSize;
+    private final List<Chunk> myChunks = new ArrayList<Chunk>();
+    private int myChunkCount;
+    private ForkJoinTask<Void> myPendingStep;
+
+    /**
+     * Creates an updater that uses the engine's SharedPool.
+     */
+    ParallelParticleUpdater () {
+        this(SharedPool.get(), DEFAULT_CHUNK_SIZE);
+    }
+
+    ParallelParticleUpdater (ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) { throw new IllegalArgumentException("chunk size must be positive"); }
+        myPool = pool;
+        myChunkSize = chunkSize;
+    }
+
+    /**
+     * Starts stepping the particles of every engine and returns without
+     * waiting for the step to finish.
+     */
+    void start (List<ParticleEngine> engines) {
+        if (myPendingStep != null) { throw new IllegalStateException("a step is already running"); }
+        myChunkCount = 0;
+        for (int i = 0; i < engines.size(); i++) {
+            ParticleBuffer buffer = engines.get(i).beginStep();
+            int slots = buffer.getSlotCount();
+            for (int from = 0; from < slots; from += myChunkSize) {
+                if (myChunks.size() == myChunkCount) {
+                    myChunks.add(new Chunk());
+                }
+                myChunks.get(myChunkCount++).prepare(buffer, from,
+                                                     Math.min(slots, from + myChunkSize));
+            }
+        }
+        if (myChunkCount > 0) {
+            myPendingStep = myPool.submit(new AllChunks(myChunks.subList(0, myChunkCount)));
+        }
+    }
+
+    /**
+     * Waits for the running step, if there is one, and hands the freed
+     * slots back to the buffers.
+     */
+    void finish () {
+        if (myPendingStep == null) { return; }
+        try {
+            myPendingStep.join();
+        }
+        finally {
+            myPendingStep = null;
+            for (int i = 0; i < myChunkCount; i++) {
+                myChunks.get(i).finish();
+            }
+            myChunkCount = 0;
+        }
+    }
+
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Random myRandom = new Random();
+        private final ParticleBuffer.SlotList myFreed = new ParticleBuffer.SlotList();
+        private ParticleBuffer myBuffer;
+        private int myFrom;
+        private int myTo;
+
+        private void prepare (ParticleBuffer buffer, int from, int to) {
+            reinitialize();
+            myBuffer = buffer;
+            myFrom = from;
+            myTo = to;
+        }
+
+        @Override
+        protected void compute () {
+            myBuffer.step(myFrom, myTo, myRandom, myFreed);
+        }
+
+        private void finish () {
+            myBuffer.endStep(myFreed);
+            myBuffer = null;
+        }
+    }
+
+    private static final class AllChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Chunk> myChunks;
+
+        private AllChunks (List<Chunk> chunks) {
+            myChunks = chunks;
+        }
+
+        @Override
+        protected void compute () {
+            invokeAll(myChunks);
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package util.particleEngine;
 
-import java.awt.Color;
+import java.awt.Composite;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.image.BufferedImage;
-import java.awt.image.RescaleOp;
 import java.util.Random;
 import util.mathvector.*;
 
@@ -41,8 +39,8 @@ public class Particle {
     private float[] myRGBAscales;
     private float[] myRGBAtolerances;
 
-    private float[] offsets;
-    private BufferedImage myBufferedImage;
+    private TintAtlas myAtlas;
+    private int myVariant;
 
     private static final int oneHundred = 100;
     private static final double radiansPerCircle = 2 * Math.PI;
@@ -101,17 +99,13 @@ public class Particle {
         durationExisted = 0;
 
         myRandomGenerator = new Random();
-        offsets = new float[4];
 
         durationLimit = (int) (myRandomGenerator.nextDouble() * duration);
         myRotation = (float) (myRandomGenerator.nextFloat() * radiansPerCircle);
         myRotationalVelocity = (float) (myRandomGenerator.nextFloat() * 0.5);
-        myBufferedImage = new BufferedImage(size.width, size.height,
-                BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = (Graphics2D) myBufferedImage.createGraphics();
-        g2d.setBackground(new Color(0, 0, 0, 0));
-        g2d.drawImage(image, 0, 0, size.width, size.height, null);
+        myAtlas = TintAtlas.forImage(image, size);
         setRGBscales();
+        myVariant = myAtlas.getVariant(myRGBAscales, 0);
     }
 
     private void setRGBscales () {
@@ -128,18 +122,22 @@ public class Particle {
      * @param g the graphics entity to draw to
      */
     protected void draw (Graphics g) {
+        int alpha = TintAtlas.getAlphaLevel(myRGBAscales[3]);
+        if (alpha == 0) return;
         Graphics2D g2d = (Graphics2D) g;
-        RescaleOp rop = new RescaleOp(myRGBAscales, offsets, null);
+        Composite oldComposite = g2d.getComposite();
+        g2d.setComposite(TintAtlas.getComposite(alpha));
         g2d.rotate(
                 myRotation,
-                myPosition.getX() + myBufferedImage.getWidth() / 2,
-                myPosition.getY() + myBufferedImage.getHeight() / 2);
-        g2d.drawImage(myBufferedImage, rop,
-                (int) myPosition.getX(), (int) myPosition.getY());
+                myPosition.getX() + myAtlas.getWidth() / 2,
+                myPosition.getY() + myAtlas.getHeight() / 2);
+        g2d.drawImage(myAtlas.getImage(myVariant),
+                (int) myPosition.getX(), (int) myPosition.getY(), null);
         g2d.rotate(
                 -myRotation,
-                myPosition.getX() + myBufferedImage.getWidth() / 2,
-                myPosition.getY() + myBufferedImage.getHeight() / 2);
+                myPosition.getX() + myAtlas.getWidth() / 2,
+                myPosition.getY() + myAtlas.getHeight() / 2);
+        g2d.setComposite(oldComposite);
     }
 
     /**
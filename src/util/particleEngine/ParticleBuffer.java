@@ -0,0 +1,401 @@
+package util.particleEngine;
+
+import java.awt.Composite;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.util.Arrays;
+import java.util.Random;
+
+
+/**
+ * Stores the particles of one ParticleEngine in parallel primitive arrays,
+ * one slot per particle, instead of one Particle object each.
+ *
+ * Particles behave like Particle: each moves at a fixed speed in a direction
+ * that wobbles randomly every update, spins, and fades out over a random
+ * lifetime. Slots of dead particles are kept on a free list and reused by
+ * the next particle added, so a running engine does not create objects.
+ * Particles are drawn with tinted copies of the engine's image from a
+ * TintAtlas, chosen when each particle starts.
+ *
+ * An update is split into beginStep, step and endStep so separate ranges of
+ * slots can be stepped on different threads. In snapshot mode, drawing reads
+ * a copy of the visible particles taken by publish, so the particles can be
+ * stepped while the last published state is drawn.
+ *
+ */
+class ParticleBuffer {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double RADIANS_PER_CIRCLE = 2 * Math.PI;
+    private static final int ONE_HUNDRED = 100;
+    private static final float DEATH_POINT = 0.8f;
+    private static final int ALPHA = 3;
+
+    private final TintAtlas myAtlas;
+    private final int myVariance;
+    private final Random myRandom;
+    private final SlotList myFreedSlots = new SlotList();
+
+    private double[] myX;
+    private double[] myY;
+    private double[] mySpeed;
+    private double[] myAngle; // radians
+    private float[] myRotation; // radians
+    private float[] myRotationalVelocity; // radians/frame
+    private int[] myAge;
+    private int[] myLifetime;
+    // RGBA scales, four per slot
+    private float[] myScales;
+    private int[] myVariants;
+    private boolean[] myAlive;
+
+    private int[] myFreeSlots;
+    private int myFreeCount;
+    private int mySlotCount;
+    private int myLiveCount;
+
+    // how particles that die during the current step start again
+    private boolean myLoop;
+    private double myStartX;
+    private double myStartY;
+    private int myDuration;
+    private float[] myStartScales;
+    private float[] myTolerances;
+
+    // the visible particles as of the last publish, drawn in snapshot mode
+    private boolean mySnapshotMode;
+    private double[] mySnapshotX = new double[0];
+    private double[] mySnapshotY = new double[0];
+    private float[] mySnapshotRotation = new float[0];
+    private int[] mySnapshotAlpha = new int[0];
+    private int[] mySnapshotVariant = new int[0];
+    private int mySnapshotCount;
+    private int mySnapshotLiveCount;
+
+    /**
+     * @param image the image every particle is drawn with
+     * @param size the size to draw the image at
+     * @param variance how much (in %) a particle's direction can change
+     *        each update
+     */
+    ParticleBuffer (Image image, Dimension size, int variance) {
+        this(image, size, variance, new Random());
+    }
+
+    /**
+     * @param random starts every particle added, and steps the buffer when
+     *        it is updated by itself
+     */
+    ParticleBuffer (Image image, Dimension size, int variance, Random random) {
+        myVariance = variance;
+        myRandom = random;
+        myAtlas = TintAtlas.forImage(image, size);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Adds a particle, reusing the slot of a dead one if there is one. Must
+     * not be called while a step is running.
+     *
+     * @param x left of the particle
+     * @param y top of the particle
+     * @param speed distance traveled per update
+     * @param angle direction of travel, in radians counterclockwise from the
+     *        positive x-axis
+     * @param duration longest time, in updates, the particle can live
+     * @param scales RGBA scales to draw the particle with
+     * @param tolerances how far each RGBA scale can vary between particles
+     */
+    void add (double x, double y, double speed, double angle, int duration, float[] scales,
+            float[] tolerances) {
+        int slot;
+        if (myFreeCount > 0) {
+            slot = myFreeSlots[--myFreeCount];
+        }
+        else {
+            if (mySlotCount == myX.length) {
+                allocate(mySlotCount * 2);
+            }
+            slot = mySlotCount++;
+        }
+        mySpeed[slot] = speed;
+        myAngle[slot] = angle;
+        myAlive[slot] = true;
+        myLiveCount++;
+        start(slot, x, y, duration, scales, tolerances, myRandom);
+    }
+
+    /**
+     * Gives a slot a fresh life at a position, with new random lifetime,
+     * spin and colour.
+     */
+    private void start (int slot, double x, double y, int duration, float[] scales,
+            float[] tolerances, Random random) {
+        myX[slot] = x;
+        myY[slot] = y;
+        myAge[slot] = 0;
+        myLifetime[slot] = (int) (random.nextDouble() * duration);
+        myRotation[slot] = (float) (random.nextFloat() * RADIANS_PER_CIRCLE);
+        myRotationalVelocity[slot] = (float) (random.nextFloat() * 0.5);
+        int base = slot * 4;
+        for (int i = 0; i < scales.length; i++) {
+            myScales[base + i] = scales[i] + (random.nextFloat() * 2 - 1) * tolerances[i];
+        }
+        myVariants[slot] = myAtlas.getVariant(myScales, base);
+    }
+
+    /**
+     * Moves, spins and fades every live particle. Particles that have lived
+     * out their lifetime either start again at the given position, moving
+     * the same way as before, or free their slot.
+     *
+     * @param loop whether dead particles start again
+     * @param x left of restarted particles
+     * @param y top of restarted particles
+     * @param duration longest time, in updates, a restarted particle lives
+     * @param scales RGBA scales of restarted particles
+     * @param tolerances how far each RGBA scale can vary between particles
+     */
+    void update (boolean loop, double x, double y, int duration, float[] scales,
+            float[] tolerances) {
+        beginStep(loop, x, y, duration, scales, tolerances);
+        step(0, mySlotCount, myRandom, myFreedSlots);
+        endStep(myFreedSlots);
+    }
+
+    /**
+     * Sets how particles that die during the next step start again. Takes
+     * the same arguments as update.
+     */
+    void beginStep (boolean loop, double x, double y, int duration, float[] scales,
+            float[] tolerances) {
+        myLoop = loop;
+        myStartX = x;
+        myStartY = y;
+        myDuration = duration;
+        myStartScales = scales;
+        myTolerances = tolerances;
+    }
+
+    /**
+     * Steps the particles in a range of slots. Different ranges can be
+     * stepped at the same time on different threads, each with its own
+     * random generator and list of freed slots.
+     *
+     * @param from first slot to step
+     * @param to slot after the last one to step
+     * @param random random generator used only by this range
+     * @param freed collects the slots of particles that were removed
+     */
+    void step (int from, int to, Random random, SlotList freed) {
+        int range = 2 * myVariance + 1;
+        for (int i = from; i < to; i++) {
+            if (!myAlive[i]) {
+                continue;
+            }
+            if (!isLiving(i)) {
+                if (myLoop) {
+                    start(i, myStartX, myStartY, myDuration, myStartScales, myTolerances, random);
+                }
+                else {
+                    myAlive[i] = false;
+                    freed.add(i);
+                }
+                continue;
+            }
+            double angleVariation = (double) (random.nextInt(range) - myVariance) / ONE_HUNDRED;
+            double angle = myAngle[i] + RADIANS_PER_CIRCLE * angleVariation;
+            myX[i] += Math.cos(angle) * mySpeed[i];
+            myY[i] -= Math.sin(angle) * mySpeed[i];
+            myAge[i]++;
+            myRotation[i] += myRotationalVelocity[i];
+            myScales[i * 4 + ALPHA] = (float) (myLifetime[i] - myAge[i]) / (float) myLifetime[i];
+        }
+    }
+
+    /**
+     * Puts the slots freed by a stepped range on the free list. Called once
+     * per range, after every range has been stepped.
+     */
+    void endStep (SlotList freed) {
+        for (int i = 0; i < freed.size(); i++) {
+            myFreeSlots[myFreeCount++] = freed.get(i);
+        }
+        myLiveCount -= freed.size();
+        freed.clear();
+        if (myLiveCount == 0) {
+            // nothing left to skip over, so start filling from the front
+            mySlotCount = 0;
+            myFreeCount = 0;
+        }
+    }
+
+    /**
+     * @return the number of slots a step has to cover
+     */
+    int getSlotCount () {
+        return mySlotCount;
+    }
+
+    /**
+     * In snapshot mode, draw and size report the state saved by the last
+     * call to publish instead of the current state. Turning snapshot mode on
+     * publishes the current state.
+     */
+    void setSnapshotMode (boolean snapshotMode) {
+        mySnapshotMode = snapshotMode;
+        if (snapshotMode) {
+            publish();
+        }
+    }
+
+    /**
+     * Saves the position, rotation, alpha and tint of every visible
+     * particle for drawing in snapshot mode. Must not be called while a step
+     * is running.
+     */
+    void publish () {
+        if (mySnapshotX.length < mySlotCount) {
+            int capacity = myX.length;
+            mySnapshotX = new double[capacity];
+            mySnapshotY = new double[capacity];
+            mySnapshotRotation = new float[capacity];
+            mySnapshotAlpha = new int[capacity];
+            mySnapshotVariant = new int[capacity];
+        }
+        int count = 0;
+        for (int i = 0; i < mySlotCount; i++) {
+            if (!myAlive[i] || !isLiving(i)) {
+                continue;
+            }
+            int alpha = TintAtlas.getAlphaLevel(myScales[i * 4 + ALPHA]);
+            if (alpha == 0) {
+                continue;
+            }
+            mySnapshotX[count] = myX[i];
+            mySnapshotY[count] = myY[i];
+            mySnapshotRotation[count] = myRotation[i];
+            mySnapshotAlpha[count] = alpha;
+            mySnapshotVariant[count] = myVariants[i];
+            count++;
+        }
+        mySnapshotCount = count;
+        mySnapshotLiveCount = myLiveCount;
+    }
+
+    /**
+     * Draws every particle that is still visible.
+     *
+     * @param g2d the graphics entity to draw to
+     */
+    void draw (Graphics2D g2d) {
+        if (mySnapshotMode) {
+            drawSnapshot(g2d);
+            return;
+        }
+        double halfWidth = myAtlas.getWidth() / 2;
+        double halfHeight = myAtlas.getHeight() / 2;
+        Composite oldComposite = g2d.getComposite();
+        for (int i = 0; i < mySlotCount; i++) {
+            if (!myAlive[i] || !isLiving(i)) {
+                continue;
+            }
+            int alpha = TintAtlas.getAlphaLevel(myScales[i * 4 + ALPHA]);
+            if (alpha == 0) {
+                continue;
+            }
+            g2d.setComposite(TintAtlas.getComposite(alpha));
+            double centerX = myX[i] + halfWidth;
+            double centerY = myY[i] + halfHeight;
+            g2d.rotate(myRotation[i], centerX, centerY);
+            g2d.drawImage(myAtlas.getImage(myVariants[i]), (int) myX[i], (int) myY[i], null);
+            g2d.rotate(-myRotation[i], centerX, centerY);
+        }
+        g2d.setComposite(oldComposite);
+    }
+
+    private void drawSnapshot (Graphics2D g2d) {
+        double halfWidth = myAtlas.getWidth() / 2;
+        double halfHeight = myAtlas.getHeight() / 2;
+        Composite oldComposite = g2d.getComposite();
+        for (int i = 0; i < mySnapshotCount; i++) {
+            g2d.setComposite(TintAtlas.getComposite(mySnapshotAlpha[i]));
+            double centerX = mySnapshotX[i] + halfWidth;
+            double centerY = mySnapshotY[i] + halfHeight;
+            g2d.rotate(mySnapshotRotation[i], centerX, centerY);
+            g2d.drawImage(myAtlas.getImage(mySnapshotVariant[i]), (int) mySnapshotX[i],
+                    (int) mySnapshotY[i], null);
+            g2d.rotate(-mySnapshotRotation[i], centerX, centerY);
+        }
+        g2d.setComposite(oldComposite);
+    }
+
+    /**
+     * @return the number of particles that have not been removed
+     */
+    int size () {
+        return mySnapshotMode ? mySnapshotLiveCount : myLiveCount;
+    }
+
+    private boolean isLiving (int slot) {
+        return myAge[slot] < myLifetime[slot] * DEATH_POINT;
+    }
+
+    private void allocate (int capacity) {
+        if (myX == null) {
+            myX = new double[capacity];
+            myY = new double[capacity];
+            mySpeed = new double[capacity];
+            myAngle = new double[capacity];
+            myRotation = new float[capacity];
+            myRotationalVelocity = new float[capacity];
+            myAge = new int[capacity];
+            myLifetime = new int[capacity];
+            myScales = new float[capacity * 4];
+            myVariants = new int[capacity];
+            myAlive = new boolean[capacity];
+            myFreeSlots = new int[capacity];
+            return;
+        }
+        myX = Arrays.copyOf(myX, capacity);
+        myY = Arrays.copyOf(myY, capacity);
+        mySpeed = Arrays.copyOf(mySpeed, capacity);
+        myAngle = Arrays.copyOf(myAngle, capacity);
+        myRotation = Arrays.copyOf(myRotation, capacity);
+        myRotationalVelocity = Arrays.copyOf(myRotationalVelocity, capacity);
+        myAge = Arrays.copyOf(myAge, capacity);
+        myLifetime = Arrays.copyOf(myLifetime, capacity);
+        myScales = Arrays.copyOf(myScales, capacity * 4);
+        myVariants = Arrays.copyOf(myVariants, capacity);
+        myAlive = Arrays.copyOf(myAlive, capacity);
+        myFreeSlots = Arrays.copyOf(myFreeSlots, capacity);
+    }
+
+    /**
+     * A growable list of slot numbers.
+     */
+    static class SlotList {
+        private int[] mySlots = new int[INITIAL_CAPACITY];
+        private int mySize;
+
+        void add (int slot) {
+            if (mySize == mySlots.length) {
+                mySlots = Arrays.copyOf(mySlots, mySize * 2);
+            }
+            mySlots[mySize++] = slot;
+        }
+
+        int get (int index) {
+            return mySlots[index];
+        }
+
+        int size () {
+            return mySize;
+        }
+
+        void clear () {
+            mySize = 0;
+        }
+    }
+}
@@ -2,9 +2,11 @@ package util.particleEngine;
 
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Image;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import util.mathvector.*;
 
 
@@ -17,6 +19,11 @@ import util.mathvector.*;
  * To use this you simply need to create an object of this type and have it
  * update and draw.
  * 
+ * The engine's own particles are kept in a ParticleBuffer, which stores them
+ * in primitive arrays and reuses the slots of dead particles. Particle objects
+ * passed to addParticle are updated and drawn after them. A ParticleSystem
+ * in parallel mode steps the buffer itself.
+ * 
  * @author David Spruill, Kathleen Lan
  */
 public class ParticleEngine {
@@ -40,6 +47,7 @@ public class ParticleEngine {
     private float[] myRGBAscales;
     private float[] myRGBAtolerances;
 
+    private ParticleBuffer buffer;
     private List<Particle> particles;
 
     /**
@@ -57,6 +65,18 @@ public class ParticleEngine {
             MathVector2D position, MathVector2D velocity, int tolerance,
             int length, double inputAngleSpan, int numberOfDirections,
             float[] RGBAscales, float[] RGBAtolerances, Boolean loopValue) {
+        this(density, particleImage, position, velocity, tolerance, length, inputAngleSpan,
+                numberOfDirections, RGBAscales, RGBAtolerances, loopValue, new Random());
+    }
+
+    /**
+     * Constructs the ParticleEngine object with custom values, drawing its
+     * random numbers from the given generator.
+     */
+    ParticleEngine (int density, Image particleImage,
+            MathVector2D position, MathVector2D velocity, int tolerance,
+            int length, double inputAngleSpan, int numberOfDirections,
+            float[] RGBAscales, float[] RGBAtolerances, Boolean loopValue, Random random) {
         myRGBAscales = RGBAscales;
         myRGBAtolerances = RGBAtolerances;
         spriteCount = density;
@@ -69,6 +89,7 @@ public class ParticleEngine {
         particleSize = new Dimension(spriteImage.getWidth(null),
                 spriteImage.getHeight(null));
         
+        buffer = new ParticleBuffer(spriteImage, particleSize, variance, random);
         particles = new ArrayList<Particle>();
 
         createParticles(inputAngleSpan, numberOfDirections);
@@ -89,34 +110,65 @@ public class ParticleEngine {
         }
     }
 
-	private void createParticle(MathVector2D velocity) {
-		Particle temp = new Particle(new MathVector2D(initialPosition), 
-				particleSize, spriteImage, velocity, variance, duration, 
-				myRGBAscales, myRGBAtolerances);
-		particles.add(temp);
-		
-	}
+    private void createParticle (MathVector2D velocity) {
+        buffer.add(initialPosition.getX(), initialPosition.getY(),
+                velocity.calculateMagnitude(), velocity.calculateAngleInRadians(),
+                duration, myRGBAscales, myRGBAtolerances);
+    }
 
     protected void draw (Graphics g) {
-        for (Particle p : particles) {
+        buffer.draw((Graphics2D) g);
+        for (int i = 0; i < particles.size(); i++) {
+            Particle p = particles.get(i);
             if (p.stillExists()) p.draw(g);
         }
     }
 
     protected void update () {
-        ArrayList<Particle> remove = new ArrayList<Particle>();
-        for (Particle p : particles) {
+        buffer.update(loop, initialPosition.getX(), initialPosition.getY(),
+                duration, myRGBAscales, myRGBAtolerances);
+        updateParticles();
+    }
+
+    /**
+     * Prepares the buffer for a step that its owner runs, possibly on other
+     * threads, and returns it.
+     */
+    ParticleBuffer beginStep () {
+        buffer.beginStep(loop, initialPosition.getX(), initialPosition.getY(),
+                duration, myRGBAscales, myRGBAtolerances);
+        return buffer;
+    }
+
+    /**
+     * Draws and counts the buffered particles as of the last publish while
+     * turned on, so they can be stepped while they are drawn.
+     */
+    void setSnapshotMode (boolean snapshotMode) {
+        buffer.setSnapshotMode(snapshotMode);
+    }
+
+    void publish () {
+        buffer.publish();
+    }
+
+    /**
+     * Updates the Particle objects passed to addParticle.
+     */
+    void updateParticles () {
+        if (particles.isEmpty()) return;
+        int kept = 0;
+        for (int i = 0; i < particles.size(); i++) {
+            Particle p = particles.get(i);
             if (!p.stillExists()) {
-                remove.add(p);
+                if (loop) createParticle(p.getMyVelocity());
             }
             else {
                 p.update();
+                particles.set(kept++, p);
             }
         }
-        for (Particle p : remove) {
-            if (loop) createParticle(new MathVector2D(p.getMyVelocity()));
-            particles.remove(p);
-        }
+        particles.subList(kept, particles.size()).clear();
     }
     
     protected void addParticle (Particle p){
@@ -140,7 +192,7 @@ public class ParticleEngine {
     }
 
     protected Boolean stillExists () {
-        return (particles.size() > 0);
+        return (buffer.size() + particles.size() > 0);
     }
 
     protected void setStartingPosition (MathVector2D position) {
@@ -164,7 +216,7 @@ public class ParticleEngine {
     }
 
     protected int getSpriteCount () {
-        return particles.size();
+        return buffer.size() + particles.size();
     }
     
     protected int getVariance () {
@@ -21,7 +21,15 @@ import util.mathvector.MathVector2D;
 
 public abstract class ParticleSystem {
 
+    /**
+     * Number of particles above which setParallelIfLarge turns parallel mode
+     * on: one task's worth of slots. Smaller systems step faster on the
+     * calling thread than a fork-join step costs to start and join.
+     */
+    public static final int PARALLEL_THRESHOLD = ParallelParticleUpdater.DEFAULT_CHUNK_SIZE;
+
     private List<ParticleEngine> myParticleEngines;
+    private ParallelParticleUpdater myParallelUpdater;
     protected MathVector2D position;
     
     private MathVector2D velocity;
@@ -66,7 +74,7 @@ public abstract class ParticleSystem {
     protected void addParticleEngine (int density, Image particleImage,
             MathVector2D position, MathVector2D velocity, int tolerance, int length,
             double angleSpan, int numberOfDirections, float[] RGBAscales, float[] RGBAtolerances, Boolean loop) {
-        myParticleEngines.add(new ParticleEngine(density, particleImage,
+        addParticleEngine(new ParticleEngine(density, particleImage,
                 position, velocity, tolerance, length, angleSpan,
                 numberOfDirections, RGBAscales, RGBAtolerances, loop));
     }
@@ -76,10 +84,15 @@ public abstract class ParticleSystem {
      * @param pe
      */
     protected void addParticleEngine (ParticleEngine pe){
+        if (isParallel()) pe.setSnapshotMode(true);
     	myParticleEngines.add(pe);
     }
     
     public void update () {
+        if (myParallelUpdater != null) {
+            updateInParallel();
+            return;
+        }
         Stack<ParticleEngine> remove = new Stack<ParticleEngine>();
         for (ParticleEngine p : myParticleEngines) {
             if(!p.stillExists())  remove.add(p);
@@ -90,6 +103,60 @@ public abstract class ParticleSystem {
         }
     }
 
+    /**
+     * Waits for the last step, saves what it produced for drawing, then
+     * starts the next step in the background. Draw calls made before the
+     * next update show the particles as of this update.
+     */
+    private void updateInParallel () {
+        myParallelUpdater.finish();
+        int kept = 0;
+        for (int i = 0; i < myParticleEngines.size(); i++) {
+            ParticleEngine p = myParticleEngines.get(i);
+            p.publish();
+            if (p.stillExists()) {
+                p.updateParticles();
+                myParticleEngines.set(kept++, p);
+            }
+        }
+        myParticleEngines.subList(kept, myParticleEngines.size()).clear();
+        myParallelUpdater.start(myParticleEngines);
+    }
+
+    /**
+     * Turns parallel mode on or off. In parallel mode, each update steps the
+     * particles on a fork-join pool in the background while the game draws
+     * the particles as they were after the previous update, so large
+     * systems do not hold up the frame. Drawing stays on the calling thread.
+     * 
+     * @param parallel whether to step particles in parallel
+     */
+    public void setParallel (boolean parallel) {
+        if (parallel == isParallel()) return;
+        if (parallel) {
+            myParallelUpdater = new ParallelParticleUpdater();
+        }
+        else {
+            myParallelUpdater.finish();
+            myParallelUpdater = null;
+        }
+        for (ParticleEngine p : myParticleEngines) {
+            p.setSnapshotMode(parallel);
+        }
+    }
+
+    /**
+     * Turns parallel mode on if the system has more than PARALLEL_THRESHOLD
+     * particles, and off otherwise.
+     */
+    public void setParallelIfLarge () {
+        setParallel(spriteCount() > PARALLEL_THRESHOLD);
+    }
+
+    public boolean isParallel () {
+        return myParallelUpdater != null;
+    }
+
     /**
      * Moves the creation point (where new particles begin life) by a vector
      * (implemented as a Point here)
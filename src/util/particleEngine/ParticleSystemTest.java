@@ -0,0 +1,138 @@
+package util.particleEngine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+import util.mathvector.MathVector2D;
+
+
+/**
+ * Checks that stepping a ParticleSystem in parallel leaves its particles
+ * exactly as stepping it on the calling thread does.
+ *
+ * The particles' directions do not wobble (zero variance) and dead
+ * particles are not restarted, so a step draws no random numbers that
+ * matter and two systems started from the same seed must stay identical
+ * however their slots are split between tasks.
+ *
+ */
+public class ParticleSystemTest {
+
+    private static final long SEED = 42;
+    private static final int SCREEN_SIZE = 240;
+    // spread over two full chunks and part of a third
+    private static final int LARGE_DENSITY = ParticleSystem.PARALLEL_THRESHOLD * 2 + 500;
+    private static final int SMALL_DENSITY = 300;
+    private static final int DURATION = 60;
+    private static final int DIRECTIONS = 37;
+    private static final float[] SCALES = { 1.0f, 0.8f, 0.6f, 1.0f };
+    private static final float[] TOLERANCES = { 0.5f, 0.5f, 0.5f, 0.0f };
+    private static final BufferedImage IMAGE = makeImage();
+
+    @Test
+    public void testParallelOnlyAboveThreshold () {
+        ParticleSystem large = new SeededSystem(LARGE_DENSITY);
+        large.setParallelIfLarge();
+        Assert.assertTrue(large.isParallel());
+        large.setParallel(false);
+
+        ParticleSystem small = new SeededSystem(SMALL_DENSITY);
+        small.setParallelIfLarge();
+        Assert.assertFalse(small.isParallel());
+    }
+
+    @Test
+    public void testParallelUpdatesMatchSequentialUpdates () {
+        ParticleSystem sequential = new SeededSystem(LARGE_DENSITY);
+        ParticleSystem parallel = new SeededSystem(LARGE_DENSITY);
+        parallel.setParallel(true);
+
+        // a parallel system draws the particles as of the update before
+        int[] previous = render(sequential);
+        int previousCount = sequential.spriteCount();
+        assertSameParticles(previous, previousCount, parallel);
+        for (int i = 0; i < DURATION; i++) {
+            sequential.update();
+            parallel.update();
+            assertSameParticles(previous, previousCount, parallel);
+            previous = render(sequential);
+            previousCount = sequential.spriteCount();
+        }
+
+        // turning parallel mode off waits for the last step
+        parallel.setParallel(false);
+        assertSameParticles(previous, previousCount, parallel);
+        Assert.assertEquals(0, parallel.spriteCount());
+    }
+
+    @Test
+    public void testSwitchingModesMidwayMatchesSequentialUpdates () {
+        ParticleSystem sequential = new SeededSystem(LARGE_DENSITY);
+        ParticleSystem switching = new SeededSystem(LARGE_DENSITY);
+        for (int i = 0; i < DURATION / 2; i++) {
+            sequential.update();
+            switching.update();
+            switching.setParallel(i % 2 == 0);
+        }
+        switching.setParallel(false);
+        assertSameParticles(render(sequential), sequential.spriteCount(), switching);
+    }
+
+    private static void assertSameParticles (int[] expectedPixels, int expectedCount,
+            ParticleSystem actual) {
+        Assert.assertEquals(expectedCount, actual.spriteCount());
+        Assert.assertTrue(Arrays.equals(expectedPixels, render(actual)));
+    }
+
+    private static int[] render (ParticleSystem system) {
+        BufferedImage screen = new BufferedImage(SCREEN_SIZE, SCREEN_SIZE,
+                                                 BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = screen.createGraphics();
+        system.draw(g);
+        g.dispose();
+        return screen.getRGB(0, 0, SCREEN_SIZE, SCREEN_SIZE, null, 0, SCREEN_SIZE);
+    }
+
+    private static BufferedImage makeImage () {
+        BufferedImage image = new BufferedImage(6, 3, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.ORANGE);
+        g.fillRect(0, 0, 6, 3);
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, 2, 3);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Two engines spraying particles in every direction from the middle of
+     * the screen, started from fixed seeds.
+     */
+    private static class SeededSystem extends ParticleSystem {
+        private static int ourDensity;
+
+        public SeededSystem (int density) {
+            super(start(density));
+        }
+
+        private static MathVector2D start (int density) {
+            // the superclass sets up the engines before this class's fields
+            ourDensity = density;
+            return new MathVector2D(SCREEN_SIZE / 2, SCREEN_SIZE / 2);
+        }
+
+        @Override
+        protected void setUpParticleEngines () {
+            for (int i = 0; i < 2; i++) {
+                addParticleEngine(new ParticleEngine(ourDensity / 2, IMAGE, position,
+                                                     new MathVector2D(1 + i, 0), 0, DURATION,
+                                                     2 * Math.PI, DIRECTIONS, SCALES,
+                                                     TOLERANCES, false, new Random(SEED + i)));
+            }
+        }
+    }
+}
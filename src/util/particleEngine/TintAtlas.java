@@ -0,0 +1,155 @@
+package util.particleEngine;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.RescaleOp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * Holds tinted copies of one particle image, so particles can be drawn as a
+ * plain image copy instead of being filtered through a RescaleOp every
+ * frame.
+ *
+ * A particle's red, green and blue scales are rounded to steps of
+ * COLOR_STEP, and the image is tinted once for each rounded combination the
+ * first time it is asked for. Alpha changes every frame as a particle fades,
+ * so it is not baked in: it is rounded to one of ALPHA_LEVELS levels and
+ * applied with a shared AlphaComposite when the image is drawn.
+ *
+ * Atlases are shared by every engine that draws the same image at the same
+ * size.
+ */
+class TintAtlas {
+    /**
+     * Rounding step of the red, green and blue scales.
+     */
+    static final float COLOR_STEP = 0.125f;
+    /**
+     * Number of levels alpha is rounded to, not counting fully transparent.
+     */
+    static final int ALPHA_LEVELS = 32;
+
+    // scales above this make every channel of a particle image saturate
+    private static final float MAX_COLOR_SCALE = 8;
+    private static final int COLOR_LEVELS = Math.round(MAX_COLOR_SCALE / COLOR_STEP) + 1;
+    private static final AlphaComposite[] COMPOSITES = new AlphaComposite[ALPHA_LEVELS + 1];
+    private static final Map<Image, TintAtlas> ATLASES = new WeakHashMap<Image, TintAtlas>();
+
+    static {
+        for (int i = 1; i <= ALPHA_LEVELS; i++) {
+            COMPOSITES[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
+                    (float) i / ALPHA_LEVELS);
+        }
+    }
+
+    private final BufferedImage mySource;
+    private final Map<Integer, Integer> myVariantIds = new HashMap<Integer, Integer>();
+    // replaced rather than changed, so drawing can read it without locking
+    private volatile BufferedImage[] myVariants = new BufferedImage[0];
+
+    /**
+     * @param image the particle image
+     * @param size the size the image is drawn at
+     */
+    TintAtlas (Image image, Dimension size) {
+        mySource = new BufferedImage(size.width, size.height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = mySource.createGraphics();
+        g2d.setBackground(new Color(0, 0, 0, 0));
+        g2d.drawImage(image, 0, 0, size.width, size.height, null);
+        g2d.dispose();
+    }
+
+    /**
+     * Returns the atlas shared by everything drawing this image at this
+     * size, creating it the first time.
+     */
+    static synchronized TintAtlas forImage (Image image, Dimension size) {
+        TintAtlas atlas = ATLASES.get(image);
+        if (atlas != null && atlas.getWidth() == size.width
+            && atlas.getHeight() == size.height) { return atlas; }
+        atlas = new TintAtlas(image, size);
+        ATLASES.put(image, atlas);
+        return atlas;
+    }
+
+    /**
+     * Finds the tinted copy closest to the given scales, tinting a new copy
+     * if this combination has not been used before.
+     *
+     * @param scales RGBA scales of a particle; alpha is ignored
+     * @param offset index of the red scale in the array
+     * @return the id of the tinted copy, for getImage
+     */
+    synchronized int getVariant (float[] scales, int offset) {
+        int red = quantize(scales[offset]);
+        int green = quantize(scales[offset + 1]);
+        int blue = quantize(scales[offset + 2]);
+        Integer key = (red * COLOR_LEVELS + green) * COLOR_LEVELS + blue;
+        Integer id = myVariantIds.get(key);
+        if (id == null) {
+            id = myVariants.length;
+            BufferedImage[] variants = Arrays.copyOf(myVariants, id + 1);
+            variants[id] = tint(red * COLOR_STEP, green * COLOR_STEP, blue * COLOR_STEP);
+            myVariants = variants;
+            myVariantIds.put(key, id);
+        }
+        return id;
+    }
+
+    /**
+     * @return the tinted copy with the given id
+     */
+    BufferedImage getImage (int variant) {
+        return myVariants[variant];
+    }
+
+    /**
+     * @return the number of tinted copies made so far
+     */
+    int getVariantCount () {
+        return myVariants.length;
+    }
+
+    int getWidth () {
+        return mySource.getWidth();
+    }
+
+    int getHeight () {
+        return mySource.getHeight();
+    }
+
+    /**
+     * Rounds an alpha scale to one of the levels that have a composite.
+     *
+     * @return the level, 0 if the particle would not be visible
+     */
+    static int getAlphaLevel (float alpha) {
+        return Math.max(0, Math.min(ALPHA_LEVELS, Math.round(alpha * ALPHA_LEVELS)));
+    }
+
+    /**
+     * @param level an alpha level above 0
+     * @return the composite that draws an image with that much alpha
+     */
+    static AlphaComposite getComposite (int level) {
+        return COMPOSITES[level];
+    }
+
+    private static int quantize (float scale) {
+        return Math.max(0, Math.min(COLOR_LEVELS - 1, Math.round(scale / COLOR_STEP)));
+    }
+
+    private BufferedImage tint (float red, float green, float blue) {
+        float[] scales = { red, green, blue, 1 };
+        float[] offsets = new float[4];
+        return new RescaleOp(scales, offsets, null).filter(mySource, null);
+    }
+}
@@ -0,0 +1,108 @@
+package vooga.platformer.collision;
+
+/**
+ * An open-addressing hash table from primitive long keys, such as packed
+ * cell coordinates, to values. Keys are never boxed, so looking up a cell
+ * allocates nothing. Removal shifts later entries of the probe sequence
+ * back, so the table needs no deletion markers.
+ *
+ * @param <V> type of the values; null is not a valid value
+ */
+final class CellTable<V> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] myKeys;
+    private Object[] myValues;
+    private int mySize;
+
+    CellTable () {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return the value stored for key, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    V get (long key) {
+        int mask = myKeys.length - 1;
+        int i = hash(key) & mask;
+        while (myValues[i] != null) {
+            if (myKeys[i] == key) { return (V) myValues[i]; }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    void put (long key, V value) {
+        if ((mySize + 1) * 2 > myKeys.length) {
+            rehash();
+        }
+        int mask = myKeys.length - 1;
+        int i = hash(key) & mask;
+        while (myValues[i] != null) {
+            if (myKeys[i] == key) {
+                myValues[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        myKeys[i] = key;
+        myValues[i] = value;
+        mySize++;
+    }
+
+    void remove (long key) {
+        int mask = myKeys.length - 1;
+        int hole = hash(key) & mask;
+        while (myValues[hole] != null && myKeys[hole] != key) {
+            hole = (hole + 1) & mask;
+        }
+        if (myValues[hole] == null) { return; }
+        // move back every later entry whose home slot is not between the hole and it
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (myValues[i] == null) {
+                break;
+            }
+            int home = hash(myKeys[i]) & mask;
+            boolean reachable = (i > hole) ? (home > hole && home <= i)
+                                           : (home > hole || home <= i);
+            if (!reachable) {
+                myKeys[hole] = myKeys[i];
+                myValues[hole] = myValues[i];
+                hole = i;
+            }
+        }
+        myValues[hole] = null;
+        mySize--;
+    }
+
+    int size () {
+        return mySize;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash () {
+        long[] oldKeys = myKeys;
+        Object[] oldValues = myValues;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate (int capacity) {
+        myKeys = new long[capacity];
+        myValues = new Object[capacity];
+        mySize = 0;
+    }
+
+    private static int hash (long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,63 @@
+package vooga.platformer.collision;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+
+
+/**
+ * Checks CellTable against a HashMap under random puts and removes.
+ *
+ */
+public class CellTableTest {
+
+    private static final long SEED = 308;
+    private static final int OPERATIONS = 200000;
+    // few enough keys that probe sequences often run into each other
+    private static final int KEYS = 500;
+
+    @Test
+    public void testMatchesHashMap () {
+        Random random = new Random(SEED);
+        CellTable<Integer> table = new CellTable<Integer>();
+        Map<Long, Integer> expected = new HashMap<Long, Integer>();
+        for (int op = 0; op < OPERATIONS; op++) {
+            long key = cellKey(random.nextInt(KEYS) - KEYS / 2, random.nextInt(3) - 1);
+            if (random.nextInt(3) == 0) {
+                table.remove(key);
+                expected.remove(key);
+            }
+            else {
+                table.put(key, op);
+                expected.put(key, op);
+            }
+            Assert.assertEquals(expected.get(key), table.get(key));
+        }
+        Assert.assertEquals(expected.size(), table.size());
+        for (int x = -KEYS / 2; x < KEYS / 2; x++) {
+            for (int y = -1; y <= 1; y++) {
+                Assert.assertEquals(expected.get(cellKey(x, y)), table.get(cellKey(x, y)));
+            }
+        }
+    }
+
+    @Test
+    public void testRemovingEverythingEmptiesTable () {
+        CellTable<String> table = new CellTable<String>();
+        for (int x = 0; x < KEYS; x++) {
+            table.put(cellKey(x, -x), "cell");
+        }
+        for (int x = 0; x < KEYS; x++) {
+            table.remove(cellKey(x, -x));
+            table.remove(cellKey(x, -x));
+        }
+        Assert.assertEquals(0, table.size());
+        Assert.assertNull(table.get(cellKey(0, 0)));
+    }
+
+    private static long cellKey (int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
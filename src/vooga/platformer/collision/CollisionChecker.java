@@ -25,8 +25,9 @@ import vooga.platformer.levelfileio.XmlTags;
  */
 public abstract class CollisionChecker {
 
-    private Map<String, HashMap<String, CollisionEvent>> collisionEventsMap =
-            new HashMap<String, HashMap<String, CollisionEvent>>();
+    private Map<Class<?>, Map<Class<?>, CollisionEvent>> collisionEventsMap =
+            new HashMap<Class<?>, Map<Class<?>, CollisionEvent>>();
+    private CollisionDispatchTable myDispatchTable = new CollisionDispatchTable();
 
     public CollisionChecker (String fileName) {
         Document myDocument = XmlUtilities.makeDocument(new File(fileName));
@@ -59,7 +60,9 @@ public abstract class CollisionChecker {
 
             CollisionEvent collisionEventAB =
                     (CollisionEvent) Reflection.createInstance(collisionEventName, typeA, typeB);
-            this.addCollisionEvents(objectAName, objectBName, collisionEventAB);
+            collisionEventAB.setAppliesToSubclasses(Boolean.parseBoolean(collisionEventElement
+                    .getAttribute(XmlTags.SUBCLASSES)));
+            this.addCollisionEvents(typeA, typeB, collisionEventAB);
         }
     }
     /**
@@ -82,28 +85,78 @@ public abstract class CollisionChecker {
      * @return
      */
     public CollisionEvent getCollisionEvent (GameObject objectA, GameObject objectB) {
-        if (collisionEventsMap.containsKey(objectA.getClass().getCanonicalName())
-                && collisionEventsMap.get(objectA.getClass().getCanonicalName())
-                        .containsKey(objectB.getClass().getCanonicalName())) {
-            return collisionEventsMap.get(objectA.getClass().getCanonicalName())
-                    .get(objectB.getClass().getCanonicalName());
+        Class<?> typeA = objectA.getClass();
+        Class<?> typeB = objectB.getClass();
+        Object cached = myDispatchTable.get(typeA, typeB);
+        if (cached == null) {
+            CollisionEvent resolved = resolveCollisionEvent(typeA, typeB);
+            cached = (resolved == null) ? CollisionDispatchTable.NO_EVENT : resolved;
+            myDispatchTable.put(typeA, typeB, cached);
         }
-        else if (collisionEventsMap
-                .containsKey(objectB.getClass().getCanonicalName())
-                && collisionEventsMap.get(objectB.getClass().getCanonicalName())
-                        .containsKey(objectA.getClass().getCanonicalName())) {
-            return collisionEventsMap.get(objectB.getClass().getCanonicalName())
-                    .get(objectA.getClass().getCanonicalName());
+        return (cached == CollisionDispatchTable.NO_EVENT) ? null : (CollisionEvent) cached;
+    }
+
+    /**
+     * Finds the CollisionEvent for a pair of classes. An event registered for
+     * exactly these two classes (in either order) wins; otherwise the closest
+     * pair of superclasses whose event applies to subclasses is used.
+     */
+    private CollisionEvent resolveCollisionEvent (Class<?> typeA, Class<?> typeB) {
+        CollisionEvent exact = findDeclared(typeA, typeB);
+        if (exact != null) { return exact; }
+        int depthA = depth(typeA);
+        int depthB = depth(typeB);
+        for (int distance = 1; distance <= depthA + depthB; distance++) {
+            Class<?> superA = typeA;
+            for (int upA = 0; upA <= distance && superA != null; upA++) {
+                Class<?> superB = ancestor(typeB, distance - upA);
+                CollisionEvent inherited = (superB == null) ? null : findDeclared(superA, superB);
+                if (inherited != null && inherited.appliesToSubclasses()) { return inherited; }
+                superA = superA.getSuperclass();
+            }
+        }
+        return null;
+    }
+
+    private CollisionEvent findDeclared (Class<?> typeA, Class<?> typeB) {
+        Map<Class<?>, CollisionEvent> row = collisionEventsMap.get(typeA);
+        if (row != null && row.containsKey(typeB)) { return row.get(typeB); }
+        row = collisionEventsMap.get(typeB);
+        if (row != null && row.containsKey(typeA)) { return row.get(typeA); }
+        return null;
+    }
+
+    private static int depth (Class<?> type) {
+        int depth = 0;
+        for (Class<?> c = type.getSuperclass(); c != null; c = c.getSuperclass()) {
+            depth++;
         }
-        else {
-            return null;
+        return depth;
+    }
+
+    private static Class<?> ancestor (Class<?> type, int generations) {
+        Class<?> c = type;
+        for (int i = 0; i < generations && c != null; i++) {
+            c = c.getSuperclass();
         }
+        return c;
     }
 
     public void addCollisionEvents (String nameA, String nameB, CollisionEvent collisionEventAB) {
-        if (!collisionEventsMap.containsKey(nameA)) {
-            collisionEventsMap.put(nameA, new HashMap<String, CollisionEvent>());
+        try {
+            addCollisionEvents(Class.forName(nameA), Class.forName(nameB), collisionEventAB);
+        }
+        catch (ClassNotFoundException e) {
+            throw new LevelFileIOException("CollisionChecker: class not found", e);
+        }
+    }
+
+    public void addCollisionEvents (Class<?> typeA, Class<?> typeB,
+                                    CollisionEvent collisionEventAB) {
+        if (!collisionEventsMap.containsKey(typeA)) {
+            collisionEventsMap.put(typeA, new HashMap<Class<?>, CollisionEvent>());
         }
-        collisionEventsMap.get(nameA).put(nameB, collisionEventAB);
+        collisionEventsMap.get(typeA).put(typeB, collisionEventAB);
+        myDispatchTable.clear();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package vooga.platformer.collision;
+
+import java.util.Arrays;
+
+
+/**
+ * An open-addressing hash table from a pair of classes to the CollisionEvent
+ * resolved for that pair. Keys are compared by identity and misses are
+ * stored too, so once a pair has been seen every later lookup is a single
+ * probe sequence with no allocation.
+ *
+ */
+final class CollisionDispatchTable {
+
+    /**
+     * Value stored for pairs that resolved to no CollisionEvent.
+     */
+    static final Object NO_EVENT = new Object();
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private Class<?>[] myKeysA;
+    private Class<?>[] myKeysB;
+    private Object[] myValues;
+    private int mySize;
+
+    CollisionDispatchTable () {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return the cached CollisionEvent for this pair, NO_EVENT for a cached
+     *         miss, or null if the pair has not been resolved yet
+     */
+    Object get (Class<?> typeA, Class<?> typeB) {
+        int mask = myKeysA.length - 1;
+        int i = hash(typeA, typeB) & mask;
+        while (myKeysA[i] != null) {
+            if (myKeysA[i] == typeA && myKeysB[i] == typeB) { return myValues[i]; }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    void put (Class<?> typeA, Class<?> typeB, Object value) {
+        if ((mySize + 1) * 2 > myKeysA.length) {
+            rehash();
+        }
+        int mask = myKeysA.length - 1;
+        int i = hash(typeA, typeB) & mask;
+        while (myKeysA[i] != null) {
+            if (myKeysA[i] == typeA && myKeysB[i] == typeB) {
+                myValues[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        myKeysA[i] = typeA;
+        myKeysB[i] = typeB;
+        myValues[i] = value;
+        mySize++;
+    }
+
+    void clear () {
+        Arrays.fill(myKeysA, null);
+        Arrays.fill(myKeysB, null);
+        Arrays.fill(myValues, null);
+        mySize = 0;
+    }
+
+    private void rehash () {
+        Class<?>[] oldA = myKeysA;
+        Class<?>[] oldB = myKeysB;
+        Object[] oldValues = myValues;
+        allocate(oldA.length * 2);
+        for (int i = 0; i < oldA.length; i++) {
+            if (oldA[i] != null) {
+                put(oldA[i], oldB[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate (int capacity) {
+        myKeysA = new Class<?>[capacity];
+        myKeysB = new Class<?>[capacity];
+        myValues = new Object[capacity];
+        mySize = 0;
+    }
+
+    private static int hash (Class<?> typeA, Class<?> typeB) {
+        int h = System.identityHashCode(typeA) * 31 + System.identityHashCode(typeB);
+        return h ^ (h >>> 16);
+    }
+}
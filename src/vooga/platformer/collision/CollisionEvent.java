@@ -20,12 +20,13 @@ import vooga.platformer.util.enums.Direction;
  * 
  */
 public abstract class CollisionEvent {
-    private Class myTypeA;
-    private Class myTypeB;
+    private Class<?> myTypeA;
+    private Class<?> myTypeB;
     private Direction myDirection = Direction.NONE;
     private Dimension2D myIntersectSize = new Dimension();
+    private boolean myAppliesToSubclasses;
 
-    public CollisionEvent (Class typeA, Class typeB) {
+    public CollisionEvent (Class<?> typeA, Class<?> typeB) {
         myTypeA = typeA;
         myTypeB = typeB;
     }
@@ -33,16 +34,35 @@ public abstract class CollisionEvent {
     public abstract void applyCollision (Level level, GameObject objectA, GameObject objectB);
     
     public void apply(Level level, GameObject objectA, GameObject objectB){
-        if(myTypeA.equals(objectA.getClass()) && myTypeB.equals(objectB.getClass())) {
+        if(matches(myTypeA, objectA) && matches(myTypeB, objectB)) {
             computeDirection(objectA, objectB);
             applyCollision(level, objectA, objectB);
         }
-        else if (myTypeB.equals(objectA.getClass()) && myTypeA.equals(objectB.getClass())) {
+        else if (matches(myTypeB, objectA) && matches(myTypeA, objectB)) {
             computeDirection(objectB, objectA);
             applyCollision(level, objectB, objectA);
         }
     }
 
+    private boolean matches (Class<?> type, GameObject obj) {
+        return myAppliesToSubclasses ? type.isInstance(obj) : type.equals(obj.getClass());
+    }
+
+    /**
+     * @param appliesToSubclasses whether this event also handles subclasses
+     *        of its two types that have no event of their own
+     */
+    public void setAppliesToSubclasses (boolean appliesToSubclasses) {
+        myAppliesToSubclasses = appliesToSubclasses;
+    }
+
+    /**
+     * @return true if this event also handles subclasses of its two types
+     */
+    public boolean appliesToSubclasses () {
+        return myAppliesToSubclasses;
+    }
+
     protected Direction direction () {
         return myDirection;
     }
@@ -0,0 +1,235 @@
+package vooga.platformer.collision;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.Level;
+
+
+/**
+ * A CollisionChecker that buckets the GameObjects of a level into a uniform
+ * spatial hash, so that only objects sharing a cell are tested against each
+ * other. The buckets are kept from one frame to the next and an object is
+ * only moved between buckets when the range of cells it covers changes.
+ * <p>
+ * Candidate pairs are visited in the same order as BasicCollisionChecker
+ * (by position in the level's object list), and the cells of both objects are
+ * refreshed right after they collide. This way the sequence of
+ * <code>CollisionEvent.apply</code> calls is the same as the brute-force
+ * checker, even when resolving one collision pushes an object into another.
+ *
+ */
+public class SpatialHashCollisionChecker extends CollisionChecker {
+
+    /**
+     * Default side length of a cell, in level coordinates.
+     */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    private final int myCellSize;
+    private final CellTable<List<Entry>> myCells = new CellTable<List<Entry>>();
+    private final Map<GameObject, Entry> myEntries = new IdentityHashMap<GameObject, Entry>();
+    private final List<Entry> myCandidates = new ArrayList<Entry>();
+    private int myFrame;
+    private int myQuery;
+
+    public SpatialHashCollisionChecker (String fileName) {
+        this(fileName, DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialHashCollisionChecker (String fileName, int cellSize) {
+        super(fileName);
+        if (cellSize <= 0) { throw new IllegalArgumentException("cell size must be positive"); }
+        myCellSize = cellSize;
+    }
+
+    @Override
+    public void checkCollisions (Level level) {
+        List<GameObject> objects = level.getObjectList();
+        myFrame++;
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject go = objects.get(i);
+            Entry e = myEntries.get(go);
+            if (e == null) {
+                e = new Entry(go);
+                myEntries.put(go, e);
+            }
+            e.index = i;
+            e.frame = myFrame;
+            refresh(e);
+        }
+        evictStaleEntries();
+
+        for (int i = 0; i < objects.size(); i++) {
+            Entry a = myEntries.get(objects.get(i));
+            int last = i;
+            gatherCandidates(a, last);
+            int next = 0;
+            while (next < myCandidates.size()) {
+                Entry b = myCandidates.get(next++);
+                last = b.index;
+                if (intersects(a.object, b.object)) {
+                    CollisionEvent ce = getCollisionEvent(a.object, b.object);
+                    if (ce != null) {
+                        ce.apply(level, a.object, b.object);
+                        refresh(b);
+                        if (refresh(a)) {
+                            // a now covers different cells, so later partners may have changed
+                            gatherCandidates(a, last);
+                            next = 0;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the entries sharing a cell with a whose list index is greater
+     * than after, sorted by list index.
+     */
+    private void gatherCandidates (Entry a, int after) {
+        myCandidates.clear();
+        myQuery++;
+        for (int cx = a.minCellX; cx <= a.maxCellX; cx++) {
+            for (int cy = a.minCellY; cy <= a.maxCellY; cy++) {
+                List<Entry> cell = myCells.get(key(cx, cy));
+                if (cell == null) {
+                    continue;
+                }
+                for (int k = 0; k < cell.size(); k++) {
+                    Entry b = cell.get(k);
+                    if (b.index > after && b.query != myQuery) {
+                        b.query = myQuery;
+                        myCandidates.add(b);
+                    }
+                }
+            }
+        }
+        sortByIndex(myCandidates);
+    }
+
+    /**
+     * Insertion sort; candidate lists are short and mostly ordered already.
+     */
+    private static void sortByIndex (List<Entry> entries) {
+        for (int i = 1; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            int j = i - 1;
+            while (j >= 0 && entries.get(j).index > e.index) {
+                entries.set(j + 1, entries.get(j));
+                j--;
+            }
+            entries.set(j + 1, e);
+        }
+    }
+
+    /**
+     * Moves an entry to the cells covered by its object's current bounds.
+     *
+     * @return true if the covered cells changed
+     */
+    private boolean refresh (Entry e) {
+        GameObject go = e.object;
+        int minX = cell(go.getX());
+        int minY = cell(go.getY());
+        int maxX = cell(go.getX() + go.getWidth());
+        int maxY = cell(go.getY() + go.getHeight());
+        if (e.inserted && minX == e.minCellX && minY == e.minCellY && maxX == e.maxCellX
+            && maxY == e.maxCellY) { return false; }
+        if (e.inserted) {
+            removeFromCells(e);
+        }
+        e.minCellX = minX;
+        e.minCellY = minY;
+        e.maxCellX = maxX;
+        e.maxCellY = maxY;
+        for (int cx = minX; cx <= maxX; cx++) {
+            for (int cy = minY; cy <= maxY; cy++) {
+                long k = key(cx, cy);
+                List<Entry> cell = myCells.get(k);
+                if (cell == null) {
+                    cell = new ArrayList<Entry>(4);
+                    myCells.put(k, cell);
+                }
+                cell.add(e);
+            }
+        }
+        e.inserted = true;
+        return true;
+    }
+
+    private void removeFromCells (Entry e) {
+        for (int cx = e.minCellX; cx <= e.maxCellX; cx++) {
+            for (int cy = e.minCellY; cy <= e.maxCellY; cy++) {
+                long k = key(cx, cy);
+                List<Entry> cell = myCells.get(k);
+                if (cell != null) {
+                    cell.remove(e);
+                    if (cell.isEmpty()) {
+                        myCells.remove(k);
+                    }
+                }
+            }
+        }
+        e.inserted = false;
+    }
+
+    /**
+     * Drops objects that are no longer in the level's object list.
+     */
+    private void evictStaleEntries () {
+        Iterator<Entry> it = myEntries.values().iterator();
+        while (it.hasNext()) {
+            Entry e = it.next();
+            if (e.frame != myFrame) {
+                removeFromCells(e);
+                it.remove();
+            }
+        }
+    }
+
+    private int cell (double coordinate) {
+        return (int) Math.floor(coordinate / myCellSize);
+    }
+
+    private static long key (int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    /**
+     * Same test as <code>a.getShape().intersects(b.getShape())</code>,
+     * without allocating the two rectangles.
+     */
+    static boolean intersects (GameObject a, GameObject b) {
+        double aw = a.getWidth();
+        double ah = a.getHeight();
+        double bw = b.getWidth();
+        double bh = b.getHeight();
+        if (aw <= 0 || ah <= 0 || bw <= 0 || bh <= 0) { return false; }
+        double ax = a.getX();
+        double ay = a.getY();
+        double bx = b.getX();
+        double by = b.getY();
+        return bx + bw > ax && by + bh > ay && bx < ax + aw && by < ay + ah;
+    }
+
+    private static final class Entry {
+        private final GameObject object;
+        private int index;
+        private int frame;
+        private int query;
+        private boolean inserted;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+
+        private Entry (GameObject go) {
+            object = go;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package vooga.platformer.core;
+
+/**
+ * A fixed-timestep game loop. Simulation steps always advance by the same
+ * amount of time, taken from an accumulator fed by a System.nanoTime clock,
+ * so a long frame results in several ordinary steps rather than one large,
+ * nondeterministic one. A frame is rendered, with the fraction of a step
+ * left in the accumulator, on loop iterations at least one frame period
+ * after the previous frame, so the update rate and the frame rate can be
+ * chosen independently.
+ * <p>
+ * If the simulation falls more than <code>maxCatchUpSteps</code> steps
+ * behind (for example after the window was dragged or a level was loaded),
+ * the backlog is dropped instead of running an ever-growing burst of steps.
+ *
+ */
+public class GameLoop implements Runnable {
+
+    /**
+     * Default length of a simulation step, in milliseconds.
+     */
+    public static final long DEFAULT_STEP_MILLIS = 25;
+    /**
+     * Default limit on the number of steps run before rendering a frame.
+     */
+    public static final int DEFAULT_MAX_CATCH_UP_STEPS = 5;
+    /**
+     * Default limit on rendered frames per second.
+     */
+    public static final int DEFAULT_FRAME_RATE = 60;
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private final Steppable myTarget;
+    private final long myStepMillis;
+    private final long myStepNanos;
+    private volatile int myMaxCatchUpSteps = DEFAULT_MAX_CATCH_UP_STEPS;
+    private volatile long myFramePeriodNanos = NANOS_PER_SECOND / DEFAULT_FRAME_RATE;
+    private volatile boolean myRunning;
+
+    /**
+     * Creates a loop stepping the target every DEFAULT_STEP_MILLIS.
+     *
+     * @param target Steppable to update and render
+     */
+    public GameLoop (Steppable target) {
+        this(target, DEFAULT_STEP_MILLIS);
+    }
+
+    /**
+     * @param target Steppable to update and render
+     * @param stepMillis length of a simulation step, in milliseconds
+     */
+    public GameLoop (Steppable target, long stepMillis) {
+        if (stepMillis <= 0) { throw new IllegalArgumentException("step must be positive"); }
+        myTarget = target;
+        myStepMillis = stepMillis;
+        myStepNanos = stepMillis * NANOS_PER_MILLI;
+    }
+
+    /**
+     * @param maxSteps maximum number of simulation steps to run before
+     *        rendering; any further backlog is discarded
+     */
+    public void setMaxCatchUpSteps (int maxSteps) {
+        if (maxSteps <= 0) { throw new IllegalArgumentException("must allow at least one step"); }
+        myMaxCatchUpSteps = maxSteps;
+    }
+
+    /**
+     * @param framesPerSecond maximum number of frames to render per second, or
+     *        0 to render as often as possible
+     */
+    public void setFrameRate (int framesPerSecond) {
+        myFramePeriodNanos = (framesPerSecond <= 0) ? 0 : NANOS_PER_SECOND / framesPerSecond;
+    }
+
+    /**
+     * @return length of a simulation step, in milliseconds
+     */
+    public long getStepMillis () {
+        return myStepMillis;
+    }
+
+    /**
+     * Makes the loop return after the current iteration.
+     */
+    public void stop () {
+        myRunning = false;
+    }
+
+    /**
+     * @return true while the loop is running
+     */
+    public boolean isRunning () {
+        return myRunning;
+    }
+
+    @Override
+    public void run () {
+        myRunning = true;
+        long previous = now();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        while (myRunning) {
+            long passStart = now();
+            accumulator += passStart - previous;
+            previous = passStart;
+
+            int steps = 0;
+            while (accumulator >= myStepNanos && steps < myMaxCatchUpSteps) {
+                myTarget.step(myStepMillis);
+                accumulator -= myStepNanos;
+                steps++;
+            }
+            if (accumulator >= myStepNanos) {
+                accumulator %= myStepNanos;
+            }
+
+            // a frame rate below the update rate skips rendering on some passes
+            if (passStart >= nextFrame) {
+                myTarget.render((double) accumulator / myStepNanos);
+                // after a stall, frames restart from now rather than bunching up
+                nextFrame = Math.max(nextFrame + myFramePeriodNanos, passStart);
+            }
+
+            sleepUntil(Math.min(nextFrame, passStart + myStepNanos - accumulator));
+        }
+    }
+
+    /**
+     * @return the current time in nanoseconds; only differences between
+     *         values are meaningful
+     */
+    protected long now () {
+        return System.nanoTime();
+    }
+
+    private void sleepUntil (long deadline) {
+        long remaining = deadline - now();
+        if (remaining <= 0) {
+            Thread.yield();
+            return;
+        }
+        try {
+            sleep(remaining);
+        }
+        catch (InterruptedException e) {
+            myRunning = false;
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits between loop passes.
+     *
+     * @param nanos time to wait, in nanoseconds; always positive
+     */
+    protected void sleep (long nanos) throws InterruptedException {
+        Thread.sleep(nanos / NANOS_PER_MILLI, (int) (nanos % NANOS_PER_MILLI));
+    }
+}
@@ -0,0 +1,71 @@
+package vooga.platformer.core;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.util.List;
+import util.headless.HeadlessRunner;
+import util.headless.HeadlessSimulation;
+import vooga.platformer.core.inputinitializer.InputInitializer;
+import vooga.platformer.core.inputinitializer.KeyControllerOnePlayerInputInitializer;
+
+
+/**
+ * Runs a PlatformerController without a window, one fixed GameLoop step per
+ * tick, for load testing levels with a HeadlessRunner. Level changes happen
+ * as they would in a game.
+ * <p>
+ * As an application, takes a level file and HeadlessRunner's options, and
+ * prints the report; the player is controlled with the keys of
+ * KeyControllerOnePlayerInputInitializer.
+ *
+ */
+public class HeadlessPlatformer implements HeadlessSimulation {
+
+    private final PlatformerController myController;
+    private final long myStepMillis;
+
+    public HeadlessPlatformer (String firstLevelName, InputInitializer ii) {
+        myController = new PlatformerController(firstLevelName, ii, false);
+        myStepMillis = myController.getGameLoop().getStepMillis();
+    }
+
+    public PlatformerController getController () {
+        return myController;
+    }
+
+    @Override
+    public void tick () {
+        myController.step(myStepMillis);
+    }
+
+    @Override
+    public void render (Graphics2D pen) {
+        // the controller paints to its own bounds, which no layout sets here
+        myController.setSize(myController.getSize());
+        myController.paint(pen);
+    }
+
+    @Override
+    public Dimension getScreenSize () {
+        return myController.getSize();
+    }
+
+    @Override
+    public Component getInputTarget () {
+        return myController;
+    }
+
+    public static void main (String[] args) throws Exception {
+        HeadlessRunner runner = new HeadlessRunner();
+        List<String> levels = runner.parseOptions(args);
+        if (levels.size() != 1) {
+            System.err.println("usage: HeadlessPlatformer LEVEL.xml "
+                               + HeadlessRunner.OPTIONS_USAGE);
+            System.exit(1);
+        }
+        System.out.print(runner.run(new HeadlessPlatformer(
+                levels.get(0), new KeyControllerOnePlayerInputInitializer())));
+        System.exit(0);
+    }
+}
@@ -0,0 +1,137 @@
+package vooga.platformer.core;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import vooga.platformer.level.Level;
+import vooga.platformer.level.LevelFactory;
+import vooga.platformer.levelfileio.LevelFileIOException;
+
+
+/**
+ * Builds Levels ahead of time on a background thread, so that switching to
+ * the next level, or restarting the current one, does not stall the game
+ * while level files are read and images decoded.
+ * <p>
+ * Each preloaded Level is a fresh copy that has never been updated, and is
+ * handed out only once: <code>take</code> removes it from the preloader, and
+ * the level has to be preloaded again before another copy is ready.
+ *
+ */
+public class LevelPreloader {
+
+    private final ExecutorService myWorker;
+    private final Map<String, Future<Level>> myLevels =
+            new ConcurrentHashMap<String, Future<Level>>();
+
+    /**
+     * Creates a preloader with its own background thread.
+     */
+    public LevelPreloader () {
+        myWorker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread (Runnable r) {
+                Thread t = new Thread(r, "LevelPreloader");
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Starts building a copy of a level in the background, unless one is
+     * already ready or being built.
+     *
+     * @param levelName path to the level's data file; null is ignored
+     */
+    public synchronized void preload (String levelName) {
+        if (levelName == null || myLevels.containsKey(levelName)) { return; }
+        final String name = levelName;
+        myLevels.put(name, myWorker.submit(new Callable<Level>() {
+            @Override
+            public Level call () {
+                return load(name);
+            }
+        }));
+    }
+
+    /**
+     * @param levelName path to a level's data file
+     * @return true if a copy of the level has been built and can be taken
+     *         without waiting
+     */
+    public boolean isReady (String levelName) {
+        Future<Level> pending = (levelName == null) ? null : myLevels.get(levelName);
+        return pending != null && pending.isDone();
+    }
+
+    /**
+     * Gets the preloaded copy of a level, waiting for it to finish loading if
+     * necessary. Levels that were never preloaded are loaded right away on
+     * the calling thread.
+     *
+     * @param levelName path to the level's data file
+     * @return a Level that has never been updated
+     * @throws LevelFileIOException if the level could not be loaded
+     */
+    public Level take (String levelName) {
+        Future<Level> pending;
+        synchronized (this) {
+            pending = (levelName == null) ? null : myLevels.remove(levelName);
+        }
+        if (pending == null) { return load(levelName); }
+        try {
+            return pending.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LevelFileIOException("Interrupted while loading " + levelName, e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) { throw (RuntimeException) e.getCause(); }
+            throw new LevelFileIOException("Could not load " + levelName, e.getCause());
+        }
+    }
+
+    /**
+     * Drops the preloaded copies of all levels except the given ones.
+     *
+     * @param levelNames levels whose copies should be kept
+     */
+    public synchronized void retainOnly (Collection<String> levelNames) {
+        Iterator<Map.Entry<String, Future<Level>>> it = myLevels.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Future<Level>> entry = it.next();
+            if (!levelNames.contains(entry.getKey())) {
+                entry.getValue().cancel(false);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops all preloaded levels and stops the background thread.
+     */
+    public synchronized void shutdown () {
+        myLevels.clear();
+        myWorker.shutdownNow();
+    }
+
+    /**
+     * Builds a level. Called on the background thread for preloaded levels.
+     *
+     * @param levelName path to the level's data file
+     * @return the new Level
+     */
+    protected Level load (String levelName) {
+        return LevelFactory.loadLevel(levelName);
+    }
+}
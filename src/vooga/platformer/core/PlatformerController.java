@@ -1,45 +1,107 @@
 package vooga.platformer.core;
 
+import java.awt.AWTEvent;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
+import java.awt.Toolkit;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.swing.JPanel;
+import util.input.journal.InputJournal;
+import util.instrumentation.Counter;
+import util.instrumentation.MetricsOverlay;
+import util.instrumentation.MetricsRegistry;
+import util.instrumentation.PhaseTimer;
 import vooga.platformer.core.inputinitializer.InputInitializer;
 import vooga.platformer.level.Level;
-import vooga.platformer.level.LevelFactory;
 import vooga.platformer.util.enums.PlayState;
 
 
+/**
+ * Runs platformer levels. The level is stepped by a fixed-timestep GameLoop
+ * on its own thread, and each frame is actively rendered into a volatile
+ * back buffer. When the panel has no child components the buffer is copied
+ * to the panel straight away, rather than waiting for Swing to service a
+ * repaint() request; child components are only painted by Swing.
+ * <p>
+ * The levels the current level can lead to, and a fresh copy of the current
+ * level itself, are built in the background by a LevelPreloader, so moving
+ * to the next level or replaying this one swaps in a ready Level instead of
+ * loading it on the game thread.
+ * <p>
+ * Step, paint and level phase times are recorded in the default
+ * MetricsRegistry under Level.METRICS_NAME; MetricsOverlay.TOGGLE_KEY shows
+ * them over the game.
+ * <p>
+ * Key and mouse input goes through an InputJournal set up from the system
+ * properties, so a session can be recorded and replayed. While recording
+ * or replaying, input reaches the level at the start of a step.
+ * 
+ */
 @SuppressWarnings("serial")
-public class PlatformerController extends JPanel implements Runnable {
-    private final int SLEEP_DELAY = 25;
+public class PlatformerController extends JPanel implements Runnable, Steppable {
+    /**
+     * Number of steps between looks for new possible next levels to preload.
+     */
+    private static final int PRELOAD_SCAN_STEPS = 40;
+    private static final int STEP_PHASE = 0;
+    private static final int PAINT_PHASE = 1;
 
-    private Level myCurrentLevel;
-    private String myCurrentLevelName;
+    private volatile Level myCurrentLevel;
+    private volatile String myCurrentLevelName;
+    private final AtomicReference<String> myRequestedLevelName = new AtomicReference<String>();
+    private final LevelPreloader myPreloader = new LevelPreloader();
+    private int myStepsUntilPreloadScan;
 
     // TODO: Make this variable hold a LevelFactory
     private Map<String, Point> myStringMap = new HashMap<String, Point>();
     private Dimension mySize;
 
     private Thread animator;
+    private GameLoop myGameLoop;
+    private final Object myBufferLock = new Object();
+    private VolatileImage myBackBuffer;
     private InputInitializer myInputInitializer;
+    private final PhaseTimer myTimer = MetricsRegistry.getDefault()
+            .phaseTimer(Level.METRICS_NAME, "step", "paint");
+    private final Counter myLevelSwitches = MetricsRegistry.getDefault()
+            .counter(Level.METRICS_NAME + ".levelSwitches");
+    private final MetricsOverlay myOverlay =
+            new MetricsOverlay(MetricsRegistry.getDefault(), Level.METRICS_NAME);
+    private final InputJournal myInputJournal = InputJournal.fromSystemProperties();
 
     public PlatformerController (String firstLevelName, InputInitializer ii) {
+        this(firstLevelName, ii, true);
+    }
+
+    /**
+     * @param startLoop false to leave the game loop stopped, so the caller
+     *        can step and paint the controller itself, e.g. without a display
+     */
+    public PlatformerController (String firstLevelName, InputInitializer ii, boolean startLoop) {
 
         this.setFocusable(true);
+        myOverlay.attach(this);
 
-        setupLevel(firstLevelName);
+        setupLevel(firstLevelName, myPreloader.take(firstLevelName));
 
         myInputInitializer = ii;
         myInputInitializer.setUpInput(myCurrentLevel.getObjectList(), this);
+        myPreloader.preload(firstLevelName);
 
-        animator = new Thread(this);
-        animator.start();
+        myGameLoop = new GameLoop(this);
+        if (startLoop) {
+            animator = new Thread(this);
+            animator.start();
+        }
     }
 
     /**
@@ -48,19 +110,56 @@ public class PlatformerController extends JPanel implements Runnable {
      * @param elapsedTime
      */
     public void update (long elapsedTime) {
+        long start = System.nanoTime();
+        myInputJournal.beginTick(this);
+        String requested = myRequestedLevelName.getAndSet(null);
+        if (requested != null) {
+            switchToLevel(requested);
+        }
+        preloadNextLevels();
+
         myCurrentLevel.update(elapsedTime);
         PlayState currentState = myCurrentLevel.getLevelStatus();
 
         if (currentState == PlayState.NEXT_LEVEL || currentState == PlayState.GAME_OVER) {
-            String nextLevelName = myCurrentLevel.getNextLevelName();
-            setupLevel(nextLevelName);
-            myInputInitializer.setUpInput(myCurrentLevel.getObjectList(), this);
+            switchToLevel(myCurrentLevel.getNextLevelName());
+        }
+        myTimer.record(STEP_PHASE, start);
+    }
+
+    /**
+     * Replaces the current level with a fresh copy of the named level, taken
+     * from the preloader, and starts preloading another copy of it for
+     * replayCurrentLevel.
+     */
+    private void switchToLevel (String lvlName) {
+        setupLevel(lvlName, myPreloader.take(lvlName));
+        myInputInitializer.setUpInput(myCurrentLevel.getObjectList(), this);
+        myPreloader.preload(lvlName);
+        myStepsUntilPreloadScan = 0;
+        myLevelSwitches.increment();
+    }
+
+    /**
+     * Every PRELOAD_SCAN_STEPS steps, starts preloading the levels the
+     * current level can lead to and drops preloaded levels it cannot. Games
+     * may add Conditions and LevelGoalZones after the level is loaded, so
+     * this is repeated rather than done once.
+     */
+    private void preloadNextLevels () {
+        if (myStepsUntilPreloadScan-- > 0) { return; }
+        myStepsUntilPreloadScan = PRELOAD_SCAN_STEPS;
+        Collection<String> needed = new ArrayList<String>(myCurrentLevel.getKnownNextLevelNames());
+        needed.add(myCurrentLevelName);
+        myPreloader.retainOnly(needed);
+        for (String name : needed) {
+            myPreloader.preload(name);
         }
     }
 
-    private void setupLevel (String lvlName) {
+    private void setupLevel (String lvlName, Level level) {
         myCurrentLevelName = lvlName;
-        myCurrentLevel = LevelFactory.loadLevel(lvlName);
+        myCurrentLevel = level;
         Rectangle2D cameraBounds = myCurrentLevel.getCamera().getBounds();
         mySize = new Dimension((int) cameraBounds.getWidth(), (int) cameraBounds.getHeight());
         setPreferredSize(mySize);
@@ -80,17 +179,109 @@ public class PlatformerController extends JPanel implements Runnable {
         return myCurrentLevel;
     }
 
+    /**
+     * Return the loop driving this controller, e.g. to change its frame rate
+     * or catch-up limit.
+     * 
+     * @return
+     */
+    public GameLoop getGameLoop () {
+        return myGameLoop;
+    }
+
+    /**
+     * Return the service building upcoming levels in the background.
+     * 
+     * @return
+     */
+    public LevelPreloader getLevelPreloader () {
+        return myPreloader;
+    }
+
+    @Override
+    protected void processEvent (AWTEvent e) {
+        if (!myInputJournal.intercept(e)) {
+            super.processEvent(e);
+        }
+    }
+
+    @Override
+    public void step (long elapsedTime) {
+        update(elapsedTime);
+    }
+
+    /**
+     * Renders a frame into the back buffer on the game thread. Without child
+     * components the buffer is copied straight to the screen; otherwise the
+     * copy is left to paint, so Swing paints the children on the event
+     * dispatch thread.
+     */
+    @Override
+    public void render (double interpolation) {
+        myTimer.frame();
+        if (!isDisplayable() || getWidth() <= 0 || getHeight() <= 0) { return; }
+        long start = System.nanoTime();
+        boolean hasChildren = getComponentCount() > 0;
+        synchronized (myBufferLock) {
+            do {
+                if (myBackBuffer == null || myBackBuffer.getWidth() != getWidth()
+                    || myBackBuffer.getHeight() != getHeight()
+                    || myBackBuffer.validate(getGraphicsConfiguration())
+                       == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    myBackBuffer = createVolatileImage(getWidth(), getHeight());
+                    if (myBackBuffer == null) { return; }
+                }
+                Graphics bufferPen = myBackBuffer.createGraphics();
+                paintFrame(bufferPen, interpolation);
+                bufferPen.dispose();
+
+                if (!hasChildren) {
+                    Graphics screenPen = getGraphics();
+                    if (screenPen != null) {
+                        screenPen.drawImage(myBackBuffer, 0, 0, null);
+                        screenPen.dispose();
+                    }
+                }
+            }
+            while (myBackBuffer.contentsLost());
+        }
+        if (hasChildren) {
+            repaint();
+        }
+        else {
+            Toolkit.getDefaultToolkit().sync();
+        }
+        myTimer.record(PAINT_PHASE, start);
+    }
+
+    /**
+     * Copies the last rendered frame, or paints one if there is none, then
+     * paints the child components over it.
+     */
     @Override
     public void paint (Graphics pen) {
-        paintBlankScreen(pen);
-        myCurrentLevel.paint(pen);
-        pen.setColor(Color.BLACK);
-        paintString(pen);
+        synchronized (myBufferLock) {
+            if (myBackBuffer != null && !myBackBuffer.contentsLost()) {
+                pen.drawImage(myBackBuffer, 0, 0, null);
+            }
+            else {
+                paintFrame(pen, 1);
+            }
+        }
         for (Component c : getComponents()) {
             c.paint(pen);
         }
     }
 
+    private void paintFrame (Graphics pen, double interpolation) {
+        Level level = myCurrentLevel;
+        paintBlankScreen(pen);
+        level.paint(pen, interpolation);
+        pen.setColor(Color.BLACK);
+        paintString(pen);
+        myOverlay.paint(pen);
+    }
+
     /**
      * Paint the background of game canvas
      * 
@@ -132,33 +323,9 @@ public class PlatformerController extends JPanel implements Runnable {
      */
     @Override
     public void run () {
-        long beforeTime, timeDiff, sleepTime;
-
-        beforeTime = System.currentTimeMillis();
-
-        while (true) {
-            timeDiff = System.currentTimeMillis() - beforeTime;
-
-            update(timeDiff);
-            repaint();
-
-            timeDiff = System.currentTimeMillis() - beforeTime;
-            sleepTime = SLEEP_DELAY - timeDiff;
-
-            if (sleepTime < 0) {
-                sleepTime = 2;
-            }
-
-            try {
-                Thread.sleep(sleepTime);
-            }
-            catch (InterruptedException e) {
-                System.out.println("interrupted!");
-            }
-            beforeTime = System.currentTimeMillis();
-        }
+        myGameLoop.run();
     }
-    
+
     /**
      * Pause game;
      */
@@ -174,10 +341,15 @@ public class PlatformerController extends JPanel implements Runnable {
     }
     
     /**
-     * Replay current level
+     * Replay current level. The level is swapped for a fresh, preloaded copy
+     * at the start of the next step, so this may be called from any thread.
      */
     public void replayCurrentLevel(){
-        setupLevel(myCurrentLevelName);
-        myInputInitializer.setUpInput(myCurrentLevel.getObjectList(), this);
+        if (myGameLoop.isRunning()) {
+            myRequestedLevelName.set(myCurrentLevelName);
+        }
+        else {
+            switchToLevel(myCurrentLevelName);
+        }
     }
 }
@@ -0,0 +1,25 @@
+package vooga.platformer.core;
+
+/**
+ * Something driven by a GameLoop: its simulation is advanced in fixed steps
+ * and it is drawn as often as the loop allows, independently of the steps.
+ * 
+ */
+public interface Steppable {
+
+    /**
+     * Advances the simulation by one fixed step.
+     * 
+     * @param elapsedTime length of the step in milliseconds
+     */
+    public void step (long elapsedTime);
+
+    /**
+     * Draws the current state.
+     * 
+     * @param interpolation fraction of a step (between 0 and 1) that has
+     *        elapsed since the last call to step, used to blend the previous
+     *        and current positions of moving objects
+     */
+    public void render (double interpolation);
+}
@@ -1,8 +1,8 @@
 package vooga.platformer.gameobject;
 
+import vooga.platformer.util.ImageRegistry;
 import vooga.platformer.util.enums.Direction;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
@@ -27,7 +27,7 @@ public class Bullet extends MovingObject {
         setSize(inWidth, inHeight);
         String defaultImageName = "src/games/platformerdemo/bullet.png";
         try {
-            Image img = ImageIO.read(new File(defaultImageName));
+            Image img = ImageRegistry.getImage(new File(defaultImageName));
             super.setImage(img);
         }
         catch (IOException e) {
@@ -3,6 +3,9 @@ package vooga.platformer.gameobject;
 
 import vooga.platformer.gameobject.strategy.update.EnemyMoveStrategy;
 import vooga.platformer.gameobject.strategy.update.GravityStrategy;
+import vooga.platformer.util.ImageRegistry;
+
+import java.awt.Image;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,8 +14,14 @@ import java.io.IOException;
  * @author Zach Michaelov
  */
 public class Enemy extends MovingObject {
+    private static final long serialVersionUID = -4597214221764578091L;
+
     public Enemy(double inX, double inY, double inWidth, double inHeight, int inId, File defaultImageFile) throws IOException {
-        super(inX, inY, inWidth, inHeight, inId, defaultImageFile);
+        this(inX, inY, inWidth, inHeight, inId, ImageRegistry.getImage(defaultImageFile));
+    }
+
+    public Enemy(double inX, double inY, double inWidth, double inHeight, int inId, Image defaultImage) {
+        super(inX, inY, inWidth, inHeight, inId, defaultImage);
         this.addStrategy("EnemyMoveStrategy", new EnemyMoveStrategy(this));
         this.addStrategy("GravityStrategy", new GravityStrategy(this));
     }
@@ -3,22 +3,22 @@ package vooga.platformer.gameobject;
 import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Point;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.AffineTransformOp;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import util.camera.Camera;
 import util.configstring.ConfigStringParser;
 import vooga.platformer.level.Level;
+import vooga.platformer.util.ImageRegistry;
+import vooga.platformer.util.ScaledImageCache;
 
 
 /**
@@ -41,9 +41,13 @@ public abstract class GameObject implements Comparable<GameObject>,
     private double width;
     private double height;
     private ImageIcon defaultImage;
+    private boolean myFlipped;
     private int id;
     private int hp;
     private Level myLevel;
+    private transient boolean myHasPreviousPosition;
+    private transient double myPreviousX;
+    private transient double myPreviousY;
 
 
 
@@ -58,13 +62,22 @@ public abstract class GameObject implements Comparable<GameObject>,
     public GameObject (double inX, double inY, double inWidth, double inHeight, int inId,
             File defaultImageFile)
         throws IOException {
+        this(inX, inY, inWidth, inHeight, inId, ImageRegistry.getImage(defaultImageFile));
+    }
+
+    /**
+     * Creates a GameObject drawn with an image that has already been loaded,
+     * such as one read from a binary level file.
+     */
+    public GameObject (double inX, double inY, double inWidth, double inHeight, int inId,
+            Image defaultImage) {
         strategyMap = new HashMap<String, UpdateStrategy>();
         x = inX;
         y = inY;
         width = inWidth;
         height = inHeight;
         id = inId;
-        defaultImage = new ImageIcon(ImageIO.read(defaultImageFile));
+        this.defaultImage = new ImageIcon(defaultImage);
     }
 
     public double getX () {
@@ -83,6 +96,22 @@ public abstract class GameObject implements Comparable<GameObject>,
         y = inY;
     }
 
+    /**
+     * @return x coordinate before the last update, or the current one if
+     *         the GameObject has not been updated yet
+     */
+    public double getPreviousX () {
+        return myHasPreviousPosition ? myPreviousX : x;
+    }
+
+    /**
+     * @return y coordinate before the last update, or the current one if
+     *         the GameObject has not been updated yet
+     */
+    public double getPreviousY () {
+        return myHasPreviousPosition ? myPreviousY : y;
+    }
+
     public int getId () {
         return id;
     }
@@ -147,10 +176,6 @@ public abstract class GameObject implements Comparable<GameObject>,
         strategyMap.put(stratName, strat);
     }
 
-    private void removeStrategy (UpdateStrategy strat) {
-        strategyMap.remove(strat);
-    }
-
     /**
      * Remove a strategy from the list.
      * 
@@ -158,8 +183,7 @@ public abstract class GameObject implements Comparable<GameObject>,
      *        PlayerMovingStrategy.
      */
     public void removeStrategy (String strategyName) {
-        UpdateStrategy strat = strategyMap.get(strategyName);
-        removeStrategy(strat);
+        strategyMap.remove(strategyName);
     }
 
     /**
@@ -169,6 +193,13 @@ public abstract class GameObject implements Comparable<GameObject>,
         return strategyMap.get(stratName);
     }
 
+    /**
+     * @return the names of all the strategies of this GameObject
+     */
+    public Collection<String> getStrategyNames () {
+        return Collections.unmodifiableSet(strategyMap.keySet());
+    }
+
     /**
      * Used by concrete subclasses to work with the strategy list.
      * 
@@ -185,11 +216,29 @@ public abstract class GameObject implements Comparable<GameObject>,
      */
     public void update (Level level, long elapsedTime) {
         myLevel = level;
+        myPreviousX = x;
+        myPreviousY = y;
+        myHasPreviousPosition = true;
         for (UpdateStrategy us : strategyMap.values()) {
             us.applyAction();
         }
     }
 
+    /**
+     * Used by a Level that updates in parallel to decide which objects may be
+     * updated on worker threads. Subclasses whose update reads or writes
+     * other objects should return false.
+     * 
+     * @return true if every strategy of this GameObject is an
+     *         IndependentUpdateStrategy
+     */
+    public boolean canUpdateInParallel () {
+        for (UpdateStrategy us : strategyMap.values()) {
+            if (!(us instanceof IndependentUpdateStrategy)) { return false; }
+        }
+        return true;
+    }
+
     /**
      * Paints the GameObject to the given Graphics object.
      * 
@@ -197,22 +246,40 @@ public abstract class GameObject implements Comparable<GameObject>,
      * @param cam camera
      */
     public void paint (Graphics pen, Camera cam) {
+        paint(pen, cam, 1);
+    }
+
+    /**
+     * Paints the GameObject at a position blended between where it was
+     * before its last update and where it is now. Nothing is drawn if that
+     * position is outside the camera; the Level also skips objects its
+     * GameObjectIndex does not find near the camera.
+     * 
+     * @param pen Graphics object to paint on
+     * @param cam camera
+     * @param interpolation 0 paints the previous position, 1 the current one
+     */
+    public void paint (Graphics pen, Camera cam, double interpolation) {
         double x = getX();
         double y = getY();
+        if (myHasPreviousPosition) {
+            x = myPreviousX + (x - myPreviousX) * interpolation;
+            y = myPreviousY + (y - myPreviousY) * interpolation;
+        }
         Rectangle2D rect = cam.getBounds();
         double xOffset = rect.getX();
         double yOffset = rect.getY();
 
-        if (getShape().intersects(rect)) {
-            pen.drawImage(
-                    getCurrentImage().getScaledInstance((int) width,
-                            (int) height, Image.SCALE_DEFAULT),
-                    (int) (x - xOffset), (int) (y - yOffset), null);
+        if (rect.intersects(x, y, width, height)) {
+            pen.drawImage(ScaledImageCache.getScaledImage(getCurrentImage(), (int) width,
+                                                          (int) height, myFlipped),
+                          (int) (x - xOffset), (int) (y - yOffset), null);
         }
     }
 
     /**
-     * @return the current Image of this GameObject
+     * @return the current Image of this GameObject, before it is scaled to
+     *         the GameObject's size or flipped
      */
     public Image getCurrentImage () {
         return defaultImage.getImage();
@@ -276,11 +343,14 @@ public abstract class GameObject implements Comparable<GameObject>,
      * 
      */
     public void flipImage () {
-        AffineTransform tx = AffineTransform.getScaleInstance(-1, 1);
-        tx.translate(-getCurrentImage().getWidth(null), 0);
-        AffineTransformOp op = new AffineTransformOp(tx,
-                AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-        setImage(op.filter((BufferedImage) getCurrentImage(), null));
+        myFlipped = !myFlipped;
+    }
+
+    /**
+     * @return true if the image is drawn flipped across its vertical axis
+     */
+    public boolean isFlipped () {
+        return myFlipped;
     }
 
 }
@@ -1,15 +1,23 @@
 package vooga.platformer.gameobject;
 
+import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
 
 
 public class Gold extends StaticObject {
+    private static final long serialVersionUID = 6586867311320709240L;
+
     public Gold (double inX, double inY, double inWidth, double inHeight,
             int inId, File defaultImageFile) throws IOException {
         super(inX, inY, inWidth, inHeight, inId, defaultImageFile);
     }
 
+    public Gold (double inX, double inY, double inWidth, double inHeight,
+            int inId, Image defaultImage) {
+        super(inX, inY, inWidth, inHeight, inId, defaultImage);
+    }
+
     public Gold getInstance (double inX, double inY, double inWidth,
             double inHeight, int inId, File defaultImageFile) throws IOException {
         return new Gold(inX, inY, inWidth, inHeight, inId, defaultImageFile);
@@ -0,0 +1,11 @@
+package vooga.platformer.gameobject;
+
+/**
+ * An UpdateStrategy that only reads and writes the GameObject it belongs to.
+ * A Level that updates in parallel may apply it on a worker thread while
+ * other objects are being updated. Changes to other objects have to go
+ * through <code>Level.deferAction</code>.
+ *
+ */
+public interface IndependentUpdateStrategy extends UpdateStrategy {
+}
@@ -1,5 +1,6 @@
 package vooga.platformer.gameobject;
 
+import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
 
@@ -15,6 +16,12 @@ public class LevelGoalZone extends GameObject {
         myNextLevel = nextLevel;
     }
 
+    public LevelGoalZone (double inX, double inY, double inWidth, double inHeight, int inId,
+                          Image defaultImage, String nextLevel) {
+        super(inX, inY, inWidth, inHeight, inId, defaultImage);
+        myNextLevel = nextLevel;
+    }
+
     public String getNextLevelPath () {
         return myNextLevel;
     }
@@ -1,10 +1,12 @@
 package vooga.platformer.gameobject;
 
+import java.awt.Image;
 import java.awt.geom.Point2D;
 import java.io.File;
 import java.io.IOException;
 
 import vooga.platformer.gameobject.strategy.update.MovementUpdateStrategy;
+import vooga.platformer.util.ImageRegistry;
 import vooga.platformer.util.enums.Direction;
 
 
@@ -15,12 +17,18 @@ import vooga.platformer.util.enums.Direction;
  */
 public class MovingObject extends GameObject {
 
+    private static final long serialVersionUID = 7826354235898796185L;
+
     private Point2D myVelocity;
     private boolean onGround = false;
     private Direction myFacingDirection = Direction.RIGHT;
 
     public MovingObject(double inX, double inY, double inWidth, double inHeight, int inId, File defaultImageFile) throws IOException {
-        super(inX, inY, inWidth, inHeight, inId, defaultImageFile);
+        this(inX, inY, inWidth, inHeight, inId, ImageRegistry.getImage(defaultImageFile));
+    }
+
+    public MovingObject(double inX, double inY, double inWidth, double inHeight, int inId, Image defaultImage) {
+        super(inX, inY, inWidth, inHeight, inId, defaultImage);
         myVelocity = new Point2D.Double(0, 0);
         // all MovingObjects have a MovementUpdateStrategy
         this.addStrategy("MovementUpdateStrategy", new MovementUpdateStrategy(this));
@@ -6,7 +6,9 @@ import vooga.platformer.gameobject.strategy.movement.GoLeftStrategy;
 import vooga.platformer.gameobject.strategy.movement.GoRightStrategy;
 import vooga.platformer.gameobject.strategy.movement.JumpStrategy;
 import vooga.platformer.gameobject.strategy.movement.StopStrategy;
+import vooga.platformer.util.ImageRegistry;
 
+import java.awt.Image;
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
@@ -25,8 +27,14 @@ public class Player extends MovingObject {
      */
     private Map<String, ControlStrategy> controlStrategies;
 
+    private static final long serialVersionUID = -1026792481236843940L;
+
     public Player(double inX, double inY, double inWidth, double inHeight, int inId, File defaultImageFile) throws IOException {
-        super(inX, inY, inWidth, inHeight, inId, defaultImageFile);
+        this(inX, inY, inWidth, inHeight, inId, ImageRegistry.getImage(defaultImageFile));
+    }
+
+    public Player(double inX, double inY, double inWidth, double inHeight, int inId, Image defaultImage) {
+        super(inX, inY, inWidth, inHeight, inId, defaultImage);
         controlStrategies = new HashMap<String, ControlStrategy>();
         initStrategies();
     }
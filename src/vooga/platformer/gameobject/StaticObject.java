@@ -14,7 +14,13 @@ import util.configstring.ConfigStringParser;
  * @author Zach Michaelov
  */
 public class StaticObject extends GameObject {
+    private static final long serialVersionUID = -5992494302705719073L;
+
     public StaticObject(double inX, double inY, double inWidth, double inHeight, int inId, File defaultImageFile) throws IOException {
         super(inX, inY, inWidth, inHeight, inId, defaultImageFile);
     }
+
+    public StaticObject(double inX, double inY, double inWidth, double inHeight, int inId, Image defaultImage) {
+        super(inX, inY, inWidth, inHeight, inId, defaultImage);
+    }
 }
@@ -2,14 +2,15 @@ package vooga.platformer.gameobject.strategy.update;
 
 
 import vooga.platformer.gameobject.Enemy;
-import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.gameobject.IndependentUpdateStrategy;
 
 /**
  * Enemies have some additional behavior in addition to regular MovingObjects
  * @author Probably Niel, modified by Yaqi
  * @author Zach Michaelov
  */
-public class EnemyMoveStrategy implements UpdateStrategy {
+public class EnemyMoveStrategy implements IndependentUpdateStrategy {
+    private static final long serialVersionUID = 164774040007987571L;
     private Enemy myEnemy;
     private Boolean myIsExcused = false;
     
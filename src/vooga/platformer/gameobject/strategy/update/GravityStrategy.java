@@ -1,7 +1,7 @@
 package vooga.platformer.gameobject.strategy.update;
 
 import vooga.platformer.gameobject.MovingObject;
-import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.gameobject.IndependentUpdateStrategy;
 
 import java.awt.geom.Point2D;
 
@@ -9,7 +9,8 @@ import java.awt.geom.Point2D;
  * @author Yaqi Zhang
  *
  */
-public class GravityStrategy implements UpdateStrategy{
+public class GravityStrategy implements IndependentUpdateStrategy {
+    private static final long serialVersionUID = -1410785459890769285L;
     private static final double GRAVITY = 0.3;
     private MovingObject myMoveObj;
     /**
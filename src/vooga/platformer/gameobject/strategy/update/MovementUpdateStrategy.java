@@ -1,7 +1,7 @@
 package vooga.platformer.gameobject.strategy.update;
 
 import vooga.platformer.gameobject.MovingObject;
-import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.gameobject.IndependentUpdateStrategy;
 import vooga.platformer.util.enums.Direction;
 
 
@@ -11,7 +11,8 @@ import vooga.platformer.util.enums.Direction;
  * @author Yaqi Zhang
  * @author Zach Michaelov (modified)
  */
-public class MovementUpdateStrategy implements UpdateStrategy {
+public class MovementUpdateStrategy implements IndependentUpdateStrategy {
+    private static final long serialVersionUID = 3098493469614575592L;
     private MovingObject myMoveObj;
 
     /**
@@ -0,0 +1,348 @@
+package vooga.platformer.level;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import vooga.platformer.gameobject.GameObject;
+
+
+/**
+ * Indexes the GameObjects of a Level by position, by type and by ID, so that
+ * plugins, conditions and painting do not have to scan the whole object list.
+ * <p>
+ * Positions are kept in a uniform grid over the level. Each object is
+ * bucketed into the cells covered by its bounds both before and after the
+ * last update, so an object drawn part of the way between the two is still
+ * found. Objects outside the level are kept in the border cells. Positions
+ * are only re-read in <code>refresh</code>; the Level does this once per
+ * update cycle, after collisions have been resolved.
+ * <p>
+ * All queries return objects in the same order as the Level's object list
+ * (sorted by ID). Queries keep no state of their own in the index, so the
+ * painting thread can query it while the game thread is not changing it.
+ *
+ */
+public class GameObjectIndex {
+
+    /**
+     * Default side length of a cell, in level coordinates.
+     */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    private final int myCellSize;
+    private int myColumns;
+    private int myRows;
+    private List<List<Entry>> myCells;
+    private final Map<GameObject, Entry> myEntries = new IdentityHashMap<GameObject, Entry>();
+    private final Map<Integer, List<GameObject>> myIds = new HashMap<Integer, List<GameObject>>();
+    private final Map<Class<?>, List<GameObject>> myTypes =
+            new HashMap<Class<?>, List<GameObject>>();
+    private final Map<Class<?>, List<?>> myTypeViews = new HashMap<Class<?>, List<?>>();
+
+    /**
+     * @param width width of the level
+     * @param height height of the level
+     */
+    public GameObjectIndex (double width, double height) {
+        this(width, height, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param width width of the level
+     * @param height height of the level
+     * @param cellSize side length of a grid cell
+     */
+    public GameObjectIndex (double width, double height, int cellSize) {
+        if (cellSize <= 0) { throw new IllegalArgumentException("cell size must be positive"); }
+        myCellSize = cellSize;
+        resize(width, height);
+    }
+
+    /**
+     * Changes the area covered by the grid, re-bucketing every object.
+     *
+     * @param width width of the level
+     * @param height height of the level
+     */
+    public void resize (double width, double height) {
+        for (Entry e : myEntries.values()) {
+            removeFromCells(e);
+        }
+        myColumns = Math.max(1, (int) Math.ceil(width / myCellSize));
+        myRows = Math.max(1, (int) Math.ceil(height / myCellSize));
+        int cells = myColumns * myRows;
+        myCells = new ArrayList<List<Entry>>(Collections.<List<Entry>> nCopies(cells, null));
+        for (Entry e : myEntries.values()) {
+            addToCells(e);
+        }
+    }
+
+    /**
+     * Adds an object to the index. An object added more than once has to be
+     * removed as many times before it leaves the index.
+     *
+     * @param go GameObject to add
+     */
+    public void add (GameObject go) {
+        Entry e = myEntries.get(go);
+        if (e != null) {
+            e.count++;
+            return;
+        }
+        e = new Entry(go);
+        myEntries.put(go, e);
+        addToCells(e);
+        List<GameObject> sameId = myIds.get(go.getId());
+        if (sameId == null) {
+            sameId = new ArrayList<GameObject>(1);
+            myIds.put(go.getId(), sameId);
+        }
+        insertSorted(sameId, go);
+        for (Map.Entry<Class<?>, List<GameObject>> type : myTypes.entrySet()) {
+            if (type.getKey().isInstance(go)) {
+                insertSorted(type.getValue(), go);
+            }
+        }
+    }
+
+    /**
+     * Removes an object from the index.
+     *
+     * @param go GameObject to remove
+     */
+    public void remove (GameObject go) {
+        Entry e = myEntries.get(go);
+        if (e == null || --e.count > 0) { return; }
+        myEntries.remove(go);
+        removeFromCells(e);
+        List<GameObject> sameId = myIds.get(go.getId());
+        removeSorted(sameId, go);
+        if (sameId.isEmpty()) {
+            myIds.remove(go.getId());
+        }
+        for (Map.Entry<Class<?>, List<GameObject>> type : myTypes.entrySet()) {
+            if (type.getKey().isInstance(go)) {
+                removeSorted(type.getValue(), go);
+            }
+        }
+    }
+
+    /**
+     * Re-reads the bounds of every object, moving it between cells if the
+     * cells it covers have changed.
+     */
+    public void refresh () {
+        for (Entry e : myEntries.values()) {
+            if (!coversSameCells(e)) {
+                removeFromCells(e);
+                addToCells(e);
+            }
+        }
+    }
+
+    /**
+     * @return number of objects in the index
+     */
+    public int size () {
+        return myEntries.size();
+    }
+
+    /**
+     * @param id ID of a GameObject
+     * @return the first object with that ID, or null if there is none
+     */
+    public GameObject getObjectById (int id) {
+        List<GameObject> sameId = myIds.get(id);
+        return (sameId == null) ? null : sameId.get(0);
+    }
+
+    /**
+     * Gets the objects that are instances of a type. The first query for a
+     * type scans every object; after that the result is kept up to date as
+     * objects are added and removed.
+     *
+     * @param type class or interface to look for
+     * @return read-only view of the matching objects, which changes as
+     *         objects are added and removed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getObjectsOfType (Class<T> type) {
+        List<T> view = (List<T>) myTypeViews.get(type);
+        if (view == null) {
+            List<GameObject> matches = new ArrayList<GameObject>();
+            for (GameObject go : myEntries.keySet()) {
+                if (type.isInstance(go)) {
+                    matches.add(go);
+                }
+            }
+            Collections.sort(matches);
+            myTypes.put(type, matches);
+            view = (List<T>) Collections.unmodifiableList(matches);
+            myTypeViews.put(type, view);
+        }
+        return view;
+    }
+
+    /**
+     * @param region area of the level
+     * @return new list of the objects whose current bounds intersect the
+     *         region
+     */
+    public List<GameObject> getObjectsInRegion (Rectangle2D region) {
+        List<GameObject> result = new ArrayList<GameObject>();
+        for (Entry e : gatherCandidates(region)) {
+            if (intersects(e.object, region)) {
+                result.add(e.object);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the objects sharing a cell with a region, including objects
+     * that were in those cells before the last update. Used to find what to
+     * paint; callers still have to test each object's exact bounds.
+     *
+     * @param region area of the level
+     * @param result list that is cleared and filled with the objects
+     */
+    public void collectObjectsNear (Rectangle2D region, List<GameObject> result) {
+        result.clear();
+        for (Entry e : gatherCandidates(region)) {
+            result.add(e.object);
+        }
+    }
+
+    /**
+     * Gets the entries in the cells covering a region, each once, sorted into
+     * object list order. An entry covering several of the cells is taken
+     * from the first of them only, its top left cell within the region.
+     */
+    private List<Entry> gatherCandidates (Rectangle2D region) {
+        List<Entry> candidates = new ArrayList<Entry>();
+        int minX = column(region.getMinX());
+        int maxX = column(region.getMaxX());
+        int minY = row(region.getMinY());
+        int maxY = row(region.getMaxY());
+        for (int cy = minY; cy <= maxY; cy++) {
+            for (int cx = minX; cx <= maxX; cx++) {
+                List<Entry> cell = myCells.get(cy * myColumns + cx);
+                if (cell == null) {
+                    continue;
+                }
+                for (int k = 0; k < cell.size(); k++) {
+                    Entry e = cell.get(k);
+                    if (cx == Math.max(e.minCellX, minX) && cy == Math.max(e.minCellY, minY)) {
+                        candidates.add(e);
+                    }
+                }
+            }
+        }
+        Collections.sort(candidates);
+        return candidates;
+    }
+
+    private boolean coversSameCells (Entry e) {
+        GameObject go = e.object;
+        double x = go.getX();
+        double y = go.getY();
+        double px = go.getPreviousX();
+        double py = go.getPreviousY();
+        return e.minCellX == column(Math.min(x, px))
+               && e.minCellY == row(Math.min(y, py))
+               && e.maxCellX == column(Math.max(x, px) + go.getWidth())
+               && e.maxCellY == row(Math.max(y, py) + go.getHeight());
+    }
+
+    private void addToCells (Entry e) {
+        GameObject go = e.object;
+        double x = go.getX();
+        double y = go.getY();
+        double px = go.getPreviousX();
+        double py = go.getPreviousY();
+        e.minCellX = column(Math.min(x, px));
+        e.minCellY = row(Math.min(y, py));
+        e.maxCellX = column(Math.max(x, px) + go.getWidth());
+        e.maxCellY = row(Math.max(y, py) + go.getHeight());
+        for (int cy = e.minCellY; cy <= e.maxCellY; cy++) {
+            for (int cx = e.minCellX; cx <= e.maxCellX; cx++) {
+                int k = cy * myColumns + cx;
+                List<Entry> cell = myCells.get(k);
+                if (cell == null) {
+                    cell = new ArrayList<Entry>(4);
+                    myCells.set(k, cell);
+                }
+                cell.add(e);
+            }
+        }
+    }
+
+    private void removeFromCells (Entry e) {
+        for (int cy = e.minCellY; cy <= e.maxCellY; cy++) {
+            for (int cx = e.minCellX; cx <= e.maxCellX; cx++) {
+                myCells.get(cy * myColumns + cx).remove(e);
+            }
+        }
+    }
+
+    private int column (double x) {
+        return clamp((int) Math.floor(x / myCellSize), myColumns);
+    }
+
+    private int row (double y) {
+        return clamp((int) Math.floor(y / myCellSize), myRows);
+    }
+
+    private static int clamp (int cell, int cells) {
+        return Math.max(0, Math.min(cells - 1, cell));
+    }
+
+    /**
+     * Inserts an object into a list sorted in object list order.
+     */
+    private static void insertSorted (List<GameObject> list, GameObject go) {
+        int i = Collections.binarySearch(list, go);
+        list.add((i < 0) ? -i - 1 : i, go);
+    }
+
+    private static void removeSorted (List<GameObject> list, GameObject go) {
+        int i = Collections.binarySearch(list, go);
+        if (i >= 0 && list.get(i) == go) {
+            list.remove(i);
+        }
+        else {
+            // compareTo ties between distinct objects; fall back to a scan
+            list.remove(go);
+        }
+    }
+
+    /**
+     * Same test as <code>go.getShape().intersects(region)</code>, without
+     * allocating the rectangle.
+     */
+    private static boolean intersects (GameObject go, Rectangle2D region) {
+        return region.intersects(go.getX(), go.getY(), go.getWidth(), go.getHeight());
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        private final GameObject object;
+        private int count = 1;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+
+        private Entry (GameObject go) {
+            object = go;
+        }
+
+        @Override
+        public int compareTo (Entry e) {
+            return object.compareTo(e.object);
+        }
+    }
+}
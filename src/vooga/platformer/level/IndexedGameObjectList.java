@@ -0,0 +1,102 @@
+package vooga.platformer.level;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import vooga.platformer.gameobject.GameObject;
+
+
+/**
+ * The object list of a Level, kept sorted by ID. Every change made through
+ * the list, including through its iterators, is passed on to the Level's
+ * GameObjectIndex.
+ *
+ */
+class IndexedGameObjectList extends AbstractList<GameObject> implements RandomAccess {
+
+    private final List<GameObject> myObjects = new ArrayList<GameObject>();
+    private final GameObjectIndex myIndex;
+
+    IndexedGameObjectList (GameObjectIndex index) {
+        myIndex = index;
+    }
+
+    @Override
+    public GameObject get (int index) {
+        return myObjects.get(index);
+    }
+
+    @Override
+    public int size () {
+        return myObjects.size();
+    }
+
+    @Override
+    public GameObject set (int index, GameObject go) {
+        GameObject old = myObjects.set(index, go);
+        if (old != go) {
+            myIndex.add(go);
+            myIndex.remove(old);
+        }
+        return old;
+    }
+
+    @Override
+    public void add (int index, GameObject go) {
+        myObjects.add(index, go);
+        myIndex.add(go);
+    }
+
+    @Override
+    public GameObject remove (int index) {
+        GameObject old = myObjects.remove(index);
+        myIndex.remove(old);
+        return old;
+    }
+
+    /**
+     * Inserts an object at its place in ID order, found by binary search.
+     */
+    void insert (GameObject go) {
+        int i = Collections.binarySearch(myObjects, go);
+        myObjects.add((i < 0) ? -i - 1 : i, go);
+        myIndex.add(go);
+    }
+
+    /**
+     * Inserts many objects at once. The objects are appended and the list
+     * sorted again, which merges them into the run that is already sorted.
+     */
+    void insertAll (Collection<? extends GameObject> objects) {
+        myObjects.addAll(objects);
+        for (GameObject go : objects) {
+            myIndex.add(go);
+        }
+        Collections.sort(myObjects);
+    }
+
+    /**
+     * Removes every object that is marked for removal, in one pass over the
+     * list.
+     *
+     * @return number of objects removed
+     */
+    int removeMarked () {
+        int kept = 0;
+        for (int i = 0; i < myObjects.size(); i++) {
+            GameObject go = myObjects.get(i);
+            if (go.checkForRemoval()) {
+                myIndex.remove(go);
+            }
+            else {
+                myObjects.set(kept++, go);
+            }
+        }
+        int removed = myObjects.size() - kept;
+        myObjects.subList(kept, myObjects.size()).clear();
+        return removed;
+    }
+}
@@ -2,15 +2,21 @@ package vooga.platformer.level;
 
 import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import util.camera.Camera;
 import util.camera.UpdatableCamera;
+import util.instrumentation.MetricsRegistry;
+import util.instrumentation.PhaseTimer;
 import vooga.platformer.collision.BasicCollisionChecker;
 import vooga.platformer.collision.CollisionChecker;
 import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.LevelGoalZone;
 import vooga.platformer.gameobject.Player;
 import vooga.platformer.level.condition.Condition;
 import vooga.platformer.level.levelplugin.LevelPlugin;
@@ -24,7 +30,23 @@ import vooga.platformer.util.enums.PlayState;
  */
 
 public class Level {
-    private List<GameObject> objectList;
+    /**
+     * Name under which levels and their controller record metrics.
+     */
+    public static final String METRICS_NAME = "platformer";
+    private static final int OBJECTS_PHASE = 0;
+    private static final int COLLISION_PHASE = 1;
+    private static final int CAMERA_PHASE = 2;
+    private static final int PLUGINS_PHASE = 3;
+
+    private final PhaseTimer myTimer = MetricsRegistry.getDefault()
+            .phaseTimer(METRICS_NAME, "objects", "collision", "camera", "plugins");
+    private IndexedGameObjectList objectList;
+    private GameObjectIndex myIndex;
+    private List<GameObject> myPendingObjects;
+    private List<Runnable> myDeferredActions;
+    private boolean myUpdating;
+    private ParallelObjectUpdater myParallelUpdater;
     private List<LevelPlugin> pluginList;
     private List<Condition> conditionList;
     private UpdatableCamera cam;
@@ -33,13 +55,29 @@ public class Level {
     private CollisionChecker myCollisionChecker;
     private Player myPlayer;
     private boolean myPaused;
+    private boolean myCameraMoved;
+    private double myPreviousCameraX;
+    private double myPreviousCameraY;
 
     public Level (Dimension levelDim, UpdatableCamera inCam, String collisionFileName) {
-        objectList = new ArrayList<GameObject>();
+        this(levelDim, inCam, new BasicCollisionChecker(collisionFileName));
+    }
+
+    /**
+     * @param levelDim dimensions of the level
+     * @param inCam camera following the level
+     * @param collisionChecker CollisionChecker used to detect collisions
+     *        between this level's GameObjects
+     */
+    public Level (Dimension levelDim, UpdatableCamera inCam, CollisionChecker collisionChecker) {
+        myIndex = new GameObjectIndex(levelDim.getWidth(), levelDim.getHeight());
+        objectList = new IndexedGameObjectList(myIndex);
+        myPendingObjects = new ArrayList<GameObject>();
+        myDeferredActions = new ArrayList<Runnable>();
         conditionList = new ArrayList<Condition>();
         pluginList = new ArrayList<LevelPlugin>();
         myDimension = levelDim;
-        myCollisionChecker = new BasicCollisionChecker(collisionFileName);
+        myCollisionChecker = collisionChecker;
         cam = inCam;
         myPaused = false;
     }
@@ -50,11 +88,37 @@ public class Level {
      * @param pen Graphics object to paint on
      */
     public void paint (Graphics pen) {
+        paint(pen, 1);
+    }
+
+    /**
+     * Paint the level part of the way between the previous update cycle and
+     * the current one. The camera and every GameObject are drawn at
+     * positions blended between the two cycles.
+     * 
+     * @param pen Graphics object to paint on
+     * @param interpolation 0 paints the previous cycle, 1 the current one
+     */
+    public void paint (Graphics pen, double interpolation) {
+        if (myPaused) {
+            interpolation = 1;
+        }
+        Rectangle2D camBounds = cam.getBounds();
+        Rectangle2D view = new Rectangle2D.Double(camBounds.getX(), camBounds.getY(),
+                                                  camBounds.getWidth(), camBounds.getHeight());
+        if (myCameraMoved) {
+            view.setRect(myPreviousCameraX + (view.getX() - myPreviousCameraX) * interpolation,
+                         myPreviousCameraY + (view.getY() - myPreviousCameraY) * interpolation,
+                         view.getWidth(), view.getHeight());
+        }
+        Camera viewCamera = new FixedCamera(view);
         for (LevelPlugin lp : pluginList) {
-            lp.paint(pen, objectList, cam);
+            lp.paint(pen, objectList, viewCamera);
         }
-        for (GameObject go : objectList) {
-            go.paint(pen, cam);
+        List<GameObject> paintList = new ArrayList<GameObject>();
+        myIndex.collectObjectsNear(view, paintList);
+        for (GameObject go : paintList) {
+            go.paint(pen, viewCamera, interpolation);
         }
     }
 
@@ -84,6 +148,7 @@ public class Level {
      */
     public void setDimension (Dimension d) {
         myDimension = d;
+        myIndex.resize(d.getWidth(), d.getHeight());
     }
 
     /**
@@ -96,13 +161,93 @@ public class Level {
     }
 
     /**
-     * Add a GameObject to the level.
+     * Add a GameObject to the level, at its place in the list sorted by ID.
+     * Objects added while the level is updating its objects, such as
+     * bullets, join the list once every object has been updated.
      * 
      * @param go GameObject to add
      */
     public void addGameObject (GameObject go) {
-        objectList.add(go);
-        Collections.sort(objectList);
+        ParallelObjectUpdater.DeferredWork work = ParallelObjectUpdater.getCurrentWork();
+        if (work != null) {
+            work.addGameObject(go);
+        }
+        else if (myUpdating) {
+            myPendingObjects.add(go);
+        }
+        else {
+            objectList.insert(go);
+        }
+    }
+
+    /**
+     * Add many GameObjects to the level at once, sorting the list only once.
+     * 
+     * @param objects GameObjects to add
+     */
+    public void addGameObjects (Collection<? extends GameObject> objects) {
+        if (ParallelObjectUpdater.getCurrentWork() != null) {
+            for (GameObject go : objects) {
+                addGameObject(go);
+            }
+        }
+        else if (myUpdating) {
+            myPendingObjects.addAll(objects);
+        }
+        else {
+            objectList.insertAll(objects);
+        }
+    }
+
+    /**
+     * Run an action once every object has been updated, before removed
+     * objects leave the level. Actions run in the order they were deferred,
+     * on the thread that updates the level. Outside the object update pass,
+     * the action runs right away.
+     * <p>
+     * Objects updated in parallel must use this for anything that changes
+     * another object, since the other object may be updating at the same
+     * time.
+     * 
+     * @param action action to run
+     */
+    public void deferAction (Runnable action) {
+        ParallelObjectUpdater.DeferredWork work = ParallelObjectUpdater.getCurrentWork();
+        if (work != null) {
+            work.deferAction(action);
+        }
+        else if (myUpdating) {
+            myDeferredActions.add(action);
+        }
+        else {
+            action.run();
+        }
+    }
+
+    /**
+     * Choose whether objects are updated in parallel. When enabled, objects
+     * whose <code>canUpdateInParallel</code> is true are updated first, on a
+     * fork-join pool, and the rest are updated afterwards, in list order.
+     * Objects added and actions deferred during the pass are applied in list
+     * order, so the result is the same on every run and for any number of
+     * threads. Disabled by default.
+     * 
+     * @param parallel true to update objects in parallel
+     */
+    public void setParallelUpdate (boolean parallel) {
+        if (parallel && myParallelUpdater == null) {
+            myParallelUpdater = new ParallelObjectUpdater();
+        }
+        else if (!parallel) {
+            myParallelUpdater = null;
+        }
+    }
+
+    /**
+     * @return true if objects are updated in parallel
+     */
+    public boolean isParallelUpdate () {
+        return myParallelUpdater != null;
     }
 
     /**
@@ -114,6 +259,38 @@ public class Level {
         return objectList;
     }
 
+    /**
+     * Return the game objects whose bounds intersect a region of the level.
+     * Positions are those at the end of the last update cycle.
+     * 
+     * @param region area of the level
+     * @return new list of the objects, sorted by ID
+     */
+    public List<GameObject> getObjectsInRegion (Rectangle2D region) {
+        return myIndex.getObjectsInRegion(region);
+    }
+
+    /**
+     * Return the game objects of a given type.
+     * 
+     * @param type class or interface to look for
+     * @return read-only view of the objects, sorted by ID; it changes as
+     *         objects are added to and removed from the level
+     */
+    public <T> List<T> getObjectsOfType (Class<T> type) {
+        return myIndex.getObjectsOfType(type);
+    }
+
+    /**
+     * Return the game object with a given ID.
+     * 
+     * @param id ID of the object
+     * @return the object, or null if the level has none with that ID
+     */
+    public GameObject getObjectById (int id) {
+        return myIndex.getObjectById(id);
+    }
+
     /**
      * Update the level.
      * 
@@ -121,34 +298,83 @@ public class Level {
      */
     public void update (long elapsedTime) {
         if (!myPaused) {
-            List<GameObject> removalList = new ArrayList<GameObject>();
-            for (GameObject go : objectList) {
-                go.update(this, elapsedTime);
-                Rectangle levelBounds =
-                        new Rectangle(0, 0, (int) myDimension.getWidth(),
-                                      (int) myDimension.getHeight());
-                if (!go.getShape().intersects(levelBounds)) {
-                        go.markForRemoval();
+            long time = System.nanoTime();
+            myUpdating = true;
+            try {
+                if (myParallelUpdater != null) {
+                    myParallelUpdater.update(this, objectList, elapsedTime);
+                }
+                else {
+                    for (int i = 0; i < objectList.size(); i++) {
+                        updateObject(objectList.get(i), elapsedTime);
+                    }
                 }
-                if (go.checkForRemoval()) {
-                    removalList.add(go);
+                for (int i = 0; i < myDeferredActions.size(); i++) {
+                    myDeferredActions.get(i).run();
                 }
             }
-
-            for (int i = removalList.size() - 1; i >= 0; i--) {
-                objectList.remove(removalList.get(i));
+            finally {
+                myDeferredActions.clear();
+                myUpdating = false;
             }
+            objectList.removeMarked();
+            if (!myPendingObjects.isEmpty()) {
+                objectList.insertAll(myPendingObjects);
+                myPendingObjects.clear();
+            }
+
+            time = myTimer.record(OBJECTS_PHASE, time);
 
             // modified here
             myCollisionChecker.checkCollisions(this);
+            myIndex.refresh();
+            time = myTimer.record(COLLISION_PHASE, time);
+            myPreviousCameraX = cam.getBounds().getX();
+            myPreviousCameraY = cam.getBounds().getY();
             cam.update(elapsedTime);
+            myCameraMoved = true;
+            time = myTimer.record(CAMERA_PHASE, time);
 
             for (LevelPlugin lp : pluginList) {
-                lp.update(objectList);
+                lp.update(this);
             }
+            myTimer.record(PLUGINS_PHASE, time);
+        }
+    }
+
+    /**
+     * Updates one object and marks it for removal if it has left the level.
+     * May be called on a worker thread when updating in parallel.
+     */
+    void updateObject (GameObject go, long elapsedTime) {
+        go.update(this, elapsedTime);
+        if (!intersectsLevel(go)) {
+            go.markForRemoval();
         }
     }
 
+    /**
+     * Same test as <code>go.getShape().intersects(levelBounds)</code>,
+     * without allocating the two rectangles.
+     */
+    private boolean intersectsLevel (GameObject go) {
+        int levelWidth = (int) myDimension.getWidth();
+        int levelHeight = (int) myDimension.getHeight();
+        double w = go.getWidth();
+        double h = go.getHeight();
+        if (w <= 0 || h <= 0 || levelWidth <= 0 || levelHeight <= 0) { return false; }
+        double x = go.getX();
+        double y = go.getY();
+        return x + w > 0 && y + h > 0 && x < levelWidth && y < levelHeight;
+    }
+
+    /**
+     * @return the CollisionChecker used by this level
+     */
+    public CollisionChecker getCollisionChecker () {
+        return myCollisionChecker;
+    }
+
     /**
      * Pause the game, temporarily stopping it from updating
      */
@@ -174,6 +400,7 @@ public class Level {
      */
     public void setCamera (UpdatableCamera c) {
         cam = c;
+        myCameraMoved = false;
     }
 
     /**
@@ -182,7 +409,7 @@ public class Level {
      */
     public PlayState getLevelStatus () {
         for (Condition c : conditionList) {
-            if (c.isSatisfied(objectList)) {
+            if (c.isSatisfied(this)) {
                 setNextLevelName(c.getNextLevelName());
                 return c.getStatus();
             }
@@ -201,6 +428,28 @@ public class Level {
         return myNextLevelName;
     }
 
+    /**
+     * Gets the names of the levels this level is currently known to lead to:
+     * those given by its Conditions and by its LevelGoalZones. Used to load
+     * those levels before they are needed.
+     * 
+     * @return names of possible next levels, without duplicates
+     */
+    public Collection<String> getKnownNextLevelNames () {
+        Set<String> names = new LinkedHashSet<String>();
+        for (Condition c : conditionList) {
+            if (c.getNextLevelName() != null) {
+                names.add(c.getNextLevelName());
+            }
+        }
+        for (LevelGoalZone zone : getObjectsOfType(LevelGoalZone.class)) {
+            if (zone.getNextLevelPath() != null) {
+                names.add(zone.getNextLevelPath());
+            }
+        }
+        return names;
+    }
+
     /**
      * @param pl
      */
@@ -214,4 +463,21 @@ public class Level {
     public Player getPlayer () {
         return myPlayer;
     }
+
+    /**
+     * A camera whose bounds are fixed, so one frame is painted from the same
+     * view however the level's camera moves meanwhile.
+     */
+    private static class FixedCamera implements Camera {
+        private final Rectangle2D myBounds;
+
+        public FixedCamera (Rectangle2D bounds) {
+            myBounds = bounds;
+        }
+
+        @Override
+        public Rectangle2D getBounds () {
+            return myBounds;
+        }
+    }
 }
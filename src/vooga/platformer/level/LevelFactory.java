@@ -3,15 +3,20 @@ package vooga.platformer.level;
 import java.awt.Dimension;
 import java.awt.Rectangle;
 import java.awt.geom.Dimension2D;
+import java.io.File;
 import java.util.Collection;
 import util.camera.UpdatableCamera;
+import util.reflection.Reflection;
 import util.reflection.ReflectionException;
+import vooga.platformer.collision.CollisionChecker;
 import vooga.platformer.gameobject.GameObject;
 import vooga.platformer.gameobject.Player;
 import vooga.platformer.level.condition.Condition;
 import vooga.platformer.level.levelplugin.LevelPlugin;
+import vooga.platformer.levelfileio.BinaryLevelReader;
 import vooga.platformer.levelfileio.LevelFileIOException;
 import vooga.platformer.levelfileio.LevelFileReader;
+import vooga.platformer.levelfileio.LevelReader;
 import vooga.platformer.util.camera.FollowingCamera;
 
 
@@ -33,8 +38,9 @@ public final class LevelFactory {
     }
 
     /**
-     * Creates a new Level from the file at the path specified. The format of
-     * this file must conform to the conventions of LevelFileReader.
+     * Creates a new Level from the file at the path specified. The file may be
+     * either a binary level file written by BinaryLevelWriter or an XML file
+     * conforming to the conventions of LevelFileReader.
      * 
      * @param levelName path to the data file describing the level
      * @return a Level object with all the properties and GameObjects specified
@@ -45,7 +51,7 @@ public final class LevelFactory {
     public static Level loadLevel (String levelName) throws LevelFileIOException {
         try {
             
-            LevelFileReader lfr = new LevelFileReader(levelName);
+            LevelReader lfr = openLevelFile(levelName);
             Dimension levelDimension = new Dimension(lfr.getWidth(), lfr.getHeight());
             Collection<GameObject> levelGameObjects = lfr.getGameObjects();
             GameObject player = findPlayerGameObject(levelGameObjects);
@@ -54,11 +60,9 @@ public final class LevelFactory {
                                                                            levelDimension.height),
                                         player);
 
-            Level level = new Level(levelDimension, followCam, lfr.getCollisionCheckerPath());
+            Level level = new Level(levelDimension, followCam, createCollisionChecker(lfr));
 
-            for (GameObject g : levelGameObjects) {
-                level.addGameObject(g);
-            }
+            level.addGameObjects(levelGameObjects);
             level.setPlayer((Player) player);
             addConditionsAndPlugins(lfr, level);
 
@@ -70,7 +74,25 @@ public final class LevelFactory {
         }
     }
 
-    private static void addConditionsAndPlugins (LevelFileReader lfr, Level level) {
+    private static LevelReader openLevelFile (String levelName) {
+        if (BinaryLevelReader.isBinaryLevelFile(new File(levelName))) {
+            return new BinaryLevelReader(levelName);
+        }
+        return new LevelFileReader(levelName);
+    }
+
+    private static CollisionChecker createCollisionChecker (LevelReader lfr) {
+        try {
+            return (CollisionChecker) Reflection.createInstance(lfr.getCollisionCheckerType(),
+                                                                lfr.getCollisionCheckerPath());
+        }
+        catch (ReflectionException e) {
+            throw new LevelFileIOException("Could not create CollisionChecker "
+                                           + lfr.getCollisionCheckerType(), e);
+        }
+    }
+
+    private static void addConditionsAndPlugins (LevelReader lfr, Level level) {
 
         Collection<Condition> levelConditions = lfr.getConditions();
         for (Condition c : levelConditions) {
@@ -0,0 +1,174 @@
+package vooga.platformer.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import util.concurrent.SharedPool;
+import vooga.platformer.gameobject.GameObject;
+
+
+/**
+ * Runs the object update pass of a Level on a fork-join pool.
+ * <p>
+ * Objects that can update in parallel are split into fixed chunks of
+ * consecutive objects, and the chunks are updated concurrently. Objects
+ * added and actions deferred while a chunk is updated are buffered by that
+ * chunk, and the buffers are handed to the Level in chunk order once every
+ * chunk has finished, so the result does not depend on how many threads ran
+ * or how the chunks were scheduled. The remaining objects are then updated
+ * on the calling thread, in list order.
+ *
+ */
+class ParallelObjectUpdater {
+
+    /**
+     * Default number of objects updated by one task.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 256;
+
+    private static final ThreadLocal<DeferredWork> CURRENT_WORK = new ThreadLocal<DeferredWork>();
+
+    private final ForkJoinPool myPool;
+    private final int myChunkSize;
+    private final List<GameObject> myParallelObjects = new ArrayList<GameObject>();
+    private final List<GameObject> mySerialObjects = new ArrayList<GameObject>();
+    private final List<Chunk> myChunks = new ArrayList<Chunk>();
+
+    /**
+     * Creates an updater that uses the engine's SharedPool.
+     */
+    ParallelObjectUpdater () {
+        this(SharedPool.get(), DEFAULT_CHUNK_SIZE);
+    }
+
+    ParallelObjectUpdater (ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) { throw new IllegalArgumentException("chunk size must be positive"); }
+        myPool = pool;
+        myChunkSize = chunkSize;
+    }
+
+    /**
+     * @return the buffer of the chunk being updated on this thread, or null
+     *         if this thread is not updating a chunk
+     */
+    static DeferredWork getCurrentWork () {
+        return CURRENT_WORK.get();
+    }
+
+    /**
+     * Updates every object in the list and passes the buffered work of the
+     * parallel chunks to the level.
+     */
+    void update (Level level, List<GameObject> objects, long elapsedTime) {
+        myParallelObjects.clear();
+        mySerialObjects.clear();
+        for (int i = 0; i < objects.size(); i++) {
+            GameObject go = objects.get(i);
+            if (go.canUpdateInParallel()) {
+                myParallelObjects.add(go);
+            }
+            else {
+                mySerialObjects.add(go);
+            }
+        }
+
+        int chunks = (myParallelObjects.size() + myChunkSize - 1) / myChunkSize;
+        while (myChunks.size() < chunks) {
+            myChunks.add(new Chunk());
+        }
+        for (int i = 0; i < chunks; i++) {
+            myChunks.get(i).prepare(level, elapsedTime, i * myChunkSize,
+                                    Math.min(myParallelObjects.size(), (i + 1) * myChunkSize));
+        }
+        if (chunks == 1) {
+            myChunks.get(0).compute();
+        }
+        else if (chunks > 1) {
+            myPool.invoke(new AllChunks(myChunks.subList(0, chunks)));
+        }
+        for (int i = 0; i < chunks; i++) {
+            myChunks.get(i).myWork.drainInto(level);
+        }
+
+        for (GameObject go : mySerialObjects) {
+            level.updateObject(go, elapsedTime);
+        }
+        myParallelObjects.clear();
+        mySerialObjects.clear();
+    }
+
+    /**
+     * Objects added to the level and actions deferred by one chunk, in the
+     * order they were requested.
+     */
+    static class DeferredWork {
+        private final List<GameObject> myAddedObjects = new ArrayList<GameObject>();
+        private final List<Runnable> myActions = new ArrayList<Runnable>();
+
+        void addGameObject (GameObject go) {
+            myAddedObjects.add(go);
+        }
+
+        void deferAction (Runnable action) {
+            myActions.add(action);
+        }
+
+        private void drainInto (Level level) {
+            for (GameObject go : myAddedObjects) {
+                level.addGameObject(go);
+            }
+            for (Runnable action : myActions) {
+                level.deferAction(action);
+            }
+            myAddedObjects.clear();
+            myActions.clear();
+        }
+    }
+
+    private final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final DeferredWork myWork = new DeferredWork();
+        private Level myLevel;
+        private long myElapsedTime;
+        private int myFrom;
+        private int myTo;
+
+        private void prepare (Level level, long elapsedTime, int from, int to) {
+            reinitialize();
+            myLevel = level;
+            myElapsedTime = elapsedTime;
+            myFrom = from;
+            myTo = to;
+        }
+
+        @Override
+        protected void compute () {
+            CURRENT_WORK.set(myWork);
+            try {
+                for (int i = myFrom; i < myTo; i++) {
+                    myLevel.updateObject(myParallelObjects.get(i), myElapsedTime);
+                }
+            }
+            finally {
+                CURRENT_WORK.remove();
+            }
+        }
+    }
+
+    private static final class AllChunks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Chunk> myChunks;
+
+        private AllChunks (List<Chunk> chunks) {
+            myChunks = chunks;
+        }
+
+        @Override
+        protected void compute () {
+            invokeAll(myChunks);
+        }
+    }
+}
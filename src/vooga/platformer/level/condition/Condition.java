@@ -1,9 +1,8 @@
 package vooga.platformer.level.condition;
 
 import java.io.Serializable;
-import java.util.List;
 import java.util.Map;
-import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.Level;
 import vooga.platformer.util.enums.PlayState;
 
 /**
@@ -14,10 +13,10 @@ import vooga.platformer.util.enums.PlayState;
 public interface Condition extends Serializable {
     
     /**
-     * @param objectList The list of GameObjects in the level
+     * @param level The level, whose GameObjects can be looked up by type, ID or region
      * @return true if the condition is satisfied and false if the condition is not satisfied
      */
-    boolean isSatisfied(List<GameObject> objectList);
+    boolean isSatisfied(Level level);
     
     /**
      * @return The next level to load, if any, when this condition is satisfied. If no subsequent
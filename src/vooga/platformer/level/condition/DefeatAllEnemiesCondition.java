@@ -1,10 +1,9 @@
 package vooga.platformer.level.condition;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import vooga.platformer.gameobject.Enemy;
-import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.Level;
 import vooga.platformer.util.enums.PlayState;
 
 
@@ -40,14 +39,8 @@ public class DefeatAllEnemiesCondition implements Condition {
     }
 
     @Override
-    public boolean isSatisfied (List<GameObject> objectList) {
-        int numEnemies = 0;
-        for (GameObject go : objectList) {
-            if (go instanceof Enemy) {
-                numEnemies++;
-            }
-        }
-        return numEnemies <= 0;
+    public boolean isSatisfied (Level level) {
+        return level.getObjectsOfType(Enemy.class).isEmpty();
     }
 
     @Override
@@ -1,10 +1,10 @@
 package vooga.platformer.level.condition;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import util.configstring.ConfigStringParser;
 import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.Level;
 import vooga.platformer.util.GameObjectFinder;
 import vooga.platformer.util.enums.PlayState;
 
@@ -54,8 +54,8 @@ public class DestroySpecificObjectCondition implements Condition {
     }
 
     @Override
-    public boolean isSatisfied (List<GameObject> objectList) {
-        GameObject go = GameObjectFinder.findGameObject(objectList, myObjectId);
+    public boolean isSatisfied (Level level) {
+        GameObject go = GameObjectFinder.findGameObject(level, myObjectId);
         return go == null;
     }
 
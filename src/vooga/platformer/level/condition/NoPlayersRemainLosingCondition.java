@@ -1,10 +1,9 @@
 package vooga.platformer.level.condition;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import vooga.platformer.gameobject.GameObject;
 import vooga.platformer.gameobject.Player;
+import vooga.platformer.level.Level;
 import vooga.platformer.util.enums.PlayState;
 
 
@@ -31,11 +30,8 @@ public class NoPlayersRemainLosingCondition implements Condition {
     }
 
     @Override
-    public boolean isSatisfied (List<GameObject> objectList) {
-        for (GameObject g : objectList) {
-            if (g instanceof Player) { return false; }
-        }
-        return true;
+    public boolean isSatisfied (Level level) {
+        return level.getObjectsOfType(Player.class).isEmpty();
     }
 
     @Override
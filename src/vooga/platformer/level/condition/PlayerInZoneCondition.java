@@ -2,9 +2,9 @@ package vooga.platformer.level.condition;
 
 import java.util.List;
 import java.util.Map;
-import vooga.platformer.gameobject.GameObject;
 import vooga.platformer.gameobject.LevelGoalZone;
 import vooga.platformer.gameobject.Player;
+import vooga.platformer.level.Level;
 import vooga.platformer.util.enums.PlayState;
 
 
@@ -36,18 +36,13 @@ public class PlayerInZoneCondition implements Condition {
     }
 
     @Override
-    public boolean isSatisfied (List<GameObject> objectList) {
-        for (GameObject lg : objectList) {
-            if (lg instanceof LevelGoalZone) {
-                for (GameObject p : objectList) {
-                    if (p instanceof Player) {
-                        myNextLevelName = ((LevelGoalZone) lg).getNextLevelPath();
-                        return lg.getShape().intersects(p.getShape());
-                    }
-                }
-            }
-        }
-        return false;
+    public boolean isSatisfied (Level level) {
+        List<LevelGoalZone> zones = level.getObjectsOfType(LevelGoalZone.class);
+        List<Player> players = level.getObjectsOfType(Player.class);
+        if (zones.isEmpty() || players.isEmpty()) { return false; }
+        LevelGoalZone lg = zones.get(0);
+        myNextLevelName = lg.getNextLevelPath();
+        return lg.getShape().intersects(players.get(0).getShape());
     }
 
     @Override
@@ -8,6 +8,7 @@ import java.util.Map;
 import util.camera.Camera;
 import vooga.platformer.gameobject.GameObject;
 import vooga.platformer.gameobject.MovingObject;
+import vooga.platformer.level.Level;
 import vooga.platformer.util.enums.Direction;
 
 
@@ -19,6 +20,7 @@ import vooga.platformer.util.enums.Direction;
  *
  */
 public class GravityPlugin extends LevelPlugin {
+    private static final long serialVersionUID = 1839325957476604874L;
 
     double myAccel;
     Direction myDir;
@@ -37,27 +39,37 @@ public class GravityPlugin extends LevelPlugin {
     public void update (List<GameObject> objList) {
         for (GameObject go : objList) {
             if (go instanceof MovingObject) {
-                MovingObject mo = (MovingObject)go;
-                Point2D vpoint = mo.getVelocity();
-                double newXVel = vpoint.getX();
-                double newYVel = vpoint.getY();
-                if (myDir == Direction.UP) {
-                    newYVel = newYVel - myAccel;
-                }
-                else if (myDir == Direction.DOWN) {
-                    newYVel = newYVel + myAccel;
-                }
-                else if (myDir == Direction.LEFT) {
-                    newXVel = newXVel - myAccel;
-                }
-                else if (myDir == Direction.RIGHT) {
-                    newXVel = newXVel + myAccel;
-                }
-                mo.setVelocity(newXVel, newYVel);
+                accelerate((MovingObject) go);
             }
         }
     }
 
+    @Override
+    public void update (Level level) {
+        for (MovingObject mo : level.getObjectsOfType(MovingObject.class)) {
+            accelerate(mo);
+        }
+    }
+
+    private void accelerate (MovingObject mo) {
+        Point2D vpoint = mo.getVelocity();
+        double newXVel = vpoint.getX();
+        double newYVel = vpoint.getY();
+        if (myDir == Direction.UP) {
+            newYVel = newYVel - myAccel;
+        }
+        else if (myDir == Direction.DOWN) {
+            newYVel = newYVel + myAccel;
+        }
+        else if (myDir == Direction.LEFT) {
+            newXVel = newXVel - myAccel;
+        }
+        else if (myDir == Direction.RIGHT) {
+            newXVel = newXVel + myAccel;
+        }
+        mo.setVelocity(newXVel, newYVel);
+    }
+
     @Override
     public void paint (Graphics pen, List<GameObject> objList, Camera cam) {
         
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import util.camera.Camera;
 import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.Level;
 
 /**
  * A plugin that operates on a Level's list of GameObjects and has updating
@@ -26,6 +27,16 @@ public abstract class LevelPlugin implements Comparable<LevelPlugin>, Serializab
      */
     public abstract void update(List<GameObject> objList);
     
+    /**
+     * Update this LevelPlugin once per update cycle of a Level. Plugins that
+     * only look at some of the objects can override this to use the Level's
+     * queries instead of scanning the whole list.
+     * @param level the Level being updated
+     */
+    public void update(Level level) {
+        update(level.getObjectList());
+    }
+    
     /**
      * Paint this LevelPlugin.
      * @param pen Graphics object to use when painting
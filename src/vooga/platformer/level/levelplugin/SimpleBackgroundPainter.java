@@ -6,10 +6,10 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import util.configstring.ConfigStringParser;
 import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.util.ImageRegistry;
 
 /**
  * A simple BackgroundPainter that paints a static background image on the screen.
@@ -18,6 +18,7 @@ import vooga.platformer.gameobject.GameObject;
  */
 public class SimpleBackgroundPainter extends BackgroundPainter {
     protected static final String IMAGE_TAG = "image"; 
+    private static final long serialVersionUID = -1903397626082756015L;
     
     private ImageIcon myBgImg;
     
@@ -36,7 +37,7 @@ public class SimpleBackgroundPainter extends BackgroundPainter {
         Map<String, String> configMap = ConfigStringParser.parseConfigString(configString);
         String imagePath = configMap.get(IMAGE_TAG);
         try {
-            myBgImg = new ImageIcon(ImageIO.read(new File(imagePath)));
+            myBgImg = new ImageIcon(ImageRegistry.getImage(new File(imagePath)));
         }
         catch (IOException e) {
             System.out.println("invalid image path: " + imagePath);
@@ -48,13 +49,20 @@ public class SimpleBackgroundPainter extends BackgroundPainter {
      */
     public SimpleBackgroundPainter(File imgFile) {
         try {
-            myBgImg = new ImageIcon(ImageIO.read(imgFile));
+            myBgImg = new ImageIcon(ImageRegistry.getImage(imgFile));
         }
         catch (IOException e) {
             System.out.println("invalid image path: " + imgFile);
         }
     }
     
+    /**
+     * @param bgImg background image that has already been loaded
+     */
+    public SimpleBackgroundPainter(Image bgImg) {
+        myBgImg = new ImageIcon(bgImg);
+    }
+    
     @Override
     public Map<String, String> getConfigStringParams () {
         Map<String, String> params = new HashMap<String, String>();
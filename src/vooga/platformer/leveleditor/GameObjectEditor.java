@@ -12,7 +12,6 @@ import java.awt.event.FocusListener;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
@@ -24,6 +23,8 @@ import javax.swing.JTextField;
 import javax.swing.border.BevelBorder;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.util.ImageRegistry;
+import vooga.platformer.util.ScaledImageCache;
 
 
 /**
@@ -65,8 +66,8 @@ public class GameObjectEditor extends JPopupMenu {
         topCenter.setLayout(new FlowLayout());
         JLabel myImage = new JLabel();
         Image i = myObject.getCurrentImage();
-        myImage.setIcon(new ImageIcon(i.getScaledInstance(DEFAULT_ICON_WIDTH,
-                i.getHeight(null) * DEFAULT_ICON_WIDTH / i.getWidth(null), Image.SCALE_DEFAULT)));
+        myImage.setIcon(new ImageIcon(ScaledImageCache.getScaledImage(i, DEFAULT_ICON_WIDTH,
+                i.getHeight(null) * DEFAULT_ICON_WIDTH / i.getWidth(null), myObject.isFlipped())));
         myImage.setBorder(BorderFactory.createLineBorder(Color.BLACK));
         topCenter.add(myImage);
         
@@ -137,7 +138,7 @@ public class GameObjectEditor extends JPopupMenu {
                 int returnVal = chooser.showOpenDialog(chooser);
                 if (returnVal == JFileChooser.APPROVE_OPTION) {
                     try {
-                        myObject.setImage(ImageIO.read(chooser.getSelectedFile()));
+                        myObject.setImage(ImageRegistry.getImage(chooser.getSelectedFile()));
                     }
                     catch (IOException e1) {
                         showError("file does not exist");
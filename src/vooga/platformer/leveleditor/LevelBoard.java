@@ -17,7 +17,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import javax.imageio.ImageIO;
 import javax.swing.ImageIcon;
 import javax.swing.JFileChooser;
 import javax.swing.JMenuItem;
@@ -35,6 +34,8 @@ import vooga.platformer.level.levelplugin.LevelPlugin;
 import vooga.platformer.leveleditor.leveldrawer.IEditorObject;
 import vooga.platformer.levelfileio.LevelFileReader;
 import vooga.platformer.levelfileio.LevelFileWriter;
+import vooga.platformer.util.ImageRegistry;
+import vooga.platformer.util.ScaledImageCache;
 
 
 /*
@@ -62,6 +63,7 @@ public class LevelBoard extends JPanel {
     private static final String DEFAULT_COLLISION_CHECKER =
             "src/vooga/platformer/collision/collisionEvents.xml";
     private static final int DEFAULT_SIZE = 30;
+    private static final String[] PALETTE_SPRITES = { "StaticObject", "Enemy", "Player" };
 
     // Editor fields
     private int myObjID;
@@ -116,7 +118,16 @@ public class LevelBoard extends JPanel {
         myPlayer = null;
     }
 
+    private void prefetchPaletteImages () {
+        Collection<File> images = new ArrayList<File>();
+        for (String sprite : PALETTE_SPRITES) {
+            images.add(new File(System.getProperty("user.dir") + DATA_PATH + sprite + ".png"));
+        }
+        ImageRegistry.prefetch(images);
+    }
+
     private void setupInput () {
+        prefetchPaletteImages();
         myPlacementManager = new PlacementMouseListener(this);
 
         ScrollingKeyInputInitializer kc = new ScrollingKeyInputInitializer(this);
@@ -129,7 +140,7 @@ public class LevelBoard extends JPanel {
                 try {
                     String cmmd = e.getComponent().getName();
                     File f = new File(System.getProperty("user.dir") + DATA_PATH + cmmd + ".png");
-                    ImageIcon ii = new ImageIcon(ImageIO.read(f));
+                    ImageIcon ii = new ImageIcon(ImageRegistry.getImage(f));
                     double x = LevelBoard.this.getWidth() / 2;
                     double y = LevelBoard.this.getHeight() / 2;
                     double w =
@@ -245,9 +256,11 @@ public class LevelBoard extends JPanel {
         myBufferGraphics.drawImage(myBackground.getImage(), 0, 0, myBuffer.getWidth(),
                                    myBuffer.getHeight(), this);
         for (GameObject obj : myGameObjects) {
-            myBufferGraphics.drawImage(obj.getCurrentImage(), (int) obj.getX() - myOffset,
-                                       (int) obj.getY(), (int) obj.getWidth(),
-                                       (int) obj.getHeight(), null);
+            myBufferGraphics.drawImage(ScaledImageCache.getScaledImage(obj.getCurrentImage(),
+                                                                       (int) obj.getWidth(),
+                                                                       (int) obj.getHeight(),
+                                                                       obj.isFlipped()),
+                                       (int) obj.getX() - myOffset, (int) obj.getY(), null);
         }
         String mousemsg = "";
         if (myCurrentObject != null) {
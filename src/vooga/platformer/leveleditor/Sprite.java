@@ -2,23 +2,20 @@ package vooga.platformer.leveleditor;
 
 import java.awt.Component;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.PathIterator;
-import java.awt.image.AffineTransformOp;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
-import javax.imageio.ImageIO;
 import vooga.platformer.levelfileio.XmlTags;
+import vooga.platformer.util.ImageRegistry;
+import vooga.platformer.util.ScaledImageCache;
 
 
 /**
@@ -45,6 +42,7 @@ public class Sprite {
     private String myID;
     private String myImagePath;
     private Image myImage;
+    private boolean myFlipped;
     private Collection<Map<String, String>> myUpdateStrategies;
     private Map<String, String> myAttributes;
 
@@ -83,7 +81,7 @@ public class Sprite {
     private Image getImage (String filename) {
         Image ret = null;
         try {
-            ret = ImageIO.read(new File(filename));
+            ret = ImageRegistry.getImage(new File(filename));
         }
         catch (IOException e) {
             System.out.println("file was not found");
@@ -121,9 +119,8 @@ public class Sprite {
      *        the window.
      */
     public void paint (Graphics g, Component c) {
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.drawImage(myImage, myX, myY, myX + myWidth, myY + myHeight, 0, 0,
-                      myImage.getWidth(null), myImage.getHeight(null), c);
+        g.drawImage(ScaledImageCache.getScaledImage(myImage, myWidth, myHeight, myFlipped), myX,
+                    myY, c);
     }
 
     /**
@@ -136,9 +133,9 @@ public class Sprite {
      * @param offset offset of the level due to camera scrolling
      */
     public void paint (Graphics g, Component c, Integer offset) {
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.drawImage(myImage, myX - offset, myY, myX - myWidth - offset, myY + myHeight, 0, 0,
-                      myImage.getWidth(null), myImage.getHeight(null), c);
+        // drawn mirrored, extending to the left of the sprite's position
+        g.drawImage(ScaledImageCache.getScaledImage(myImage, myWidth, myHeight, !myFlipped),
+                    myX - myWidth - offset, myY, c);
     }
 
     /**
@@ -146,10 +143,7 @@ public class Sprite {
      * 
      */
     public void flipImage () {
-        AffineTransform tx = AffineTransform.getScaleInstance(-1, 1);
-        tx.translate(-myImage.getWidth(null), 0);
-        AffineTransformOp op = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-        myImage = op.filter((BufferedImage) myImage, null);
+        myFlipped = !myFlipped;
     }
 
     /**
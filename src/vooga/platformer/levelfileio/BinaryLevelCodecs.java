@@ -0,0 +1,386 @@
+package vooga.platformer.levelfileio;
+
+import java.awt.Image;
+import java.awt.geom.Point2D;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import util.reflection.Reflection;
+import util.reflection.ReflectionException;
+import vooga.platformer.gameobject.Enemy;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.Gold;
+import vooga.platformer.gameobject.LevelGoalZone;
+import vooga.platformer.gameobject.MovingObject;
+import vooga.platformer.gameobject.Player;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.level.condition.Condition;
+import vooga.platformer.level.condition.DefeatAllEnemiesCondition;
+import vooga.platformer.level.condition.NoPlayersRemainLosingCondition;
+import vooga.platformer.level.condition.PlayerInZoneCondition;
+import vooga.platformer.level.levelplugin.LevelPlugin;
+import vooga.platformer.level.levelplugin.SimpleBackgroundPainter;
+import vooga.platformer.levelfileio.BinaryLevelFormat.FieldType;
+import vooga.platformer.util.enums.Direction;
+
+
+/**
+ * The codecs used for binary level files, one per supported class. Objects of
+ * classes not listed here, and objects whose strategies cannot be rebuilt
+ * from the object alone, are stored with Java serialization instead.
+ *
+ */
+final class BinaryLevelCodecs {
+
+    private static final Map<Class<?>, BinaryRecordCodec<?>> BY_CLASS =
+            new HashMap<Class<?>, BinaryRecordCodec<?>>();
+    private static final Map<String, BinaryRecordCodec<?>> BY_NAME =
+            new HashMap<String, BinaryRecordCodec<?>>();
+
+    static {
+        register(new GameObjectCodec<StaticObject>(StaticObject.class) {
+            @Override
+            StaticObject create (BinaryRecord in, double x, double y, double width,
+                                 double height, int id, Image image) {
+                return new StaticObject(x, y, width, height, id, image);
+            }
+        });
+        register(new GameObjectCodec<Gold>(Gold.class) {
+            @Override
+            Gold create (BinaryRecord in, double x, double y, double width, double height,
+                         int id, Image image) {
+                return new Gold(x, y, width, height, id, image);
+            }
+        });
+        register(new MovingObjectCodec<MovingObject>(MovingObject.class) {
+            @Override
+            MovingObject create (BinaryRecord in, double x, double y, double width,
+                                 double height, int id, Image image) {
+                return new MovingObject(x, y, width, height, id, image);
+            }
+        });
+        register(new MovingObjectCodec<Enemy>(Enemy.class) {
+            @Override
+            Enemy create (BinaryRecord in, double x, double y, double width, double height,
+                          int id, Image image) {
+                return new Enemy(x, y, width, height, id, image);
+            }
+        });
+        register(new MovingObjectCodec<Player>(Player.class) {
+            @Override
+            Player create (BinaryRecord in, double x, double y, double width, double height,
+                           int id, Image image) {
+                return new Player(x, y, width, height, id, image);
+            }
+        });
+        register(new LevelGoalZoneCodec());
+
+        register(new NextLevelConditionCodec(DefeatAllEnemiesCondition.class) {
+            @Override
+            Condition create (String nextLevelName) {
+                return new DefeatAllEnemiesCondition(nextLevelName);
+            }
+        });
+        register(new NextLevelConditionCodec(NoPlayersRemainLosingCondition.class) {
+            @Override
+            Condition create (String nextLevelName) {
+                return new NoPlayersRemainLosingCondition(nextLevelName);
+            }
+        });
+        // the next level comes from the LevelGoalZone the player reaches
+        register(new BinaryRecordCodec<Condition>(PlayerInZoneCondition.class) {
+            @Override
+            void write (Condition obj, BinaryRecord out) {
+            }
+
+            @Override
+            Condition read (BinaryRecord in) {
+                return new PlayerInZoneCondition();
+            }
+        });
+
+        register(new SimpleBackgroundPainterCodec());
+    }
+
+    private BinaryLevelCodecs () {
+        /*
+         * Empty constructor for util class
+         */
+    }
+
+    /**
+     * @param type exact class of an object to store
+     * @return the codec for that class, or null if it has none
+     */
+    @SuppressWarnings("unchecked")
+    static <T> BinaryRecordCodec<T> forClass (Class<?> type) {
+        return (BinaryRecordCodec<T>) BY_CLASS.get(type);
+    }
+
+    /**
+     * @param className fully-qualified name of a class stored in a file
+     * @return the codec for that class, or null if it has none
+     */
+    static BinaryRecordCodec<?> forName (String className) {
+        return BY_NAME.get(className);
+    }
+
+    private static void register (BinaryRecordCodec<?> codec) {
+        BY_CLASS.put(codec.getType(), codec);
+        BY_NAME.put(codec.getType().getName(), codec);
+    }
+
+    /**
+     * Stores the state shared by all GameObjects: bounds, id, image, whether
+     * the image is flipped and the names and classes of the object's
+     * strategies. Strategies the object's constructor does not add itself
+     * are recreated through a constructor taking the object.
+     */
+    private abstract static class GameObjectCodec<T extends GameObject> extends
+            BinaryRecordCodec<GameObject> {
+        private final Class<T> myObjectType;
+        private final int myX = addField("x", FieldType.DOUBLE);
+        private final int myY = addField("y", FieldType.DOUBLE);
+        private final int myWidth = addField("width", FieldType.DOUBLE);
+        private final int myHeight = addField("height", FieldType.DOUBLE);
+        private final int myId = addField("id", FieldType.INT);
+        private final int myImage = addField("image", FieldType.IMAGE);
+        private final int myFlipped = addField("flipped", FieldType.BOOLEAN);
+        private final int myStrategyNames = addField("strategyNames", FieldType.STRING_LIST);
+        private final int myStrategyClasses =
+                addField("strategyClasses", FieldType.STRING_LIST);
+
+        GameObjectCodec (Class<T> type) {
+            super(type);
+            myObjectType = type;
+        }
+
+        abstract T create (BinaryRecord in, double x, double y, double width, double height,
+                           int id, Image image);
+
+        void writeState (T obj, BinaryRecord out) {
+        }
+
+        void readState (T obj, BinaryRecord in) {
+        }
+
+        /**
+         * Strategies are stored by class name and rebuilt from the object
+         * alone, so an object is written as a record only if doing that
+         * gives back every strategy as it is now.
+         */
+        @Override
+        boolean canWrite (GameObject obj) {
+            for (String name : obj.getStrategyNames()) {
+                UpdateStrategy strategy = obj.getStrategy(name);
+                try {
+                    Object rebuilt = Reflection.createInstance(strategy.getClass().getName(), obj);
+                    if (!hasSameState(strategy, rebuilt, obj)) { return false; }
+                }
+                catch (ReflectionException e) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void write (GameObject obj, BinaryRecord out) {
+            out.setDouble(myX, obj.getX());
+            out.setDouble(myY, obj.getY());
+            out.setDouble(myWidth, obj.getWidth());
+            out.setDouble(myHeight, obj.getHeight());
+            out.setInt(myId, obj.getId());
+            out.setObject(myImage, obj.getCurrentImage());
+            out.setBoolean(myFlipped, obj.isFlipped());
+            List<String> names = new ArrayList<String>();
+            List<String> classes = new ArrayList<String>();
+            for (String name : obj.getStrategyNames()) {
+                names.add(name);
+                classes.add(obj.getStrategy(name).getClass().getName());
+            }
+            out.setObject(myStrategyNames, names);
+            out.setObject(myStrategyClasses, classes);
+            writeState(myObjectType.cast(obj), out);
+        }
+
+        @Override
+        GameObject read (BinaryRecord in) {
+            Image image = in.getImage(myImage);
+            if (image == null) {
+                throw new LevelFileIOException("No image stored for a "
+                                               + myObjectType.getSimpleName());
+            }
+            T obj = create(in, in.getDouble(myX), in.getDouble(myY), in.getDouble(myWidth),
+                           in.getDouble(myHeight), in.getInt(myId), image);
+            if (in.getBoolean(myFlipped)) {
+                obj.flipImage();
+            }
+            readState(obj, in);
+            restoreStrategies(obj, in.getStrings(myStrategyNames),
+                              in.getStrings(myStrategyClasses));
+            return obj;
+        }
+
+        private void restoreStrategies (GameObject obj, List<String> names,
+                                        List<String> classes) {
+            if (names == null || classes == null) { return; }
+            Set<String> saved = new HashSet<String>(names);
+            for (String name : new ArrayList<String>(obj.getStrategyNames())) {
+                if (!saved.contains(name)) {
+                    obj.removeStrategy(name);
+                }
+            }
+            for (int i = 0; i < names.size(); i++) {
+                if (obj.getStrategy(names.get(i)) != null) {
+                    continue;
+                }
+                try {
+                    obj.addStrategy(names.get(i),
+                                    (UpdateStrategy) Reflection.createInstance(classes.get(i),
+                                                                               obj));
+                }
+                catch (ReflectionException e) {
+                    throw new LevelFileIOException("Could not recreate strategy "
+                                                   + classes.get(i), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if every instance field of strategy, other than those
+     *         referring to owner, equals the same field of rebuilt
+     */
+    private static boolean hasSameState (Object strategy, Object rebuilt, GameObject owner) {
+        for (Class<?> c = strategy.getClass(); c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)) {
+                    continue;
+                }
+                field.setAccessible(true);
+                try {
+                    Object value = field.get(strategy);
+                    Object other = field.get(rebuilt);
+                    if (value == owner ? other != owner
+                                      : !Arrays.deepEquals(new Object[] { value },
+                                                           new Object[] { other })) {
+                        return false;
+                    }
+                }
+                catch (IllegalAccessException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private abstract static class MovingObjectCodec<T extends MovingObject> extends
+            GameObjectCodec<T> {
+        private final int myVelocityX = addField("velocityX", FieldType.DOUBLE);
+        private final int myVelocityY = addField("velocityY", FieldType.DOUBLE);
+        private final int myOnGround = addField("onGround", FieldType.BOOLEAN);
+        private final int myFacing = addField("facing", FieldType.STRING);
+
+        MovingObjectCodec (Class<T> type) {
+            super(type);
+        }
+
+        @Override
+        void writeState (T obj, BinaryRecord out) {
+            Point2D velocity = obj.getVelocity();
+            out.setDouble(myVelocityX, velocity.getX());
+            out.setDouble(myVelocityY, velocity.getY());
+            out.setBoolean(myOnGround, obj.isOnGround());
+            if (obj.getFacingDirection() != null) {
+                out.setObject(myFacing, obj.getFacingDirection().name());
+            }
+        }
+
+        @Override
+        void readState (T obj, BinaryRecord in) {
+            obj.setVelocity(in.getDouble(myVelocityX), in.getDouble(myVelocityY));
+            if (in.getBoolean(myOnGround)) {
+                obj.setOnGround();
+            }
+            String facing = in.getString(myFacing);
+            if (facing != null) {
+                obj.setFacingDirection(Direction.valueOf(facing));
+            }
+        }
+    }
+
+    private static class LevelGoalZoneCodec extends GameObjectCodec<LevelGoalZone> {
+        private final int myNextLevel = addField("nextLevel", FieldType.STRING);
+
+        LevelGoalZoneCodec () {
+            super(LevelGoalZone.class);
+        }
+
+        @Override
+        LevelGoalZone create (BinaryRecord in, double x, double y, double width, double height,
+                              int id, Image image) {
+            return new LevelGoalZone(x, y, width, height, id, image, in.getString(myNextLevel));
+        }
+
+        @Override
+        void writeState (LevelGoalZone obj, BinaryRecord out) {
+            out.setObject(myNextLevel, obj.getNextLevelPath());
+        }
+    }
+
+    /**
+     * Stores Conditions whose only state is the name of the level to go to.
+     */
+    private abstract static class NextLevelConditionCodec extends BinaryRecordCodec<Condition> {
+        private final int myNextLevel = addField("nextLevel", FieldType.STRING);
+
+        NextLevelConditionCodec (Class<? extends Condition> type) {
+            super(type);
+        }
+
+        abstract Condition create (String nextLevelName);
+
+        @Override
+        void write (Condition obj, BinaryRecord out) {
+            out.setObject(myNextLevel, obj.getNextLevelName());
+        }
+
+        @Override
+        Condition read (BinaryRecord in) {
+            return create(in.getString(myNextLevel));
+        }
+    }
+
+    private static class SimpleBackgroundPainterCodec extends BinaryRecordCodec<LevelPlugin> {
+        private final int myImage = addField("image", FieldType.IMAGE);
+
+        SimpleBackgroundPainterCodec () {
+            super(SimpleBackgroundPainter.class);
+        }
+
+        @Override
+        void write (LevelPlugin obj, BinaryRecord out) {
+            SimpleBackgroundPainter painter = (SimpleBackgroundPainter) obj;
+            if (painter.getDefaultImage() != null) {
+                out.setObject(myImage, painter.getDefaultImage().getImage());
+            }
+        }
+
+        @Override
+        LevelPlugin read (BinaryRecord in) {
+            Image image = in.getImage(myImage);
+            if (image == null) { return new SimpleBackgroundPainter(); }
+            return new SimpleBackgroundPainter(image);
+        }
+    }
+}
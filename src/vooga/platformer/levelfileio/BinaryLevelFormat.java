@@ -0,0 +1,119 @@
+package vooga.platformer.levelfileio;
+
+import java.nio.charset.Charset;
+
+
+/**
+ * Constants describing the layout of binary level files, which are written by
+ * BinaryLevelWriter and read by BinaryLevelReader. All numbers are big-endian.
+ *
+ * <pre>
+ * int    MAGIC
+ * short  VERSION
+ * int[6] offsets of the string, schema, image, GameObject, Condition and
+ *        LevelPlugin sections
+ * int[6] level name, width, height, camera type, collision checker path and
+ *        collision checker type (strings are indexes into the string table)
+ *
+ * strings:  int count, then per string a short byte length and UTF-8 bytes
+ * schemas:  int count, then per schema the class name, a short field count
+ *           and per field its name and a FieldType code byte
+ * images:   int count, then per image an int byte length, an int width and
+ *           height, an ImageEncoding code byte and the pixels
+ * sections: int count, then per record a short schema index followed by the
+ *           fields in schema order, or SERIALIZED_RECORD followed by an int
+ *           byte length and a Java-serialized object
+ * </pre>
+ *
+ * A record's fields are matched to the fields its codec expects by name, so
+ * fields can be added to or dropped from a codec without breaking files
+ * written before the change. VERSION only needs to change if this layout
+ * does.
+ */
+final class BinaryLevelFormat {
+
+    /**
+     * First four bytes of every binary level file ("PLVL").
+     */
+    static final int MAGIC = 0x504C564C;
+    /**
+     * Version of the layout described above.
+     */
+    static final short VERSION = 1;
+    /**
+     * File extension used for binary level files.
+     */
+    static final String EXTENSION = ".lvl";
+    /**
+     * Encoding of the strings in the string table.
+     */
+    static final Charset UTF8 = Charset.forName("UTF-8");
+    /**
+     * Value of a string or image reference that refers to nothing.
+     */
+    static final int NO_REF = -1;
+    /**
+     * Schema index of a record stored with Java serialization, used for
+     * classes without a codec.
+     */
+    static final short SERIALIZED_RECORD = -1;
+
+    static final int STRING_SECTION = 0;
+    static final int SCHEMA_SECTION = 1;
+    static final int IMAGE_SECTION = 2;
+    static final int GAMEOBJECT_SECTION = 3;
+    static final int CONDITION_SECTION = 4;
+    static final int PLUGIN_SECTION = 5;
+    static final int SECTION_COUNT = 6;
+
+    /**
+     * Types of the fields of a record and how each is stored.
+     */
+    enum FieldType {
+        /** one byte, 0 or 1 */
+        BOOLEAN,
+        /** int */
+        INT,
+        /** double */
+        DOUBLE,
+        /** int index into the string table, or NO_REF */
+        STRING,
+        /** int index into the image table, or NO_REF */
+        IMAGE,
+        /** int count (or NO_REF for null) followed by that many string indexes */
+        STRING_LIST;
+
+        static FieldType fromCode (int code) {
+            FieldType[] types = values();
+            if (code < 0 || code >= types.length) {
+                throw new LevelFileIOException("Unknown field type " + code);
+            }
+            return types[code];
+        }
+    }
+
+    /**
+     * How the pixels of an image are stored. Both are plain ARGB ints, which
+     * the reader can copy straight into an image without decoding.
+     */
+    enum ImageEncoding {
+        /** width * height ints, row by row */
+        RAW,
+        /** pairs of an int run length and an int pixel, row by row */
+        RUN_LENGTH;
+
+        static ImageEncoding fromCode (int code) {
+            ImageEncoding[] encodings = values();
+            if (code < 0 || code >= encodings.length) {
+                throw new LevelFileIOException("Unknown image encoding " + code);
+            }
+            return encodings[code];
+        }
+    }
+
+    private BinaryLevelFormat () {
+        /*
+         * Empty constructor for util class
+         */
+    }
+}
@@ -0,0 +1,431 @@
+package vooga.platformer.levelfileio;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.condition.Condition;
+import vooga.platformer.level.levelplugin.LevelPlugin;
+import vooga.platformer.levelfileio.BinaryLevelFormat.FieldType;
+import vooga.platformer.levelfileio.BinaryLevelFormat.ImageEncoding;
+import vooga.platformer.util.ImageRegistry;
+
+
+/**
+ * Reads level files written by BinaryLevelWriter. The file is memory-mapped
+ * when the reader is created, and the string and schema tables are decoded
+ * right away; GameObjects, Conditions and LevelPlugins are built from the
+ * mapped bytes by their codecs each time they are requested, and each image
+ * is decoded once per reader, the first time a record refers to it.
+ * <p>
+ * The getters may be called from any thread.
+ *
+ */
+public class BinaryLevelReader implements LevelReader {
+
+    private final File myFile;
+    private final ByteBuffer myBuffer;
+    private final int[] mySectionOffsets = new int[BinaryLevelFormat.SECTION_COUNT];
+    private final String[] myStrings;
+    private final Schema[] mySchemas;
+    private final Image[] myImages;
+    private final int[] myImageOffsets;
+    private final String myLevelName;
+    private final int myWidth;
+    private final int myHeight;
+    private final String myCameraType;
+    private final String myCollisionCheckerPath;
+    private final String myCollisionCheckerType;
+
+    /**
+     * @param levelFilePath path to a binary level file
+     */
+    public BinaryLevelReader (String levelFilePath) {
+        this(new File(levelFilePath));
+    }
+
+    /**
+     * @param levelFile binary level file
+     */
+    public BinaryLevelReader (File levelFile) {
+        myFile = levelFile;
+        myBuffer = map(levelFile);
+        try {
+            ByteBuffer in = myBuffer.duplicate();
+            if (in.getInt() != BinaryLevelFormat.MAGIC) {
+                throw new LevelFileIOException(levelFile + " is not a binary level file");
+            }
+            short version = in.getShort();
+            if (version > BinaryLevelFormat.VERSION) {
+                throw new LevelFileIOException(levelFile + " has format version " + version
+                                               + ", newer than the supported version "
+                                               + BinaryLevelFormat.VERSION);
+            }
+            for (int i = 0; i < mySectionOffsets.length; i++) {
+                mySectionOffsets[i] = in.getInt();
+            }
+            int levelName = in.getInt();
+            myWidth = in.getInt();
+            myHeight = in.getInt();
+            int camera = in.getInt();
+            int checkerPath = in.getInt();
+            int checkerType = in.getInt();
+
+            myStrings = readStrings();
+            myLevelName = string(levelName);
+            myCameraType = string(camera);
+            myCollisionCheckerPath = string(checkerPath);
+            myCollisionCheckerType = string(checkerType);
+            mySchemas = readSchemas();
+            myImageOffsets = readImageOffsets();
+            myImages = new Image[myImageOffsets.length];
+        }
+        catch (BufferUnderflowException e) {
+            throw new LevelFileIOException(levelFile + " is truncated", e);
+        }
+    }
+
+    /**
+     * Checks whether a file starts like a binary level file, without reading
+     * the rest of it.
+     *
+     * @param file file to check
+     * @return true if the file exists and is in the binary level format
+     */
+    public static boolean isBinaryLevelFile (File file) {
+        if (!file.isFile() || file.length() < 4) { return false; }
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(file));
+            try {
+                return in.readInt() == BinaryLevelFormat.MAGIC;
+            }
+            finally {
+                in.close();
+            }
+        }
+        catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String getLevelName () {
+        return myLevelName;
+    }
+
+    @Override
+    public int getWidth () {
+        return myWidth;
+    }
+
+    @Override
+    public int getHeight () {
+        return myHeight;
+    }
+
+    @Override
+    public String getCollisionCheckerPath () {
+        return myCollisionCheckerPath;
+    }
+
+    @Override
+    public String getCollisionCheckerType () {
+        return myCollisionCheckerType;
+    }
+
+    @Override
+    public String getCameraType () {
+        return myCameraType;
+    }
+
+    @Override
+    public Collection<GameObject> getGameObjects () {
+        return readRecords(GameObject.class, BinaryLevelFormat.GAMEOBJECT_SECTION);
+    }
+
+    @Override
+    public Collection<Condition> getConditions () {
+        return readRecords(Condition.class, BinaryLevelFormat.CONDITION_SECTION);
+    }
+
+    @Override
+    public Collection<LevelPlugin> getLevelPlugins () {
+        return readRecords(LevelPlugin.class, BinaryLevelFormat.PLUGIN_SECTION);
+    }
+
+    private static ByteBuffer map (File levelFile) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile(levelFile, "r");
+            try {
+                FileChannel channel = raf.getChannel();
+                // the mapping stays valid after the file is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            finally {
+                raf.close();
+            }
+        }
+        catch (IOException e) {
+            throw new LevelFileIOException("Could not open binary level file " + levelFile, e);
+        }
+    }
+
+    private ByteBuffer section (int section) {
+        ByteBuffer in = myBuffer.duplicate();
+        in.position(mySectionOffsets[section]);
+        return in;
+    }
+
+    private String string (int ref) {
+        if (ref == BinaryLevelFormat.NO_REF) { return null; }
+        if (ref < 0 || ref >= myStrings.length) {
+            throw new LevelFileIOException("Bad string reference " + ref + " in " + myFile);
+        }
+        return myStrings[ref];
+    }
+
+    private String[] readStrings () {
+        ByteBuffer in = section(BinaryLevelFormat.STRING_SECTION);
+        String[] strings = new String[in.getInt()];
+        byte[] bytes = new byte[0];
+        for (int i = 0; i < strings.length; i++) {
+            int length = in.getShort() & 0xFFFF;
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            in.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, BinaryLevelFormat.UTF8);
+        }
+        return strings;
+    }
+
+    private Schema[] readSchemas () {
+        ByteBuffer in = section(BinaryLevelFormat.SCHEMA_SECTION);
+        Schema[] schemas = new Schema[in.getInt()];
+        for (int i = 0; i < schemas.length; i++) {
+            String className = string(in.getInt());
+            int fieldCount = in.getShort() & 0xFFFF;
+            String[] names = new String[fieldCount];
+            FieldType[] types = new FieldType[fieldCount];
+            for (int f = 0; f < fieldCount; f++) {
+                names[f] = string(in.getInt());
+                types[f] = FieldType.fromCode(in.get());
+            }
+            schemas[i] = new Schema(className, BinaryLevelCodecs.forName(className), names, types);
+        }
+        return schemas;
+    }
+
+    private int[] readImageOffsets () {
+        ByteBuffer in = section(BinaryLevelFormat.IMAGE_SECTION);
+        int[] offsets = new int[in.getInt()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = in.position();
+            int length = in.getInt();
+            in.position(in.position() + length);
+        }
+        return offsets;
+    }
+
+    private synchronized Image image (int ref) {
+        if (ref == BinaryLevelFormat.NO_REF) { return null; }
+        if (ref < 0 || ref >= myImages.length) {
+            throw new LevelFileIOException("Bad image reference " + ref + " in " + myFile);
+        }
+        if (myImages[ref] == null) {
+            ByteBuffer in = myBuffer.duplicate();
+            // skip the byte length
+            in.position(myImageOffsets[ref] + 4);
+            myImages[ref] = readImage(in);
+        }
+        return myImages[ref];
+    }
+
+    private Image readImage (ByteBuffer in) {
+        int width = in.getInt();
+        int height = in.getInt();
+        if (width <= 0 || height <= 0) {
+            throw new LevelFileIOException("Bad image size " + width + "x" + height + " in "
+                                           + myFile);
+        }
+        ImageEncoding encoding = ImageEncoding.fromCode(in.get());
+        int[] pixels = new int[width * height];
+        IntBuffer ints = in.asIntBuffer();
+        if (encoding == ImageEncoding.RAW) {
+            ints.get(pixels);
+        }
+        else {
+            int filled = 0;
+            while (filled < pixels.length) {
+                int run = ints.get();
+                if (run <= 0 || run > pixels.length - filled) {
+                    throw new LevelFileIOException("Bad image data in " + myFile);
+                }
+                Arrays.fill(pixels, filled, filled + run, ints.get());
+                filled += run;
+            }
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        // copying through the raster leaves the image eligible for acceleration
+        image.getRaster().setDataElements(0, 0, width, height, pixels);
+        return ImageRegistry.intern(image, pixels);
+    }
+
+    private <T> Collection<T> readRecords (Class<T> type, int section) {
+        try {
+            ByteBuffer in = section(section);
+            int count = in.getInt();
+            List<T> objects = new ArrayList<T>(count);
+            BinaryRecord[] records = new BinaryRecord[mySchemas.length];
+            for (int i = 0; i < count; i++) {
+                short schemaRef = in.getShort();
+                if (schemaRef == BinaryLevelFormat.SERIALIZED_RECORD) {
+                    objects.add(type.cast(readSerialized(in)));
+                    continue;
+                }
+                if (schemaRef < 0 || schemaRef >= mySchemas.length) {
+                    throw new LevelFileIOException("Bad schema reference " + schemaRef + " in "
+                                                   + myFile);
+                }
+                Schema schema = mySchemas[schemaRef];
+                if (records[schemaRef] == null) {
+                    records[schemaRef] = schema.createRecord();
+                }
+                objects.add(type.cast(schema.read(in, records[schemaRef])));
+            }
+            return objects;
+        }
+        catch (BufferUnderflowException e) {
+            throw new LevelFileIOException(myFile + " is truncated", e);
+        }
+        catch (ClassCastException e) {
+            throw new LevelFileIOException("Record of the wrong type in " + myFile, e);
+        }
+    }
+
+    private Object readSerialized (ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        try {
+            ObjectInputStream ois = new SharedImageInputStream(new ByteArrayInputStream(bytes));
+            try {
+                return ois.readObject();
+            }
+            finally {
+                ois.close();
+            }
+        }
+        catch (IOException e) {
+            throw new LevelFileIOException("Could not read a serialized record in " + myFile, e);
+        }
+        catch (ClassNotFoundException e) {
+            throw new LevelFileIOException("A class matching a serialized record in " + myFile
+                                           + " could not be found.", e);
+        }
+    }
+
+    /**
+     * The fields of one class as they are stored in this file, matched to
+     * the slots of the class's codec.
+     */
+    private final class Schema {
+        private final String myClassName;
+        private final BinaryRecordCodec<?> myCodec;
+        private final FieldType[] myTypes;
+        private final int[] mySlots;
+
+        private Schema (String className, BinaryRecordCodec<?> codec, String[] names,
+                        FieldType[] types) {
+            myClassName = className;
+            myCodec = codec;
+            myTypes = types;
+            mySlots = new int[names.length];
+            for (int f = 0; f < names.length; f++) {
+                mySlots[f] = (codec == null) ? -1 : codec.findField(names[f], types[f]);
+            }
+        }
+
+        private BinaryRecord createRecord () {
+            if (myCodec == null) {
+                throw new LevelFileIOException("No binary codec for " + myClassName
+                                               + " stored in " + myFile);
+            }
+            return new BinaryRecord(myCodec.getFieldCount());
+        }
+
+        private Object read (ByteBuffer in, BinaryRecord record) {
+            record.clear();
+            for (int f = 0; f < myTypes.length; f++) {
+                // fields the codec no longer has are read and dropped
+                int slot = mySlots[f];
+                switch (myTypes[f]) {
+                    case BOOLEAN:
+                        boolean b = in.get() != 0;
+                        if (slot >= 0) {
+                            record.setBoolean(slot, b);
+                        }
+                        break;
+                    case INT:
+                        int i = in.getInt();
+                        if (slot >= 0) {
+                            record.setInt(slot, i);
+                        }
+                        break;
+                    case DOUBLE:
+                        double d = in.getDouble();
+                        if (slot >= 0) {
+                            record.setDouble(slot, d);
+                        }
+                        break;
+                    case STRING:
+                        String s = string(in.getInt());
+                        if (slot >= 0) {
+                            record.setObject(slot, s);
+                        }
+                        break;
+                    case IMAGE:
+                        int imageRef = in.getInt();
+                        if (slot >= 0) {
+                            record.setObject(slot, image(imageRef));
+                        }
+                        break;
+                    case STRING_LIST:
+                        List<String> strings = readStringList(in);
+                        if (slot >= 0) {
+                            record.setObject(slot, strings);
+                        }
+                        break;
+                    default:
+                        throw new LevelFileIOException("Unknown field type " + myTypes[f]);
+                }
+            }
+            return myCodec.read(record);
+        }
+
+        private List<String> readStringList (ByteBuffer in) {
+            int count = in.getInt();
+            if (count == BinaryLevelFormat.NO_REF) { return null; }
+            if (count == 0) { return Collections.emptyList(); }
+            List<String> strings = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                strings.add(string(in.getInt()));
+            }
+            return strings;
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package vooga.platformer.levelfileio;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.ImageIcon;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.condition.Condition;
+import vooga.platformer.level.levelplugin.LevelPlugin;
+import vooga.platformer.levelfileio.BinaryLevelFormat.FieldType;
+import vooga.platformer.levelfileio.BinaryLevelFormat.ImageEncoding;
+
+
+/**
+ * A static class responsible for writing levels in the binary format read by
+ * BinaryLevelReader. Unlike LevelFileWriter, everything about the level goes
+ * into a single file, and each distinct image is stored once no matter how
+ * many objects use it.
+ *
+ */
+public final class BinaryLevelWriter {
+
+    private static final int HEADER_SIZE = 4 + 2 + BinaryLevelFormat.SECTION_COUNT * 4 + 6 * 4;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final List<String> myStrings = new ArrayList<String>();
+    private final Map<String, Integer> myStringRefs = new HashMap<String, Integer>();
+    private final List<byte[]> myImages = new ArrayList<byte[]>();
+    private final Map<Image, Integer> myImageRefs = new IdentityHashMap<Image, Integer>();
+    private final List<BinaryRecordCodec<?>> mySchemas = new ArrayList<BinaryRecordCodec<?>>();
+    private final Map<BinaryRecordCodec<?>, Integer> mySchemaRefs =
+            new IdentityHashMap<BinaryRecordCodec<?>, Integer>();
+
+    private BinaryLevelWriter () {
+        /*
+         * Only created by writeLevel, to hold the tables of one file
+         */
+    }
+
+    /**
+     * Writes a level read from another file, such as an XML level file, in
+     * the binary format.
+     *
+     * @param filePath file to write, e.g. <code>some/path/name.lvl</code>
+     * @param level contents of the level
+     */
+    public static void writeLevel (String filePath, LevelReader level) {
+        writeLevel(filePath, level.getLevelName(), level.getWidth(), level.getHeight(),
+                   level.getGameObjects(), level.getConditions(), level.getLevelPlugins(),
+                   level.getCameraType(), level.getCollisionCheckerPath(),
+                   level.getCollisionCheckerType());
+    }
+
+    /**
+     * Writes the data describing a platformer level to a single binary file
+     * so that it can be loaded by the LevelFactory.
+     *
+     * @param filePath file to write, e.g. <code>some/path/name.lvl</code>
+     * @param levelName name of the level to display to the user
+     * @param width overall width of the level
+     * @param height overall height of the level
+     * @param gameObjects all the GameObjects of the level; one of them
+     *        <strong>must</strong> be a Player for LevelFactory to be able to
+     *        load the level
+     * @param conditions the conditions for winning/losing this level
+     * @param plugins plugins this level uses
+     * @param cameraType class name of the Camera to use for this level
+     * @param collisionCheckerPath file path to the xml file describing the
+     *        level's collision events
+     * @param collisionCheckerType fully-qualified class name of the
+     *        CollisionChecker to use for this level
+     */
+    public static void writeLevel (String filePath, String levelName, int width, int height,
+                                   Collection<GameObject> gameObjects,
+                                   Collection<Condition> conditions,
+                                   Collection<LevelPlugin> plugins, String cameraType,
+                                   String collisionCheckerPath, String collisionCheckerType) {
+        BinaryLevelWriter writer = new BinaryLevelWriter();
+        try {
+            int[] header = {
+                writer.stringRef(levelName), width, height, writer.stringRef(cameraType),
+                writer.stringRef(collisionCheckerPath), writer.stringRef(collisionCheckerType)
+            };
+            byte[][] sections = new byte[BinaryLevelFormat.SECTION_COUNT][];
+            sections[BinaryLevelFormat.GAMEOBJECT_SECTION] = writer.encodeRecords(gameObjects);
+            sections[BinaryLevelFormat.CONDITION_SECTION] = writer.encodeRecords(conditions);
+            sections[BinaryLevelFormat.PLUGIN_SECTION] = writer.encodeRecords(plugins);
+            sections[BinaryLevelFormat.SCHEMA_SECTION] = writer.encodeSchemas();
+            sections[BinaryLevelFormat.IMAGE_SECTION] = writer.encodeImages();
+            sections[BinaryLevelFormat.STRING_SECTION] = writer.encodeStrings();
+            writeFile(filePath, header, sections);
+        }
+        catch (IOException e) {
+            throw new LevelFileIOException("Could not write binary level file " + filePath, e);
+        }
+    }
+
+    private static void writeFile (String filePath, int[] header, byte[][] sections)
+        throws IOException {
+        DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)));
+        try {
+            out.writeInt(BinaryLevelFormat.MAGIC);
+            out.writeShort(BinaryLevelFormat.VERSION);
+            int offset = HEADER_SIZE;
+            for (byte[] section : sections) {
+                out.writeInt(offset);
+                offset += section.length;
+            }
+            for (int value : header) {
+                out.writeInt(value);
+            }
+            for (byte[] section : sections) {
+                out.write(section);
+            }
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    private byte[] encodeRecords (Collection<?> objects) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(objects.size());
+        for (Object obj : objects) {
+            BinaryRecordCodec<Object> codec = BinaryLevelCodecs.forClass(obj.getClass());
+            if (codec == null || !codec.canWrite(obj)) {
+                byte[] serialized = serialize(obj);
+                out.writeShort(BinaryLevelFormat.SERIALIZED_RECORD);
+                out.writeInt(serialized.length);
+                out.write(serialized);
+                continue;
+            }
+            BinaryRecord record = new BinaryRecord(codec.getFieldCount());
+            codec.write(obj, record);
+            out.writeShort(schemaRef(codec));
+            for (int slot = 0; slot < codec.getFieldCount(); slot++) {
+                writeField(out, codec.getFieldType(slot), record, slot);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeField (DataOutputStream out, FieldType type, BinaryRecord record, int slot)
+        throws IOException {
+        switch (type) {
+            case BOOLEAN:
+                out.writeBoolean(record.getBoolean(slot));
+                break;
+            case INT:
+                out.writeInt(record.getInt(slot));
+                break;
+            case DOUBLE:
+                out.writeDouble(record.getDouble(slot));
+                break;
+            case STRING:
+                out.writeInt(stringRef(record.getString(slot)));
+                break;
+            case IMAGE:
+                out.writeInt(imageRef(record.getImage(slot)));
+                break;
+            case STRING_LIST:
+                List<String> strings = record.getStrings(slot);
+                if (strings == null) {
+                    out.writeInt(BinaryLevelFormat.NO_REF);
+                    break;
+                }
+                out.writeInt(strings.size());
+                for (String s : strings) {
+                    out.writeInt(stringRef(s));
+                }
+                break;
+            default:
+                throw new LevelFileIOException("Unknown field type " + type);
+        }
+    }
+
+    private byte[] encodeSchemas () throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(mySchemas.size());
+        for (BinaryRecordCodec<?> codec : mySchemas) {
+            out.writeInt(stringRef(codec.getType().getName()));
+            out.writeShort(codec.getFieldCount());
+            for (int slot = 0; slot < codec.getFieldCount(); slot++) {
+                out.writeInt(stringRef(codec.getFieldName(slot)));
+                out.writeByte(codec.getFieldType(slot).ordinal());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeImages () throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(myImages.size());
+        for (byte[] image : myImages) {
+            out.writeInt(image.length);
+            out.write(image);
+        }
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeStrings () throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(myStrings.size());
+        for (String s : myStrings) {
+            byte[] utf8 = s.getBytes(BinaryLevelFormat.UTF8);
+            if (utf8.length > MAX_STRING_BYTES) {
+                throw new LevelFileIOException("String too long for a binary level file: "
+                                               + s.substring(0, 40) + "...");
+            }
+            out.writeShort(utf8.length);
+            out.write(utf8);
+        }
+        return bytes.toByteArray();
+    }
+
+    private int stringRef (String s) {
+        if (s == null) { return BinaryLevelFormat.NO_REF; }
+        Integer ref = myStringRefs.get(s);
+        if (ref == null) {
+            ref = myStrings.size();
+            myStrings.add(s);
+            myStringRefs.put(s, ref);
+        }
+        return ref;
+    }
+
+    private int schemaRef (BinaryRecordCodec<?> codec) {
+        Integer ref = mySchemaRefs.get(codec);
+        if (ref == null) {
+            ref = mySchemas.size();
+            mySchemas.add(codec);
+            mySchemaRefs.put(codec, ref);
+        }
+        return ref;
+    }
+
+    private int imageRef (Image image) throws IOException {
+        if (image == null) { return BinaryLevelFormat.NO_REF; }
+        Integer ref = myImageRefs.get(image);
+        if (ref == null) {
+            ref = myImages.size();
+            myImages.add(encodeImage(toBufferedImage(image)));
+            myImageRefs.put(image, ref);
+        }
+        return ref;
+    }
+
+    private static byte[] encodeImage (BufferedImage image) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        int runs = 0;
+        for (int i = 0; i < pixels.length; i++) {
+            if (i == 0 || pixels[i] != pixels[i - 1]) {
+                runs++;
+            }
+        }
+        ImageEncoding encoding =
+                (runs * 2 < pixels.length) ? ImageEncoding.RUN_LENGTH : ImageEncoding.RAW;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeByte(encoding.ordinal());
+        if (encoding == ImageEncoding.RAW) {
+            for (int p : pixels) {
+                out.writeInt(p);
+            }
+        }
+        else {
+            int start = 0;
+            for (int i = 1; i <= pixels.length; i++) {
+                if (i == pixels.length || pixels[i] != pixels[start]) {
+                    out.writeInt(i - start);
+                    out.writeInt(pixels[start]);
+                    start = i;
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static BufferedImage toBufferedImage (Image image) {
+        if (image instanceof BufferedImage) { return (BufferedImage) image; }
+        // ImageIcon waits for the image to finish loading
+        ImageIcon loaded = new ImageIcon(image);
+        BufferedImage copy =
+                new BufferedImage(loaded.getIconWidth(), loaded.getIconHeight(),
+                                  BufferedImage.TYPE_INT_ARGB);
+        Graphics2D pen = copy.createGraphics();
+        pen.drawImage(loaded.getImage(), 0, 0, null);
+        pen.dispose();
+        return copy;
+    }
+
+    private static byte[] serialize (Object obj) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(obj);
+        out.close();
+        return bytes.toByteArray();
+    }
+}
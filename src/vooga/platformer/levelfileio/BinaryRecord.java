@@ -0,0 +1,80 @@
+package vooga.platformer.levelfileio;
+
+import java.awt.Image;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * The field values of one record of a binary level file, indexed by the
+ * slots a BinaryRecordCodec assigned to its fields. Numbers and booleans are
+ * kept in a double array and strings, images and string lists in an object
+ * array, so one instance can be reused for every record of a codec.
+ *
+ */
+final class BinaryRecord {
+
+    private final double[] myNumbers;
+    private final Object[] myObjects;
+
+    BinaryRecord (int fieldCount) {
+        myNumbers = new double[fieldCount];
+        myObjects = new Object[fieldCount];
+    }
+
+    /**
+     * Resets every field to its default value: 0, false or null.
+     */
+    void clear () {
+        Arrays.fill(myNumbers, 0);
+        Arrays.fill(myObjects, null);
+    }
+
+    boolean getBoolean (int slot) {
+        return myNumbers[slot] != 0;
+    }
+
+    int getInt (int slot) {
+        return (int) myNumbers[slot];
+    }
+
+    double getDouble (int slot) {
+        return myNumbers[slot];
+    }
+
+    String getString (int slot) {
+        return (String) myObjects[slot];
+    }
+
+    Image getImage (int slot) {
+        return (Image) myObjects[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    List<String> getStrings (int slot) {
+        return (List<String>) myObjects[slot];
+    }
+
+    Object getObject (int slot) {
+        return myObjects[slot];
+    }
+
+    void setBoolean (int slot, boolean value) {
+        myNumbers[slot] = value ? 1 : 0;
+    }
+
+    void setInt (int slot, int value) {
+        myNumbers[slot] = value;
+    }
+
+    void setDouble (int slot, double value) {
+        myNumbers[slot] = value;
+    }
+
+    /**
+     * Sets a string, image or string list field.
+     */
+    void setObject (int slot, Object value) {
+        myObjects[slot] = value;
+    }
+}
@@ -0,0 +1,88 @@
+package vooga.platformer.levelfileio;
+
+import java.util.ArrayList;
+import java.util.List;
+import vooga.platformer.levelfileio.BinaryLevelFormat.FieldType;
+
+
+/**
+ * Converts between instances of one class and records of a binary level file.
+ * A codec declares its fields, which become the schema written for its class,
+ * and copies values between an object and a BinaryRecord. Objects are
+ * rebuilt through ordinary constructors rather than Java deserialization.
+ *
+ * @param <T> type of object handled, e.g. GameObject
+ */
+abstract class BinaryRecordCodec<T> {
+
+    private final Class<? extends T> myType;
+    private final List<String> myFieldNames = new ArrayList<String>();
+    private final List<FieldType> myFieldTypes = new ArrayList<FieldType>();
+
+    /**
+     * @param type exact class handled by this codec; subclasses of it need a
+     *        codec of their own
+     */
+    protected BinaryRecordCodec (Class<? extends T> type) {
+        myType = type;
+    }
+
+    /**
+     * Declares a field of this codec's schema.
+     *
+     * @param name field name stored in the file
+     * @param type how the field is stored
+     * @return slot of the field in the records of this codec
+     */
+    protected final int addField (String name, FieldType type) {
+        myFieldNames.add(name);
+        myFieldTypes.add(type);
+        return myFieldNames.size() - 1;
+    }
+
+    Class<? extends T> getType () {
+        return myType;
+    }
+
+    int getFieldCount () {
+        return myFieldNames.size();
+    }
+
+    String getFieldName (int slot) {
+        return myFieldNames.get(slot);
+    }
+
+    FieldType getFieldType (int slot) {
+        return myFieldTypes.get(slot);
+    }
+
+    /**
+     * Finds the slot of a field stored in a file.
+     *
+     * @return slot of the field with this name and type, or -1 if this codec
+     *         has no such field
+     */
+    int findField (String name, FieldType type) {
+        int slot = myFieldNames.indexOf(name);
+        return (slot >= 0 && myFieldTypes.get(slot) == type) ? slot : -1;
+    }
+
+    /**
+     * @return true if a record of this codec holds everything needed to
+     *         rebuild obj; otherwise obj is stored with Java serialization
+     */
+    boolean canWrite (T obj) {
+        return true;
+    }
+
+    /**
+     * Copies the state of obj into out.
+     */
+    abstract void write (T obj, BinaryRecord out);
+
+    /**
+     * Creates an object from the values in in. Fields that were not in the
+     * file hold their default values.
+     */
+    abstract T read (BinaryRecord in);
+}
@@ -0,0 +1,96 @@
+package vooga.platformer.levelfileio;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import util.xml.XmlException;
+
+
+/**
+ * Converts XML level files, with their serialized data files, to the binary
+ * level format. Run as an application with the directories to convert as
+ * arguments (by default <code>src/vooga/platformer/data</code>); every level
+ * file <code>name.xml</code>, or <code>name</code> without an extension, is
+ * written to <code>name.lvl</code> next to it.
+ *
+ */
+public final class LevelFileConverter {
+
+    private static final String DEFAULT_DIRECTORY = "src/vooga/platformer/data";
+    private static final String XML_EXTENSION = ".xml";
+
+    private LevelFileConverter () {
+        /*
+         * Empty constructor for util class
+         */
+    }
+
+    public static void main (String[] args) {
+        String[] directories = (args.length == 0) ? new String[] { DEFAULT_DIRECTORY } : args;
+        for (String directory : directories) {
+            convertDirectory(new File(directory));
+        }
+    }
+
+    /**
+     * Converts every XML level file in a directory.
+     *
+     * @param directory directory containing level files
+     */
+    public static void convertDirectory (File directory) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            System.out.println("Not a directory: " + directory);
+            return;
+        }
+        Arrays.sort(files);
+        Set<File> written = new HashSet<File>();
+        for (File f : files) {
+            if (!isLevelFileName(f)) {
+                continue;
+            }
+            File target = binaryFileFor(f);
+            if (!written.add(target)) {
+                System.out.println("Skipped " + f + ": " + target + " was already written");
+                continue;
+            }
+            try {
+                convert(f, target);
+                System.out.println("Converted " + f + " to " + target);
+            }
+            catch (LevelFileIOException e) {
+                System.out.println("Could not convert " + f + ": " + e.getMessage());
+            }
+            catch (XmlException e) {
+                System.out.println("Skipped " + f + ": not an XML level file");
+            }
+        }
+    }
+
+    /**
+     * Converts one XML level file to the binary format.
+     *
+     * @param xmlLevelFile level file in the format read by LevelFileReader
+     * @param target binary level file to write
+     */
+    public static void convert (File xmlLevelFile, File target) {
+        BinaryLevelWriter.writeLevel(target.getPath(), new LevelFileReader(xmlLevelFile));
+    }
+
+    /**
+     * @param xmlLevelFile XML level file
+     * @return the file the binary version of the level is written to
+     */
+    public static File binaryFileFor (File xmlLevelFile) {
+        String name = xmlLevelFile.getName();
+        if (name.endsWith(XML_EXTENSION)) {
+            name = name.substring(0, name.length() - XML_EXTENSION.length());
+        }
+        return new File(xmlLevelFile.getParentFile(), name + BinaryLevelFormat.EXTENSION);
+    }
+
+    private static boolean isLevelFileName (File f) {
+        return f.isFile() && (f.getName().endsWith(XML_EXTENSION) || !f.getName().contains("."));
+    }
+}
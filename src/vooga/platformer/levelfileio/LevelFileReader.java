@@ -24,7 +24,10 @@ import vooga.platformer.level.levelplugin.LevelPlugin;
  * @author Grant Oakley
  * @author Zach Michaelov (modified)
  */
-public class LevelFileReader {
+public class LevelFileReader implements LevelReader {
+
+    private static final String DEFAULT_COLLISION_CHECKER =
+            "vooga.platformer.collision.BasicCollisionChecker";
 
     private final Document myDocument;
     private Element myRoot;
@@ -87,6 +90,22 @@ public class LevelFileReader {
         return XmlUtilities.getChildContent(myRoot, XmlTags.COLLISION_CHECKER);
     }
 
+    /**
+     * Gets the fully-qualified class name of the CollisionChecker to use for
+     * this level, given by the <code>class</code> attribute of the
+     * <code>collisionChecker</code> tag. Levels without this attribute use
+     * the BasicCollisionChecker.
+     * 
+     * @return class name of this level's CollisionChecker subclass
+     */
+    public String getCollisionCheckerType () {
+        Element checker = XmlUtilities.getElement(myRoot, XmlTags.COLLISION_CHECKER);
+        if (checker == null || !checker.hasAttribute(XmlTags.CLASS_NAME)) {
+            return DEFAULT_COLLISION_CHECKER;
+        }
+        return XmlUtilities.getAttribute(checker, XmlTags.CLASS_NAME);
+    }
+
     /**
      * Gets the fully-qualified class name of the Camera to use for this
      * particular level.
@@ -169,7 +188,7 @@ public class LevelFileReader {
 
         try {
             fis = new FileInputStream(dataFile);
-            ObjectInputStream ois = new ObjectInputStream(fis);
+            ObjectInputStream ois = new SharedImageInputStream(fis);
             inputObjects = new ArrayList<Object>();
             while (fis.available() > 0) {
                 inputObjects.add(ois.readObject());
@@ -0,0 +1,61 @@
+package vooga.platformer.levelfileio;
+
+import java.util.Collection;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.condition.Condition;
+import vooga.platformer.level.levelplugin.LevelPlugin;
+
+
+/**
+ * The contents of a stored platformer level, independent of the format it
+ * was saved in. Implemented by LevelFileReader for XML level files and by
+ * BinaryLevelReader for binary ones.
+ *
+ */
+public interface LevelReader {
+
+    /**
+     * @return name of the level to display to the user
+     */
+    String getLevelName ();
+
+    /**
+     * @return overall width of the level
+     */
+    int getWidth ();
+
+    /**
+     * @return overall height of the level
+     */
+    int getHeight ();
+
+    /**
+     * @return path to the xml file describing the level's collision events
+     */
+    String getCollisionCheckerPath ();
+
+    /**
+     * @return fully-qualified class name of the level's CollisionChecker
+     */
+    String getCollisionCheckerType ();
+
+    /**
+     * @return class name of the level's Camera
+     */
+    String getCameraType ();
+
+    /**
+     * @return newly created copies of the level's GameObjects
+     */
+    Collection<GameObject> getGameObjects ();
+
+    /**
+     * @return newly created copies of the level's Conditions
+     */
+    Collection<Condition> getConditions ();
+
+    /**
+     * @return newly created copies of the level's LevelPlugins
+     */
+    Collection<LevelPlugin> getLevelPlugins ();
+}
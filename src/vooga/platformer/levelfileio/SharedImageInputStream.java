@@ -0,0 +1,47 @@
+package vooga.platformer.levelfileio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import javax.swing.ImageIcon;
+import vooga.platformer.util.ImageRegistry;
+
+
+/**
+ * An ObjectInputStream that replaces every deserialized ImageIcon with one
+ * sharing its image through the ImageRegistry, so identical sprites stored in
+ * a level file end up as a single image in memory.
+ * <p>
+ * The serialVersionUID of ImageIcon differs between Java releases even though
+ * its serialized form does not, so icons are always read with the local class
+ * description. Without this, level files saved with an older JDK cannot be
+ * loaded at all.
+ */
+class SharedImageInputStream extends ObjectInputStream {
+
+    /**
+     * @param in stream of serialized objects
+     * @throws IOException if the stream header cannot be read
+     */
+    public SharedImageInputStream (InputStream in) throws IOException {
+        super(in);
+        enableResolveObject(true);
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor () throws IOException,
+                                                      ClassNotFoundException {
+        ObjectStreamClass saved = super.readClassDescriptor();
+        if (ImageIcon.class.getName().equals(saved.getName())) {
+            return ObjectStreamClass.lookup(ImageIcon.class);
+        }
+        return saved;
+    }
+
+    @Override
+    protected Object resolveObject (Object obj) throws IOException {
+        if (obj instanceof ImageIcon) { return ImageRegistry.intern((ImageIcon) obj); }
+        return obj;
+    }
+}
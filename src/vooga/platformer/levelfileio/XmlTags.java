@@ -29,6 +29,9 @@ public interface XmlTags {
 
     /**
      * Tag deliminating the path to the collision checker to use for this level.
+     * An optional <code>class</code> attribute gives the fully-qualified class
+     * name of the CollisionChecker (e.g.
+     * <code>vooga.platformer.collision.SpatialHashCollisionChecker</code>).
      */
     String COLLISION_CHECKER = "collisionChecker";
 
@@ -72,6 +75,13 @@ public interface XmlTags {
      */
     String COLLISIONEVENT = "collisionEvent";
 
+    /**
+     * Optional collisionEvent attribute; when <code>true</code> the event is
+     * also used for subclasses of the two colliding types that have no event
+     * of their own.
+     */
+    String SUBCLASSES = "subclasses";
+
     /**
      * Tag deliminating the fully-qualified class name for a concrete
      * CollisionEvent.
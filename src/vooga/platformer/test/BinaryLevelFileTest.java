@@ -0,0 +1,263 @@
+package vooga.platformer.test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.platformer.gameobject.Enemy;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.Gold;
+import vooga.platformer.gameobject.LevelGoalZone;
+import vooga.platformer.gameobject.MovingObject;
+import vooga.platformer.gameobject.Player;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.gameobject.strategy.update.GravityStrategy;
+import vooga.platformer.level.Level;
+import vooga.platformer.level.LevelFactory;
+import vooga.platformer.level.condition.Condition;
+import vooga.platformer.level.condition.DefeatAllEnemiesCondition;
+import vooga.platformer.level.condition.DestroySpecificObjectCondition;
+import vooga.platformer.level.levelplugin.GravityPlugin;
+import vooga.platformer.level.levelplugin.LevelPlugin;
+import vooga.platformer.level.levelplugin.SimpleBackgroundPainter;
+import vooga.platformer.levelfileio.BinaryLevelReader;
+import vooga.platformer.levelfileio.BinaryLevelWriter;
+import vooga.platformer.levelfileio.LevelFileConverter;
+import vooga.platformer.levelfileio.LevelFileIOException;
+import vooga.platformer.levelfileio.LevelFileReader;
+import vooga.platformer.levelfileio.LevelReader;
+import vooga.platformer.util.enums.Direction;
+
+
+/**
+ * Tests writing and reading binary level files.
+ *
+ */
+public class BinaryLevelFileTest {
+
+    private static final String TEST_IMAGE = "src/vooga/platformer/test/testImage.png";
+    private static final String COLLISION_CHECKER_PATH =
+            "src/vooga/platformer/collision/collisionEvents.xml";
+    private static final String COLLISION_CHECKER_TYPE =
+            "vooga.platformer.collision.BasicCollisionChecker";
+    private static final String CAMERA_TYPE = "FollowingCamera";
+    private static final int PATROL_RANGE = 40;
+    private static final String CONVERTED_XML = "src/vooga/platformer/data/level1.xml";
+
+    private File myFile;
+    private List<GameObject> myGameObjects = new ArrayList<GameObject>();
+    private List<Condition> myConditions = new ArrayList<Condition>();
+    private List<LevelPlugin> myPlugins = new ArrayList<LevelPlugin>();
+
+    @Before
+    public void setUp () throws Exception {
+        File image = new File(TEST_IMAGE);
+        myGameObjects.add(new StaticObject(0, 400, 600, 20, 0, image));
+        myGameObjects.add(new Gold(30, 380, 10, 10, 1, image));
+        Player player = new Player(40, 300, 20, 40, 2, image);
+        player.setVelocity(1.5, -2);
+        player.setFacingDirection(Direction.LEFT);
+        player.flipImage();
+        myGameObjects.add(player);
+        Enemy enemy = new Enemy(200, 300, 20, 20, 3, image);
+        enemy.removeStrategy("GravityStrategy");
+        myGameObjects.add(enemy);
+        myGameObjects.add(new LevelGoalZone(500, 350, 30, 50, 4, image, "next.xml"));
+        MovingObject falling = new MovingObject(100, 0, 20, 20, 5, image);
+        falling.addStrategy("GravityStrategy", new GravityStrategy(falling));
+        myGameObjects.add(falling);
+        MovingObject counted = new MovingObject(300, 0, 20, 20, 6, image);
+        CountingStrategy counting = new CountingStrategy(counted);
+        counting.applyAction();
+        counting.applyAction();
+        counted.addStrategy("CountingStrategy", counting);
+        myGameObjects.add(counted);
+        StaticObject patrolling = new StaticObject(400, 0, 20, 20, 7, image);
+        patrolling.addStrategy("PatrolStrategy", new PatrolStrategy(patrolling, PATROL_RANGE));
+        myGameObjects.add(patrolling);
+
+        myConditions.add(new DefeatAllEnemiesCondition("won.xml"));
+        myConditions.add(new DestroySpecificObjectCondition("lost.xml", 2));
+        myPlugins.add(new SimpleBackgroundPainter(image));
+        myPlugins.add(new GravityPlugin(0.5, Direction.DOWN));
+
+        myFile = File.createTempFile("binaryLevel", ".lvl");
+        myFile.deleteOnExit();
+        BinaryLevelWriter.writeLevel(myFile.getPath(), "Level Name", 640, 480, myGameObjects,
+                                     myConditions, myPlugins, CAMERA_TYPE,
+                                     COLLISION_CHECKER_PATH, COLLISION_CHECKER_TYPE);
+    }
+
+    @Test
+    public void testHeader () throws Exception {
+        BinaryLevelReader reader = new BinaryLevelReader(myFile);
+        Assert.assertTrue(BinaryLevelReader.isBinaryLevelFile(myFile));
+        Assert.assertEquals("Level Name", reader.getLevelName());
+        Assert.assertEquals(640, reader.getWidth());
+        Assert.assertEquals(480, reader.getHeight());
+        Assert.assertEquals(CAMERA_TYPE, reader.getCameraType());
+        Assert.assertEquals(COLLISION_CHECKER_PATH, reader.getCollisionCheckerPath());
+        Assert.assertEquals(COLLISION_CHECKER_TYPE, reader.getCollisionCheckerType());
+    }
+
+    @Test
+    public void testGameObjectsRoundTrip () throws Exception {
+        List<GameObject> read =
+                new ArrayList<GameObject>(new BinaryLevelReader(myFile).getGameObjects());
+        assertSameObjects(myGameObjects, read);
+
+        Player player = (Player) read.get(2);
+        Assert.assertEquals(1.5, player.getVelocity().getX());
+        Assert.assertEquals(-2.0, player.getVelocity().getY());
+        Assert.assertEquals(Direction.LEFT, player.getFacingDirection());
+        Assert.assertTrue(player.isFlipped());
+        Assert.assertEquals("next.xml", ((LevelGoalZone) read.get(4)).getNextLevelPath());
+    }
+
+    @Test
+    public void testImagesAreStoredOnceAndShared () throws Exception {
+        List<GameObject> read =
+                new ArrayList<GameObject>(new BinaryLevelReader(myFile).getGameObjects());
+        Assert.assertSame(read.get(0).getCurrentImage(), read.get(3).getCurrentImage());
+
+        BufferedImage expected = ImageIO.read(new File(TEST_IMAGE));
+        BufferedImage actual = (BufferedImage) read.get(0).getCurrentImage();
+        Assert.assertEquals(expected.getWidth(), actual.getWidth());
+        Assert.assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                Assert.assertEquals(expected.getRGB(x, y), actual.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testConditionsAndPlugins () throws Exception {
+        BinaryLevelReader reader = new BinaryLevelReader(myFile);
+        List<Condition> conditions = new ArrayList<Condition>(reader.getConditions());
+        Assert.assertEquals(2, conditions.size());
+        Assert.assertEquals("won.xml", conditions.get(0).getNextLevelName());
+        // stored with Java serialization, since it has no codec
+        Assert.assertTrue(conditions.get(1) instanceof DestroySpecificObjectCondition);
+        Assert.assertEquals("lost.xml", conditions.get(1).getNextLevelName());
+
+        List<LevelPlugin> plugins = new ArrayList<LevelPlugin>(reader.getLevelPlugins());
+        Assert.assertEquals(2, plugins.size());
+        Assert.assertNotNull(((SimpleBackgroundPainter) plugins.get(0)).getDefaultImage());
+        Assert.assertTrue(plugins.get(1) instanceof GravityPlugin);
+    }
+
+    @Test
+    public void testConvertedLevelMatchesXml () throws Exception {
+        File converted = File.createTempFile("level1", ".lvl");
+        converted.deleteOnExit();
+        LevelFileConverter.convert(new File(CONVERTED_XML), converted);
+        LevelReader xml = new LevelFileReader(CONVERTED_XML);
+        LevelReader binary = new BinaryLevelReader(converted);
+        Assert.assertEquals(xml.getLevelName(), binary.getLevelName());
+        Assert.assertEquals(xml.getWidth(), binary.getWidth());
+        Assert.assertEquals(xml.getHeight(), binary.getHeight());
+        assertSameObjects(new ArrayList<GameObject>(xml.getGameObjects()),
+                          new ArrayList<GameObject>(binary.getGameObjects()));
+        Assert.assertEquals(xml.getConditions().size(), binary.getConditions().size());
+        Assert.assertEquals(xml.getLevelPlugins().size(), binary.getLevelPlugins().size());
+    }
+
+    @Test
+    public void testStrategiesKeepTheirState () throws Exception {
+        List<GameObject> read =
+                new ArrayList<GameObject>(new BinaryLevelReader(myFile).getGameObjects());
+        // rebuilding from the object alone would reset the count
+        CountingStrategy counting =
+                (CountingStrategy) read.get(6).getStrategy("CountingStrategy");
+        Assert.assertEquals(2, counting.myCount);
+        Assert.assertSame(read.get(6), counting.myOwner);
+        // has no constructor taking only the object
+        PatrolStrategy patrol = (PatrolStrategy) read.get(7).getStrategy("PatrolStrategy");
+        Assert.assertEquals(PATROL_RANGE, patrol.myRange);
+        Assert.assertSame(read.get(7), patrol.myOwner);
+    }
+
+    @Test
+    public void testLevelFactoryLoadsBinaryLevels () throws Exception {
+        Level level = LevelFactory.loadLevel(myFile.getPath());
+        Assert.assertNotNull(level.getPlayer());
+    }
+
+    @Test
+    public void testXmlFileIsNotBinary () throws Exception {
+        Assert.assertFalse(BinaryLevelReader.isBinaryLevelFile(new File(CONVERTED_XML)));
+        try {
+            new BinaryLevelReader(CONVERTED_XML);
+            Assert.fail("read an XML file as a binary level");
+        }
+        catch (LevelFileIOException e) {
+            // expected
+        }
+    }
+
+    private static void assertSameObjects (List<GameObject> expected, List<GameObject> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            GameObject e = expected.get(i);
+            GameObject a = actual.get(i);
+            Assert.assertEquals(e.getClass(), a.getClass());
+            Assert.assertEquals(e.getId(), a.getId());
+            Assert.assertEquals(e.getX(), a.getX());
+            Assert.assertEquals(e.getY(), a.getY());
+            Assert.assertEquals(e.getWidth(), a.getWidth());
+            Assert.assertEquals(e.getHeight(), a.getHeight());
+            Assert.assertEquals(e.isFlipped(), a.isFlipped());
+            Assert.assertEquals(e.getStrategyNames(), a.getStrategyNames());
+            for (String name : e.getStrategyNames()) {
+                Assert.assertEquals(e.getStrategy(name).getClass(),
+                                    a.getStrategy(name).getClass());
+            }
+            if (e instanceof MovingObject) {
+                Assert.assertEquals(((MovingObject) e).getVelocity(),
+                                    ((MovingObject) a).getVelocity());
+            }
+        }
+    }
+
+    /**
+     * Counts its updates, so it cannot be rebuilt from its object alone.
+     */
+    public static class CountingStrategy implements UpdateStrategy {
+        private static final long serialVersionUID = 1L;
+        private GameObject myOwner;
+        private int myCount;
+
+        public CountingStrategy (GameObject owner) {
+            myOwner = owner;
+        }
+
+        @Override
+        public void applyAction () {
+            myCount++;
+        }
+    }
+
+    /**
+     * Needs a range as well as its object, like SideToSideScrollStrategy.
+     */
+    public static class PatrolStrategy implements UpdateStrategy {
+        private static final long serialVersionUID = 1L;
+        private GameObject myOwner;
+        private int myRange;
+
+        public PatrolStrategy (GameObject owner, int range) {
+            myOwner = owner;
+            myRange = range;
+        }
+
+        @Override
+        public void applyAction () {
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package vooga.platformer.test;
+
+import java.io.File;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.platformer.collision.BasicCollisionChecker;
+import vooga.platformer.collision.CollisionChecker;
+import vooga.platformer.collision.collisionevent.BrickMovingObject;
+import vooga.platformer.gameobject.Enemy;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.Gold;
+import vooga.platformer.gameobject.MovingObject;
+import vooga.platformer.gameobject.Player;
+import vooga.platformer.gameobject.StaticObject;
+
+
+/**
+ * Tests the class-pair lookup of CollisionChecker.
+ *
+ */
+public class CollisionCheckerTest {
+
+    private static final String COLLISION_CHECKER_PATH =
+            "src/vooga/platformer/collision/collisionEvents.xml";
+    private static final String TEST_IMAGE = "src/vooga/platformer/test/testImage.png";
+
+    private CollisionChecker myChecker;
+    private GameObject myBrick;
+    private GameObject myGold;
+    private GameObject myPlayer;
+    private GameObject myEnemy;
+
+    @Before
+    public void setUp () throws Exception {
+        File image = new File(TEST_IMAGE);
+        myChecker = new BasicCollisionChecker(COLLISION_CHECKER_PATH);
+        myBrick = new StaticObject(0, 0, 1, 1, 0, image);
+        myGold = new Gold(0, 0, 1, 1, 1, image);
+        myPlayer = new Player(0, 0, 1, 1, 2, image);
+        myEnemy = new Enemy(0, 0, 1, 1, 3, image);
+    }
+
+    @Test
+    public void testExactPairInEitherOrder () throws Exception {
+        Assert.assertNotNull(myChecker.getCollisionEvent(myBrick, myPlayer));
+        Assert.assertSame(myChecker.getCollisionEvent(myBrick, myPlayer),
+                          myChecker.getCollisionEvent(myPlayer, myBrick));
+    }
+
+    @Test
+    public void testMissIsCached () throws Exception {
+        Assert.assertNull(myChecker.getCollisionEvent(myPlayer, myPlayer));
+        Assert.assertNull(myChecker.getCollisionEvent(myPlayer, myPlayer));
+    }
+
+    @Test
+    public void testSubclassesOnlyWhenEnabled () throws Exception {
+        Assert.assertNull(myChecker.getCollisionEvent(myGold, myPlayer));
+
+        BrickMovingObject inherited = new BrickMovingObject(StaticObject.class, MovingObject.class);
+        inherited.setAppliesToSubclasses(true);
+        myChecker.addCollisionEvents(StaticObject.class, MovingObject.class, inherited);
+
+        Assert.assertSame(inherited, myChecker.getCollisionEvent(myGold, myPlayer));
+        Assert.assertSame(inherited, myChecker.getCollisionEvent(myEnemy, myGold));
+        Assert.assertNotSame(inherited, myChecker.getCollisionEvent(myBrick, myPlayer));
+    }
+}
@@ -0,0 +1,128 @@
+package vooga.platformer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.Assert;
+import org.junit.Test;
+import vooga.platformer.core.GameLoop;
+import vooga.platformer.core.Steppable;
+
+
+/**
+ * Drives a GameLoop with a scripted clock to check the fixed-timestep
+ * accumulator.
+ * 
+ */
+public class GameLoopTest {
+
+    private static final long MILLI = 1000000L;
+
+    @Test
+    public void testStepsAreFixedAndRemainderInterpolated () throws Exception {
+        RecordingTarget target = new RecordingTarget();
+        // frames starting at 0, 10 and 60 ms against a 25 ms step
+        ScriptedLoop loop =
+                new ScriptedLoop(target, 0, 0, 0, 10 * MILLI, 10 * MILLI, 60 * MILLI, 60 * MILLI);
+        loop.run();
+        Assert.assertEquals(2, target.mySteps.size());
+        Assert.assertEquals(Long.valueOf(25), target.mySteps.get(0));
+        Assert.assertEquals(0.4, target.myInterpolations.get(target.myInterpolations.size() - 1),
+                            1e-9);
+    }
+
+    @Test
+    public void testCatchUpIsCapped () throws Exception {
+        RecordingTarget target = new RecordingTarget();
+        ScriptedLoop loop = new ScriptedLoop(target, 0, 1000 * MILLI, 1000 * MILLI);
+        loop.setMaxCatchUpSteps(3);
+        loop.run();
+        Assert.assertEquals(3, target.mySteps.size());
+        Assert.assertEquals(0.0, target.myInterpolations.get(0), 1e-9);
+    }
+
+    @Test
+    public void testFrameRateBelowUpdateRateIsCapped () throws Exception {
+        RecordingTarget target = new RecordingTarget();
+        SimulatedLoop loop = new SimulatedLoop(target, 990 * MILLI);
+        loop.setFrameRate(30);
+        loop.run();
+        // steps are due from 25 to 975 ms, frames every 33.3 ms from 0 ms
+        Assert.assertEquals(39, target.mySteps.size());
+        Assert.assertEquals(30, target.myInterpolations.size());
+    }
+
+    @Test
+    public void testFrameRateAboveUpdateRateRendersBetweenSteps () throws Exception {
+        RecordingTarget target = new RecordingTarget();
+        SimulatedLoop loop = new SimulatedLoop(target, 1000 * MILLI);
+        loop.setFrameRate(100);
+        loop.run();
+        Assert.assertEquals(39, target.mySteps.size());
+        Assert.assertEquals(100, target.myInterpolations.size());
+    }
+
+    private static class RecordingTarget implements Steppable {
+        private List<Long> mySteps = new ArrayList<Long>();
+        private List<Double> myInterpolations = new ArrayList<Double>();
+
+        @Override
+        public void step (long elapsedTime) {
+            mySteps.add(elapsedTime);
+        }
+
+        @Override
+        public void render (double interpolation) {
+            myInterpolations.add(interpolation);
+        }
+    }
+
+    /**
+     * A loop whose clock returns the given times, one per call, and which
+     * stops once they run out.
+     */
+    private static class ScriptedLoop extends GameLoop {
+        private long[] myTimes;
+        private int myCall;
+
+        public ScriptedLoop (Steppable target, long ... frameTimes) {
+            super(target);
+            setFrameRate(0);
+            myTimes = frameTimes;
+        }
+
+        @Override
+        protected long now () {
+            if (myCall >= myTimes.length - 1) {
+                stop();
+            }
+            return myTimes[Math.min(myCall++, myTimes.length - 1)];
+        }
+    }
+
+    /**
+     * A loop whose clock only moves when it sleeps, and which stops once the
+     * clock reaches the given time.
+     */
+    private static class SimulatedLoop extends GameLoop {
+        private long myEnd;
+        private long myTime;
+
+        public SimulatedLoop (Steppable target, long end) {
+            super(target);
+            myEnd = end;
+        }
+
+        @Override
+        protected long now () {
+            return myTime;
+        }
+
+        @Override
+        protected void sleep (long nanos) {
+            myTime += nanos;
+            if (myTime >= myEnd) {
+                stop();
+            }
+        }
+    }
+}
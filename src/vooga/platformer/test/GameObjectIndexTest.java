@@ -0,0 +1,144 @@
+package vooga.platformer.test;
+
+import java.awt.Dimension;
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.platformer.collision.BasicCollisionChecker;
+import vooga.platformer.gameobject.Enemy;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.Player;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.level.GameObjectIndex;
+import vooga.platformer.level.Level;
+import vooga.platformer.level.condition.DefeatAllEnemiesCondition;
+import vooga.platformer.level.condition.DestroySpecificObjectCondition;
+
+
+/**
+ * Checks that the queries of a Level's GameObjectIndex give the same answers
+ * as scanning the object list.
+ *
+ */
+public class GameObjectIndexTest {
+
+    private static final String COLLISION_CHECKER_PATH =
+            "src/vooga/platformer/collision/collisionEvents.xml";
+    private static final String TEST_IMAGE = "src/vooga/platformer/test/testImage.png";
+    private static final int LEVEL_SIZE = 1000;
+    private static final int OBJECT_COUNT = 200;
+    private static final int FRAMES = 30;
+    private static final long SEED = 308;
+
+    private File myImage;
+    private Level myLevel;
+
+    @Before
+    public void setUp () throws Exception {
+        myImage = new File(TEST_IMAGE);
+        myLevel = new Level(new Dimension(LEVEL_SIZE, LEVEL_SIZE), null,
+                            new BasicCollisionChecker(COLLISION_CHECKER_PATH));
+        myLevel.addGameObject(new Enemy(10, 10, 20, 20, 3, myImage));
+        myLevel.addGameObject(new Player(100, 10, 20, 20, 1, myImage));
+        myLevel.addGameObject(new Enemy(300, 10, 20, 20, 2, myImage));
+        myLevel.addGameObject(new StaticObject(0, 500, 1000, 20, 4, myImage));
+    }
+
+    @Test
+    public void testTypeAndIdQueries () throws Exception {
+        List<Enemy> enemies = myLevel.getObjectsOfType(Enemy.class);
+        Assert.assertEquals(2, enemies.size());
+        Assert.assertEquals(2, enemies.get(0).getId());
+        Assert.assertEquals(3, enemies.get(1).getId());
+        Assert.assertEquals(4, myLevel.getObjectsOfType(GameObject.class).size());
+        Assert.assertTrue(myLevel.getObjectById(1) instanceof Player);
+        Assert.assertNull(myLevel.getObjectById(99));
+
+        myLevel.addGameObject(new Enemy(0, 0, 5, 5, 0, myImage));
+        Assert.assertEquals(3, enemies.size());
+        Assert.assertEquals(0, enemies.get(0).getId());
+    }
+
+    @Test
+    public void testRemovalsThroughObjectList () throws Exception {
+        DefeatAllEnemiesCondition defeatAll = new DefeatAllEnemiesCondition("next.xml");
+        DestroySpecificObjectCondition destroyPlayer =
+                new DestroySpecificObjectCondition("next.xml", 1);
+        Assert.assertFalse(defeatAll.isSatisfied(myLevel));
+
+        myLevel.getObjectList().remove(myLevel.getObjectById(2));
+        Iterator<GameObject> it = myLevel.getObjectList().iterator();
+        while (it.hasNext()) {
+            if (it.next().getId() == 3) {
+                it.remove();
+            }
+        }
+        Assert.assertTrue(defeatAll.isSatisfied(myLevel));
+        Assert.assertFalse(destroyPlayer.isSatisfied(myLevel));
+
+        myLevel.getObjectList().clear();
+        Assert.assertTrue(destroyPlayer.isSatisfied(myLevel));
+        Assert.assertTrue(myLevel.getObjectsOfType(GameObject.class).isEmpty());
+        Assert.assertTrue(myLevel.getObjectsInRegion(new Rectangle2D.Double(0, 0, LEVEL_SIZE,
+                                                                            LEVEL_SIZE))
+                .isEmpty());
+    }
+
+    @Test
+    public void testSortingObjectListKeepsIndex () throws Exception {
+        List<GameObject> objects = myLevel.getObjectList();
+        Collections.reverse(objects);
+        Collections.sort(objects);
+        Assert.assertEquals(4, myLevel.getObjectsOfType(GameObject.class).size());
+        Assert.assertEquals(2, myLevel.getObjectsOfType(Enemy.class).size());
+        List<GameObject> corner = myLevel.getObjectsInRegion(new Rectangle2D.Double(0, 0, 50, 50));
+        Assert.assertEquals(1, corner.size());
+        Assert.assertEquals(3, corner.get(0).getId());
+    }
+
+    @Test
+    public void testRegionQueriesMatchScan () throws Exception {
+        GameObjectIndex index = new GameObjectIndex(LEVEL_SIZE, LEVEL_SIZE, 40);
+        List<GameObject> objects = new ArrayList<GameObject>();
+        Random rand = new Random(SEED);
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            GameObject go = new StaticObject(rand.nextInt(LEVEL_SIZE), rand.nextInt(LEVEL_SIZE),
+                                             1 + rand.nextInt(120), 1 + rand.nextInt(120), i,
+                                             myImage);
+            objects.add(go);
+            index.add(go);
+        }
+        for (int frame = 0; frame < FRAMES; frame++) {
+            for (GameObject go : objects) {
+                // some objects wander outside the level
+                go.setX(go.getX() + rand.nextInt(81) - 40);
+                go.setY(go.getY() + rand.nextInt(81) - 40);
+            }
+            index.refresh();
+            for (int q = 0; q < 10; q++) {
+                Rectangle2D region = new Rectangle2D.Double(rand.nextInt(LEVEL_SIZE + 200) - 100,
+                                                            rand.nextInt(LEVEL_SIZE + 200) - 100,
+                                                            rand.nextInt(400),
+                                                            rand.nextInt(400));
+                Assert.assertEquals(scan(objects, region), index.getObjectsInRegion(region));
+            }
+        }
+    }
+
+    private static List<GameObject> scan (List<GameObject> objects, Rectangle2D region) {
+        List<GameObject> result = new ArrayList<GameObject>();
+        for (GameObject go : objects) {
+            if (go.getShape().intersects(region)) {
+                result.add(go);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,105 @@
+package vooga.platformer.test;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.Assert;
+import org.junit.Test;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.level.condition.Condition;
+import vooga.platformer.level.levelplugin.LevelPlugin;
+import vooga.platformer.levelfileio.LevelFileReader;
+import vooga.platformer.levelfileio.LevelFileWriter;
+import vooga.platformer.util.ImageRegistry;
+
+
+/**
+ * Checks that images are decoded once and shared between GameObjects.
+ * 
+ */
+public class ImageRegistryTest {
+
+    private static final String TEST_IMAGE = "src/vooga/platformer/test/testImage.png";
+    private static final String XML_FILE_PATH = "src/vooga/platformer/test/testIOWithSerialziation.xml";
+
+    @Test
+    public void testSameFileIsDecodedOnce () throws Exception {
+        ImageRegistry.prefetch(Arrays.asList(new File(TEST_IMAGE)));
+        Image first = ImageRegistry.getImage(new File(TEST_IMAGE));
+        Assert.assertSame(first, ImageRegistry.getImage(new File("src/../" + TEST_IMAGE)));
+    }
+
+    @Test
+    public void testIdenticalPixelsAreShared () throws Exception {
+        BufferedImage a = new BufferedImage(3, 3, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage b = new BufferedImage(3, 3, BufferedImage.TYPE_INT_ARGB);
+        a.setRGB(1, 1, 0xff00ff00);
+        b.setRGB(1, 1, 0xff00ff00);
+        Assert.assertSame(ImageRegistry.intern(a), ImageRegistry.intern(b));
+        b.setRGB(0, 0, 0xff0000ff);
+        Assert.assertNotSame(ImageRegistry.intern(a), ImageRegistry.intern(b));
+    }
+
+    @Test
+    public void testSameHashDifferentPixelsAreNotShared () throws Exception {
+        // {0, 31} and {1, 0} have the same Arrays.hashCode
+        BufferedImage a = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage b = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        a.setRGB(0, 0, 2, 1, new int[] { 0, 31 }, 0, 2);
+        b.setRGB(0, 0, 2, 1, new int[] { 1, 0 }, 0, 2);
+        Image sharedA = ImageRegistry.intern(a);
+        Image sharedB = ImageRegistry.intern(b);
+        Assert.assertNotSame(sharedA, sharedB);
+        Assert.assertSame(sharedA, ImageRegistry.intern(copy(a)));
+        Assert.assertSame(sharedB, ImageRegistry.intern(copy(b)));
+    }
+
+    @Test
+    public void testUnusedImagesAreNotKeptAlive () throws Exception {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(5, 7, 0xff123456);
+        Assert.assertSame(image, ImageRegistry.intern(image));
+        BufferedImage same = copy(image);
+        WeakReference<Image> registered = new WeakReference<Image>(image);
+        image = null;
+        for (int i = 0; i < 50 && registered.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(registered.get());
+        // the next image with those pixels takes the collected one's place
+        Assert.assertSame(same, ImageRegistry.intern(same));
+    }
+
+    @Test
+    public void testLoadedObjectsShareImages () throws Exception {
+        List<GameObject> objects = new ArrayList<GameObject>();
+        for (int i = 0; i < 5; i++) {
+            objects.add(new StaticObject(i, i, 1, 1, i, new File(TEST_IMAGE)));
+        }
+        LevelFileWriter.writeLevel(XML_FILE_PATH, "Level Name", 100, 100, objects,
+                                   new ArrayList<Condition>(), new ArrayList<LevelPlugin>(),
+                                   "camera", "collisionChecker");
+
+        List<GameObject> loaded =
+                new ArrayList<GameObject>(new LevelFileReader(XML_FILE_PATH).getGameObjects());
+        Assert.assertEquals(5, loaded.size());
+        for (GameObject go : loaded) {
+            Assert.assertSame(loaded.get(0).getCurrentImage(), go.getCurrentImage());
+        }
+    }
+
+    private static BufferedImage copy (BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage copy = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        copy.setRGB(0, 0, width, height, image.getRGB(0, 0, width, height, null, 0, width), 0,
+                    width);
+        return copy;
+    }
+}
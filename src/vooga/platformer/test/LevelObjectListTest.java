@@ -0,0 +1,127 @@
+package vooga.platformer.test;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.platformer.collision.BasicCollisionChecker;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.level.Level;
+import vooga.platformer.util.GameObjectFinder;
+import vooga.platformer.util.camera.FollowingCamera;
+
+
+/**
+ * Tests that a Level keeps its objects sorted by ID as they are added, loaded
+ * in bulk and removed.
+ *
+ */
+public class LevelObjectListTest {
+
+    private static final String COLLISION_CHECKER_PATH =
+            "src/vooga/platformer/collision/collisionEvents.xml";
+    private static final String TEST_IMAGE = "src/vooga/platformer/test/testImage.png";
+    private static final int LEVEL_SIZE = 1000;
+    private static final int BULK_COUNT = 10000;
+    private static final long SEED = 308;
+
+    private File myImage;
+    private Level myLevel;
+
+    @Before
+    public void setUp () throws Exception {
+        myImage = new File(TEST_IMAGE);
+        Dimension size = new Dimension(LEVEL_SIZE, LEVEL_SIZE);
+        GameObject target = makeObject(0);
+        myLevel = new Level(size, new FollowingCamera(size, new Rectangle(size), target),
+                            new BasicCollisionChecker(COLLISION_CHECKER_PATH));
+    }
+
+    @Test
+    public void testAddedObjectsAreSorted () throws Exception {
+        Random rand = new Random(SEED);
+        for (int i = 0; i < 500; i++) {
+            myLevel.addGameObject(makeObject(rand.nextInt(100)));
+        }
+        assertSorted(myLevel.getObjectList());
+        Assert.assertEquals(500, myLevel.getObjectsOfType(GameObject.class).size());
+    }
+
+    @Test
+    public void testBulkLoad () throws Exception {
+        Random rand = new Random(SEED);
+        myLevel.addGameObject(makeObject(BULK_COUNT / 2));
+        List<GameObject> objects = new ArrayList<GameObject>();
+        for (int i = 0; i < BULK_COUNT; i++) {
+            objects.add(makeObject(rand.nextInt(BULK_COUNT)));
+        }
+        myLevel.addGameObjects(objects);
+        Assert.assertEquals(BULK_COUNT + 1, myLevel.getObjectList().size());
+        assertSorted(myLevel.getObjectList());
+        for (int id = 0; id < 100; id++) {
+            Assert.assertSame(GameObjectFinder.findGameObject(myLevel.getObjectList(), id),
+                              myLevel.getObjectById(id));
+        }
+    }
+
+    @Test
+    public void testObjectsAddedDuringUpdateJoinAfterwards () throws Exception {
+        final GameObject spawned = makeObject(0);
+        final GameObject spawner = makeObject(5);
+        spawner.addStrategy("Spawn", new UpdateStrategy() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public void applyAction () {
+                if (!spawner.getLevel().getObjectList().contains(spawned)) {
+                    spawner.getLevel().addGameObject(spawned);
+                }
+            }
+        });
+        myLevel.addGameObject(spawner);
+        myLevel.update(0);
+        Assert.assertEquals(2, myLevel.getObjectList().size());
+        Assert.assertSame(spawned, myLevel.getObjectList().get(0));
+        Assert.assertSame(spawned, myLevel.getObjectById(0));
+    }
+
+    @Test
+    public void testMarkedObjectsAreRemovedTogether () throws Exception {
+        for (int i = 0; i < 100; i++) {
+            GameObject go = makeObject(i);
+            if (i % 3 == 0) {
+                go.markForRemoval();
+            }
+            myLevel.addGameObject(go);
+        }
+        // leaves the level, so the update marks it
+        myLevel.getObjectById(1).setX(-LEVEL_SIZE);
+        myLevel.update(0);
+        Assert.assertEquals(65, myLevel.getObjectList().size());
+        Assert.assertEquals(65, myLevel.getObjectsOfType(GameObject.class).size());
+        for (GameObject go : myLevel.getObjectList()) {
+            Assert.assertFalse(go.checkForRemoval());
+        }
+        Assert.assertNull(myLevel.getObjectById(1));
+        Assert.assertNotNull(myLevel.getObjectById(2));
+        assertSorted(myLevel.getObjectList());
+    }
+
+    private GameObject makeObject (int id) throws Exception {
+        return new StaticObject(id % LEVEL_SIZE, 0, 10, 10, id, myImage);
+    }
+
+    private static void assertSorted (List<GameObject> objects) {
+        List<GameObject> sorted = new ArrayList<GameObject>(objects);
+        Collections.sort(sorted);
+        Assert.assertEquals(sorted, objects);
+    }
+}
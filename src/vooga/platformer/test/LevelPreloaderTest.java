@@ -0,0 +1,107 @@
+package vooga.platformer.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import util.xml.XmlException;
+import vooga.platformer.core.LevelPreloader;
+import vooga.platformer.level.Level;
+import vooga.platformer.level.LevelFactory;
+import vooga.platformer.level.condition.DefeatAllEnemiesCondition;
+import vooga.platformer.levelfileio.LevelFileConverter;
+
+
+/**
+ * Tests that LevelPreloader builds levels off the calling thread and hands
+ * each copy out once.
+ *
+ */
+public class LevelPreloaderTest {
+
+    private static final String LEVEL_XML = "src/vooga/platformer/data/level1.xml";
+    private static final String MISSING_LEVEL = "src/vooga/platformer/data/noSuchLevel.lvl";
+
+    private RecordingPreloader myPreloader;
+    private String myLevel;
+
+    @Before
+    public void setUp () throws Exception {
+        myPreloader = new RecordingPreloader();
+        File level = File.createTempFile("level1", ".lvl");
+        level.deleteOnExit();
+        LevelFileConverter.convert(new File(LEVEL_XML), level);
+        myLevel = level.getPath();
+    }
+
+    @Test
+    public void testPreloadedLevelIsBuiltInBackground () throws Exception {
+        myPreloader.preload(myLevel);
+        Level level = myPreloader.take(myLevel);
+        Assert.assertNotNull(level.getPlayer());
+        Assert.assertEquals(1, myPreloader.getLoadThreads().size());
+        Assert.assertNotSame(Thread.currentThread(), myPreloader.getLoadThreads().get(0));
+    }
+
+    @Test
+    public void testEachCopyIsTakenOnce () throws Exception {
+        myPreloader.preload(myLevel);
+        myPreloader.preload(myLevel);
+        Level first = myPreloader.take(myLevel);
+        Level second = myPreloader.take(myLevel);
+        Assert.assertNotSame(first, second);
+        Assert.assertNotSame(first.getPlayer(), second.getPlayer());
+        Assert.assertEquals(2, myPreloader.getLoadThreads().size());
+        // the second copy was never preloaded, so it was built right away
+        Assert.assertSame(Thread.currentThread(), myPreloader.getLoadThreads().get(1));
+    }
+
+    @Test
+    public void testRetainOnlyDropsOtherLevels () throws Exception {
+        myPreloader.preload(myLevel);
+        myPreloader.take(myLevel);
+        myPreloader.preload(myLevel);
+        myPreloader.retainOnly(Collections.<String> emptyList());
+        Assert.assertFalse(myPreloader.isReady(myLevel));
+    }
+
+    @Test
+    public void testFailuresAreReportedByTake () throws Exception {
+        myPreloader.preload(MISSING_LEVEL);
+        try {
+            myPreloader.take(MISSING_LEVEL);
+            Assert.fail("loaded a missing level");
+        }
+        catch (XmlException e) {
+            // the same exception LevelFactory throws for a missing file
+        }
+    }
+
+    @Test
+    public void testKnownNextLevelNames () throws Exception {
+        Level level = LevelFactory.loadLevel(myLevel);
+        Assert.assertTrue(level.getKnownNextLevelNames().isEmpty());
+        level.addCondition(new DefeatAllEnemiesCondition("next.lvl"));
+        level.addCondition(new DefeatAllEnemiesCondition("next.lvl"));
+        Assert.assertEquals(Collections.singletonList("next.lvl"),
+                            new ArrayList<String>(level.getKnownNextLevelNames()));
+    }
+
+    private static class RecordingPreloader extends LevelPreloader {
+        private final List<Thread> myLoadThreads =
+                Collections.synchronizedList(new ArrayList<Thread>());
+
+        @Override
+        protected Level load (String levelName) {
+            myLoadThreads.add(Thread.currentThread());
+            return super.load(levelName);
+        }
+
+        public List<Thread> getLoadThreads () {
+            return myLoadThreads;
+        }
+    }
+}
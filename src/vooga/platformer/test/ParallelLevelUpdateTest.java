@@ -0,0 +1,168 @@
+package vooga.platformer.test;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.Assert;
+import org.junit.Test;
+import vooga.platformer.collision.SpatialHashCollisionChecker;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.IndependentUpdateStrategy;
+import vooga.platformer.gameobject.MovingObject;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.gameobject.UpdateStrategy;
+import vooga.platformer.gameobject.strategy.update.GravityStrategy;
+import vooga.platformer.gameobject.strategy.update.MovementUpdateStrategy;
+import vooga.platformer.level.Level;
+import vooga.platformer.util.camera.FollowingCamera;
+
+
+/**
+ * Checks that updating a Level in parallel gives the same result as updating
+ * it serially.
+ *
+ */
+public class ParallelLevelUpdateTest {
+
+    private static final String COLLISION_CHECKER_PATH =
+            "src/vooga/platformer/collision/collisionEvents.xml";
+    private static final String TEST_IMAGE = "src/vooga/platformer/test/testImage.png";
+    private static final int LEVEL_SIZE = 4000;
+    private static final int OBJECT_COUNT = 3000;
+    private static final int FRAMES = 30;
+    private static final long SEED = 308;
+
+    @Test
+    public void testSameResultAsSerialUpdate () throws Exception {
+        Level serial = makeLevel(null);
+        Level parallel = makeLevel(null);
+        parallel.setParallelUpdate(true);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            serial.update(16);
+            parallel.update(16);
+            Assert.assertEquals(describe(serial), describe(parallel));
+        }
+        Assert.assertTrue(serial.getObjectList().size() > OBJECT_COUNT);
+    }
+
+    @Test
+    public void testIndependentObjectsRunOnWorkers () throws Exception {
+        Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        Level level = makeLevel(threads);
+        level.setParallelUpdate(true);
+        level.update(16);
+        threads.remove(Thread.currentThread());
+        Assert.assertFalse(threads.isEmpty());
+    }
+
+    @Test
+    public void testDeferredActionRunsAtOnceOutsideUpdate () throws Exception {
+        Level level = makeLevel(null);
+        final StringBuilder log = new StringBuilder();
+        level.deferAction(new Runnable() {
+            @Override
+            public void run () {
+                log.append("now");
+            }
+        });
+        Assert.assertEquals("now", log.toString());
+    }
+
+    private static Level makeLevel (Set<Thread> threads) throws Exception {
+        Dimension size = new Dimension(LEVEL_SIZE, LEVEL_SIZE);
+        File image = new File(TEST_IMAGE);
+        Random rand = new Random(SEED);
+        GameObject floor = new StaticObject(0, LEVEL_SIZE - 100, LEVEL_SIZE, 100, 0, image);
+        Level level = new Level(size, new FollowingCamera(size, new Rectangle(size), floor),
+                                new SpatialHashCollisionChecker(COLLISION_CHECKER_PATH));
+        level.addGameObject(floor);
+        for (int i = 1; i < OBJECT_COUNT; i++) {
+            MovingObject mo = new MovingObject(rand.nextInt(LEVEL_SIZE - 20),
+                                               rand.nextInt(LEVEL_SIZE / 2), 10, 10, i, image);
+            mo.setVelocity(rand.nextInt(7) - 3, rand.nextInt(7) - 3);
+            mo.addStrategy("GravityStrategy", new GravityStrategy(mo));
+            mo.addStrategy("MovementUpdateStrategy", new MovementUpdateStrategy(mo));
+            if (threads != null) {
+                mo.addStrategy("ThreadRecorder", new ThreadRecorder(threads));
+            }
+            if (i % 50 == 0) {
+                mo.addStrategy("Spawner", new Spawner(mo, image));
+            }
+            level.addGameObject(mo);
+        }
+        return level;
+    }
+
+    private static String describe (Level level) {
+        StringBuilder sb = new StringBuilder();
+        for (GameObject go : level.getObjectList()) {
+            sb.append(go.getId()).append(':').append(go.getX()).append(',').append(go.getY());
+            if (go instanceof MovingObject) {
+                sb.append('@').append(((MovingObject) go).getVelocity());
+            }
+            sb.append(go.checkForRemoval() ? "x\n" : "\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Records the threads that update objects.
+     */
+    private static class ThreadRecorder implements IndependentUpdateStrategy {
+        private static final long serialVersionUID = 1L;
+        private final Set<Thread> myThreads;
+
+        public ThreadRecorder (Set<Thread> threads) {
+            myThreads = threads;
+        }
+
+        @Override
+        public void applyAction () {
+            myThreads.add(Thread.currentThread());
+        }
+    }
+
+    /**
+     * Every few frames, spawns an object and slows down the neighbouring
+     * object. Not independent, so its object is updated serially.
+     */
+    private static class Spawner implements UpdateStrategy {
+        private static final long serialVersionUID = 1L;
+        private final MovingObject myObject;
+        private final File myImage;
+        private int myFrames;
+
+        public Spawner (MovingObject object, File image) {
+            myObject = object;
+            myImage = image;
+        }
+
+        @Override
+        public void applyAction () {
+            if (++myFrames % 5 != 0) { return; }
+            final Level level = myObject.getLevel();
+            try {
+                level.addGameObject(new StaticObject(myObject.getX(), myObject.getY(), 5, 5,
+                                                     OBJECT_COUNT + myObject.getId() + myFrames,
+                                                     myImage));
+            }
+            catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            level.deferAction(new Runnable() {
+                @Override
+                public void run () {
+                    GameObject neighbour = level.getObjectById(myObject.getId() + 1);
+                    if (neighbour instanceof MovingObject) {
+                        MovingObject mo = (MovingObject) neighbour;
+                        mo.setVelocity(mo.getVelocity().getX() / 2, mo.getVelocity().getY());
+                    }
+                }
+            });
+        }
+    }
+}
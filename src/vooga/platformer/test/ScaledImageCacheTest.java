@@ -0,0 +1,52 @@
+package vooga.platformer.test;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.platformer.util.ScaledImageCache;
+
+
+/**
+ * Tests the sharing and eviction of ScaledImageCache.
+ * 
+ */
+public class ScaledImageCacheTest {
+
+    private BufferedImage mySource;
+
+    @Before
+    public void setUp () throws Exception {
+        ScaledImageCache.clear();
+        ScaledImageCache.setPixelBudget(ScaledImageCache.DEFAULT_PIXEL_BUDGET);
+        mySource = new BufferedImage(4, 2, BufferedImage.TYPE_INT_ARGB);
+        mySource.setRGB(0, 0, 0xffff0000);
+    }
+
+    @Test
+    public void testCopiesAreShared () throws Exception {
+        Image first = ScaledImageCache.getScaledImage(mySource, 8, 4, false);
+        Assert.assertSame(first, ScaledImageCache.getScaledImage(mySource, 8, 4, false));
+        Assert.assertEquals(8, first.getWidth(null));
+        Assert.assertEquals(1, ScaledImageCache.size());
+    }
+
+    @Test
+    public void testFlippedCopyIsMirrored () throws Exception {
+        BufferedImage flipped = (BufferedImage) ScaledImageCache.getScaledImage(mySource, 4, 2, true);
+        Assert.assertEquals(0xffff0000, flipped.getRGB(3, 0));
+        Assert.assertEquals(0, flipped.getRGB(0, 0));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted () throws Exception {
+        ScaledImageCache.setPixelBudget(2 * 8 * 4);
+        Image a = ScaledImageCache.getScaledImage(mySource, 8, 4, false);
+        ScaledImageCache.getScaledImage(mySource, 8, 4, true);
+        ScaledImageCache.getScaledImage(mySource, 8, 4, false);
+        ScaledImageCache.getScaledImage(mySource, 4, 8, false);
+        Assert.assertEquals(2, ScaledImageCache.size());
+        Assert.assertSame(a, ScaledImageCache.getScaledImage(mySource, 8, 4, false));
+    }
+}
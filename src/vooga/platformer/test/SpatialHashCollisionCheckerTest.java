@@ -0,0 +1,125 @@
+package vooga.platformer.test;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+import vooga.platformer.collision.BasicCollisionChecker;
+import vooga.platformer.collision.CollisionChecker;
+import vooga.platformer.collision.CollisionEvent;
+import vooga.platformer.collision.SpatialHashCollisionChecker;
+import vooga.platformer.gameobject.Enemy;
+import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.gameobject.Player;
+import vooga.platformer.gameobject.StaticObject;
+import vooga.platformer.level.Level;
+
+
+/**
+ * Checks that the SpatialHashCollisionChecker resolves collisions in exactly
+ * the same order, and with the same results, as the BasicCollisionChecker.
+ *
+ */
+public class SpatialHashCollisionCheckerTest {
+
+    private static final String COLLISION_CHECKER_PATH =
+            "src/vooga/platformer/collision/collisionEvents.xml";
+    private static final String TEST_IMAGE = "src/vooga/platformer/test/testImage.png";
+    private static final int LEVEL_SIZE = 2000;
+    private static final int OBJECT_COUNT = 300;
+    private static final int FRAMES = 20;
+    private static final long SEED = 308;
+
+    @Test
+    public void testSameCollisionsAsBruteForce () throws Exception {
+        List<String> expected = new ArrayList<String>();
+        List<String> actual = new ArrayList<String>();
+        Level bruteForce = makeLevel(new RecordingBasicChecker(expected));
+        Level spatialHash = makeLevel(new RecordingSpatialHashChecker(actual, 48));
+
+        Random moves = new Random(SEED);
+        for (int frame = 0; frame < FRAMES; frame++) {
+            long seed = moves.nextLong();
+            step(bruteForce, new Random(seed));
+            step(spatialHash, new Random(seed));
+            Assert.assertEquals(expected, actual);
+            Assert.assertEquals(describe(bruteForce), describe(spatialHash));
+        }
+        Assert.assertFalse(expected.isEmpty());
+    }
+
+    private static void step (Level level, Random rand) {
+        for (GameObject go : level.getObjectList()) {
+            if (!(go instanceof StaticObject)) {
+                go.setX(go.getX() + rand.nextInt(21) - 10);
+                go.setY(go.getY() + rand.nextInt(21) - 10);
+            }
+        }
+        level.getCollisionChecker().checkCollisions(level);
+    }
+
+    private static Level makeLevel (CollisionChecker checker) throws Exception {
+        Level level = new Level(new Dimension(LEVEL_SIZE, LEVEL_SIZE), null, checker);
+        Random rand = new Random(SEED);
+        File image = new File(TEST_IMAGE);
+        for (int i = 0; i < OBJECT_COUNT; i++) {
+            double x = rand.nextInt(LEVEL_SIZE / 2);
+            double y = rand.nextInt(LEVEL_SIZE / 2);
+            double w = 10 + rand.nextInt(90);
+            double h = 10 + rand.nextInt(90);
+            switch (rand.nextInt(3)) {
+                case 0:
+                    level.addGameObject(new StaticObject(x, y, w, h, i, image));
+                    break;
+                case 1:
+                    level.addGameObject(new Enemy(x, y, w, h, i, image));
+                    break;
+                default:
+                    level.addGameObject(new Player(x, y, w, h, i, image));
+            }
+        }
+        return level;
+    }
+
+    private static String describe (Level level) {
+        StringBuilder sb = new StringBuilder();
+        for (GameObject go : level.getObjectList()) {
+            sb.append(go.getId()).append(':').append(go.getX()).append(',').append(go.getY())
+                    .append(go.checkForRemoval() ? "x " : " ");
+        }
+        return sb.toString();
+    }
+
+    private static class RecordingBasicChecker extends BasicCollisionChecker {
+        private List<String> myLog;
+
+        public RecordingBasicChecker (List<String> log) {
+            super(COLLISION_CHECKER_PATH);
+            myLog = log;
+        }
+
+        @Override
+        public CollisionEvent getCollisionEvent (GameObject a, GameObject b) {
+            myLog.add(a.getId() + "-" + b.getId());
+            return super.getCollisionEvent(a, b);
+        }
+    }
+
+    private static class RecordingSpatialHashChecker extends SpatialHashCollisionChecker {
+        private List<String> myLog;
+
+        public RecordingSpatialHashChecker (List<String> log, int cellSize) {
+            super(COLLISION_CHECKER_PATH, cellSize);
+            myLog = log;
+        }
+
+        @Override
+        public CollisionEvent getCollisionEvent (GameObject a, GameObject b) {
+            myLog.add(a.getId() + "-" + b.getId());
+            return super.getCollisionEvent(a, b);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package vooga.platformer.util;
 import java.util.List;
 import vooga.platformer.gameobject.GameObject;
+import vooga.platformer.level.Level;
 
 /**
  * A utility class that searches for GameObjects by ID in a list, potentially taking
@@ -26,4 +27,14 @@ public final class GameObjectFinder {
         }
         return null;
     }
+
+    /**
+     * Fast search using the Level's index.
+     * @param level level to search
+     * @param id ID
+     * @return the GameObject, or null if there isn't one with that ID
+     */
+    public static GameObject findGameObject(Level level, int id) {
+        return level.getObjectById(id);
+    }
 }
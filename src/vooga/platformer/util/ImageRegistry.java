@@ -0,0 +1,254 @@
+package vooga.platformer.util;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.PixelGrabber;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+
+/**
+ * A registry of the images used by platformer GameObjects, so that every
+ * object drawn with the same picture shares a single decoded copy.
+ * <p>
+ * Image files are decoded once per canonical path on a pool of background
+ * threads; <code>prefetch</code> starts decoding ahead of time and
+ * <code>getImage</code> waits for the result. Images that did not come from a
+ * file, such as the ones restored from serialized level data, can be
+ * <code>intern</code>ed, which replaces them with a previously registered
+ * image that has exactly the same pixels. Interned images are found by a
+ * hash of their pixels and held weakly, so the registry keeps neither pixel
+ * copies nor images that nothing else uses.
+ *
+ */
+public final class ImageRegistry {
+
+    private static final ExecutorService DECODERS =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                                         new ThreadFactory() {
+                                             @Override
+                                             public Thread newThread (Runnable r) {
+                                                 Thread t = new Thread(r, "ImageRegistry decoder");
+                                                 t.setDaemon(true);
+                                                 return t;
+                                             }
+                                         });
+    private static final ConcurrentMap<String, Future<Image>> BY_PATH =
+            new ConcurrentHashMap<String, Future<Image>>();
+    // interned images by pixel hash; images with the same hash are told apart
+    // by comparing their pixels
+    private static final Map<Integer, List<Interned>> BY_PIXELS =
+            new HashMap<Integer, List<Interned>>();
+    private static final ReferenceQueue<Image> COLLECTED = new ReferenceQueue<Image>();
+
+    private ImageRegistry () {
+        /*
+         * Empty constructor for util class
+         */
+    }
+
+    /**
+     * Starts decoding the given image files in the background, if they have
+     * not been requested before.
+     *
+     * @param files image files that will be needed soon
+     */
+    public static void prefetch (Iterable<File> files) {
+        for (File f : files) {
+            load(f);
+        }
+    }
+
+    /**
+     * Gets the decoded image stored in a file, waiting for it to be decoded if
+     * necessary. Every call with the same file returns the same instance.
+     *
+     * @param file image file
+     * @return the shared decoded image
+     * @throws IOException if the file cannot be read or decoded
+     */
+    public static Image getImage (File file) throws IOException {
+        Future<Image> pending = load(file);
+        try {
+            return pending.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + file, e);
+        }
+        catch (ExecutionException e) {
+            BY_PATH.remove(key(file), pending);
+            if (e.getCause() instanceof IOException) { throw (IOException) e.getCause(); }
+            throw new IOException("Could not load " + file, e.getCause());
+        }
+    }
+
+    /**
+     * Gets a shared image with the same pixels as the given one. The first
+     * image with given contents is registered and returned for all later
+     * images with the same contents.
+     *
+     * @param image image to share
+     * @return the registered image with these pixels
+     */
+    public static Image intern (Image image) {
+        return intern(image, grabPixels(image));
+    }
+
+    /**
+     * Gets a shared image with the same pixels as the given one, whose pixels
+     * the caller already has, so they need not be read back from the image.
+     *
+     * @param image image to share
+     * @param pixels the image's pixels in the default ARGB format, row by
+     *        row
+     * @return the registered image with these pixels
+     */
+    public static Image intern (Image image, int[] pixels) {
+        if (pixels == null) { return image; }
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        int hash = 31 * (31 * width + height) + Arrays.hashCode(pixels);
+        synchronized (BY_PIXELS) {
+            expungeCollected();
+            List<Interned> sameHash = BY_PIXELS.get(hash);
+            if (sameHash == null) {
+                sameHash = new ArrayList<Interned>(1);
+                BY_PIXELS.put(hash, sameHash);
+            }
+            for (Interned entry : sameHash) {
+                Image shared = entry.get();
+                if (shared == image
+                    || (shared != null && hasPixels(shared, width, height, pixels))) {
+                    return shared;
+                }
+            }
+            sameHash.add(new Interned(image, hash));
+            return image;
+        }
+    }
+
+    /**
+     * Gets an ImageIcon wrapping the shared image with the same pixels as the
+     * given icon's image.
+     *
+     * @param icon icon to share
+     * @return icon itself if its image is already the shared one, otherwise an
+     *         icon around the shared image
+     */
+    public static ImageIcon intern (ImageIcon icon) {
+        Image image = icon.getImage();
+        if (image == null) { return icon; }
+        Image shared = intern(image);
+        return (shared == image) ? icon : new ImageIcon(shared);
+    }
+
+    /**
+     * Forgets all registered images.
+     */
+    public static void clear () {
+        BY_PATH.clear();
+        synchronized (BY_PIXELS) {
+            BY_PIXELS.clear();
+        }
+    }
+
+    /**
+     * Drops the entries of interned images that have been garbage collected.
+     * Must be called holding the BY_PIXELS lock.
+     */
+    private static void expungeCollected () {
+        Interned collected = (Interned) COLLECTED.poll();
+        while (collected != null) {
+            List<Interned> sameHash = BY_PIXELS.get(collected.myHash);
+            if (sameHash != null) {
+                sameHash.remove(collected);
+                if (sameHash.isEmpty()) {
+                    BY_PIXELS.remove(collected.myHash);
+                }
+            }
+            collected = (Interned) COLLECTED.poll();
+        }
+    }
+
+    private static boolean hasPixels (Image image, int width, int height, int[] pixels) {
+        return image.getWidth(null) == width && image.getHeight(null) == height
+               && Arrays.equals(grabPixels(image), pixels);
+    }
+
+    private static Future<Image> load (final File file) {
+        String key = key(file);
+        Future<Image> pending = BY_PATH.get(key);
+        if (pending != null) { return pending; }
+        FutureTask<Image> task = new FutureTask<Image>(new Callable<Image>() {
+            @Override
+            public Image call () throws IOException {
+                BufferedImage img = ImageIO.read(file);
+                if (img == null) { throw new IOException("Not a readable image: " + file); }
+                return intern(img);
+            }
+        });
+        pending = BY_PATH.putIfAbsent(key, task);
+        if (pending != null) { return pending; }
+        DECODERS.execute(task);
+        return task;
+    }
+
+    private static String key (File file) {
+        try {
+            return file.getCanonicalPath();
+        }
+        catch (IOException e) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    private static int[] grabPixels (Image image) {
+        int width = image.getWidth(null);
+        int height = image.getHeight(null);
+        if (width <= 0 || height <= 0) { return null; }
+        if (image instanceof BufferedImage) {
+            return ((BufferedImage) image).getRGB(0, 0, width, height, null, 0, width);
+        }
+        int[] pixels = new int[width * height];
+        PixelGrabber grabber = new PixelGrabber(image, 0, 0, width, height, pixels, 0, width);
+        try {
+            if (!grabber.grabPixels()) { return null; }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return pixels;
+    }
+
+    /**
+     * A weakly held interned image, with the pixel hash it is filed under.
+     */
+    private static final class Interned extends WeakReference<Image> {
+        private final int myHash;
+
+        private Interned (Image image, int hash) {
+            super(image, COLLECTED);
+            myHash = hash;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package vooga.platformer.util;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A shared, least-recently-used cache of scaled and optionally mirrored copies
+ * of images. Copies are created once per (source image, size, flip) and stored
+ * in the screen's compatible format, so Java2D can keep them in video memory
+ * and drawing one is a plain blit instead of a scaling pass on every paint.
+ * Source images are matched by identity.
+ *
+ */
+public final class ScaledImageCache {
+
+    /**
+     * Default limit on the total number of cached pixels (32 MB at 4 bytes
+     * per pixel).
+     */
+    public static final long DEFAULT_PIXEL_BUDGET = 8L * 1024 * 1024;
+
+    private static final Map<Key, BufferedImage> CACHE =
+            new LinkedHashMap<Key, BufferedImage>(64, 0.75f, true);
+    private static final Key PROBE = new Key();
+    private static long ourPixelBudget = DEFAULT_PIXEL_BUDGET;
+    private static long ourCachedPixels;
+
+    private ScaledImageCache () {
+        /*
+         * Empty constructor for util class
+         */
+    }
+
+    /**
+     * Gets a copy of source scaled to width x height, mirrored across its
+     * vertical axis if flipped is true.
+     *
+     * @param source image to copy
+     * @param width width of the copy in pixels
+     * @param height height of the copy in pixels
+     * @param flipped whether the copy should be mirrored horizontally
+     * @return the cached copy, or source itself if the requested size is
+     *         empty or source is already the requested size and not flipped
+     */
+    public static synchronized Image getScaledImage (Image source, int width, int height,
+                                                     boolean flipped) {
+        if (width <= 0 || height <= 0) { return source; }
+        if (!flipped && source.getWidth(null) == width && source.getHeight(null) == height) {
+            return source;
+        }
+        PROBE.set(source, width, height, flipped);
+        BufferedImage cached = CACHE.get(PROBE);
+        if (cached != null) { return cached; }
+
+        BufferedImage copy = createCompatibleImage(width, height);
+        Graphics2D pen = copy.createGraphics();
+        pen.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                             RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        boolean complete;
+        if (flipped) {
+            complete = pen.drawImage(source, width, 0, -width, height, null);
+        }
+        else {
+            complete = pen.drawImage(source, 0, 0, width, height, null);
+        }
+        pen.dispose();
+        // images that are still loading are drawn again on the next call
+        if (complete) {
+            Key key = new Key();
+            key.set(source, width, height, flipped);
+            CACHE.put(key, copy);
+            ourCachedPixels += (long) width * height;
+            evict();
+        }
+        return copy;
+    }
+
+    /**
+     * Sets the limit on the total number of cached pixels; least recently
+     * used copies are dropped once it is exceeded.
+     *
+     * @param pixels maximum number of cached pixels
+     */
+    public static synchronized void setPixelBudget (long pixels) {
+        ourPixelBudget = pixels;
+        evict();
+    }
+
+    /**
+     * Removes all cached copies.
+     */
+    public static synchronized void clear () {
+        CACHE.clear();
+        ourCachedPixels = 0;
+    }
+
+    /**
+     * @return number of copies currently cached
+     */
+    public static synchronized int size () {
+        return CACHE.size();
+    }
+
+    private static void evict () {
+        Iterator<Map.Entry<Key, BufferedImage>> it = CACHE.entrySet().iterator();
+        while (ourCachedPixels > ourPixelBudget && it.hasNext()) {
+            BufferedImage eldest = it.next().getValue();
+            ourCachedPixels -= (long) eldest.getWidth() * eldest.getHeight();
+            it.remove();
+        }
+    }
+
+    private static BufferedImage createCompatibleImage (int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration config =
+                    GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                            .getDefaultConfiguration();
+            return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    private static final class Key {
+        private Image mySource;
+        private int myWidth;
+        private int myHeight;
+        private boolean myFlipped;
+
+        private void set (Image source, int width, int height, boolean flipped) {
+            mySource = source;
+            myWidth = width;
+            myHeight = height;
+            myFlipped = flipped;
+        }
+
+        @Override
+        public int hashCode () {
+            int h = System.identityHashCode(mySource);
+            h = 31 * h + myWidth;
+            h = 31 * h + myHeight;
+            return 2 * h + (myFlipped ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals (Object o) {
+            if (!(o instanceof Key)) { return false; }
+            Key other = (Key) o;
+            return mySource == other.mySource && myWidth == other.myWidth
+                   && myHeight == other.myHeight && myFlipped == other.myFlipped;
+        }
+    }
+}
@@ -20,6 +20,8 @@ public class Bullet extends Sprite {
 
     private int myDamage;
     private Sprite myOwner;
+    private BulletPool myPool;
+    private boolean myIsReleased;
 
     /**
      * Constructs a bullet to be shown on the screen.
@@ -37,6 +39,45 @@ public class Bullet extends Sprite {
         myOwner = owner;
     }
 
+    /**
+     * Constructs a dead bullet for a pool, sharing the pool's image. The
+     * bullet is brought to life when the pool hands it out.
+     */
+    Bullet (Dimension size, Dimension bounds, Image image, String imagePath, BulletPool pool) {
+        super(new Point(), size, bounds, image, imagePath);
+        myPool = pool;
+    }
+
+    /**
+     * Brings a pooled bullet back to life at a new position.
+     */
+    void reset (Sprite owner, Image image, int x, int y, int dx, int dy, int damage) {
+        getPosition().setLocation(x, y);
+        getVelocity().setLocation(dx, dy);
+        myDamage = damage;
+        myOwner = owner;
+        revive(image, owner.getBounds());
+    }
+
+    /**
+     * @return the pool this bullet came from, or null if it was created
+     *         directly
+     */
+    BulletPool getPool () {
+        return myPool;
+    }
+
+    /**
+     * @return true while this bullet is in its pool, waiting to be fired
+     */
+    boolean isReleased () {
+        return myIsReleased;
+    }
+
+    void setReleased (boolean released) {
+        myIsReleased = released;
+    }
+
     /**
      * This will be called after the bullet is done moving.
      * Will make the bullet do something extra after motion
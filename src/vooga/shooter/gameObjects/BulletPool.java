@@ -0,0 +1,221 @@
+package vooga.shooter.gameObjects;
+
+import java.awt.Dimension;
+import java.awt.Image;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import javax.swing.ImageIcon;
+
+
+/**
+ * Recycles the bullets fired by sprites, so firing does not create a new
+ * Bullet or load the bullet image again once enough bullets exist.
+ * <p>
+ * Each sprite keeps the bullets it has fired in a list handed out by the
+ * pool. Removing a bullet from that list, or the sprite dying, gives the
+ * bullet back to the pool to be fired again. All bullets of a pool share one
+ * image, which is loaded the first time a bullet is created.
+ * <p>
+ * A pool is used by the game loop only and is not safe to use from more
+ * than one thread.
+ *
+ */
+public class BulletPool {
+
+    private static final String BULLET_IMAGEPATH = "vooga/shooter/images/playerbullet.png";
+    private static final Dimension BULLET_SIZE = new Dimension(5, 10);
+    private static BulletPool ourSharedPool;
+
+    private final String myImagePath;
+    private final Dimension mySize;
+    private Image myImage;
+    private final List<Bullet> myFreeBullets = new ArrayList<Bullet>();
+    private int myInUse;
+    private int myHighWaterMark;
+    private long myAcquired;
+    private long myReused;
+
+    /**
+     * @param imagePath path to the bullet image, relative to the src
+     *        directory
+     * @param size size of the bullets
+     */
+    public BulletPool (String imagePath, Dimension size) {
+        myImagePath = imagePath;
+        mySize = size;
+    }
+
+    /**
+     * @return the pool of the bullets every sprite fires by default
+     */
+    public static BulletPool getSharedPool () {
+        if (ourSharedPool == null) {
+            ourSharedPool = new BulletPool(BULLET_IMAGEPATH, BULLET_SIZE);
+        }
+        return ourSharedPool;
+    }
+
+    /**
+     * Hands out a live bullet at the given position, reusing a returned
+     * bullet if there is one. The bullet is not added to the owner's list.
+     *
+     * @param owner the sprite firing the bullet
+     * @param x x coordinate of the center of the bullet
+     * @param y y coordinate of the center of the bullet
+     * @param dx horizontal speed of the bullet
+     * @param dy vertical speed of the bullet
+     * @param damage damage the bullet does
+     * @return a live bullet owned by the given sprite
+     */
+    public Bullet acquire (Sprite owner, int x, int y, int dx, int dy, int damage) {
+        Bullet b;
+        myAcquired++;
+        if (myFreeBullets.isEmpty()) {
+            b = new Bullet(mySize, owner.getBounds(), getImage(), myImagePath, this);
+        }
+        else {
+            b = myFreeBullets.remove(myFreeBullets.size() - 1);
+            myReused++;
+        }
+        b.setReleased(false);
+        b.reset(owner, getImage(), x, y, dx, dy, damage);
+        myInUse++;
+        myHighWaterMark = Math.max(myHighWaterMark, myInUse);
+        return b;
+    }
+
+    /**
+     * Takes a bullet back so it can be fired again. The bullet dies if it
+     * has not already. Bullets that were not handed out by this pool, or
+     * that have already been taken back, are left alone.
+     *
+     * @param b bullet handed out by this pool
+     */
+    public void release (Bullet b) {
+        if (b.getPool() != this || b.isReleased()) { return; }
+        if (b.getImage() != null) {
+            b.die();
+        }
+        b.setReleased(true);
+        myFreeBullets.add(b);
+        myInUse--;
+    }
+
+    /**
+     * @return a new, empty list of fired bullets that returns bullets to
+     *         this pool when they are removed from it
+     */
+    FiredBullets createBulletList () {
+        return new FiredBullets();
+    }
+
+    /**
+     * @return number of bullets handed out and not yet returned
+     */
+    public int getInUse () {
+        return myInUse;
+    }
+
+    /**
+     * @return most bullets that have been handed out at once
+     */
+    public int getHighWaterMark () {
+        return myHighWaterMark;
+    }
+
+    /**
+     * @return number of bullets this pool has created
+     */
+    public int getCreated () {
+        return (int) (myAcquired - myReused);
+    }
+
+    /**
+     * @return fraction of handed out bullets that were reused rather than
+     *         created, or 0 if none have been handed out
+     */
+    public double getReuseRate () {
+        return (myAcquired == 0) ? 0 : (double) myReused / myAcquired;
+    }
+
+    private Image getImage () {
+        if (myImage == null) {
+            myImage = new ImageIcon(System.getProperty("user.dir") + "/src/" + myImagePath)
+                    .getImage();
+        }
+        return myImage;
+    }
+
+    /**
+     * The bullets fired by one sprite. Bullets removed from the list are
+     * returned to the pool.
+     */
+    final class FiredBullets extends AbstractList<Bullet> implements RandomAccess {
+        private final List<Bullet> myBullets = new ArrayList<Bullet>();
+
+        BulletPool getPool () {
+            return BulletPool.this;
+        }
+
+        @Override
+        public Bullet get (int index) {
+            return myBullets.get(index);
+        }
+
+        @Override
+        public int size () {
+            return myBullets.size();
+        }
+
+        @Override
+        public void add (int index, Bullet b) {
+            myBullets.add(index, b);
+        }
+
+        @Override
+        public Bullet set (int index, Bullet b) {
+            Bullet old = myBullets.set(index, b);
+            if (old != b) {
+                release(old);
+            }
+            return old;
+        }
+
+        @Override
+        public Bullet remove (int index) {
+            Bullet old = myBullets.remove(index);
+            release(old);
+            return old;
+        }
+
+        /**
+         * Returns every bullet at once, rather than one removal at a time.
+         */
+        @Override
+        public void clear () {
+            for (int i = 0; i < myBullets.size(); i++) {
+                release(myBullets.get(i));
+            }
+            myBullets.clear();
+        }
+
+        /**
+         * Returns every dead bullet to the pool in one pass over the list.
+         */
+        void removeDead () {
+            int kept = 0;
+            for (int i = 0; i < myBullets.size(); i++) {
+                Bullet b = myBullets.get(i);
+                if (b.getImage() == null) {
+                    release(b);
+                }
+                else {
+                    myBullets.set(kept++, b);
+                }
+            }
+            myBullets.subList(kept, myBullets.size()).clear();
+        }
+    }
+}
@@ -5,7 +5,6 @@ import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import javax.swing.ImageIcon;
@@ -82,8 +81,9 @@ public class Enemy extends Sprite {
             setDamageDone(1);
             die();
         }
-        for (Bullet b : getBulletsFired()) {
-            b.update();
+        List<Bullet> bullets = getBulletsFired();
+        for (int i = 0; i < bullets.size(); i++) {
+            bullets.get(i).update();
         }
         if(myAI != null) {
             myAI.calculate();
@@ -103,18 +103,11 @@ public class Enemy extends Sprite {
      * Paints bullets of enemy.
      */
     protected void continuePaint (Graphics pen) {
-        List<Bullet> deadBullets = new ArrayList<Bullet>();
-
-        for (Bullet b : getBulletsFired()) {
-            if (b.getImage() == null) {
-                deadBullets.add(b);
-            }
-            else {
-                b.paint(pen);
-            }
+        removeDeadBullets();
+        List<Bullet> bullets = getBulletsFired();
+        for (int i = 0; i < bullets.size(); i++) {
+            bullets.get(i).paint(pen);
         }
-
-        getBulletsFired().removeAll(deadBullets);
     }
 
     /**
@@ -4,7 +4,6 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
 import java.util.List;
 import vooga.shooter.gameObjects.spriteUtilities.SpriteActionInterface;
 
@@ -121,8 +120,9 @@ public class Player extends Sprite {
      * needs to do when being updated (e.g. stop when at a wall).
      */
     protected void continueUpdate () {
-        for (Bullet b : getBulletsFired()) {
-            b.update();
+        List<Bullet> bullets = getBulletsFired();
+        for (int i = 0; i < bullets.size(); i++) {
+            bullets.get(i).update();
         }
     }
 
@@ -139,17 +139,10 @@ public class Player extends Sprite {
      * Paints bullets of player.
      */
     protected void continuePaint (Graphics pen) {
-        List<Bullet> deadBullets = new ArrayList<Bullet>();
-
-        for (Bullet b : getBulletsFired()) {
-            if (b.getImage() == null) {
-                deadBullets.add(b);
-            }
-            else {
-                b.paint(pen);
-            }
+        removeDeadBullets();
+        List<Bullet> bullets = getBulletsFired();
+        for (int i = 0; i < bullets.size(); i++) {
+            bullets.get(i).paint(pen);
         }
-
-        getBulletsFired().removeAll(deadBullets);
     }
 }
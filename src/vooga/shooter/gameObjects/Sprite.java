@@ -5,7 +5,6 @@ import java.awt.Graphics;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.event.KeyEvent;
-import java.util.ArrayList;
 import java.util.List;
 import javax.swing.ImageIcon;
 import util.input.core.KeyboardController;
@@ -34,8 +33,6 @@ public abstract class Sprite implements SpriteActionInterface {
     protected static final String RIGHT_BOUND = "right";
     protected static final String TOP_BOUND = "top";
     protected static final String BOTTOM_BOUND = "bottom";
-    private static final String BULLET_IMAGEPATH = "vooga/shooter/images/playerbullet.png";
-    private static final Dimension BULLET_SIZE = new Dimension(5, 10);
     private static final int BULLET_SPEED = 7;
     private static final int BULLET_DAMAGE = 1;
     private Point myPosition;
@@ -44,7 +41,7 @@ public abstract class Sprite implements SpriteActionInterface {
     private Dimension myBounds;
     private Image myImage;
     private String myImagePath;
-    private List<Bullet> myBulletsFired;
+    private BulletPool.FiredBullets myBulletsFired;
     private int myHealth;
     private SpriteMethodMap myMapper;
     private boolean isDead = false;
@@ -71,7 +68,6 @@ public abstract class Sprite implements SpriteActionInterface {
         myHealth = Integer.MAX_VALUE;
         myBounds = bounds;
         myMapper = new SpriteMethodMap();
-        myBulletsFired = new ArrayList<Bullet>();
         setMethods();
     }
 
@@ -99,7 +95,6 @@ public abstract class Sprite implements SpriteActionInterface {
         myHealth = Integer.MAX_VALUE;
         myBounds = bounds;
         myMapper = new SpriteMethodMap();
-        myBulletsFired = new ArrayList<Bullet>();
         setMethods();
     }
     
@@ -125,7 +120,6 @@ public abstract class Sprite implements SpriteActionInterface {
         myVelocity = new Point(0, 0);
         myBounds = bounds;
         myMapper = new SpriteMethodMap();
-        myBulletsFired = new ArrayList<Bullet>();
         setMethods();
     }
     
@@ -151,10 +145,25 @@ public abstract class Sprite implements SpriteActionInterface {
         myHealth = health;
         myBounds = bounds;
         myMapper = new SpriteMethodMap();
-        myBulletsFired = new ArrayList<Bullet>();
         initialMethod();
     }
 
+    /**
+     * Constructs a sprite with an image that has already been loaded (e.g.
+     * a bullet sharing the image of its pool).
+     */
+    Sprite (Point position, Dimension size, Dimension bounds, Image image, String imagePath) {
+        myPosition = position;
+        mySize = size;
+        myImagePath = System.getProperty("user.dir") + "/src/" + imagePath;
+        myImage = image;
+        myVelocity = new Point(0, 0);
+        myHealth = Integer.MAX_VALUE;
+        myBounds = bounds;
+        myMapper = new SpriteMethodMap();
+        setMethods();
+    }
+
     private void initialMethod() {
         myMapper.addPair("stop", new SpriteActionInterface() {
             public void doAction (Object ... o) {
@@ -279,6 +288,21 @@ public abstract class Sprite implements SpriteActionInterface {
     public void die() {
         myImage = null;
         setDead(true);
+        if (myBulletsFired != null) {
+            myBulletsFired.clear();
+        }
+    }
+
+    /**
+     * Brings a dead sprite back to life with its original image (e.g. a
+     * pooled bullet being fired again).
+     * @param image the image to show
+     * @param bounds the size of the canvas holding the sprite
+     */
+    void revive(Image image, Dimension bounds) {
+        myImage = image;
+        myBounds = bounds;
+        setDead(false);
     }
     
 
@@ -288,10 +312,9 @@ public abstract class Sprite implements SpriteActionInterface {
      * and will be painted during the player's paint method.
      */
     public void fireBullet() {
-        Bullet b = new Bullet(new Point(myPosition.x, myPosition.y), BULLET_SIZE, myBounds, BULLET_IMAGEPATH,
-                new Point(0, -BULLET_SPEED), BULLET_DAMAGE, this);
-
-        myBulletsFired.add(b);
+        BulletPool.FiredBullets bullets = firedBullets();
+        bullets.add(bullets.getPool().acquire(this, myPosition.x, myPosition.y,
+                0, -BULLET_SPEED, BULLET_DAMAGE));
     }
 
     /**
@@ -380,11 +403,33 @@ public abstract class Sprite implements SpriteActionInterface {
 
     /**
      * Returns a list of the bullets fired by this sprite.
+     * Removing a bullet from the list returns it to the bullet pool.
      * @return myShotsFired
      */
     public List<Bullet> getBulletsFired() {
+        return firedBullets();
+    }
+
+    /**
+     * The list is only made once it is needed, so pooled bullets and other
+     * sprites that never fire do not carry one.
+     */
+    private BulletPool.FiredBullets firedBullets () {
+        if (myBulletsFired == null) {
+            myBulletsFired = BulletPool.getSharedPool().createBulletList();
+        }
         return myBulletsFired;
     }
+
+    /**
+     * Removes the bullets that have died from the list of fired bullets,
+     * so they can be fired again.
+     */
+    protected void removeDeadBullets() {
+        if (myBulletsFired != null) {
+            myBulletsFired.removeDead();
+        }
+    }
     /**
      * Returns the image representing this sprite.
      * @return myImage
@@ -7,7 +7,6 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -22,7 +21,6 @@ import util.input.core.KeyboardController;
 import util.input.core.MouseController;
 import util.particleEngine.Explosion;
 import util.particleEngine.ParticleSystem;
-import vooga.shooter.gameObjects.Bullet;
 import vooga.shooter.gameObjects.Enemy;
 import vooga.shooter.gameObjects.Player;
 import vooga.shooter.gameObjects.Sprite;
@@ -44,7 +42,7 @@ import arcade.gamemanager.GameSaver;
  */
 public abstract class AbstractGame extends JComponent implements DrawableComponent, IArcadeGame {
 
-    private static final String HIT_BY = "hitby";
+    private static final String ENEMY_TYPE = "enemy";
     private static final String GAME_NAME = "Space Invaders";
     private static final String GAME_DESCRIPTION = "Classic top-down shooter game.";
     private static final String GAME_IMAGEPATH = "images/background.gif";
@@ -53,6 +51,7 @@ public abstract class AbstractGame extends JComponent implements DrawableCompone
     private static final String PLAYER_IMAGEPATH = "vooga/shooter/images/spaceship.gif";
     private static final int PLAYER_START_HEIGHT = 50;
 
+    private final CollisionSystem myCollisions = new CollisionSystem();
     private List<ParticleSystem> myParticleSystems;
     private List<Sprite> mySprites;
     private Player myPlayer;
@@ -73,6 +72,15 @@ public abstract class AbstractGame extends JComponent implements DrawableCompone
         ImageIcon imageIcon = new ImageIcon("src/vooga/shooter/images/background.gif");
         //ImageIcon imageIcon = new ImageIcon(this.getClass().getResource(GAME_IMAGEPATH));
         myGameImage = imageIcon.getImage();
+        // enemies do nothing when they touch or shoot each other
+        myCollisions.ignore(ENEMY_TYPE, ENEMY_TYPE);
+        myCollisions.ignoreBullets(ENEMY_TYPE, ENEMY_TYPE);
+        myCollisions.setListener(new CollisionSystem.CollisionListener() {
+            @Override
+            public void collided (Sprite target, Sprite hitBy) {
+                addExplosion(target.getPosition());
+            }
+        });
     }
 
     private void initializeGame (Canvas c) {
@@ -161,19 +169,7 @@ public abstract class AbstractGame extends JComponent implements DrawableCompone
         for (Sprite s : getSprites()) {
             s.update();
         }
-        for (Sprite sprite1 : getSprites()) {
-            for (Sprite sprite2 : getSprites()) {
-                if (sprite1.getImage() == null || sprite2.getImage() == null || sprite1 == sprite2) {
-                    continue;
-                }
-                List<Sprite> collisions = collisionCheck(sprite1, sprite2);
-                if (collisions.size() > 0) {
-                    String key = HIT_BY + collisions.get(1).getType();
-                    collisions.get(0).doEvent(key, collisions.get(1));
-                    myParticleSystems.add(new Explosion(collisions.get(0).getPosition()));
-                }
-            }
-        }
+        myCollisions.checkCollisions(getSprites());
         Stack<ParticleSystem> pSystemToRemove = new Stack<ParticleSystem>();
         for (ParticleSystem p : myParticleSystems) {
             p.update();
@@ -186,50 +182,6 @@ public abstract class AbstractGame extends JComponent implements DrawableCompone
         }
     }
 
-    /**
-     * Checks if two sprites are colliding with each other.
-     * Or checks if any of the bullets from either collides with
-     * the other sprite.
-     * 
-     * @param sprite1 The first sprite to check.
-     * @param sprite2 The second sprite to check.
-     * @return Returns a list of 2 sprites: either (1) the two original
-     *         sprites if they are colliding, or (2) a bullet from one sprite,
-     *         and the other sprite itself
-     */
-
-    private List<Sprite> collisionCheck (Sprite sprite1, Sprite sprite2) {
-        List<Sprite> collidedSprites = new ArrayList<Sprite>();
-        Rectangle sprite1Edges = new Rectangle(new Point(sprite1.getLeft(), sprite1.getTop()), sprite1.getSize());
-        Rectangle sprite2Edges = new Rectangle(new Point(sprite2.getLeft(), sprite2.getTop()), sprite2.getSize());
-
-        // checks for collision between 1st and 2nd sprite
-        if (sprite1Edges.intersects(sprite2Edges)) {
-            collidedSprites.add(sprite1);
-            collidedSprites.add(sprite2);
-            return collidedSprites;
-        }
-        Rectangle bulletEdges;
-        // checks for bullets from 1st sprite hitting 2nd sprite
-        for (Bullet bullet : sprite1.getBulletsFired()) {
-            bulletEdges = new Rectangle(new Point(bullet.getLeft(), bullet.getTop()), bullet.getSize());
-            if (bulletEdges.intersects(sprite2Edges)) {
-                collidedSprites.add(sprite2);
-                collidedSprites.add(bullet);
-                return collidedSprites;
-            }
-        }
-        for (Bullet bullet : sprite2.getBulletsFired()) {
-            bulletEdges = new Rectangle(new Point(bullet.getLeft(), bullet.getTop()), bullet.getSize());
-            if (bulletEdges.intersects(sprite1Edges)) {
-                collidedSprites.add(sprite1);
-                collidedSprites.add(bullet);
-                return collidedSprites;
-            }
-        }
-        return collidedSprites;
-    }
-
     /**
      * Paints all still-alive sprites on the screen.
      * Any sprites who have died (e.g. have health < 0)
@@ -372,4 +324,13 @@ public abstract class AbstractGame extends JComponent implements DrawableCompone
         myCurrentLevel = nextLevel;
     }
 
+    /**
+     * Starts an explosion at a position, stepping its particles in parallel
+     * if there are enough of them.
+     */
+    private void addExplosion (Point position) {
+        Explosion explosion = new Explosion(position);
+        explosion.setParallelIfLarge();
+        myParticleSystems.add(explosion);
+    }
 }
@@ -0,0 +1,369 @@
+package vooga.shooter.gameplay;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import vooga.shooter.gameObjects.Bullet;
+import vooga.shooter.gameObjects.Sprite;
+
+
+/**
+ * Finds collisions between the sprites of a game and the bullets they have
+ * fired, and tells each sprite what it was hit by.
+ * <p>
+ * Every frame, all live sprites and bullets are put into one uniform grid
+ * covering the area they occupy, and only pairs sharing a cell are tested.
+ * A pair that shares several cells is only tested in one of them, so each
+ * unordered pair is tested at most once. Pairs whose collision would do
+ * nothing can be filtered out by type: bullets are never tested against
+ * other bullets or against the sprite that fired them, and pairs of types
+ * passed to <code>ignore</code> or <code>ignoreBullets</code> are skipped.
+ * <p>
+ * The grid and all other working storage are kept between frames and only
+ * grow, so checking collisions does not create objects once the arrays are
+ * large enough.
+ * <p>
+ * When two sprites collide, each is told it was hit by the other (first
+ * the one earlier in the list). When a bullet hits a sprite, the sprite is
+ * told it was hit by the bullet. Collisions are reported in order of the
+ * sprites in the list, and a collision is skipped if either side died while
+ * an earlier one was handled.
+ *
+ */
+public class CollisionSystem {
+
+    /**
+     * Default side length of a grid cell, in pixels.
+     */
+    public static final int DEFAULT_CELL_SIZE = 64;
+    /**
+     * Most cells the grid will have along each side. Larger areas use
+     * larger cells.
+     */
+    private static final int MAX_CELLS_PER_SIDE = 128;
+    private static final String HIT_BY = "hitby";
+    private static final int NO_OWNER = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int myMinCellSize;
+    private final Map<String, Integer> myTypeIds = new HashMap<String, Integer>();
+    private String[] myEventKeys = new String[0];
+    private boolean[][] myIgnoredSprites = new boolean[0][0];
+    private boolean[][] myIgnoredBullets = new boolean[0][0];
+    private CollisionListener myListener;
+
+    // per-collider data, sprites first (in list order), then their bullets
+    private Sprite[] myColliders = new Sprite[INITIAL_CAPACITY];
+    private int[] myLeft = new int[INITIAL_CAPACITY];
+    private int[] myTop = new int[INITIAL_CAPACITY];
+    private int[] myRight = new int[INITIAL_CAPACITY];
+    private int[] myBottom = new int[INITIAL_CAPACITY];
+    private int[] myTypes = new int[INITIAL_CAPACITY];
+    private int[] myEventTypes = new int[INITIAL_CAPACITY];
+    private int[] myOwners = new int[INITIAL_CAPACITY];
+    private int myColliderCount;
+
+    // the grid, stored as one array of collider indices per cell
+    private int myOriginX;
+    private int myOriginY;
+    private int myCellSize;
+    private int myColumns;
+    private int myRows;
+    private int[] myCellStarts = new int[INITIAL_CAPACITY];
+    private int[] myCellItems = new int[INITIAL_CAPACITY];
+
+    // colliding pairs, as (lower index << 32 | higher index)
+    private long[] myHits = new long[INITIAL_CAPACITY];
+    private int myHitCount;
+
+    /**
+     * Creates a collision system using the default cell size.
+     */
+    public CollisionSystem () {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param cellSize smallest side length of a grid cell, in pixels
+     */
+    public CollisionSystem (int cellSize) {
+        if (cellSize <= 0) { throw new IllegalArgumentException("cell size must be positive"); }
+        myMinCellSize = cellSize;
+    }
+
+    /**
+     * Never test sprites of these two types against each other.
+     *
+     * @param typeA type of one sprite, as returned by getType
+     * @param typeB type of the other sprite
+     */
+    public void ignore (String typeA, String typeB) {
+        int a = getTypeId(typeA);
+        int b = getTypeId(typeB);
+        myIgnoredSprites[a][b] = true;
+        myIgnoredSprites[b][a] = true;
+    }
+
+    /**
+     * Never test bullets fired by sprites of one type against sprites of
+     * another type.
+     *
+     * @param ownerType type of the sprite that fired the bullets
+     * @param targetType type of the sprites the bullets should pass through
+     */
+    public void ignoreBullets (String ownerType, String targetType) {
+        int owner = getTypeId(ownerType);
+        int target = getTypeId(targetType);
+        myIgnoredBullets[owner][target] = true;
+    }
+
+    /**
+     * @param listener told about every collision after the sprite that was
+     *        hit has handled it; may be null
+     */
+    public void setListener (CollisionListener listener) {
+        myListener = listener;
+    }
+
+    /**
+     * Finds and handles all collisions between the given sprites and the
+     * bullets they have fired. Sprites and bullets without an image are dead
+     * and are ignored.
+     *
+     * @param sprites the sprites of the game
+     */
+    public void checkCollisions (List<? extends Sprite> sprites) {
+        collectColliders(sprites);
+        if (myColliderCount < 2) { return; }
+        buildGrid();
+        findHits();
+        Arrays.sort(myHits, 0, myHitCount);
+        for (int i = 0; i < myHitCount; i++) {
+            dispatch((int) (myHits[i] >>> 32), (int) myHits[i]);
+        }
+        Arrays.fill(myColliders, 0, myColliderCount, null);
+    }
+
+    private void collectColliders (List<? extends Sprite> sprites) {
+        myColliderCount = 0;
+        int spriteCount = sprites.size();
+        for (int i = 0; i < spriteCount; i++) {
+            Sprite s = sprites.get(i);
+            if (s.getImage() != null) {
+                addCollider(s, NO_OWNER);
+            }
+        }
+        int liveSprites = myColliderCount;
+        for (int i = 0; i < liveSprites; i++) {
+            List<Bullet> bullets = myColliders[i].getBulletsFired();
+            for (int j = 0; j < bullets.size(); j++) {
+                Bullet b = bullets.get(j);
+                if (b.getImage() != null) {
+                    addCollider(b, i);
+                }
+            }
+        }
+    }
+
+    private void addCollider (Sprite s, int owner) {
+        if (myColliderCount == myColliders.length) {
+            int capacity = myColliderCount * 2;
+            myColliders = Arrays.copyOf(myColliders, capacity);
+            myLeft = Arrays.copyOf(myLeft, capacity);
+            myTop = Arrays.copyOf(myTop, capacity);
+            myRight = Arrays.copyOf(myRight, capacity);
+            myBottom = Arrays.copyOf(myBottom, capacity);
+            myTypes = Arrays.copyOf(myTypes, capacity);
+            myEventTypes = Arrays.copyOf(myEventTypes, capacity);
+            myOwners = Arrays.copyOf(myOwners, capacity);
+        }
+        int i = myColliderCount++;
+        myColliders[i] = s;
+        myLeft[i] = s.getLeft();
+        myTop[i] = s.getTop();
+        myRight[i] = myLeft[i] + s.getSize().width;
+        myBottom[i] = myTop[i] + s.getSize().height;
+        myOwners[i] = owner;
+        myEventTypes[i] = getTypeId(s.getType());
+        // a bullet is filtered by the type of the sprite that fired it
+        myTypes[i] = getTypeId((owner == NO_OWNER) ? s.getType() : myColliders[owner].getType());
+    }
+
+    /**
+     * Sizes the grid to cover every collider, then fills each cell with the
+     * indices of the colliders overlapping it, in index order.
+     */
+    private void buildGrid () {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < myColliderCount; i++) {
+            minX = Math.min(minX, myLeft[i]);
+            minY = Math.min(minY, myTop[i]);
+            maxX = Math.max(maxX, myRight[i]);
+            maxY = Math.max(maxY, myBottom[i]);
+        }
+        long extent = Math.max((long) maxX - minX, (long) maxY - minY) + 1;
+        myCellSize = (int) Math.max(myMinCellSize, (extent + MAX_CELLS_PER_SIDE - 1)
+                                                   / MAX_CELLS_PER_SIDE);
+        myOriginX = minX;
+        myOriginY = minY;
+        myColumns = (int) (((long) maxX - minX) / myCellSize) + 1;
+        myRows = (int) (((long) maxY - minY) / myCellSize) + 1;
+
+        int cells = myColumns * myRows;
+        if (myCellStarts.length < cells + 1) {
+            myCellStarts = new int[Math.max(cells + 1, myCellStarts.length * 2)];
+        }
+        Arrays.fill(myCellStarts, 0, cells + 1, 0);
+        int items = 0;
+        for (int i = 0; i < myColliderCount; i++) {
+            for (int cy = row(myTop[i]); cy <= row(myBottom[i]); cy++) {
+                for (int cx = column(myLeft[i]); cx <= column(myRight[i]); cx++) {
+                    myCellStarts[cy * myColumns + cx + 1]++;
+                    items++;
+                }
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            myCellStarts[c + 1] += myCellStarts[c];
+        }
+        if (myCellItems.length < items) {
+            myCellItems = new int[Math.max(items, myCellItems.length * 2)];
+        }
+        // fill each cell from its start; myCellStarts[c] is moved to the end
+        // of cell c, which is where cell c + 1 starts
+        for (int i = 0; i < myColliderCount; i++) {
+            for (int cy = row(myTop[i]); cy <= row(myBottom[i]); cy++) {
+                for (int cx = column(myLeft[i]); cx <= column(myRight[i]); cx++) {
+                    myCellItems[myCellStarts[cy * myColumns + cx]++] = i;
+                }
+            }
+        }
+        for (int c = cells; c > 0; c--) {
+            myCellStarts[c] = myCellStarts[c - 1];
+        }
+        myCellStarts[0] = 0;
+    }
+
+    private void findHits () {
+        myHitCount = 0;
+        int cells = myColumns * myRows;
+        for (int c = 0; c < cells; c++) {
+            int end = myCellStarts[c + 1];
+            for (int i = myCellStarts[c]; i < end; i++) {
+                int a = myCellItems[i];
+                for (int j = i + 1; j < end; j++) {
+                    int b = myCellItems[j];
+                    if (isOwnCell(a, b, c) && shouldTest(a, b) && intersects(a, b)) {
+                        addHit(a, b);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A pair is only tested in the cell holding the top left corner of the
+     * area the two colliders share, so it is tested once even if the two
+     * share many cells.
+     */
+    private boolean isOwnCell (int a, int b, int cell) {
+        int cx = column(Math.max(myLeft[a], myLeft[b]));
+        int cy = row(Math.max(myTop[a], myTop[b]));
+        return cy * myColumns + cx == cell;
+    }
+
+    private boolean shouldTest (int a, int b) {
+        boolean aIsBullet = myOwners[a] != NO_OWNER;
+        boolean bIsBullet = myOwners[b] != NO_OWNER;
+        if (aIsBullet && bIsBullet) { return false; }
+        if (aIsBullet) { return myOwners[a] != b && !myIgnoredBullets[myTypes[a]][myTypes[b]]; }
+        if (bIsBullet) { return myOwners[b] != a && !myIgnoredBullets[myTypes[b]][myTypes[a]]; }
+        return !myIgnoredSprites[myTypes[a]][myTypes[b]];
+    }
+
+    /**
+     * Same test as <code>Rectangle.intersects</code> on the two sprites'
+     * bounds.
+     */
+    private boolean intersects (int a, int b) {
+        if (myRight[a] <= myLeft[a] || myBottom[a] <= myTop[a] || myRight[b] <= myLeft[b]
+            || myBottom[b] <= myTop[b]) { return false; }
+        return myLeft[a] < myRight[b] && myLeft[b] < myRight[a] && myTop[a] < myBottom[b]
+               && myTop[b] < myBottom[a];
+    }
+
+    private void addHit (int a, int b) {
+        if (myHitCount == myHits.length) {
+            myHits = Arrays.copyOf(myHits, myHitCount * 2);
+        }
+        myHits[myHitCount++] = ((long) a << 32) | b;
+    }
+
+    private void dispatch (int a, int b) {
+        hit(a, b);
+        // sprites come before bullets, so only b can be a bullet
+        if (myOwners[b] == NO_OWNER) {
+            hit(b, a);
+        }
+    }
+
+    /**
+     * Tells a sprite it was hit, if both sides are still alive.
+     */
+    private void hit (int targetIndex, int hitByIndex) {
+        Sprite target = myColliders[targetIndex];
+        Sprite hitBy = myColliders[hitByIndex];
+        if (target.getImage() == null || hitBy.getImage() == null) { return; }
+        target.doEvent(myEventKeys[myEventTypes[hitByIndex]], hitBy);
+        if (myListener != null) {
+            myListener.collided(target, hitBy);
+        }
+    }
+
+    private int column (int x) {
+        return Math.min(myColumns - 1, Math.max(0, (int) (((long) x - myOriginX) / myCellSize)));
+    }
+
+    private int row (int y) {
+        return Math.min(myRows - 1, Math.max(0, (int) (((long) y - myOriginY) / myCellSize)));
+    }
+
+    /**
+     * Gives each sprite type a small number, growing the filter tables when
+     * a new type is seen.
+     */
+    private int getTypeId (String type) {
+        Integer id = myTypeIds.get(type);
+        if (id != null) { return id; }
+        int newId = myTypeIds.size();
+        myTypeIds.put(type, newId);
+        myEventKeys = Arrays.copyOf(myEventKeys, newId + 1);
+        myEventKeys[newId] = HIT_BY + type;
+        myIgnoredSprites = grow(myIgnoredSprites, newId + 1);
+        myIgnoredBullets = grow(myIgnoredBullets, newId + 1);
+        return newId;
+    }
+
+    private static boolean[][] grow (boolean[][] table, int size) {
+        boolean[][] grown = new boolean[size][size];
+        for (int i = 0; i < table.length; i++) {
+            System.arraycopy(table[i], 0, grown[i], 0, table[i].length);
+        }
+        return grown;
+    }
+
+    /**
+     * Told about each collision a CollisionSystem handles.
+     */
+    public interface CollisionListener {
+        /**
+         * @param target the sprite that was hit
+         * @param hitBy the sprite or bullet that hit it
+         */
+        void collided (Sprite target, Sprite hitBy);
+    }
+}
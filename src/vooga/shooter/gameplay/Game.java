@@ -8,7 +8,6 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,9 +18,10 @@ import javax.swing.JFrame;
 import javax.swing.WindowConstants;
 import util.input.core.KeyboardController;
 import util.input.core.MouseController;
+import util.instrumentation.MetricsRegistry;
+import util.instrumentation.PhaseTimer;
 import util.particleEngine.Explosion;
 import util.particleEngine.ParticleSystem;
-import vooga.shooter.gameObjects.Bullet;
 import vooga.shooter.gameObjects.Enemy;
 import vooga.shooter.gameObjects.Player;
 import vooga.shooter.gameObjects.Sprite;
@@ -43,7 +43,7 @@ import arcade.gamemanager.GameSaver;
  */
 public class Game extends JComponent implements DrawableComponent, IArcadeGame {
 
-    private static final String HIT_BY = "hitby";
+    private static final String ENEMY_TYPE = "enemy";
     private static final String GAME_NAME = "Space Invaders";
     private static final String GAME_DESCRIPTION =
             "Classic top-down shooter game. \n\n Shoot the Spash Screen image to begin gameplay. \\ Destroy all enemies without letting too many pass!";
@@ -53,12 +53,18 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
     private static final String PLAYER_IMAGEPATH = "vooga/shooter/images/spaceship.gif";
     private static final int PLAYER_START_HEIGHT = 50;
 
+    private static final int COLLISION_PHASE = 0;
+
+    private final CollisionSystem myCollisions = new CollisionSystem();
+    private final PhaseTimer myTimer =
+            MetricsRegistry.getDefault().phaseTimer(Canvas.METRICS_NAME, "collision");
     private List<ParticleSystem> myParticleSystems;
     private List<Sprite> mySprites;
     private Player myPlayer;
     private List<Enemy> myEnemies;
     private Level myCurrentLevel;
     private Canvas myCanvas;
+    private Dimension myCanvasSize;
     private Point myPlayerOneStart;
     private JFrame myFrame;
     private Image myGameImage;
@@ -74,6 +80,9 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
     public Game () {
         ImageIcon imageIcon = new ImageIcon(GAME_IMAGEPATH);
         myGameImage = imageIcon.getImage();
+        // enemies do nothing when they touch or shoot each other
+        myCollisions.ignore(ENEMY_TYPE, ENEMY_TYPE);
+        myCollisions.ignoreBullets(ENEMY_TYPE, ENEMY_TYPE);
     }
 
     protected void setWinLevel (Level level) {
@@ -86,20 +95,34 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
 
     private void initializeGame (Canvas c) {
         myCanvas = c;
+        initializeGame(c.getSize());
+    }
+
+    private void initializeGame (Dimension canvasSize) {
+        myCanvasSize = canvasSize;
         mySprites = new ArrayList<Sprite>();
         myEnemies = new ArrayList<Enemy>();
         myParticleSystems = new ArrayList<ParticleSystem>();
         myPlayerOneStart =
-                new Point(myCanvas.getWidth() / 2, myCanvas.getHeight() - PLAYER_START_HEIGHT);
+                new Point(canvasSize.width / 2, canvasSize.height - PLAYER_START_HEIGHT);
         createGame();
         setupInput();
         startLevel(myCurrentLevel);
     }
 
+    /**
+     * Sets up the game without a window or timer. The caller steps it with
+     * update, draws it with paint, and sends key events to this component.
+     * 
+     * @param canvasSize size of the playable game area
+     */
+    public void startHeadless (Dimension canvasSize) {
+        initializeGame(canvasSize);
+    }
+
     private void createGame () {
         myPlayer =
-                new Player(myPlayerOneStart, PLAYER_SIZE, new Dimension(myCanvas.getWidth(),
-                                                                        myCanvas.getHeight()),
+                new Player(myPlayerOneStart, PLAYER_SIZE, new Dimension(myCanvasSize),
                            PLAYER_IMAGEPATH, new Point(0, 0), PLAYER_HEALTH);
 
         addSprite(myPlayer);
@@ -146,7 +169,9 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
-        myCanvas.addKeyListener(myKeyContr);
+        if (myCanvas != null) {
+            myCanvas.addKeyListener(myKeyContr);
+        }
     }
 
     /**
@@ -186,23 +211,14 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
         for (Enemy e : getEnemies()) {
             myPlayer.decreaseHealth(e.getDamageDone());
         }
-        for (Sprite sprite1 : getSprites()) {
-            for (Sprite sprite2 : getSprites()) {
-                if (sprite1.getImage() == null || sprite2.getImage() == null || sprite1 == sprite2) {
-                    continue;
-                }
-                List<Sprite> collisions = collisionCheck(sprite1, sprite2);
-                if (collisions.size() > 0) {
-                    String key = HIT_BY + collisions.get(1).getType();
-                    collisions.get(0).doEvent(key, collisions.get(1));
-                }
-            }
-        }
+        long collisionStart = System.nanoTime();
+        myCollisions.checkCollisions(getSprites());
+        myTimer.record(COLLISION_PHASE, collisionStart);
         ArrayList<Sprite> spritesToRemove = new ArrayList<Sprite>();
         for (Sprite s : getSprites()) {
             s.update();
             if (s.getHealth() <= 0) {
-                myParticleSystems.add(new Explosion(s.getPosition()));
+                addExplosion(s.getPosition());
                 spritesToRemove.add(s);
             }
         }
@@ -219,54 +235,6 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
         }
     }
 
-    /**
-     * Checks if two sprites are colliding with each other.
-     * Or checks if any of the bullets from either collides with
-     * the other sprite.
-     * 
-     * @param sprite1 The first sprite to check.
-     * @param sprite2 The second sprite to check.
-     * @return Returns a list of 2 sprites: either (1) the two original
-     *         sprites if they are colliding, or (2) a bullet from one sprite,
-     *         and the other sprite itself
-     */
-
-    private List<Sprite> collisionCheck (Sprite sprite1, Sprite sprite2) {
-        List<Sprite> collidedSprites = new ArrayList<Sprite>();
-        Rectangle sprite1Edges =
-                new Rectangle(new Point(sprite1.getLeft(), sprite1.getTop()), sprite1.getSize());
-        Rectangle sprite2Edges =
-                new Rectangle(new Point(sprite2.getLeft(), sprite2.getTop()), sprite2.getSize());
-
-        // checks for collision between 1st and 2nd sprite
-        if (sprite1Edges.intersects(sprite2Edges)) {
-            collidedSprites.add(sprite1);
-            collidedSprites.add(sprite2);
-            return collidedSprites;
-        }
-        Rectangle bulletEdges;
-        // checks for bullets from 1st sprite hitting 2nd sprite
-        for (Bullet bullet : sprite1.getBulletsFired()) {
-            bulletEdges =
-                    new Rectangle(new Point(bullet.getLeft(), bullet.getTop()), bullet.getSize());
-            if (bulletEdges.intersects(sprite2Edges)) {
-                collidedSprites.add(sprite2);
-                collidedSprites.add(bullet);
-                return collidedSprites;
-            }
-        }
-        for (Bullet bullet : sprite2.getBulletsFired()) {
-            bulletEdges =
-                    new Rectangle(new Point(bullet.getLeft(), bullet.getTop()), bullet.getSize());
-            if (bulletEdges.intersects(sprite1Edges)) {
-                collidedSprites.add(sprite1);
-                collidedSprites.add(bullet);
-                return collidedSprites;
-            }
-        }
-        return collidedSprites;
-    }
-
     /**
      * Paints all still-alive sprites on the screen.
      * Any sprites who have died (e.g. have health < 0)
@@ -360,7 +328,7 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
      */
 
     public Dimension getCanvasDimension () {
-        return myCanvas.getSize();
+        return (myCanvas == null) ? new Dimension(myCanvasSize) : myCanvas.getSize();
     }
 
     @Override
@@ -410,4 +378,13 @@ public class Game extends JComponent implements DrawableComponent, IArcadeGame {
         return myPlayer;
     }
 
+    /**
+     * Starts an explosion at a position. Its particles are stepped in the
+     * background only if there are enough of them to be worth it.
+     */
+    private void addExplosion (Point position) {
+        Explosion explosion = new Explosion(position);
+        explosion.setParallelIfLarge();
+        myParticleSystems.add(explosion);
+    }
 }
@@ -0,0 +1,68 @@
+package vooga.shooter.gameplay;
+
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import util.headless.HeadlessRunner;
+import util.headless.HeadlessSimulation;
+
+
+/**
+ * Runs a shooter Game without a window, one Game update per tick, for load
+ * testing levels with a HeadlessRunner.
+ * <p>
+ * As an application, takes HeadlessRunner's options and prints the report.
+ * Image paths are relative, so run it from the source directory.
+ *
+ */
+public class HeadlessGame implements HeadlessSimulation {
+
+    /**
+     * Size of the game area, matching the Canvas the game normally runs in.
+     */
+    public static final Dimension DEFAULT_SIZE = new Dimension(600, 400);
+
+    private final Game myGame;
+    private final Dimension mySize;
+
+    public HeadlessGame (Game game, Dimension size) {
+        myGame = game;
+        mySize = new Dimension(size);
+        myGame.setSize(mySize);
+        myGame.startHeadless(mySize);
+    }
+
+    public Game getGame () {
+        return myGame;
+    }
+
+    @Override
+    public void tick () {
+        myGame.update();
+    }
+
+    @Override
+    public void render (Graphics2D pen) {
+        myGame.paint(pen);
+    }
+
+    @Override
+    public Dimension getScreenSize () {
+        return mySize;
+    }
+
+    @Override
+    public Component getInputTarget () {
+        return myGame;
+    }
+
+    public static void main (String[] args) throws Exception {
+        HeadlessRunner runner = new HeadlessRunner();
+        if (!runner.parseOptions(args).isEmpty()) {
+            System.err.println("usage: HeadlessGame " + HeadlessRunner.OPTIONS_USAGE);
+            System.exit(1);
+        }
+        System.out.print(runner.run(new HeadlessGame(new Game(), DEFAULT_SIZE)));
+        System.exit(0);
+    }
+}
@@ -1,5 +1,6 @@
 package vooga.shooter.graphics;
 
+import java.awt.AWTEvent;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
@@ -12,6 +13,10 @@ import javax.swing.JFrame;
 import javax.swing.Timer;
 import util.input.core.KeyboardController;
 import util.input.core.MouseController;
+import util.input.journal.InputJournal;
+import util.instrumentation.MetricsOverlay;
+import util.instrumentation.MetricsRegistry;
+import util.instrumentation.PhaseTimer;
 
 
 /**
@@ -23,6 +28,17 @@ public class Canvas extends JApplet {
     private static final Dimension DEFAULT_SIZE = new Dimension(600, 400);
     private static final int ONE_SECOND = 1000;
     private static final int FRAMES_PER_SECOND = 20;
+    /**
+     * Name under which the game loop records metrics.
+     */
+    public static final String METRICS_NAME = "shooter";
+    private static final int UPDATE_PHASE = 0;
+    private static final int PAINT_PHASE = 1;
+    private final PhaseTimer myPhaseTimer =
+            MetricsRegistry.getDefault().phaseTimer(METRICS_NAME, "update", "paint");
+    private final MetricsOverlay myOverlay =
+            new MetricsOverlay(MetricsRegistry.getDefault(), METRICS_NAME);
+    private final InputJournal myInputJournal = InputJournal.fromSystemProperties();
     private Timer myTimer;
     private DrawableComponent myScreen;
 
@@ -69,6 +85,7 @@ public class Canvas extends JApplet {
 
         addMouseMotionListener(new MouseController(this));
         addKeyListener(new KeyboardController(this));
+        myOverlay.attach(this);
 //        myScreen.setKeyboardListener(getKeyListeners()[0]);
 //        myScreen.setMouseListener(getMouseMotionListeners()[0]);
     }
@@ -84,7 +101,11 @@ public class Canvas extends JApplet {
                 new ActionListener() {
                     @Override
                     public void actionPerformed (ActionEvent e) {
+                        myPhaseTimer.frame();
+                        long start = System.nanoTime();
+                        myInputJournal.beginTick(Canvas.this);
                         update();
+                        myPhaseTimer.record(UPDATE_PHASE, start);
 
                         // indirectly causes paint to be called
                         repaint();
@@ -101,20 +122,34 @@ public class Canvas extends JApplet {
         myTimer.stop();
     }
 
+    /**
+     * Passes key and mouse events through the input journal, which holds
+     * them until the next timer tick while recording or replaying.
+     */
+    @Override
+    protected void processEvent (AWTEvent e) {
+        if (!myInputJournal.intercept(e)) {
+            super.processEvent(e);
+        }
+    }
+
     /**
      * Called by Java to paint the frame
      * 
      * @param g The graphics object passed by Java
      */
     public void paint (Graphics g) {
+        long start = System.nanoTime();
         BufferedImage buff = new BufferedImage(getSize().width,
                 getSize().height, BufferedImage.TYPE_INT_ARGB);
         Graphics2D g2d = (Graphics2D) buff.getGraphics();
         g2d.setColor(Color.BLACK);
         g2d.fillRect(0, 0, getSize().width, getSize().height);
         myScreen.paint(g2d);
+        myOverlay.paint(g2d);
         Graphics2D graphics = (Graphics2D) g;
         graphics.drawImage(buff, null, 0, 0);
+        myPhaseTimer.record(PAINT_PHASE, start);
     }
 
     /**
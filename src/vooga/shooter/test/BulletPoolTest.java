@@ -0,0 +1,178 @@
+package vooga.shooter.test;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.shooter.gameObjects.Bullet;
+import vooga.shooter.gameObjects.BulletPool;
+import vooga.shooter.gameObjects.Enemy;
+import vooga.shooter.gameObjects.Player;
+
+
+/**
+ * Checks that the lists of fired bullets give each bullet back to the pool
+ * exactly once, and that a bullet fired again keeps nothing of its last use.
+ *
+ */
+public class BulletPoolTest {
+
+    private static final String IMAGE = "vooga/shooter/images/alien.png";
+    private static final Dimension SIZE = new Dimension(20, 20);
+    private static final Dimension BOUNDS = new Dimension(400, 300);
+    private static final Dimension OTHER_BOUNDS = new Dimension(800, 600);
+    private static final int SHOTS = 6;
+
+    private BulletPool myPool;
+    private Shooter myShooter;
+    private int myInUse;
+
+    @Before
+    public void setUp () throws Exception {
+        myPool = BulletPool.getSharedPool();
+        myShooter = new Shooter(new Point(100, 100), BOUNDS);
+        myInUse = myPool.getInUse();
+        for (int i = 0; i < SHOTS; i++) {
+            myShooter.fireBullet();
+        }
+        Assert.assertEquals(myInUse + SHOTS, myPool.getInUse());
+    }
+
+    @Test
+    public void testRemoveReturnsBulletOnce () throws Exception {
+        List<Bullet> bullets = myShooter.getBulletsFired();
+        Bullet removed = bullets.remove(2);
+        Assert.assertEquals(SHOTS - 1, bullets.size());
+        Assert.assertNull(removed.getImage());
+        Assert.assertEquals(myInUse + SHOTS - 1, myPool.getInUse());
+        myPool.release(removed);
+        Assert.assertEquals(myInUse + SHOTS - 1, myPool.getInUse());
+        Assert.assertTrue(bullets.remove(bullets.get(0)));
+        Assert.assertEquals(myInUse + SHOTS - 2, myPool.getInUse());
+        assertReusedOnce(2);
+    }
+
+    @Test
+    public void testSetReturnsReplacedBulletOnce () throws Exception {
+        List<Bullet> bullets = myShooter.getBulletsFired();
+        Bullet kept = bullets.get(1);
+        Assert.assertSame(kept, bullets.set(1, kept));
+        Assert.assertEquals(myInUse + SHOTS, myPool.getInUse());
+        Assert.assertNotNull(kept.getImage());
+        Bullet replaced = bullets.set(1, bullets.get(0));
+        Assert.assertSame(kept, replaced);
+        Assert.assertNull(replaced.getImage());
+        Assert.assertEquals(myInUse + SHOTS - 1, myPool.getInUse());
+        assertReusedOnce(1);
+    }
+
+    @Test
+    public void testClearReturnsEveryBulletOnce () throws Exception {
+        List<Bullet> bullets = new ArrayList<Bullet>(myShooter.getBulletsFired());
+        myShooter.getBulletsFired().clear();
+        Assert.assertTrue(myShooter.getBulletsFired().isEmpty());
+        Assert.assertEquals(myInUse, myPool.getInUse());
+        myShooter.getBulletsFired().clear();
+        for (Bullet b : bullets) {
+            myPool.release(b);
+        }
+        Assert.assertEquals(myInUse, myPool.getInUse());
+        assertReusedOnce(SHOTS);
+    }
+
+    @Test
+    public void testDyingReturnsEveryBulletOnce () throws Exception {
+        myShooter.die();
+        Assert.assertEquals(myInUse, myPool.getInUse());
+        myShooter.die();
+        Assert.assertEquals(myInUse, myPool.getInUse());
+        assertReusedOnce(SHOTS);
+    }
+
+    @Test
+    public void testRemoveDeadReturnsOnlyDeadBulletsOnce () throws Exception {
+        List<Bullet> bullets = myShooter.getBulletsFired();
+        List<Bullet> dead = new ArrayList<Bullet>();
+        for (int i = 0; i < SHOTS; i += 2) {
+            bullets.get(i).die();
+            dead.add(bullets.get(i));
+        }
+        Assert.assertEquals(myInUse + SHOTS, myPool.getInUse());
+        myShooter.removeDead();
+        Assert.assertEquals(SHOTS - dead.size(), bullets.size());
+        for (Bullet b : bullets) {
+            Assert.assertNotNull(b.getImage());
+        }
+        Assert.assertEquals(myInUse + SHOTS - dead.size(), myPool.getInUse());
+        myShooter.removeDead();
+        for (Bullet b : dead) {
+            myPool.release(b);
+        }
+        Assert.assertEquals(myInUse + SHOTS - dead.size(), myPool.getInUse());
+        assertReusedOnce(dead.size());
+    }
+
+    @Test
+    public void testReusedBulletKeepsNoOldState () throws Exception {
+        List<Bullet> bullets = myShooter.getBulletsFired();
+        Bullet old = bullets.get(SHOTS - 1);
+        old.setVelocity(5, 9);
+        old.setPosition(new Point(3, 4));
+        old.update();
+        bullets.clear();
+        Shooter other = new Shooter(new Point(50, 70), OTHER_BOUNDS);
+        other.fireBullet();
+        Bullet reused = other.getBulletsFired().get(0);
+        Assert.assertSame(old, reused);
+        Assert.assertSame(other, reused.getOwner());
+        Assert.assertNotNull(reused.getImage());
+        Assert.assertFalse(reused.isDead());
+        Assert.assertEquals(new Point(50, 70), reused.getPosition());
+        Assert.assertEquals(0, reused.getVelocity().x);
+        Assert.assertTrue(reused.getVelocity().y < 0);
+        Assert.assertEquals(OTHER_BOUNDS, reused.getBounds());
+        Assert.assertEquals(1, reused.getDamage());
+        Assert.assertTrue(reused.getBulletsFired().isEmpty());
+        other.die();
+    }
+
+    /**
+     * Fires as many bullets as were returned, plus one, and checks that each
+     * returned bullet comes back exactly once and only the extra one is new.
+     */
+    private void assertReusedOnce (int returned) {
+        int created = myPool.getCreated();
+        Player other = new Player(new Point(10, 10), SIZE, BOUNDS, IMAGE, new Point(0, 0), 1);
+        for (int i = 0; i <= returned; i++) {
+            other.fireBullet();
+        }
+        Map<Bullet, Boolean> distinct = new IdentityHashMap<Bullet, Boolean>();
+        for (Bullet b : other.getBulletsFired()) {
+            distinct.put(b, Boolean.TRUE);
+        }
+        Assert.assertEquals(returned + 1, distinct.size());
+        Assert.assertTrue(myPool.getCreated() <= created + 1);
+        Assert.assertTrue(Collections.disjoint(distinct.keySet(), myShooter.getBulletsFired()));
+        other.die();
+        myShooter.die();
+    }
+
+    /**
+     * An enemy whose dead bullets can be removed from outside.
+     */
+    private static class Shooter extends Enemy {
+        public Shooter (Point position, Dimension bounds) {
+            super(position, SIZE, bounds, IMAGE, new Point(0, 0), 1);
+        }
+
+        public void removeDead () {
+            removeDeadBullets();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package vooga.shooter.test;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+import vooga.shooter.gameObjects.Bullet;
+import vooga.shooter.gameObjects.Enemy;
+import vooga.shooter.gameObjects.Player;
+import vooga.shooter.gameObjects.Sprite;
+import vooga.shooter.gameplay.CollisionSystem;
+
+
+/**
+ * Checks that CollisionSystem reports the same collisions as testing every
+ * pair of sprites, and every bullet against every other sprite, the way the
+ * games did before it.
+ *
+ */
+public class CollisionSystemTest {
+
+    private static final String IMAGE = "vooga/shooter/images/alien.png";
+    private static final Dimension BOUNDS = new Dimension(2000, 2000);
+    private static final String ENEMY = "enemy";
+    private static final int SCENES = 30;
+    private static final long SEED = 308;
+
+    @Test
+    public void testSameCollisionsAsAllPairs () throws Exception {
+        Random random = new Random(SEED);
+        for (int scene = 0; scene < SCENES; scene++) {
+            List<Sprite> sprites = makeScene(random, 50 + scene * 15);
+            assertSameCollisions(sprites, false);
+            assertSameCollisions(sprites, true);
+        }
+    }
+
+    @Test
+    public void testObjectsOnCellBordersAndGridEdges () throws Exception {
+        int cell = CollisionSystem.DEFAULT_CELL_SIZE;
+        List<Sprite> sprites = new ArrayList<Sprite>();
+        // the first and last sprites set the edges of the grid
+        sprites.add(makeSprite(new Point(0, 0), new Dimension(20, 20), false));
+        sprites.add(makeSprite(new Point(5, 5), new Dimension(10, 10), true));
+        // spans the four cells around (cell, cell)
+        sprites.add(makeSprite(new Point(cell, cell), new Dimension(30, 30), true));
+        sprites.add(makeSprite(new Point(cell + 10, cell + 10), new Dimension(10, 10), false));
+        // touch but do not overlap across a cell border
+        sprites.add(makeSprite(new Point(2 * cell - 5, 20), new Dimension(10, 10), false));
+        sprites.add(makeSprite(new Point(2 * cell + 5, 20), new Dimension(10, 10), true));
+        // covers many cells, overlapping sprites far apart from each other
+        sprites.add(makeSprite(new Point(4 * cell, 4 * cell), new Dimension(6 * cell, 20), false));
+        sprites.add(makeSprite(new Point(cell + 20, 4 * cell), new Dimension(10, 10), true));
+        sprites.add(makeSprite(new Point(7 * cell - 5, 4 * cell), new Dimension(10, 10), true));
+        // share several cells, but must only be reported once
+        sprites.add(makeSprite(new Point(8 * cell, 2 * cell), new Dimension(3 * cell, 3 * cell),
+                               false));
+        sprites.add(makeSprite(new Point(8 * cell + 10, 2 * cell), new Dimension(3 * cell, cell),
+                               true));
+        Sprite last = makeSprite(new Point(10 * cell, 10 * cell), new Dimension(20, 20), true);
+        sprites.add(last);
+        sprites.add(makeSprite(new Point(10 * cell + 10, 10 * cell + 10), new Dimension(4, 4),
+                               false));
+        fire(sprites.get(0), new Point(cell, cell));
+        fire(sprites.get(2), new Point(0, 0));
+        fire(sprites.get(6), new Point(10 * cell + 9, 10 * cell + 9));
+        fire(last, new Point(7 * cell - 5, 4 * cell));
+        assertSameCollisions(sprites, false);
+        assertSameCollisions(sprites, true);
+    }
+
+    private List<Sprite> makeScene (Random random, int count) {
+        List<Sprite> sprites = new ArrayList<Sprite>();
+        int extent = (int) Math.sqrt(count) * 60;
+        for (int i = 0; i < count; i++) {
+            Point p = new Point(random.nextInt(extent), random.nextInt(extent));
+            Dimension size = new Dimension(4 + random.nextInt(80), 4 + random.nextInt(80));
+            Sprite s = makeSprite(p, size, random.nextInt(4) == 0);
+            for (int b = random.nextInt(4); b > 0; b--) {
+                fire(s, new Point(random.nextInt(extent), random.nextInt(extent)));
+            }
+            if (random.nextInt(10) == 0) {
+                s.die();
+            }
+            else if (!s.getBulletsFired().isEmpty() && random.nextInt(5) == 0) {
+                s.getBulletsFired().get(0).die();
+            }
+            sprites.add(s);
+        }
+        return sprites;
+    }
+
+    private Sprite makeSprite (Point position, Dimension size, boolean isPlayer) {
+        if (isPlayer) { return new InertPlayer(position, size); }
+        return new InertEnemy(position, size);
+    }
+
+    private void fire (Sprite s, Point position) {
+        s.fireBullet();
+        List<Bullet> bullets = s.getBulletsFired();
+        bullets.get(bullets.size() - 1).setPosition(position);
+    }
+
+    private void assertSameCollisions (List<Sprite> sprites, boolean ignoreEnemies) {
+        CollisionSystem system = new CollisionSystem();
+        if (ignoreEnemies) {
+            system.ignore(ENEMY, ENEMY);
+            system.ignoreBullets(ENEMY, ENEMY);
+        }
+        final Map<Sprite, Integer> ids = number(sprites);
+        final List<String> found = new ArrayList<String>();
+        system.setListener(new CollisionSystem.CollisionListener() {
+            @Override
+            public void collided (Sprite target, Sprite hitBy) {
+                found.add(ids.get(target) + " hit by " + ids.get(hitBy));
+            }
+        });
+        system.checkCollisions(sprites);
+        List<String> expected = allPairs(sprites, ids, ignoreEnemies);
+        Collections.sort(found);
+        Collections.sort(expected);
+        Assert.assertEquals(expected, found);
+    }
+
+    /**
+     * The pairs the games found by testing everything, less the pairs
+     * CollisionSystem skips by design.
+     */
+    private List<String> allPairs (List<Sprite> sprites, Map<Sprite, Integer> ids,
+                                   boolean ignoreEnemies) {
+        List<String> pairs = new ArrayList<String>();
+        for (Sprite a : sprites) {
+            for (Sprite b : sprites) {
+                if (a == b || a.getImage() == null || b.getImage() == null) {
+                    continue;
+                }
+                boolean bothEnemies = ENEMY.equals(a.getType()) && ENEMY.equals(b.getType());
+                if (!(ignoreEnemies && bothEnemies) && edges(a).intersects(edges(b))) {
+                    pairs.add(ids.get(a) + " hit by " + ids.get(b));
+                }
+                if (ignoreEnemies && bothEnemies) {
+                    continue;
+                }
+                for (Bullet bullet : b.getBulletsFired()) {
+                    if (bullet.getImage() != null && edges(bullet).intersects(edges(a))) {
+                        pairs.add(ids.get(a) + " hit by " + ids.get(bullet));
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static Rectangle edges (Sprite s) {
+        return new Rectangle(new Point(s.getLeft(), s.getTop()), s.getSize());
+    }
+
+    private static Map<Sprite, Integer> number (List<Sprite> sprites) {
+        Map<Sprite, Integer> ids = new IdentityHashMap<Sprite, Integer>();
+        for (Sprite s : sprites) {
+            ids.put(s, ids.size());
+            for (Bullet b : s.getBulletsFired()) {
+                ids.put(b, ids.size());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * An enemy that is not changed by being hit, so every collision in a
+     * frame is reported.
+     */
+    private static class InertEnemy extends Enemy {
+        public InertEnemy (Point position, Dimension size) {
+            super(position, size, BOUNDS, IMAGE, new Point(0, 0), 1);
+        }
+
+        @Override
+        public void doEvent (String key, Sprite s) {
+        }
+    }
+
+    /**
+     * A player that is not changed by being hit.
+     */
+    private static class InertPlayer extends Player {
+        public InertPlayer (Point position, Dimension size) {
+            super(position, size, BOUNDS, IMAGE, new Point(0, 0), 1);
+        }
+
+        @Override
+        public void doEvent (String key, Sprite s) {
+        }
+    }
+}
@@ -8,14 +8,18 @@ import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import util.input.core.KeyboardController;
 import vooga.turnbased.gamecore.GameManager;
+import vooga.turnbased.gamecore.graphutility.FlowField;
 import vooga.turnbased.gamecore.graphutility.MapModePathFinder;
+import vooga.turnbased.gamecore.graphutility.ObstacleGrid;
+import vooga.turnbased.gamecore.graphutility.PathPlanningService;
 import vooga.turnbased.gameobject.mapobject.MapObject;
+import vooga.turnbased.gameobject.mapobject.MapObstacleObject;
 import vooga.turnbased.gameobject.mapobject.MapPlayerObject;
+import vooga.turnbased.gameobject.mapobject.TileGrid;
+import vooga.turnbased.gameobject.mapobject.UpdateScheduler;
 import vooga.turnbased.gui.GamePane;
 import vooga.turnbased.gui.GameWindow;
 import vooga.turnbased.gui.InputAPI;
@@ -44,9 +48,18 @@ public class MapMode extends GameMode implements InputAPI {
      * A point 1 unit left in the X direction
      */
     public static final Point LEFT = new Point(-1, 0);
+    /**
+     * Farthest distance from the player, in steps, kept by the flow field
+     */
+    public static final int FLOW_FIELD_RADIUS = 32;
     private int myNumDisplayRows;
     private int myNumDisplayCols;
-    private HashMap<Point, List<MapObject>> myMapObjects;
+    private TileGrid myTiles;
+    private TileGrid.Cursor myUpdateCursor;
+    private TileGrid.Cursor myPaintCursor;
+    private UpdateScheduler myScheduler;
+    private final List<MapObject> myMovedObjects = new ArrayList<MapObject>();
+    private ObstacleGrid myObstacles;
     private MapPlayerObject myPlayer;
     private Dimension myMapSize;
 
@@ -55,7 +68,10 @@ public class MapMode extends GameMode implements InputAPI {
     private int myCurrentTileHeight;
     private Rectangle myCurrentCamera;
     private MapModePathFinder myPathFinder;
+    private PathPlanningService myPathPlanner;
+    private FlowField myFlowField;
     private Point myTopLeftCoord;
+    private Dimension myPaneSize;
 
     /**
      * Constructor of MapMode
@@ -94,10 +110,43 @@ public class MapMode extends GameMode implements InputAPI {
         setCameraSize(getGameManager().getCameraSize());
         setMapSize(getGameManager().getMapSize());
 
-        myMapObjects = new HashMap<Point, List<MapObject>>();
         @SuppressWarnings("unchecked")
         // the getGameObjects method has already taken care of correct casting
         List<MapObject> mapObjects = (List<MapObject>) getGameObjects();
+        placeMapObjects(mapObjects, playerID);
+        myPathFinder = new MapModePathFinder(this, myPlayer);
+        configureInputHandling();
+        update();
+    }
+
+    /**
+     * Sets up the map from the given objects and a fixed pane size instead of
+     * the level and window of the GameManager, without input handling, so
+     * MapMode can be run outside a game window (e.g. by benchmarks).
+     * 
+     * @param mapSize size of the map in tiles
+     * @param cameraSize number of tiles shown across and down
+     * @param paneSize size of the area the map is drawn on
+     * @param mapObjects objects on the map, including the player
+     * @param player the player
+     */
+    protected void setUpMap (Dimension mapSize, Dimension cameraSize, Dimension paneSize,
+                             List<MapObject> mapObjects, MapPlayerObject player) {
+        myPaneSize = paneSize;
+        setCameraSize(cameraSize);
+        setMapSize(mapSize);
+        placeMapObjects(mapObjects, player.getID());
+        myPathFinder = new MapModePathFinder(this, myPlayer);
+        update();
+    }
+
+    private void placeMapObjects (List<MapObject> mapObjects, int playerID) {
+        myTiles = new TileGrid(myMapSize);
+        myUpdateCursor = myTiles.newCursor();
+        myPaintCursor = myTiles.newCursor();
+        myScheduler = new UpdateScheduler();
+        myObstacles = new ObstacleGrid(myMapSize);
+        myFlowField = null;
         for (MapObject mapObject : mapObjects) {
             mapObject.setMapMode(this);
             addMapObject(mapObject.getLocation(), mapObject);
@@ -105,9 +154,6 @@ public class MapMode extends GameMode implements InputAPI {
                 setPlayer((MapPlayerObject) mapObject);
             }
         }
-        myPathFinder = new MapModePathFinder(this, myPlayer);
-        configureInputHandling();
-        update();
     }
 
     private void setCameraSize (Dimension d) {
@@ -132,14 +178,11 @@ public class MapMode extends GameMode implements InputAPI {
      *        MapObject to be added
      */
     public void addMapObject (Point p, MapObject s) {
-        if (myMapObjects.keySet().contains(p)) {
-            myMapObjects.get(p).add(s);
-        }
-        else {
-            ArrayList<MapObject> spriteList = new ArrayList<MapObject>();
-            spriteList.add(s);
-            myMapObjects.put(p, spriteList);
+        if (s instanceof MapObstacleObject) {
+            myObstacles.add(p);
         }
+        myTiles.add(p, s);
+        myScheduler.wake(s);
     }
 
     /**
@@ -150,7 +193,79 @@ public class MapMode extends GameMode implements InputAPI {
      */
     public void removeMapObject (MapObject mapObject) {
         if (mapObject == null) { return; }
-        myMapObjects.get(mapObject.getLocation()).remove(mapObject);
+        Point tile = myTiles.getTile(mapObject);
+        if (myTiles.remove(mapObject) && mapObject instanceof MapObstacleObject
+            && tile != null) {
+            myObstacles.remove(tile);
+        }
+        myScheduler.sleep(mapObject);
+    }
+
+    /**
+     * Has a MapObject on the map updated every tick, even out of view, until
+     * it can sleep again.
+     * 
+     * @param mapObject
+     *        MapObject that has changed.
+     */
+    public void wake (MapObject mapObject) {
+        if (myTiles != null && myTiles.contains(mapObject)) {
+            myScheduler.wake(mapObject);
+        }
+    }
+
+    /**
+     * move a MapObject to the tile of its current location
+     */
+    private void moveMapObject (MapObject mapObject) {
+        Point tile = myTiles.getTile(mapObject);
+        if (mapObject instanceof MapObstacleObject) {
+            if (tile != null) {
+                myObstacles.remove(tile);
+            }
+            myObstacles.add(mapObject.getLocation());
+        }
+        myTiles.move(mapObject, mapObject.getLocation());
+    }
+
+    /**
+     * Returns the tiles blocked by obstacles, kept up to date as obstacles
+     * are added, moved and removed.
+     * 
+     * @return the obstacle grid of the map
+     */
+    public ObstacleGrid getObstacleGrid () {
+        return myObstacles;
+    }
+
+    /**
+     * Returns the service that plans paths for the objects of this map off the
+     * game thread. Update submits the requests made while updating the
+     * objects and delivers the paths at the start of the next update.
+     * 
+     * @return the path planning service of the map
+     */
+    public PathPlanningService getPathPlanner () {
+        if (myPathPlanner == null) {
+            myPathPlanner = new PathPlanningService();
+        }
+        return myPathPlanner;
+    }
+
+    /**
+     * Returns the distances to the player from the tiles within
+     * FLOW_FIELD_RADIUS of it, which objects chasing the player can follow
+     * one step at a time. The field follows the player and the obstacles of
+     * the map.
+     * 
+     * @return the flow field towards the player
+     */
+    public FlowField getFlowField () {
+        if (myFlowField == null) {
+            myFlowField = new FlowField(myObstacles, FLOW_FIELD_RADIUS);
+            myFlowField.setTarget(myPlayer.getLocation());
+        }
+        return myFlowField;
     }
 
     /**
@@ -162,32 +277,23 @@ public class MapMode extends GameMode implements InputAPI {
     @Override
     public void paint (Graphics g) {
         paintMapBackgroung(g);
-        List<MapObject> visibleSprites = getSpritesWithinCamera();
-        for (MapObject s : visibleSprites) {
-            s.paint(g);
+        for (int i = myCurrentCamera.x; i < myCurrentCamera.getMaxX(); i++) {
+            for (int j = myCurrentCamera.y; j < myCurrentCamera.getMaxY(); j++) {
+                myPaintCursor.start(i, j);
+                for (MapObject s = myPaintCursor.next(); s != null; s = myPaintCursor.next()) {
+                    s.paint(g);
+                }
+            }
         }
         myPlayer.paint(g);
     }
 
     private void paintMapBackgroung (Graphics g) {
         Image background = GameWindow.importImage("TileBackground");
-        Dimension paneDim = getGameManager().getPaneDimension();
+        Dimension paneDim = getPaneDimension();
         g.drawImage(background, 0, 0, paneDim.width, paneDim.width, null);
     }
 
-    private List<MapObject> getSpritesWithinCamera () {
-        List<MapObject> visibleSprites = new ArrayList<MapObject>();
-        for (int i = myCurrentCamera.x; i < myCurrentCamera.getMaxX(); i++) {
-            for (int j = myCurrentCamera.y; j < myCurrentCamera.getMaxY(); j++) {
-                List<MapObject> spritesOnTile = getSpritesOnTile(i, j);
-                if (spritesOnTile != null) {
-                    visibleSprites.addAll(spritesOnTile);
-                }
-            }
-        }
-        return visibleSprites;
-    }
-
     @Override
     /**
      * update the map
@@ -195,10 +301,19 @@ public class MapMode extends GameMode implements InputAPI {
     public void update () {
         updateTileInfo();
         updateCameraPosition();
+        if (myPathPlanner != null) {
+            myPathPlanner.deliver();
+        }
+        if (myFlowField != null) {
+            myFlowField.setTarget(myPlayer.getLocation());
+        }
         if (myPathFinder != null) {
             myPathFinder.updatePath();
         }
         updateMapObjects();
+        if (myPathPlanner != null) {
+            myPathPlanner.submit(myObstacles);
+        }
     }
 
     /**
@@ -206,11 +321,16 @@ public class MapMode extends GameMode implements InputAPI {
      * resized
      */
     public void updateTileInfo () {
-        myCurrentTileWidth = getGameManager().getPaneDimension().width / myNumDisplayCols;
-        myCurrentTileHeight = getGameManager().getPaneDimension().height / myNumDisplayRows;
+        myCurrentTileWidth = getPaneDimension().width / myNumDisplayCols;
+        myCurrentTileHeight = getPaneDimension().height / myNumDisplayRows;
         myOrigin = initializeOrigin();
     }
 
+    private Dimension getPaneDimension () {
+        if (myPaneSize != null) { return myPaneSize; }
+        return getGameManager().getPaneDimension();
+    }
+
     /**
      * move the camera according to player's movement do not move when player
      * reaches the edge There are 2 rows and columns of margin for smooth
@@ -248,33 +368,62 @@ public class MapMode extends GameMode implements InputAPI {
     }
 
     /**
-     * iterate through the map and update MapObjects at each position
+     * update the MapObjects that need it: those within the camera, whose
+     * place on the screen changes as it moves, and those awake in the
+     * scheduler, such as objects in the middle of a movement. Objects that
+     * have nothing more to do are put to sleep.
+     * Objects that moved or disappeared are dealt with together afterwards:
+     * moved to the tile of their new location, or taken off the map if they
+     * are no longer visible or cannot be in this mode.
      */
-    private void updateMapObjects () {
-        HashMap<Point, MapObject> movedObjects = new HashMap<Point, MapObject>();
-        for (Point p : myMapObjects.keySet()) {
-            List<MapObject> objectsOnTile = getSpritesOnTile(p.x, p.y);
-            Iterator<MapObject> it = objectsOnTile.iterator();
-            while (it.hasNext()) {
-                MapObject currentObject = it.next();
-                Point startPos = currentObject.getLocation();
-                currentObject.update();
-                Point endPos = currentObject.getLocation();
-                if (!endPos.equals(startPos)) {
-                    movedObjects.put(startPos, currentObject);
-                }
-                if (!currentObject.isVisible()) {
-                    it.remove();
+    protected void updateMapObjects () {
+        myTiles.startPass();
+        int awake = myScheduler.startPass();
+        for (int i = myCurrentCamera.x; i < myCurrentCamera.getMaxX(); i++) {
+            for (int j = myCurrentCamera.y; j < myCurrentCamera.getMaxY(); j++) {
+                myUpdateCursor.start(i, j);
+                for (MapObject m = myUpdateCursor.next(); m != null; m = myUpdateCursor.next()) {
+                    updateMapObject(m);
                 }
             }
         }
-        for (Point startPos : movedObjects.keySet()) {
-            MapObject currentObject = movedObjects.get(startPos);
-            myMapObjects.get(startPos).remove(currentObject);
-            if (currentObject.getAllowableModes().contains(getName())) {
-                myMapObjects.get(currentObject.getLocation()).add(currentObject);
+        for (int k = 0; k < awake; k++) {
+            updateMapObject(myScheduler.getAwake(k));
+        }
+        applyMoves();
+    }
+
+    private void updateMapObject (MapObject currentObject) {
+        if (!myTiles.markVisited(currentObject)) { return; }
+        if (!myTiles.contains(currentObject)) {
+            myScheduler.sleep(currentObject);
+            return;
+        }
+        currentObject.update();
+        if (!currentObject.isVisible()
+            || !myTiles.isOnTile(currentObject, currentObject.getLocation())) {
+            myMovedObjects.add(currentObject);
+        }
+        else if (currentObject.canSleep()) {
+            myScheduler.sleep(currentObject);
+        }
+    }
+
+    private void applyMoves () {
+        for (int i = 0; i < myMovedObjects.size(); i++) {
+            MapObject currentObject = myMovedObjects.get(i);
+            if (!currentObject.isVisible()
+                || !currentObject.getAllowableModes().contains(getName())) {
+                removeMapObject(currentObject);
+            }
+            else {
+                moveMapObject(currentObject);
+                if (currentObject.canSleep()) {
+                    myScheduler.sleep(currentObject);
+                }
             }
         }
+        myMovedObjects.clear();
     }
 
     /**
@@ -317,8 +466,7 @@ public class MapMode extends GameMode implements InputAPI {
      *         found
      */
     public List<MapObject> getSpritesOnTile (int i, int j) {
-        if (myMapObjects.containsKey(new Point(i, j))) { return myMapObjects.get(new Point(i, j)); }
-        return new ArrayList<MapObject>();
+        return myTiles.getObjects(i, j);
     }
 
     /**
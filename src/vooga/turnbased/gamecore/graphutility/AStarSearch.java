@@ -0,0 +1,312 @@
+package vooga.turnbased.gamecore.graphutility;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A* search between 2 points of a grid, guided by the Manhattan distance to
+ * the end point, or by the octile distance when diagonal steps are allowed.
+ * <p>
+ * Unlike BreadthFirstSearch, one instance is meant to be kept and used for
+ * many searches on the same grid: its per-tile arrays are allocated once,
+ * and instead of clearing them, each search stamps the tiles it touches with
+ * its own generation number. Blocked tiles are read from an ObstacleGrid
+ * where there is one, so nothing needs marking before a search; tiles marked
+ * with markVisited are blocked for the next search only.
+ *
+ */
+public class AStarSearch extends PathSearch {
+
+    private static final int STRAIGHT_COST = 10;
+    private static final int DIAGONAL_COST = 14;
+    private static final int DIAGONAL_SAVING = 2 * STRAIGHT_COST - DIAGONAL_COST;
+    // down, left, up, right as in BreadthFirstSearch, then the diagonals
+    private static final int[] STEP_X = { 0, -1, 0, 1, -1, 1, -1, 1 };
+    private static final int[] STEP_Y = { 1, 0, -1, 0, 1, 1, -1, -1 };
+    private static final int STRAIGHT_STEPS = 4;
+    private static final int INITIAL_HEAP_SIZE = 256;
+
+    private final int myWidth;
+    private final int myHeight;
+    private ObstacleGrid myObstacles;
+    private final boolean myAllowsDiagonal;
+    // generation in which a tile was last given a cost, or closed
+    private final int[] myOpened;
+    private final int[] myClosed;
+    private final int[] myCost;
+    private final int[] myParent;
+    private int myGeneration = 1;
+
+    // binary heap of open tiles, ordered by estimated path length
+    private int[] myHeapTiles = new int[INITIAL_HEAP_SIZE];
+    private int[] myHeapEstimates = new int[INITIAL_HEAP_SIZE];
+    private int[] myHeapCosts = new int[INITIAL_HEAP_SIZE];
+    private int myHeapSize;
+
+    /**
+     * constructor of an A* search that moves like BreadthFirstSearch, with
+     * obstacles marked by markVisited
+     *
+     * @param start Starting point
+     * @param end Ending point
+     * @param size Size of the table
+     */
+    public AStarSearch (Point start, Point end, Dimension size) {
+        this(start, end, size, null, false);
+    }
+
+    /**
+     * constructor of a reusable A* search; give the end point to each search
+     * with findPath(start, end)
+     *
+     * @param size Size of the table
+     * @param obstacles blocked tiles, or null if there are none
+     * @param allowsDiagonal whether paths may step diagonally, between 2
+     *        free tiles
+     */
+    public AStarSearch (Dimension size, ObstacleGrid obstacles, boolean allowsDiagonal) {
+        this(null, null, size, obstacles, allowsDiagonal);
+    }
+
+    private AStarSearch (Point start, Point end, Dimension size, ObstacleGrid obstacles,
+                         boolean allowsDiagonal) {
+        super(start, end, size);
+        myWidth = size.width;
+        myHeight = size.height;
+        myObstacles = obstacles;
+        myAllowsDiagonal = allowsDiagonal;
+        int tiles = myWidth * myHeight;
+        myOpened = new int[tiles];
+        myClosed = new int[tiles];
+        myCost = new int[tiles];
+        myParent = new int[tiles];
+    }
+
+    /**
+     * search a different grid of obstacles of the same size from the next
+     * search on
+     *
+     * @param obstacles blocked tiles, or null if there are none
+     */
+    public void setObstacles (ObstacleGrid obstacles) {
+        myObstacles = obstacles;
+    }
+
+    /**
+     * @return true if this search is for tables of the given size
+     */
+    public boolean hasSize (int width, int height) {
+        return myWidth == width && myHeight == height;
+    }
+
+    /**
+     * find a path between 2 points
+     *
+     * @param start The starting point
+     * @param end The ending point
+     * @return If a path could be found
+     */
+    public boolean findPath (Point start, Point end) {
+        setEnd(end);
+        return findPath(start);
+    }
+
+    /**
+     * find path using A* search
+     *
+     * @return If a path could be found
+     * @param start The point where the search begins from
+     */
+    @Override
+    public boolean findPath (Point start) {
+        setStart(start);
+        List<Point> path = new ArrayList<Point>();
+        setPath(path);
+        int first = start.y * myWidth + start.x;
+        int goal = getEnd().y * myWidth + getEnd().x;
+        boolean found = isOnTable(start.x, start.y) && isFree(getEnd().x, getEnd().y)
+                && search(first, goal);
+        if (found) {
+            for (int tile = goal; tile != first; tile = myParent[tile]) {
+                path.add(new Point(tile % myWidth, tile / myWidth));
+            }
+            Collections.reverse(path);
+        }
+        startNextGeneration();
+        return found;
+    }
+
+    private boolean search (int first, int goal) {
+        int goalX = goal % myWidth;
+        int goalY = goal / myWidth;
+        int steps = myAllowsDiagonal ? STEP_X.length : STRAIGHT_STEPS;
+        myHeapSize = 0;
+        open(first, first, 0, goalX, goalY);
+        while (myHeapSize > 0) {
+            int tile = myHeapTiles[0];
+            removeHeapTop();
+            if (myClosed[tile] == myGeneration) {
+                continue;
+            }
+            myClosed[tile] = myGeneration;
+            if (tile == goal) { return true; }
+            int x = tile % myWidth;
+            int y = tile / myWidth;
+            for (int i = 0; i < steps; i++) {
+                int nextX = x + STEP_X[i];
+                int nextY = y + STEP_Y[i];
+                if (!isFree(nextX, nextY)) {
+                    continue;
+                }
+                int stepCost = STRAIGHT_COST;
+                if (i >= STRAIGHT_STEPS) {
+                    // no cutting corners past a blocked tile; tiles already
+                    // closed in this search may still be cut past
+                    if (!isPassable(nextX, y) || !isPassable(x, nextY)) {
+                        continue;
+                    }
+                    stepCost = DIAGONAL_COST;
+                }
+                int next = nextY * myWidth + nextX;
+                int cost = myCost[tile] + stepCost;
+                if (myOpened[next] != myGeneration || cost < myCost[next]) {
+                    open(next, tile, cost, goalX, goalY);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void open (int tile, int parent, int cost, int goalX, int goalY) {
+        myOpened[tile] = myGeneration;
+        myCost[tile] = cost;
+        myParent[tile] = parent;
+        int dx = Math.abs(tile % myWidth - goalX);
+        int dy = Math.abs(tile / myWidth - goalY);
+        int estimate = STRAIGHT_COST * (dx + dy);
+        if (myAllowsDiagonal) {
+            estimate -= DIAGONAL_SAVING * Math.min(dx, dy);
+        }
+        addToHeap(tile, cost + estimate, cost);
+    }
+
+    /**
+     * whether a tile can be stepped on in the current search
+     */
+    private boolean isFree (int x, int y) {
+        return isPassable(x, y) && myClosed[y * myWidth + x] != myGeneration;
+    }
+
+    /**
+     * whether a tile is on the table and not an obstacle
+     */
+    private boolean isPassable (int x, int y) {
+        return isOnTable(x, y) && (myObstacles == null || !myObstacles.isBlocked(x, y));
+    }
+
+    private boolean isOnTable (int x, int y) {
+        return x >= 0 && y >= 0 && x < myWidth && y < myHeight;
+    }
+
+    /**
+     * move on to a new generation, which forgets what the last search
+     * stamped on the tiles
+     */
+    private void startNextGeneration () {
+        myGeneration++;
+        if (myGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(myOpened, 0);
+            Arrays.fill(myClosed, 0);
+            myGeneration = 1;
+        }
+    }
+
+    /**
+     * mark a tile as blocked for the next search
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     */
+    @Override
+    protected void markVisited (int x, int y) {
+        myClosed[y * myWidth + x] = myGeneration;
+    }
+
+    @Override
+    public boolean checkVisited (int x, int y) {
+        if (myClosed[y * myWidth + x] == myGeneration) { return true; }
+        markVisited(x, y);
+        return false;
+    }
+
+    /**
+     * whether an entry of the heap should come out before another: the one
+     * with the shorter estimate, or on a tie the one further along its path
+     */
+    private boolean isBefore (int a, int b) {
+        if (myHeapEstimates[a] != myHeapEstimates[b]) {
+            return myHeapEstimates[a] < myHeapEstimates[b];
+        }
+        return myHeapCosts[a] > myHeapCosts[b];
+    }
+
+    private void addToHeap (int tile, int estimate, int cost) {
+        if (myHeapSize == myHeapTiles.length) {
+            int size = 2 * myHeapSize;
+            myHeapTiles = Arrays.copyOf(myHeapTiles, size);
+            myHeapEstimates = Arrays.copyOf(myHeapEstimates, size);
+            myHeapCosts = Arrays.copyOf(myHeapCosts, size);
+        }
+        int child = myHeapSize++;
+        setHeapEntry(child, tile, estimate, cost);
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (!isBefore(child, parent)) {
+                break;
+            }
+            swapHeapEntries(child, parent);
+            child = parent;
+        }
+    }
+
+    private void removeHeapTop () {
+        myHeapSize--;
+        if (myHeapSize == 0) { return; }
+        setHeapEntry(0, myHeapTiles[myHeapSize], myHeapEstimates[myHeapSize],
+                     myHeapCosts[myHeapSize]);
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= myHeapSize) {
+                break;
+            }
+            if (child + 1 < myHeapSize && isBefore(child + 1, child)) {
+                child++;
+            }
+            if (!isBefore(child, parent)) {
+                break;
+            }
+            swapHeapEntries(child, parent);
+            parent = child;
+        }
+    }
+
+    private void setHeapEntry (int i, int tile, int estimate, int cost) {
+        myHeapTiles[i] = tile;
+        myHeapEstimates[i] = estimate;
+        myHeapCosts[i] = cost;
+    }
+
+    private void swapHeapEntries (int i, int j) {
+        int tile = myHeapTiles[i];
+        int estimate = myHeapEstimates[i];
+        int cost = myHeapCosts[i];
+        setHeapEntry(i, myHeapTiles[j], myHeapEstimates[j], myHeapCosts[j]);
+        setHeapEntry(j, tile, estimate, cost);
+    }
+}
@@ -0,0 +1,129 @@
+package vooga.turnbased.gamecore.graphutility;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * The length of the shortest path from every tile of a grid to one target
+ * tile, found by a single breadth first search outwards from the target
+ * (the reverse of the searches from each start, which on a grid where every
+ * step costs the same is Dijkstra's algorithm). Any number of objects
+ * heading for the target can then follow it downhill, with no search of
+ * their own.
+ * <p>
+ * A DistanceField does not change once made, so it can be shared between
+ * threads; it should be made from a snapshot of an ObstacleGrid.
+ *
+ */
+public class DistanceField {
+
+    /**
+     * Distance of tiles from which the target cannot be reached.
+     */
+    public static final int UNREACHABLE = -1;
+    // down, left, up, right as in BreadthFirstSearch
+    private static final int[] STEP_X = { 0, -1, 0, 1 };
+    private static final int[] STEP_Y = { 1, 0, -1, 0 };
+
+    private final int myWidth;
+    private final int myHeight;
+    private final Point myTarget;
+    private final int[] myDistances;
+
+    /**
+     * constructor
+     *
+     * @param obstacles blocked tiles
+     * @param target the tile to measure distances to
+     */
+    public DistanceField (ObstacleGrid obstacles, Point target) {
+        myWidth = obstacles.getWidth();
+        myHeight = obstacles.getHeight();
+        myTarget = new Point(target);
+        myDistances = new int[myWidth * myHeight];
+        Arrays.fill(myDistances, UNREACHABLE);
+        if (obstacles.contains(target.x, target.y) && !obstacles.isBlocked(target.x, target.y)) {
+            search(obstacles);
+        }
+    }
+
+    private void search (ObstacleGrid obstacles) {
+        int[] queue = new int[myDistances.length];
+        int head = 0;
+        int tail = 0;
+        int first = myTarget.y * myWidth + myTarget.x;
+        myDistances[first] = 0;
+        queue[tail++] = first;
+        while (head < tail) {
+            int tile = queue[head++];
+            int x = tile % myWidth;
+            int y = tile / myWidth;
+            int distance = myDistances[tile] + 1;
+            for (int i = 0; i < STEP_X.length; i++) {
+                int nextX = x + STEP_X[i];
+                int nextY = y + STEP_Y[i];
+                if (!obstacles.contains(nextX, nextY) || obstacles.isBlocked(nextX, nextY)) {
+                    continue;
+                }
+                int next = nextY * myWidth + nextX;
+                if (myDistances[next] == UNREACHABLE) {
+                    myDistances[next] = distance;
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    public Point getTarget () {
+        return new Point(myTarget);
+    }
+
+    /**
+     * get the number of steps from a tile to the target
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return the number of steps, or UNREACHABLE
+     */
+    public int getDistance (int x, int y) {
+        if (x < 0 || y < 0 || x >= myWidth || y >= myHeight) { return UNREACHABLE; }
+        return myDistances[y * myWidth + x];
+    }
+
+    /**
+     * get the first step from a tile towards the target
+     *
+     * @param from the tile
+     * @return the next tile on a shortest path, or null if the tile is the
+     *         target or the target cannot be reached from it
+     */
+    public Point getNextStep (Point from) {
+        int distance = getDistance(from.x, from.y);
+        if (distance <= 0) { return null; }
+        for (int i = 0; i < STEP_X.length; i++) {
+            int x = from.x + STEP_X[i];
+            int y = from.y + STEP_Y[i];
+            if (getDistance(x, y) == distance - 1) { return new Point(x, y); }
+        }
+        return null;
+    }
+
+    /**
+     * get a shortest path from a tile to the target
+     *
+     * @param start the tile
+     * @return list of Points that traces the path, not including the start;
+     *         empty list if there is no path
+     */
+    public List<Point> getPath (Point start) {
+        int distance = getDistance(start.x, start.y);
+        List<Point> path = new ArrayList<Point>(Math.max(distance, 0));
+        for (Point p = getNextStep(start); p != null; p = getNextStep(p)) {
+            path.add(p);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,194 @@
+package vooga.turnbased.gamecore.graphutility;
+
+import java.awt.Point;
+import java.util.Arrays;
+
+
+/**
+ * Distances to a moving target, such as the player, over the tiles within a
+ * radius of it, for any number of objects to follow. Unlike a DistanceField
+ * it is kept for the life of the map: moving the target, or an obstacle
+ * changing within the radius, marks it stale, and the next read redoes a
+ * breadth first search bounded by the radius. Obstacles changing farther
+ * away are ignored, as no path within the radius can pass them.
+ * <p>
+ * Each tile reached also stores its first step towards the target, so
+ * getNextStep is a single lookup. Tiles beyond the radius read as
+ * UNREACHABLE; objects that far away need a PathFinder of their own.
+ * <p>
+ * A FlowField is not thread safe; it should be used on the game thread.
+ *
+ */
+public class FlowField implements ObstacleListener {
+
+    /**
+     * Distance of tiles from which the target cannot be reached within the
+     * radius.
+     */
+    public static final int UNREACHABLE = DistanceField.UNREACHABLE;
+    // down, left, up, right as in BreadthFirstSearch
+    private static final int[] STEP_X = { 0, -1, 0, 1 };
+    private static final int[] STEP_Y = { 1, 0, -1, 0 };
+    // index of the opposite of each step, which leads back to the target
+    private static final byte[] REVERSE_STEP = { 2, 3, 0, 1 };
+
+    private final ObstacleGrid myObstacles;
+    private final int myRadius;
+    private final int myWidth;
+    private final int myHeight;
+    // generation of the search in which a tile was last reached
+    private final int[] myReached;
+    private final int[] myDistances;
+    private final byte[] mySteps;
+    private final int[] myQueue;
+    private int myGeneration = 1;
+    private final Point myTarget = new Point(-1, -1);
+    private boolean myIsStale;
+    private int mySearchCount;
+
+    /**
+     * constructor; the field listens to the obstacles until detached
+     *
+     * @param obstacles blocked tiles
+     * @param radius the farthest distance from the target kept, in steps
+     */
+    public FlowField (ObstacleGrid obstacles, int radius) {
+        if (radius < 0) { throw new IllegalArgumentException("negative radius: " + radius); }
+        myObstacles = obstacles;
+        myRadius = radius;
+        myWidth = obstacles.getWidth();
+        myHeight = obstacles.getHeight();
+        int tiles = myWidth * myHeight;
+        myReached = new int[tiles];
+        myDistances = new int[tiles];
+        mySteps = new byte[tiles];
+        // a diamond of the radius holds 2r(r+1)+1 tiles
+        long diamond = 2L * radius * (radius + 1) + 1;
+        myQueue = new int[(int) Math.min(diamond, tiles)];
+        myObstacles.addListener(this);
+    }
+
+    /**
+     * stop listening to the obstacles, once the field is no longer used
+     */
+    public void detach () {
+        myObstacles.removeListener(this);
+    }
+
+    /**
+     * move the target; the distances are searched again when next read
+     *
+     * @param target the tile to measure distances to
+     */
+    public void setTarget (Point target) {
+        if (!myTarget.equals(target)) {
+            myTarget.setLocation(target);
+            myIsStale = true;
+        }
+    }
+
+    public Point getTarget () {
+        return new Point(myTarget);
+    }
+
+    public int getRadius () {
+        return myRadius;
+    }
+
+    /**
+     * @return how many times the distances have been searched, for measuring
+     */
+    public int getSearchCount () {
+        return mySearchCount;
+    }
+
+    @Override
+    public void obstacleChanged (int x, int y) {
+        if (Math.abs(x - myTarget.x) + Math.abs(y - myTarget.y) <= myRadius) {
+            myIsStale = true;
+        }
+    }
+
+    /**
+     * get the number of steps from a tile to the target
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return the number of steps, or UNREACHABLE
+     */
+    public int getDistance (int x, int y) {
+        if (!myObstacles.contains(x, y)) { return UNREACHABLE; }
+        update();
+        int tile = y * myWidth + x;
+        return myReached[tile] == myGeneration ? myDistances[tile] : UNREACHABLE;
+    }
+
+    /**
+     * get the first step from a tile towards the target
+     *
+     * @param from the tile
+     * @return the next tile on a shortest path, or null if the tile is the
+     *         target or the target cannot be reached from it within the radius
+     */
+    public Point getNextStep (Point from) {
+        int distance = getDistance(from.x, from.y);
+        if (distance <= 0) { return null; }
+        int step = mySteps[from.y * myWidth + from.x];
+        return new Point(from.x + STEP_X[step], from.y + STEP_Y[step]);
+    }
+
+    /**
+     * search the distances again if the target or an obstacle near it has
+     * changed since the last search
+     */
+    public void update () {
+        if (!myIsStale) { return; }
+        myIsStale = false;
+        startNextGeneration();
+        mySearchCount++;
+        if (myObstacles.contains(myTarget.x, myTarget.y)
+            && !myObstacles.isBlocked(myTarget.x, myTarget.y)) {
+            search();
+        }
+    }
+
+    private void search () {
+        int head = 0;
+        int tail = 0;
+        int first = myTarget.y * myWidth + myTarget.x;
+        myReached[first] = myGeneration;
+        myDistances[first] = 0;
+        myQueue[tail++] = first;
+        while (head < tail) {
+            int tile = myQueue[head++];
+            int distance = myDistances[tile] + 1;
+            if (distance > myRadius) {
+                continue;
+            }
+            int x = tile % myWidth;
+            int y = tile / myWidth;
+            for (int i = 0; i < STEP_X.length; i++) {
+                int nextX = x + STEP_X[i];
+                int nextY = y + STEP_Y[i];
+                if (!myObstacles.contains(nextX, nextY) || myObstacles.isBlocked(nextX, nextY)) {
+                    continue;
+                }
+                int next = nextY * myWidth + nextX;
+                if (myReached[next] != myGeneration) {
+                    myReached[next] = myGeneration;
+                    myDistances[next] = distance;
+                    mySteps[next] = REVERSE_STEP[i];
+                    myQueue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    private void startNextGeneration () {
+        myGeneration++;
+        if (myGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(myReached, 0);
+            myGeneration = 1;
+        }
+    }
+}
@@ -4,12 +4,12 @@ import java.awt.Dimension;
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.TreeSet;
 import vooga.turnbased.gamecore.gamemodes.MapMode;
 import vooga.turnbased.gameobject.mapobject.MapItemObject;
 import vooga.turnbased.gameobject.mapobject.MapObject;
-import vooga.turnbased.gameobject.mapobject.MapObstacleObject;
 import vooga.turnbased.gameobject.mapobject.MapMovingObject;
 import vooga.turnbased.gui.GameWindow;
 
@@ -24,11 +24,14 @@ import vooga.turnbased.gui.GameWindow;
  * 
  * @author Rex Ying
  */
-public class MapModePathFinder extends PathFinder {
+public class MapModePathFinder extends PathFinder implements PathListener {
 
     private List<MapObject> myHighlightObjects;
     private MapMode myMap;
     private MapMovingObject myMovingObject;
+    private AStarSearch mySearch;
+    private ObstacleGrid mySearchObstacles;
+    private final List<PathRequest> myPendingRequests = new LinkedList<PathRequest>();
 
     // for execution of walking along the path
 
@@ -43,7 +46,7 @@ public class MapModePathFinder extends PathFinder {
     public MapModePathFinder (MapMode map, MapMovingObject object, Point target, Dimension size) {
         super(object.getLocation(), target, new Dimension(size));
         initialize(map, object);
-        setPathSearch(new BreadthFirstSearch(getStart(), getEnd(), getSize()));
+        setPathSearch(new AStarSearch(getStart(), getEnd(), getSize()));
     }
 
     /**
@@ -71,14 +74,60 @@ public class MapModePathFinder extends PathFinder {
         myMovingObject = object;
     }
 
+    /**
+     * search with an AStarSearch kept between tasks, reading obstacles from
+     * the obstacle grid of the map instead of checking every tile
+     */
+    @Override
+    protected List<Point> searchPath () {
+        ObstacleGrid obstacles = myMap.getObstacleGrid();
+        if (mySearch == null || mySearchObstacles != obstacles) {
+            mySearch = new AStarSearch(getSize(), obstacles, false);
+            mySearchObstacles = obstacles;
+        }
+        setPathSearch(mySearch);
+        mySearch.findPath(getStart(), getEnd());
+        return mySearch.getPath();
+    }
+
+    /**
+     * execute the search on a path planning service instead of at once; the
+     * object starts along the path when the service delivers it. In
+     * multi-destination mode every leg asked for is added in turn;
+     * otherwise only the path of the latest search is taken.
+     * 
+     * @param planner the service that plans the path
+     */
+    public void executeSearch (PathPlanningService planner) {
+        if (getSize() == null) { return; }
+        if (!isMultiDestination()) {
+            myPendingRequests.clear();
+        }
+        myPendingRequests.add(planner.request(getStart(), getEnd(), this));
+    }
+
+    @Override
+    public void executeSearch () {
+        if (!isMultiDestination()) {
+            myPendingRequests.clear();
+        }
+        super.executeSearch();
+    }
+
+    @Override
+    public void pathPlanned (PathRequest request) {
+        if (myPendingRequests.remove(request)) {
+            acceptPath(request.getPath());
+        }
+    }
+
     @Override
     protected void checkObstacles () {
+        ObstacleGrid obstacles = myMap.getObstacleGrid();
         for (int i = 0; i < getSize().width; i++) {
             for (int j = 0; j < getSize().height; j++) {
-                for (MapObject m : myMap.getSpritesOnTile(i, j)) {
-                    if (m instanceof MapObstacleObject) {
-                        getPathSearch().markVisited(i, j);
-                    }
+                if (obstacles.isBlocked(i, j)) {
+                    getPathSearch().markVisited(i, j);
                 }
             }
         }
@@ -94,6 +143,9 @@ public class MapModePathFinder extends PathFinder {
     public void addTask (MapMovingObject object, Point target, Dimension mapSize) {
         super.addTask(object.getLocation(), target, new Dimension(mapSize));
         initialize(myMap, object);
+        if (!isMultiDestination()) {
+            myPendingRequests.clear();
+        }
     }
 
     @Override
@@ -0,0 +1,158 @@
+package vooga.turnbased.gamecore.graphutility;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Which tiles of a grid are blocked, kept up to date as obstacles are added,
+ * removed and moved rather than worked out again for every path search.
+ * A tile stays blocked until every obstacle added to it has been removed.
+ * Tiles outside the grid are ignored.
+ * <p>
+ * A snapshot is a frozen copy that searches on other threads can read while
+ * the grid itself keeps changing. Listeners are told whenever a tile turns
+ * from free to blocked or back.
+ *
+ */
+public class ObstacleGrid {
+
+    private final int myWidth;
+    private final int myHeight;
+    private final int[] myObstacleCounts;
+    private final boolean myIsFrozen;
+    private ObstacleGrid mySnapshot;
+    private final List<ObstacleListener> myListeners = new ArrayList<ObstacleListener>();
+
+    /**
+     * constructor
+     *
+     * @param size size of the grid
+     */
+    public ObstacleGrid (Dimension size) {
+        myWidth = size.width;
+        myHeight = size.height;
+        myObstacleCounts = new int[myWidth * myHeight];
+        myIsFrozen = false;
+    }
+
+    private ObstacleGrid (ObstacleGrid original) {
+        myWidth = original.myWidth;
+        myHeight = original.myHeight;
+        myObstacleCounts = original.myObstacleCounts.clone();
+        myIsFrozen = true;
+        mySnapshot = this;
+    }
+
+    /**
+     * get a copy of the grid as it is now, which cannot be changed; the same
+     * copy is returned until the grid changes
+     *
+     * @return the snapshot
+     */
+    public ObstacleGrid snapshot () {
+        if (mySnapshot == null) {
+            mySnapshot = new ObstacleGrid(this);
+        }
+        return mySnapshot;
+    }
+
+    private void checkNotFrozen () {
+        if (myIsFrozen) { throw new UnsupportedOperationException("obstacle snapshot"); }
+        mySnapshot = null;
+    }
+
+    /**
+     * tell a listener whenever a tile of this grid changes
+     *
+     * @param listener the listener
+     */
+    public void addListener (ObstacleListener listener) {
+        checkNotFrozen();
+        myListeners.add(listener);
+    }
+
+    /**
+     * stop telling a listener about changes
+     *
+     * @param listener the listener
+     */
+    public void removeListener (ObstacleListener listener) {
+        myListeners.remove(listener);
+    }
+
+    private void notifyListeners (int x, int y) {
+        for (int i = 0; i < myListeners.size(); i++) {
+            myListeners.get(i).obstacleChanged(x, y);
+        }
+    }
+
+    /**
+     * add an obstacle on a tile
+     *
+     * @param p the tile
+     */
+    public void add (Point p) {
+        checkNotFrozen();
+        if (contains(p.x, p.y) && myObstacleCounts[p.y * myWidth + p.x]++ == 0) {
+            notifyListeners(p.x, p.y);
+        }
+    }
+
+    /**
+     * remove an obstacle added on a tile
+     *
+     * @param p the tile
+     */
+    public void remove (Point p) {
+        checkNotFrozen();
+        if (contains(p.x, p.y) && myObstacleCounts[p.y * myWidth + p.x] > 0
+            && --myObstacleCounts[p.y * myWidth + p.x] == 0) {
+            notifyListeners(p.x, p.y);
+        }
+    }
+
+    /**
+     * move an obstacle from one tile to another
+     *
+     * @param from the tile it was on
+     * @param to the tile it is now on
+     */
+    public void move (Point from, Point to) {
+        remove(from);
+        add(to);
+    }
+
+    /**
+     * whether a tile has an obstacle on it
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return true if the tile is blocked; false if it is free or not on the
+     *         grid
+     */
+    public boolean isBlocked (int x, int y) {
+        return contains(x, y) && myObstacleCounts[y * myWidth + x] > 0;
+    }
+
+    /**
+     * whether a tile is on the grid
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return true if the tile is on the grid
+     */
+    public boolean contains (int x, int y) {
+        return x >= 0 && y >= 0 && x < myWidth && y < myHeight;
+    }
+
+    public int getWidth () {
+        return myWidth;
+    }
+
+    public int getHeight () {
+        return myHeight;
+    }
+}
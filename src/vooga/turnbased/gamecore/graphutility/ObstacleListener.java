@@ -0,0 +1,16 @@
+package vooga.turnbased.gamecore.graphutility;
+
+/**
+ * Told when a tile of an ObstacleGrid becomes blocked or free.
+ *
+ */
+public interface ObstacleListener {
+
+    /**
+     * Called after the tile has changed.
+     *
+     * @param x x-coordinate of the tile
+     * @param y y-coordinate of the tile
+     */
+    public void obstacleChanged (int x, int y);
+}
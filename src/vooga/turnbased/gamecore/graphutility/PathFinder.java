@@ -66,13 +66,22 @@ public abstract class PathFinder {
      */
     public void executeSearch () {
         if (mySize == null) { return; }
-        List<Point> path = searchPath();
+        acceptPath(searchPath());
+    }
+
+    /**
+     * take on a path found for the current task, as executeSearch does with
+     * the path it finds; for subclasses whose paths are found elsewhere
+     * 
+     * @param path the path found, empty if there is none
+     */
+    protected void acceptPath (List<Point> path) {
         if (!path.isEmpty()) {
             if (myIsMultiDestination) {
                 myPath.addAll(path);
             }
             else {
-                myPath = path;
+                myPath = new ArrayList<Point>(path);
                 myPathIndex = 0;
             }
             myIsHighlighted = false;
@@ -134,6 +143,15 @@ public abstract class PathFinder {
         myIsMultiDestination = false;
     }
 
+    /**
+     * whether multi-Destination functionality is active
+     * 
+     * @return true if new paths are added to the end of the current one
+     */
+    protected boolean isMultiDestination () {
+        return myIsMultiDestination;
+    }
+
     /**
      * whether there is no path found
      * 
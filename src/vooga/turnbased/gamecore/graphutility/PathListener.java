@@ -0,0 +1,16 @@
+package vooga.turnbased.gamecore.graphutility;
+
+/**
+ * Told when a path asked of a PathPlanningService has been planned.
+ *
+ */
+public interface PathListener {
+
+    /**
+     * Called on the thread that ticks the service, the tick after the
+     * request was made.
+     *
+     * @param request the request, whose path is now set
+     */
+    public void pathPlanned (PathRequest request);
+}
@@ -0,0 +1,205 @@
+package vooga.turnbased.gamecore.graphutility;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import util.concurrent.SharedPool;
+import util.instrumentation.Counter;
+import util.instrumentation.MetricsRegistry;
+import vooga.turnbased.gui.GamePane;
+
+
+/**
+ * Plans paths for many moving objects at once, off the game thread.
+ * <p>
+ * The game calls deliver at the start of each tick and submit at the end.
+ * Requests made during a tick are planned together once it calls submit:
+ * they are grouped by target, and each group is planned on a shared
+ * fork-join pool against a snapshot of the obstacles, so the game can change
+ * the map meanwhile. At the start of the next tick, deliver hands the paths
+ * to the requests' listeners on the game thread, in the order they were
+ * asked for.
+ * <p>
+ * A target asked for by SHARED_FIELD_REQUESTS or more requests gets one
+ * DistanceField that all of them follow, so a crowd of objects chasing the
+ * same tile costs about one search; a target asked for once gets an A*
+ * search.
+ *
+ */
+public class PathPlanningService {
+
+    /**
+     * Number of requests for the same target from which they share a
+     * DistanceField rather than searching one by one.
+     */
+    public static final int SHARED_FIELD_REQUESTS = 2;
+
+    private final ForkJoinPool myPool;
+    private final ThreadLocal<AStarSearch> mySearches = new ThreadLocal<AStarSearch>();
+    private List<PathRequest> myQueued = new ArrayList<PathRequest>();
+    private List<PathRequest> myPlanning = new ArrayList<PathRequest>();
+    private final List<PlanningJob> myJobs = new ArrayList<PlanningJob>();
+    private final Counter myRequestCount = MetricsRegistry.getDefault()
+            .counter(GamePane.METRICS_NAME + ".pathRequests");
+    private final Counter mySearchCount = MetricsRegistry.getDefault()
+            .counter(GamePane.METRICS_NAME + ".pathSearches");
+
+    /**
+     * constructor of a service planning on the engine's SharedPool
+     */
+    public PathPlanningService () {
+        this(SharedPool.get());
+    }
+
+    /**
+     * constructor
+     *
+     * @param pool the pool paths are planned on
+     */
+    public PathPlanningService (ForkJoinPool pool) {
+        myPool = pool;
+    }
+
+    /**
+     * ask for a path, to be planned at the end of this tick and delivered at
+     * the start of the next one
+     *
+     * @param start the starting point
+     * @param target the ending point
+     * @param listener told when the path is delivered, or null
+     * @return the request, which holds the path once delivered
+     */
+    public PathRequest request (Point start, Point target, PathListener listener) {
+        PathRequest request = new PathRequest(start, target, listener);
+        synchronized (this) {
+            myQueued.add(request);
+        }
+        return request;
+    }
+
+    /**
+     * Called by the game thread at the end of each tick: starts planning the
+     * requests made since the last call.
+     *
+     * @param obstacles the obstacles of the map, as they are now
+     */
+    public void submit (ObstacleGrid obstacles) {
+        List<PathRequest> batch;
+        synchronized (this) {
+            if (myQueued.isEmpty()) { return; }
+            batch = myQueued;
+            myQueued = new ArrayList<PathRequest>();
+        }
+        ObstacleGrid snapshot = obstacles.snapshot();
+        Map<Point, List<PathRequest>> byTarget = new LinkedHashMap<Point, List<PathRequest>>();
+        for (PathRequest request : batch) {
+            List<PathRequest> group = byTarget.get(request.getTarget());
+            if (group == null) {
+                group = new ArrayList<PathRequest>();
+                byTarget.put(request.getTarget(), group);
+            }
+            group.add(request);
+        }
+        for (Map.Entry<Point, List<PathRequest>> group : byTarget.entrySet()) {
+            PlanningJob job = new PlanningJob(snapshot, group.getKey(), group.getValue());
+            myPool.execute(job);
+            myJobs.add(job);
+        }
+        myPlanning.addAll(batch);
+        myRequestCount.add(batch.size());
+        mySearchCount.add(byTarget.size());
+    }
+
+    /**
+     * Called by the game thread at the start of each tick: delivers the
+     * paths submitted since the last call, waiting for any still being
+     * planned. A group whose planning failed is delivered empty paths, and
+     * the failure is then thrown, once.
+     */
+    public void deliver () {
+        List<PlanningJob> jobs = new ArrayList<PlanningJob>(myJobs);
+        myJobs.clear();
+        List<PathRequest> planned = myPlanning;
+        myPlanning = new ArrayList<PathRequest>();
+        RuntimeException failure = null;
+        for (PlanningJob job : jobs) {
+            try {
+                job.join();
+            }
+            catch (RuntimeException e) {
+                job.fail();
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        for (PathRequest request : planned) {
+            request.deliver();
+        }
+        if (failure != null) { throw failure; }
+    }
+
+    /**
+     * @return the A* search of the current worker thread, set up for the
+     *         obstacles
+     */
+    private AStarSearch getSearch (ObstacleGrid obstacles) {
+        AStarSearch search = mySearches.get();
+        if (search == null || !search.hasSize(obstacles.getWidth(), obstacles.getHeight())) {
+            search = new AStarSearch(new Dimension(obstacles.getWidth(),
+                                                  obstacles.getHeight()),
+                                     obstacles, false);
+            mySearches.set(search);
+        }
+        search.setObstacles(obstacles);
+        return search;
+    }
+
+    /**
+     * Plans the paths of the requests for one target.
+     */
+    private class PlanningJob extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final ObstacleGrid myObstacles;
+        private final Point myTarget;
+        private final List<PathRequest> myRequests;
+
+        public PlanningJob (ObstacleGrid obstacles, Point target, List<PathRequest> requests) {
+            myObstacles = obstacles;
+            myTarget = target;
+            myRequests = requests;
+        }
+
+        @Override
+        protected void compute () {
+            if (myRequests.size() >= SHARED_FIELD_REQUESTS) {
+                DistanceField field = new DistanceField(myObstacles, myTarget);
+                for (PathRequest request : myRequests) {
+                    request.setPath(field.getPath(request.getStart()));
+                }
+            }
+            else {
+                AStarSearch search = getSearch(myObstacles);
+                for (PathRequest request : myRequests) {
+                    search.findPath(request.getStart(), myTarget);
+                    request.setPath(search.getPath());
+                }
+            }
+        }
+
+        /**
+         * give every request of the group an empty path
+         */
+        public void fail () {
+            for (PathRequest request : myRequests) {
+                request.setPath(Collections.<Point> emptyList());
+            }
+        }
+    }
+}
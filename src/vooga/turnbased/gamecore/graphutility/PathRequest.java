@@ -0,0 +1,75 @@
+package vooga.turnbased.gamecore.graphutility;
+
+import java.awt.Point;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * A path asked of a PathPlanningService, from a start to a target tile.
+ *
+ */
+public class PathRequest {
+
+    private final Point myStart;
+    private final Point myTarget;
+    private final PathListener myListener;
+    private volatile List<Point> myPath;
+    private volatile boolean myIsDelivered;
+
+    /**
+     * constructor
+     *
+     * @param start the starting point
+     * @param target the ending point
+     * @param listener told when the path is delivered, or null
+     */
+    PathRequest (Point start, Point target, PathListener listener) {
+        myStart = new Point(start);
+        myTarget = new Point(target);
+        myListener = listener;
+    }
+
+    public Point getStart () {
+        return myStart;
+    }
+
+    public Point getTarget () {
+        return myTarget;
+    }
+
+    /**
+     * @return true once the path has been delivered
+     */
+    public boolean isDelivered () {
+        return myIsDelivered;
+    }
+
+    /**
+     * get the path planned
+     *
+     * @return unmodifiable list of Points that traces the path, not including
+     *         the start; empty list if no path was found; null until the path
+     *         is delivered
+     */
+    public List<Point> getPath () {
+        return myIsDelivered ? myPath : null;
+    }
+
+    /**
+     * set by the worker that planned the path
+     */
+    void setPath (List<Point> path) {
+        myPath = Collections.unmodifiableList(path);
+    }
+
+    /**
+     * deliver the path, on the thread ticking the service
+     */
+    void deliver () {
+        myIsDelivered = true;
+        if (myListener != null) {
+            myListener.pathPlanned(this);
+        }
+    }
+}
@@ -32,7 +32,6 @@ public abstract class PathSearch {
         myEnd = end;
         mySize = size;
         myPath = new ArrayList<Point>();
-        myVisited = new boolean[mySize.width][mySize.height];
     }
 
     /**
@@ -55,7 +54,7 @@ public abstract class PathSearch {
      * @return true if the (x, y) position is already visited
      */
     public boolean checkVisited (int x, int y) {
-        if (myVisited[x][y]) { return true; }
+        if (getVisited()[x][y]) { return true; }
         // mark visited if the node has not yet been visited
         markVisited(x, y);
         return false;
@@ -68,7 +67,20 @@ public abstract class PathSearch {
      * @param y y-coordinate
      */
     protected void markVisited (int x, int y) {
-        myVisited[x][y] = true;
+        getVisited()[x][y] = true;
+    }
+
+    /**
+     * the visited table is only made when first used, since searches that
+     * keep their own do not need it
+     * 
+     * @return the table of visited positions
+     */
+    private boolean[][] getVisited () {
+        if (myVisited == null) {
+            myVisited = new boolean[mySize.width][mySize.height];
+        }
+        return myVisited;
     }
 
     /**
@@ -6,6 +6,7 @@ import java.awt.Point;
 import java.util.List;
 import java.util.Set;
 import vooga.turnbased.gamecore.gamemodes.MapMode;
+import vooga.turnbased.gamecore.graphutility.FlowField;
 import vooga.turnbased.gui.GamePane;
 
 
@@ -179,6 +180,14 @@ public class MapMovingObject extends MapObject {
      */
     public void setMoving (boolean b) {
         myIsMoving = b;
+        if (b) {
+            wake();
+        }
+    }
+
+    @Override
+    public boolean canSleep () {
+        return !isMoving();
     }
 
     /**
@@ -233,6 +242,18 @@ public class MapMovingObject extends MapObject {
         return tryMove(direction);
     }
 
+    /**
+     * Attempt one step along a flow field, towards its target
+     * 
+     * @param field the flow field to follow
+     * @return if the movement was successful; false if the object is at the
+     *         target or too far from it
+     */
+    public boolean tryStepAlong (FlowField field) {
+        Point next = field.getNextStep(getLocation());
+        return next != null && tryMoveTo(next);
+    }
+
     /**
      * carry out the movement of this MovingMapObject to destination
      * 
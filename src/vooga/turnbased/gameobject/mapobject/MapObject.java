@@ -26,6 +26,16 @@ public class MapObject extends GameObject {
     private boolean myIsVisible;
     private MapMode myMapMode;
 
+    // where the object is in a TileGrid, which links objects on a tile
+    TileGrid myTileGrid;
+    int myTile;
+    int myTilePass;
+    MapObject myNextOnTile;
+    MapObject myPreviousOnTile;
+    // the UpdateScheduler the object is awake in, and the one listing it
+    UpdateScheduler myScheduler;
+    UpdateScheduler myListedIn;
+
     /**
      * Creates the MapObject that will be used in MapMode.
      * 
@@ -100,6 +110,7 @@ public class MapObject extends GameObject {
      */
     public void setLocation (Point location) {
         myLocation = location;
+        wake();
     }
 
     /**
@@ -133,6 +144,28 @@ public class MapObject extends GameObject {
      */
     public void setVisible (boolean b) {
         myIsVisible = b;
+        wake();
+    }
+
+    /**
+     * Asks the MapMode to update this object every tick until it can sleep
+     * again. Called whenever something about the object changes.
+     */
+    public void wake () {
+        if (myMapMode != null) {
+            myMapMode.wake(this);
+        }
+    }
+
+    /**
+     * Whether the object has nothing to do until something wakes it. Objects
+     * that sleep are only updated while they are in view. Subclasses that
+     * change over time should return false while they do.
+     * 
+     * @return true if the object can stop being updated every tick
+     */
+    public boolean canSleep () {
+        return true;
     }
 
     /**
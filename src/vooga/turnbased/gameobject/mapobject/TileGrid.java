@@ -0,0 +1,322 @@
+package vooga.turnbased.gameobject.mapobject;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * The MapObjects on each tile of a map, in one array slot per tile. Each
+ * tile's objects form a linked list through fields of the objects
+ * themselves, so adding, moving and removing an object allocates nothing,
+ * and neither does walking a tile with a Cursor. Objects placed outside the
+ * map are kept in one extra list, reached by Cursor.startOffMap.
+ * <p>
+ * An object can be on one tile of one grid at a time. A removed object keeps
+ * its link to the object after it, so a cursor that was about to visit it
+ * can still carry on along the tile.
+ *
+ */
+public class TileGrid {
+
+    private static final List<MapObject> EMPTY_TILE = Collections.emptyList();
+
+    private final int myWidth;
+    private final int myHeight;
+    private final int myOffMapTile;
+    private final MapObject[] myHeads;
+    private final int[] myCounts;
+    private final TileView[] myViews;
+    private int myPass;
+
+    /**
+     * constructor
+     *
+     * @param size size of the map in tiles
+     */
+    public TileGrid (Dimension size) {
+        myWidth = size.width;
+        myHeight = size.height;
+        myOffMapTile = myWidth * myHeight;
+        myHeads = new MapObject[myOffMapTile + 1];
+        myCounts = new int[myOffMapTile + 1];
+        myViews = new TileView[myOffMapTile];
+    }
+
+    /**
+     * add an object on a tile, moving it there if it is already on the grid
+     *
+     * @param p the tile
+     * @param m the object
+     */
+    public void add (Point p, MapObject m) {
+        if (m.myTileGrid == this) {
+            unlink(m);
+        }
+        int tile = tileOf(p.x, p.y);
+        MapObject head = myHeads[tile];
+        m.myTileGrid = this;
+        m.myTile = tile;
+        m.myPreviousOnTile = null;
+        m.myNextOnTile = head;
+        if (head != null) {
+            head.myPreviousOnTile = m;
+        }
+        myHeads[tile] = m;
+        myCounts[tile]++;
+    }
+
+    /**
+     * move an object on the grid to another tile
+     *
+     * @param m the object
+     * @param p the tile
+     */
+    public void move (MapObject m, Point p) {
+        add(p, m);
+    }
+
+    /**
+     * remove an object from the grid
+     *
+     * @param m the object
+     * @return true if it was on the grid
+     */
+    public boolean remove (MapObject m) {
+        if (m.myTileGrid != this) { return false; }
+        unlink(m);
+        m.myTileGrid = null;
+        return true;
+    }
+
+    /**
+     * @return true if the object is on this grid
+     */
+    public boolean contains (MapObject m) {
+        return m.myTileGrid == this;
+    }
+
+    /**
+     * whether an object is on the grid at a tile
+     *
+     * @param m the object
+     * @param p the tile
+     * @return true if the object is on that tile
+     */
+    public boolean isOnTile (MapObject m, Point p) {
+        return m.myTileGrid == this && m.myTile == tileOf(p.x, p.y);
+    }
+
+    /**
+     * get the tile an object is on
+     *
+     * @param m the object
+     * @return the tile, or null if the object is not on the grid or is off
+     *         the map
+     */
+    public Point getTile (MapObject m) {
+        if (m.myTileGrid != this || m.myTile == myOffMapTile) { return null; }
+        return new Point(m.myTile % myWidth, m.myTile / myWidth);
+    }
+
+    /**
+     * take an object out of its tile's list, leaving its link to the next
+     * object for cursors that are about to visit it
+     */
+    private void unlink (MapObject m) {
+        int tile = m.myTile;
+        if (m.myPreviousOnTile == null) {
+            myHeads[tile] = m.myNextOnTile;
+        }
+        else {
+            m.myPreviousOnTile.myNextOnTile = m.myNextOnTile;
+        }
+        if (m.myNextOnTile != null) {
+            m.myNextOnTile.myPreviousOnTile = m.myPreviousOnTile;
+        }
+        m.myPreviousOnTile = null;
+        myCounts[tile]--;
+    }
+
+    /**
+     * get the objects on a tile
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return an unmodifiable live view of the objects on the tile; the same
+     *         empty list for every empty tile or tile off the map
+     */
+    public List<MapObject> getObjects (int x, int y) {
+        if (!isOnMap(x, y)) { return EMPTY_TILE; }
+        int tile = y * myWidth + x;
+        if (myHeads[tile] == null) { return EMPTY_TILE; }
+        if (myViews[tile] == null) {
+            myViews[tile] = new TileView(tile);
+        }
+        return myViews[tile];
+    }
+
+    /**
+     * whether a tile is on the map
+     *
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return true if the tile is on the map
+     */
+    public boolean isOnMap (int x, int y) {
+        return x >= 0 && y >= 0 && x < myWidth && y < myHeight;
+    }
+
+    public int getWidth () {
+        return myWidth;
+    }
+
+    public int getHeight () {
+        return myHeight;
+    }
+
+    /**
+     * start a new pass over the objects of the grid, such as an update, in
+     * which each object should be visited once even if it moves to a tile
+     * that is still to be visited
+     */
+    public void startPass () {
+        myPass++;
+    }
+
+    /**
+     * mark an object as visited in the current pass
+     *
+     * @param m the object
+     * @return false if it was visited already
+     */
+    public boolean markVisited (MapObject m) {
+        if (m.myTilePass == myPass) { return false; }
+        m.myTilePass = myPass;
+        return true;
+    }
+
+    private int tileOf (int x, int y) {
+        return isOnMap(x, y) ? y * myWidth + x : myOffMapTile;
+    }
+
+    /**
+     * @return a new cursor for walking tiles of this grid
+     */
+    public Cursor newCursor () {
+        return new Cursor();
+    }
+
+    /**
+     * Walks the objects of one tile at a time. The object last returned may
+     * be moved or removed before asking for the next one. Each thread
+     * walking the grid should have its own cursor.
+     */
+    public final class Cursor {
+        private int myCursorTile;
+        private MapObject myNext;
+
+        private Cursor () {
+            myCursorTile = -1;
+        }
+
+        /**
+         * start walking a tile
+         *
+         * @param x x-coordinate
+         * @param y y-coordinate
+         * @return this cursor
+         */
+        public Cursor start (int x, int y) {
+            if (isOnMap(x, y)) {
+                return startTile(y * myWidth + x);
+            }
+            myCursorTile = -1;
+            myNext = null;
+            return this;
+        }
+
+        /**
+         * start walking the objects placed off the map
+         *
+         * @return this cursor
+         */
+        public Cursor startOffMap () {
+            return startTile(myOffMapTile);
+        }
+
+        private Cursor startTile (int tile) {
+            myCursorTile = tile;
+            myNext = myHeads[tile];
+            return this;
+        }
+
+        /**
+         * @return the next object on the tile, or null if there are no more
+         */
+        public MapObject next () {
+            MapObject m = myNext;
+            while (m != null && (m.myTileGrid != TileGrid.this || m.myTile != myCursorTile)) {
+                m = m.myNextOnTile;
+            }
+            myNext = (m == null) ? null : m.myNextOnTile;
+            return m;
+        }
+    }
+
+    /**
+     * A read-only view of the objects on one tile.
+     */
+    private class TileView extends AbstractList<MapObject> {
+        private final int myTile;
+
+        public TileView (int tile) {
+            myTile = tile;
+        }
+
+        @Override
+        public int size () {
+            return myCounts[myTile];
+        }
+
+        @Override
+        public MapObject get (int index) {
+            MapObject m = myHeads[myTile];
+            for (int i = 0; i < index && m != null; i++) {
+                m = m.myNextOnTile;
+            }
+            if (index < 0 || m == null) { throw new IndexOutOfBoundsException("" + index); }
+            return m;
+        }
+
+        @Override
+        public Iterator<MapObject> iterator () {
+            final Cursor cursor = new Cursor().startTile(myTile);
+            return new Iterator<MapObject>() {
+                private MapObject myNextObject = cursor.next();
+
+                @Override
+                public boolean hasNext () {
+                    return myNextObject != null;
+                }
+
+                @Override
+                public MapObject next () {
+                    if (myNextObject == null) { throw new NoSuchElementException(); }
+                    MapObject m = myNextObject;
+                    myNextObject = cursor.next();
+                    return m;
+                }
+
+                @Override
+                public void remove () {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+}
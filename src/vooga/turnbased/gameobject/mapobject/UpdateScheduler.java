@@ -0,0 +1,92 @@
+package vooga.turnbased.gameobject.mapobject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The MapObjects of a map that are awake, i.e. need updating every tick
+ * whether or not they are in view. Objects are woken by whatever changes
+ * them, on any thread, and put to sleep by the update pass once they have
+ * nothing more to do, so the cost of a pass follows the number of objects
+ * that are doing something rather than the size of the map.
+ * <p>
+ * Objects woken during a pass are updated from the next pass on. An object
+ * is awake in at most one scheduler.
+ *
+ */
+public class UpdateScheduler {
+
+    private final List<MapObject> myAwake = new ArrayList<MapObject>();
+    private final List<MapObject> myWoken = new ArrayList<MapObject>();
+
+    /**
+     * wake an object, so it is updated in every pass until it sleeps
+     *
+     * @param m the object
+     */
+    public synchronized void wake (MapObject m) {
+        if (m.myScheduler != this) {
+            m.myScheduler = this;
+            myWoken.add(m);
+        }
+    }
+
+    /**
+     * put an object to sleep, so it is no longer updated every pass
+     *
+     * @param m the object
+     */
+    public synchronized void sleep (MapObject m) {
+        if (m.myScheduler == this) {
+            m.myScheduler = null;
+        }
+    }
+
+    /**
+     * @return true if the object is awake in this scheduler
+     */
+    public synchronized boolean isAwake (MapObject m) {
+        return m.myScheduler == this;
+    }
+
+    /**
+     * start a pass: drop the objects that went to sleep and take in the ones
+     * that were woken since the last pass. Called by the updating thread.
+     *
+     * @return the number of awake objects, to be read with getAwake
+     */
+    public synchronized int startPass () {
+        int kept = 0;
+        for (int i = 0; i < myAwake.size(); i++) {
+            MapObject m = myAwake.get(i);
+            if (m.myScheduler == this) {
+                myAwake.set(kept++, m);
+            }
+            else {
+                m.myListedIn = null;
+            }
+        }
+        for (int i = myAwake.size() - 1; i >= kept; i--) {
+            myAwake.remove(i);
+        }
+        for (MapObject m : myWoken) {
+            if (m.myScheduler == this && m.myListedIn != this) {
+                m.myListedIn = this;
+                myAwake.add(m);
+            }
+        }
+        myWoken.clear();
+        return myAwake.size();
+    }
+
+    /**
+     * get an awake object of the current pass
+     *
+     * @param i index, below the count returned by startPass
+     * @return the object
+     */
+    public MapObject getAwake (int i) {
+        return myAwake.get(i);
+    }
+}
@@ -1,5 +1,6 @@
 package vooga.turnbased.gui;
 
+import java.awt.AWTEvent;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
@@ -9,6 +10,10 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import util.input.journal.InputJournal;
+import util.instrumentation.MetricsOverlay;
+import util.instrumentation.MetricsRegistry;
+import util.instrumentation.PhaseTimer;
 import vooga.turnbased.gamecore.GameLoop;
 import vooga.turnbased.gamecore.GameManager;
 
@@ -25,6 +30,17 @@ public class GamePane extends DisplayPane implements Runnable, GameLoop {
 	public static final int MOUSE_RELEASED = 1;
 	public static final int MOUSE_DRAGGED = 2;
 	public static final int MOUSE_CLICKED = 3;
+	/**
+	 * Name under which the game loop records metrics.
+	 */
+	public static final String METRICS_NAME = "turnbased";
+	private static final int UPDATE_PHASE = 0;
+	private static final int PAINT_PHASE = 1;
+	private final PhaseTimer myTimer = MetricsRegistry.getDefault()
+			.phaseTimer(METRICS_NAME, "update", "paint");
+	private final MetricsOverlay myOverlay = new MetricsOverlay(
+			MetricsRegistry.getDefault(), METRICS_NAME);
+	private InputJournal myInputJournal = InputJournal.passThrough();
 	private GameManager myGameManager;
 	private Thread myGameThread;
 	private static int delayBetweenGameLoopCycles;
@@ -41,12 +57,16 @@ public class GamePane extends DisplayPane implements Runnable, GameLoop {
 				.importString("Delay"));
 		initMouseListener();
 		enableFocus();
+		myOverlay.attach(this);
 	}
 
 	/**
-	 * initialize properties when user switch to game
+	 * initialize properties when user switch to game; each game gets its own
+	 * input journal, so a recording starts with the game it belongs to
 	 */
 	public void initialize() {
+		myInputJournal.close();
+		myInputJournal = InputJournal.fromSystemProperties();
 		myGameManager = new GameManager(this, getGameWindow().getXmlPath());
 		myGameThread = new Thread(this);
 		myGameThread.setDaemon(true);
@@ -70,6 +90,7 @@ public class GamePane extends DisplayPane implements Runnable, GameLoop {
 	 */
 	@Override
 	public void paint(Graphics g) {
+		long start = System.nanoTime();
 		Image nextFrameImage = createImage(getSize().width, getSize().height);
 		Graphics nextFrameGraphics = nextFrameImage.getGraphics();
 		Graphics2D g2d = (Graphics2D) g;
@@ -77,11 +98,24 @@ public class GamePane extends DisplayPane implements Runnable, GameLoop {
 			return;
 		}
 		myGameManager.paint(nextFrameGraphics);
+		myOverlay.paint(nextFrameGraphics);
 		g2d.drawImage(nextFrameImage, 0, 0, null);
+		myTimer.record(PAINT_PHASE, start);
+	}
+
+	/**
+	 * Passes input events through the input journal, which holds them until
+	 * the next cycle of the game loop while recording or replaying
+	 */
+	@Override
+	protected void processEvent(AWTEvent e) {
+		if (!myInputJournal.intercept(e)) {
+			super.processEvent(e);
+		}
 	}
 
 	/**
-	 * main game loop
+	 * main game loop; a replayed game runs without waiting between cycles
 	 */
 	@Override
 	public void run() {
@@ -90,11 +124,15 @@ public class GamePane extends DisplayPane implements Runnable, GameLoop {
 		long sleep;
 		while (!myGameManager.isOver()) {
 			beforeTime = System.currentTimeMillis();
+			myTimer.frame();
+			long start = System.nanoTime();
+			myInputJournal.beginTick(this);
 			update();
+			myTimer.record(UPDATE_PHASE, start);
 			repaint();
 			timeDiff = System.currentTimeMillis() - beforeTime;
 			sleep = delayBetweenGameLoopCycles - timeDiff;
-			if (sleep < 0) {
+			if (sleep < 0 || myInputJournal.isReplaying()) {
 				sleep = 0;
 			}
 			try {
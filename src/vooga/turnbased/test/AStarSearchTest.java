@@ -0,0 +1,166 @@
+package vooga.turnbased.test;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Test;
+import vooga.turnbased.gamecore.graphutility.AStarSearch;
+import vooga.turnbased.gamecore.graphutility.ObstacleGrid;
+
+
+/**
+ * Checks that paths found by AStarSearch, with and without diagonal steps,
+ * are valid and cost exactly as much as the cheapest path found by a
+ * brute-force search of the whole grid.
+ *
+ */
+public class AStarSearchTest {
+
+    private static final Dimension SIZE = new Dimension(20, 20);
+    private static final double OBSTACLE_RATE = 0.25;
+    private static final int GRIDS = 20;
+    private static final int QUERIES = 100;
+    private static final int STRAIGHT_COST = 10;
+    private static final int DIAGONAL_COST = 14;
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final long SEED = 308;
+
+    @Test
+    public void testDiagonalPathsAreCheapest () {
+        checkAgainstBruteForce(true);
+    }
+
+    @Test
+    public void testStraightPathsAreCheapest () {
+        checkAgainstBruteForce(false);
+    }
+
+    @Test
+    public void testDiagonalStepsDoNotCutCorners () {
+        ObstacleGrid obstacles = new ObstacleGrid(SIZE);
+        obstacles.add(new Point(1, 0));
+        AStarSearch search = new AStarSearch(SIZE, obstacles, true);
+        // (0, 0) to (1, 1) would cut past (1, 0), so only one step is diagonal
+        Assert.assertTrue(search.findPath(new Point(0, 0), new Point(2, 2)));
+        assertIsPath(obstacles, new Point(0, 0), search.getPath(), true);
+        Assert.assertEquals(2 * STRAIGHT_COST + DIAGONAL_COST,
+                            cost(new Point(0, 0), search.getPath()));
+    }
+
+    private void checkAgainstBruteForce (boolean allowsDiagonal) {
+        Random random = new Random(SEED);
+        for (int g = 0; g < GRIDS; g++) {
+            ObstacleGrid obstacles = new ObstacleGrid(SIZE);
+            for (int x = 0; x < SIZE.width; x++) {
+                for (int y = 0; y < SIZE.height; y++) {
+                    if (random.nextDouble() < OBSTACLE_RATE) {
+                        obstacles.add(new Point(x, y));
+                    }
+                }
+            }
+            // one search is reused for every query, as the game does
+            AStarSearch search = new AStarSearch(SIZE, obstacles, allowsDiagonal);
+            for (int q = 0; q < QUERIES; q++) {
+                Point start = freeTile(obstacles, random);
+                Point end = freeTile(obstacles, random);
+                int expected = cheapestCost(obstacles, start, allowsDiagonal)[index(end)];
+                boolean found = search.findPath(start, end);
+                if (start.equals(end)) {
+                    continue;
+                }
+                Assert.assertEquals(expected != UNREACHABLE, found);
+                if (found) {
+                    assertIsPath(obstacles, start, search.getPath(), allowsDiagonal);
+                    Assert.assertEquals(expected, cost(start, search.getPath()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Dijkstra's algorithm over every tile, picking the cheapest open tile by
+     * a linear scan.
+     */
+    private static int[] cheapestCost (ObstacleGrid obstacles, Point start,
+            boolean allowsDiagonal) {
+        int tiles = SIZE.width * SIZE.height;
+        int[] costs = new int[tiles];
+        boolean[] done = new boolean[tiles];
+        Arrays.fill(costs, UNREACHABLE);
+        costs[index(start)] = 0;
+        while (true) {
+            int best = -1;
+            for (int i = 0; i < tiles; i++) {
+                if (!done[i] && costs[i] != UNREACHABLE && (best < 0 || costs[i] < costs[best])) {
+                    best = i;
+                }
+            }
+            if (best < 0) { return costs; }
+            done[best] = true;
+            Point from = new Point(best % SIZE.width, best / SIZE.width);
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    Point to = new Point(from.x + dx, from.y + dy);
+                    if (isStep(obstacles, from, to, allowsDiagonal)) {
+                        int cost = costs[best] + stepCost(from, to);
+                        if (cost < costs[index(to)]) {
+                            costs[index(to)] = cost;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isStep (ObstacleGrid obstacles, Point from, Point to,
+            boolean allowsDiagonal) {
+        int dx = Math.abs(to.x - from.x);
+        int dy = Math.abs(to.y - from.y);
+        if (dx > 1 || dy > 1 || dx + dy == 0 || !isFree(obstacles, to)) { return false; }
+        if (dx + dy == 1) { return true; }
+        return allowsDiagonal && isFree(obstacles, new Point(to.x, from.y))
+               && isFree(obstacles, new Point(from.x, to.y));
+    }
+
+    private static void assertIsPath (ObstacleGrid obstacles, Point start, List<Point> path,
+            boolean allowsDiagonal) {
+        Point from = start;
+        for (Point to : path) {
+            Assert.assertTrue(from + " to " + to, isStep(obstacles, from, to, allowsDiagonal));
+            from = to;
+        }
+    }
+
+    private static int cost (Point start, List<Point> path) {
+        int cost = 0;
+        Point from = start;
+        for (Point to : path) {
+            cost += stepCost(from, to);
+            from = to;
+        }
+        return cost;
+    }
+
+    private static int stepCost (Point from, Point to) {
+        return (from.x != to.x && from.y != to.y) ? DIAGONAL_COST : STRAIGHT_COST;
+    }
+
+    private static boolean isFree (ObstacleGrid obstacles, Point p) {
+        return obstacles.contains(p.x, p.y) && !obstacles.isBlocked(p.x, p.y);
+    }
+
+    private static int index (Point p) {
+        return p.y * SIZE.width + p.x;
+    }
+
+    private static Point freeTile (ObstacleGrid obstacles, Random random) {
+        Point p;
+        do {
+            p = new Point(random.nextInt(SIZE.width), random.nextInt(SIZE.height));
+        } while (obstacles.isBlocked(p.x, p.y));
+        return p;
+    }
+}
@@ -0,0 +1,108 @@
+package vooga.turnbased.test;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.turnbased.gamecore.graphutility.DistanceField;
+import vooga.turnbased.gamecore.graphutility.FlowField;
+import vooga.turnbased.gamecore.graphutility.ObstacleGrid;
+
+
+/**
+ * Checks that a FlowField kept up to date as its target and the obstacles
+ * change agrees with a DistanceField made from scratch, cut off at the
+ * radius.
+ *
+ */
+public class FlowFieldTest {
+
+    private static final Dimension SIZE = new Dimension(90, 70);
+    private static final int RADIUS = 20;
+    private static final int OBSTACLES = 1500;
+    private static final int CHANGES = 300;
+    private static final long SEED = 308;
+
+    private ObstacleGrid myObstacles;
+    private FlowField myField;
+    private Random myRandom;
+
+    @Before
+    public void setUp () throws Exception {
+        myRandom = new Random(SEED);
+        myObstacles = new ObstacleGrid(SIZE);
+        for (int i = 0; i < OBSTACLES; i++) {
+            myObstacles.add(randomTile());
+        }
+        myField = new FlowField(myObstacles, RADIUS);
+    }
+
+    @Test
+    public void testMatchesDistanceField () throws Exception {
+        Point target = new Point(SIZE.width / 2, SIZE.height / 2);
+        for (int i = 0; i < CHANGES; i++) {
+            switch (myRandom.nextInt(3)) {
+                case 0:
+                    target = new Point(clamp(target.x + myRandom.nextInt(3) - 1, SIZE.width),
+                                       clamp(target.y + myRandom.nextInt(3) - 1, SIZE.height));
+                    break;
+                case 1:
+                    myObstacles.add(randomTile());
+                    break;
+                default:
+                    myObstacles.remove(randomTile());
+                    break;
+            }
+            myField.setTarget(target);
+            assertMatches(new DistanceField(myObstacles, target));
+        }
+    }
+
+    @Test
+    public void testFarChangesAreIgnored () throws Exception {
+        myField.setTarget(new Point(10, 10));
+        myField.update();
+        int searches = myField.getSearchCount();
+        myObstacles.add(new Point(10 + RADIUS, 11));
+        myObstacles.add(new Point(80, 60));
+        myField.update();
+        Assert.assertEquals(searches, myField.getSearchCount());
+        myObstacles.add(new Point(11, 10));
+        myField.update();
+        Assert.assertEquals(searches + 1, myField.getSearchCount());
+        myField.detach();
+        myObstacles.remove(new Point(11, 10));
+        myField.update();
+        Assert.assertEquals(searches + 1, myField.getSearchCount());
+    }
+
+    private void assertMatches (DistanceField expected) {
+        for (int x = 0; x < SIZE.width; x++) {
+            for (int y = 0; y < SIZE.height; y++) {
+                int distance = expected.getDistance(x, y);
+                if (distance > RADIUS) {
+                    distance = FlowField.UNREACHABLE;
+                }
+                Assert.assertEquals(distance, myField.getDistance(x, y));
+                Point next = myField.getNextStep(new Point(x, y));
+                if (distance > 0) {
+                    Assert.assertNotNull(next);
+                    Assert.assertEquals(distance - 1, expected.getDistance(next.x, next.y));
+                }
+                else {
+                    Assert.assertNull(next);
+                }
+            }
+        }
+    }
+
+    private static int clamp (int value, int size) {
+        return Math.max(0, Math.min(size - 1, value));
+    }
+
+    private Point randomTile () {
+        return new Point(myRandom.nextInt(SIZE.width), myRandom.nextInt(SIZE.height));
+    }
+}
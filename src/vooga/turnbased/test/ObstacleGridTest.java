@@ -0,0 +1,88 @@
+package vooga.turnbased.test;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.turnbased.gamecore.graphutility.ObstacleGrid;
+import vooga.turnbased.gamecore.graphutility.ObstacleListener;
+
+
+/**
+ * Checks the snapshots and listeners of an ObstacleGrid.
+ *
+ */
+public class ObstacleGridTest {
+
+    private ObstacleGrid myGrid;
+    private List<Point> myChanges;
+
+    @Before
+    public void setUp () throws Exception {
+        myGrid = new ObstacleGrid(new Dimension(10, 8));
+        myChanges = new ArrayList<Point>();
+        myGrid.addListener(new ObstacleListener() {
+            @Override
+            public void obstacleChanged (int x, int y) {
+                myChanges.add(new Point(x, y));
+            }
+        });
+    }
+
+    @Test
+    public void testSnapshotDoesNotChange () throws Exception {
+        myGrid.add(new Point(2, 3));
+        ObstacleGrid snapshot = myGrid.snapshot();
+        Assert.assertSame(snapshot, myGrid.snapshot());
+        myGrid.remove(new Point(2, 3));
+        myGrid.add(new Point(5, 5));
+        Assert.assertTrue(snapshot.isBlocked(2, 3));
+        Assert.assertFalse(snapshot.isBlocked(5, 5));
+        Assert.assertNotSame(snapshot, myGrid.snapshot());
+        Assert.assertTrue(myGrid.snapshot().isBlocked(5, 5));
+    }
+
+    @Test
+    public void testFrozenGridRejectsChanges () throws Exception {
+        ObstacleGrid snapshot = myGrid.snapshot();
+        Assert.assertSame(snapshot, snapshot.snapshot());
+        try {
+            snapshot.add(new Point(1, 1));
+            Assert.fail("added to a snapshot");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            snapshot.remove(new Point(1, 1));
+            Assert.fail("removed from a snapshot");
+        }
+        catch (UnsupportedOperationException e) {
+            // expected
+        }
+        Assert.assertFalse(snapshot.isBlocked(1, 1));
+    }
+
+    @Test
+    public void testOnlyChangedTilesNotifyListeners () throws Exception {
+        Point tile = new Point(4, 4);
+        myGrid.add(tile);
+        myGrid.add(tile);
+        myGrid.remove(tile);
+        Assert.assertEquals(1, myChanges.size());
+        myGrid.remove(tile);
+        myGrid.remove(tile);
+        Assert.assertEquals(2, myChanges.size());
+        Assert.assertEquals(tile, myChanges.get(0));
+        Assert.assertEquals(tile, myChanges.get(1));
+        myGrid.add(new Point(-1, 4));
+        myGrid.add(new Point(10, 0));
+        Assert.assertEquals(2, myChanges.size());
+        myGrid.move(new Point(9, 9), new Point(1, 2));
+        Assert.assertEquals(3, myChanges.size());
+        Assert.assertEquals(new Point(1, 2), myChanges.get(2));
+    }
+}
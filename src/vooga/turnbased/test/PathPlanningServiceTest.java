@@ -0,0 +1,142 @@
+package vooga.turnbased.test;
+
+import java.awt.Dimension;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import vooga.turnbased.gamecore.graphutility.AStarSearch;
+import vooga.turnbased.gamecore.graphutility.DistanceField;
+import vooga.turnbased.gamecore.graphutility.ObstacleGrid;
+import vooga.turnbased.gamecore.graphutility.PathListener;
+import vooga.turnbased.gamecore.graphutility.PathPlanningService;
+import vooga.turnbased.gamecore.graphutility.PathRequest;
+
+
+/**
+ * Checks that paths planned by a PathPlanningService, whether from a shared
+ * DistanceField or an A* search, are as short as those found by A* on the
+ * game thread, and that they are delivered in order on the next tick.
+ *
+ */
+public class PathPlanningServiceTest {
+
+    private static final Dimension SIZE = new Dimension(80, 60);
+    private static final int OBSTACLES = 1500;
+    private static final int REQUESTS = 200;
+    private static final long SEED = 308;
+
+    private ObstacleGrid myObstacles;
+    private Random myRandom;
+
+    @Before
+    public void setUp () throws Exception {
+        myRandom = new Random(SEED);
+        myObstacles = new ObstacleGrid(SIZE);
+        for (int i = 0; i < OBSTACLES; i++) {
+            myObstacles.add(randomTile());
+        }
+    }
+
+    @Test
+    public void testDistanceFieldMatchesAStar () throws Exception {
+        Point target = freeTile();
+        DistanceField field = new DistanceField(myObstacles, target);
+        AStarSearch search = new AStarSearch(SIZE, myObstacles, false);
+        for (int x = 0; x < SIZE.width; x++) {
+            for (int y = 0; y < SIZE.height; y++) {
+                if (myObstacles.isBlocked(x, y)) {
+                    continue;
+                }
+                Point start = new Point(x, y);
+                boolean found = search.findPath(start, target);
+                List<Point> path = field.getPath(start);
+                Assert.assertEquals(search.getPath().size(), path.size());
+                Assert.assertEquals(found || start.equals(target),
+                                    field.getDistance(x, y) != DistanceField.UNREACHABLE);
+                assertIsPath(start, path);
+            }
+        }
+    }
+
+    @Test
+    public void testPlannedPathsMatchAStar () throws Exception {
+        PathPlanningService planner = new PathPlanningService();
+        Point shared = freeTile();
+        List<PathRequest> requests = new ArrayList<PathRequest>();
+        for (int i = 0; i < REQUESTS; i++) {
+            Point target = (i % 3 == 0) ? randomTile() : shared;
+            requests.add(planner.request(freeTile(), target, null));
+        }
+        planner.submit(myObstacles);
+        // the planners read a snapshot, so this change must not show
+        Point changed = freeTile();
+        myObstacles.add(changed);
+        planner.deliver();
+        myObstacles.remove(changed);
+        AStarSearch search = new AStarSearch(SIZE, myObstacles, false);
+        for (PathRequest request : requests) {
+            search.findPath(request.getStart(), request.getTarget());
+            Assert.assertEquals(search.getPath().size(), request.getPath().size());
+            assertIsPath(request.getStart(), request.getPath());
+        }
+    }
+
+    @Test
+    public void testRequestsAreDeliveredInOrderOnTheNextTick () throws Exception {
+        PathPlanningService planner = new PathPlanningService();
+        final List<PathRequest> delivered = new ArrayList<PathRequest>();
+        PathListener listener = new PathListener() {
+            @Override
+            public void pathPlanned (PathRequest request) {
+                delivered.add(request);
+            }
+        };
+        Point[] targets = { freeTile(), freeTile(), freeTile() };
+        List<PathRequest> requests = new ArrayList<PathRequest>();
+        for (int i = 0; i < 7; i++) {
+            requests.add(planner.request(freeTile(), targets[i * 2 % targets.length], listener));
+        }
+        planner.deliver();
+        Assert.assertTrue(delivered.isEmpty());
+        planner.submit(myObstacles);
+        PathRequest late = planner.request(freeTile(), targets[0], listener);
+        Assert.assertTrue(delivered.isEmpty());
+        Assert.assertNull(requests.get(0).getPath());
+        planner.deliver();
+        Assert.assertEquals(requests, delivered);
+        for (PathRequest request : requests) {
+            Assert.assertTrue(request.isDelivered());
+            Assert.assertNotNull(request.getPath());
+        }
+        Assert.assertFalse(late.isDelivered());
+        planner.submit(myObstacles);
+        planner.deliver();
+        Assert.assertTrue(late.isDelivered());
+        Assert.assertEquals(requests.size() + 1, delivered.size());
+    }
+
+    private void assertIsPath (Point start, List<Point> path) {
+        Point previous = start;
+        for (Point p : path) {
+            Assert.assertEquals(1, Math.abs(p.x - previous.x) + Math.abs(p.y - previous.y));
+            Assert.assertFalse(myObstacles.isBlocked(p.x, p.y));
+            previous = p;
+        }
+    }
+
+    private Point randomTile () {
+        return new Point(myRandom.nextInt(SIZE.width), myRandom.nextInt(SIZE.height));
+    }
+
+    private Point freeTile () {
+        Point p = randomTile();
+        while (myObstacles.isBlocked(p.x, p.y)) {
+            p = randomTile();
+        }
+        return p;
+    }
+}